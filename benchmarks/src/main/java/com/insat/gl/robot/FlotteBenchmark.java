@@ -0,0 +1,93 @@
+package com.insat.gl.robot;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Microbenchmarks des opérations sur une flotte, pour plusieurs tailles de flotte.
+ * Les robots sont répartis aléatoirement (graine fixe) sur une carte dont la surface croît avec la flotte.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FlotteBenchmark {
+    private static final int NB_POINTS = 1024;
+
+    @Param({"1000", "100000"})
+    int tailleFlotte;
+
+    private RobotFleet flotte;
+    private RobotLivraison[] robots;
+    private String[] ids;
+    private int[] pointsX;
+    private int[] pointsY;
+    private int suivant;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        Random aleatoire = new Random(42);
+        int cote = (int) Math.sqrt(tailleFlotte) * 20;
+        flotte = new RobotFleet();
+        robots = new RobotLivraison[tailleFlotte];
+        ids = new String[tailleFlotte];
+        for (int i = 0; i < tailleFlotte; i++) {
+            ids[i] = "R" + i;
+            robots[i] = new RobotLivraison(ids[i], aleatoire.nextInt(cote), aleatoire.nextInt(cote));
+            robots[i].setCapaciteHistorique(16);
+            robots[i].tenterDemarrer();
+            flotte.ajouter(robots[i]);
+        }
+        pointsX = new int[NB_POINTS];
+        pointsY = new int[NB_POINTS];
+        for (int i = 0; i < NB_POINTS; i++) {
+            pointsX[i] = aleatoire.nextInt(cote);
+            pointsY[i] = aleatoire.nextInt(cote);
+        }
+    }
+
+    @Benchmark
+    public RobotLivraison rechercheParId() {
+        suivant = (suivant + 1) % tailleFlotte;
+        return flotte.get(ids[suivant]);
+    }
+
+    @Benchmark
+    public List<RobotLivraison> plusProchesDisponibles() {
+        suivant = (suivant + 1) & (NB_POINTS - 1);
+        return flotte.getIndexSpatial().plusProchesDisponibles(pointsX[suivant], pointsY[suivant], 5);
+    }
+
+    /**
+     * Déplacement d'un robot de la flotte, index spatial et ensembles d'état compris.
+     */
+    @Benchmark
+    public ResultatAction deplacerDansFlotte() {
+        suivant = (suivant + 1) % tailleFlotte;
+        RobotLivraison robot = robots[suivant];
+        int pas = (robot.getHeuresUtilisation() & 1) == 0 ? 5 : -5;
+        ResultatAction resultat = robot.tenterDeplacer(robot.getX() + pas, robot.getY());
+        if (robot.getEnergie() < 20) {
+            robot.recharger(100);
+        }
+        if (robot.isMaintenanceRequise()) {
+            robot.effectuerMaintenance();
+        }
+        return resultat;
+    }
+}
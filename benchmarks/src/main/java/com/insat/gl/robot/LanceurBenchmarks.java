@@ -0,0 +1,34 @@
+package com.insat.gl.robot;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Point d'entrée de {@code benchmarks.jar}. Accepte les options habituelles de JMH
+ * (filtre de benchmarks, {@code -p longueurHistorique=1000}, {@code -f}, {@code -wi}...),
+ * ajoute toujours le profileur d'allocation ({@code gc}) et, sauf option contraire,
+ * écrit les résultats en JSON dans {@value #RESULTATS_PAR_DEFAUT} pour servir de référence.
+ */
+public final class LanceurBenchmarks {
+    public static final String RESULTATS_PAR_DEFAUT = "jmh-resultats.json";
+
+    private LanceurBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions ligneCommande = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(ligneCommande);
+        options.addProfiler(GCProfiler.class);
+        if (!ligneCommande.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!ligneCommande.getResult().hasValue()) {
+            options.result(RESULTATS_PAR_DEFAUT);
+        }
+        new Runner(options.build()).run();
+    }
+}
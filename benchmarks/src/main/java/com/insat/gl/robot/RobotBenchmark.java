@@ -0,0 +1,85 @@
+package com.insat.gl.robot;
+
+import com.insat.gl.robot.exceptions.RobotException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Microbenchmarks des opérations d'un robot, pour plusieurs longueurs d'historique.
+ * Placé dans le paquetage des robots pour mesurer aussi les méthodes protégées
+ * ({@code consommerEnergie}, {@code ajouterHistorique}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RobotBenchmark {
+    @Param({"16", "1000", "10000"})
+    int longueurHistorique;
+
+    private RobotLivraison robot;
+    private boolean aller;
+
+    @Setup(Level.Iteration)
+    public void preparer() throws RobotException {
+        robot = new RobotLivraison("BENCH-1", 0, 0);
+        robot.setCapaciteHistorique(longueurHistorique);
+        robot.demarrer();
+        for (int i = 0; i < longueurHistorique; i++) {
+            robot.ajouterHistorique("Préchauffage " + i);
+        }
+    }
+
+    /**
+     * Aller-retour de 10 unités ; la recharge et la maintenance, rares, sont incluses dans la mesure.
+     */
+    @Benchmark
+    public int deplacer() throws RobotException {
+        aller = !aller;
+        robot.deplacer(aller ? 10 : 0, 0);
+        if (robot.getEnergie() < 20) {
+            robot.recharger(100);
+        }
+        if (robot.isMaintenanceRequise()) {
+            robot.effectuerMaintenance();
+        }
+        return robot.getX();
+    }
+
+    @Benchmark
+    public int consommerEnergie() {
+        robot.consommerEnergie(1);
+        if (robot.getEnergie() == 0) {
+            robot.recharger(100);
+        }
+        return robot.getEnergie();
+    }
+
+    @Benchmark
+    public void ajouterHistorique() {
+        robot.ajouterHistorique("Action de référence");
+    }
+
+    @Benchmark
+    public String getHistorique() {
+        return robot.getHistorique();
+    }
+
+    @Benchmark
+    public String toStringRobot() {
+        return robot.toString();
+    }
+}
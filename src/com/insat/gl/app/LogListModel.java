@@ -0,0 +1,260 @@
+package com.insat.gl.app;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import javax.swing.AbstractListModel;
+
+/**
+ * Modèle du journal de {@link SimulationGUI}, affiché par une JList qui ne dessine que les lignes visibles.
+ * Les lignes sont conservées dans un tampon circulaire borné : au-delà de la capacité, les plus anciennes
+ * sont oubliées. Elles peuvent être ajoutées depuis n'importe quel thread ({@link #append}) mais ne
+ * rejoignent le modèle que lors de {@link #flush()}, sur le thread Swing, en un seul événement par lot.
+ * <p>
+ * Le filtre (robot, sévérité minimale) ne copie pas les lignes : il tient un second tampon circulaire
+ * des positions des lignes retenues, mis à jour au fil des ajouts et des oublis.
+ */
+class LogListModel extends AbstractListModel<String> {
+    public enum Severity {
+        INFO, WARNING, ERROR
+    }
+
+    private final int capacity;
+    private final String[] messages;
+    private final String[] robotIds;
+    private final Severity[] severities;
+    private int start;
+    private int size;
+
+    private final int[] filteredSlots;
+    private int filteredStart;
+    private int filteredSize;
+    private String robotFilter;
+    private Severity minSeverity = Severity.INFO;
+
+    private final ConcurrentLinkedQueue<Entry> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructeur pour LogListModel.
+     * @param capacity Le nombre maximal de lignes conservées.
+     */
+    LogListModel(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacité du journal doit être strictement positive : " + capacity);
+        }
+        this.capacity = capacity;
+        this.messages = new String[capacity];
+        this.robotIds = new String[capacity];
+        this.severities = new Severity[capacity];
+        this.filteredSlots = new int[capacity];
+    }
+
+    /**
+     * Ajoute une ligne au prochain lot. Utilisable depuis n'importe quel thread.
+     * @param severity La sévérité de la ligne.
+     * @param robotId L'identifiant du robot concerné, ou null.
+     * @param message Le texte de la ligne.
+     */
+    public void append(Severity severity, String robotId, String message) {
+        pending.add(new Entry(severity, robotId, message));
+    }
+
+    /**
+     * @param severity La sévérité des lignes.
+     * @param robotId L'identifiant du robot concerné, ou null.
+     * @return Une destination de texte qui ajoute chaque ligne terminée par '\n' au prochain lot,
+     *         par exemple pour {@link com.insat.gl.robot.Robot#exporterHistorique}.
+     */
+    public Appendable lineWriter(Severity severity, String robotId) {
+        return new Appendable() {
+            private final StringBuilder line = new StringBuilder();
+
+            @Override
+            public Appendable append(CharSequence csq) {
+                return append(csq, 0, csq.length());
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    append(csq.charAt(i));
+                }
+                return this;
+            }
+
+            @Override
+            public Appendable append(char c) {
+                if (c == '\n') {
+                    LogListModel.this.append(severity, robotId, line.toString());
+                    line.setLength(0);
+                } else {
+                    line.append(c);
+                }
+                return this;
+            }
+        };
+    }
+
+    /**
+     * Intègre au modèle les lignes en attente, sur le thread Swing.
+     * @return Le nombre de lignes intégrées.
+     */
+    public int flush() {
+        Entry entry = pending.poll();
+        if (entry == null) {
+            return 0;
+        }
+        int sizeBefore = getSize();
+        int removed = 0;
+        int added = 0;
+        do {
+            if (size == capacity && evictOldest()) {
+                removed++;
+            }
+            int slot = (start + size) % capacity;
+            messages[slot] = entry.message;
+            robotIds[slot] = entry.robotId;
+            severities[slot] = entry.severity;
+            size++;
+            if (isFiltered() && matches(slot)) {
+                filteredSlots[(filteredStart + filteredSize) % capacity] = slot;
+                filteredSize++;
+            }
+            added++;
+        } while ((entry = pending.poll()) != null);
+
+        int removedBefore = Math.min(removed, sizeBefore);
+        int survivors = sizeBefore - removedBefore;
+        if (removedBefore > 0) {
+            fireIntervalRemoved(this, 0, removedBefore - 1);
+        }
+        if (getSize() > survivors) {
+            fireIntervalAdded(this, survivors, getSize() - 1);
+        }
+        return added;
+    }
+
+    /**
+     * Oublie la ligne la plus ancienne.
+     * @return true si elle était affichée.
+     */
+    private boolean evictOldest() {
+        int slot = start;
+        messages[slot] = null;
+        robotIds[slot] = null;
+        severities[slot] = null;
+        start = (start + 1) % capacity;
+        size--;
+        if (!isFiltered()) {
+            return true;
+        }
+        // Les positions filtrées sont dans l'ordre des lignes : la plus ancienne ne peut être qu'en tête
+        if (filteredSize > 0 && filteredSlots[filteredStart] == slot) {
+            filteredStart = (filteredStart + 1) % capacity;
+            filteredSize--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Filtre les lignes affichées. Les positions retenues sont recalculées en un parcours du tampon.
+     * @param robotId L'identifiant du robot dont afficher les lignes, ou null pour tous les robots.
+     * @param severity La sévérité minimale des lignes affichées.
+     */
+    public void setFilter(String robotId, Severity severity) {
+        int sizeBefore = getSize();
+        robotFilter = robotId;
+        minSeverity = severity;
+        filteredStart = 0;
+        filteredSize = 0;
+        if (isFiltered()) {
+            for (int i = 0; i < size; i++) {
+                int slot = (start + i) % capacity;
+                if (matches(slot)) {
+                    filteredSlots[filteredSize++] = slot;
+                }
+            }
+        }
+        if (sizeBefore > 0) {
+            fireIntervalRemoved(this, 0, sizeBefore - 1);
+        }
+        if (getSize() > 0) {
+            fireIntervalAdded(this, 0, getSize() - 1);
+        }
+    }
+
+    /**
+     * Oublie toutes les lignes conservées ; les lignes en attente seront intégrées au prochain lot.
+     */
+    public void clear() {
+        int sizeBefore = getSize();
+        while (size > 0) {
+            evictOldest();
+        }
+        start = 0;
+        filteredStart = 0;
+        filteredSize = 0;
+        if (sizeBefore > 0) {
+            fireIntervalRemoved(this, 0, sizeBefore - 1);
+        }
+    }
+
+    private boolean isFiltered() {
+        return robotFilter != null || minSeverity != Severity.INFO;
+    }
+
+    private boolean matches(int slot) {
+        return severities[slot].compareTo(minSeverity) >= 0 && (robotFilter == null || robotFilter.equals(robotIds[slot]));
+    }
+
+    private int slot(int index) {
+        if (index < 0 || index >= getSize()) {
+            throw new IndexOutOfBoundsException("Index " + index + " hors du journal (taille " + getSize() + ").");
+        }
+        return isFiltered() ? filteredSlots[(filteredStart + index) % capacity] : (start + index) % capacity;
+    }
+
+    @Override
+    public int getSize() {
+        return isFiltered() ? filteredSize : size;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return messages[slot(index)];
+    }
+
+    /**
+     * @param index La position de la ligne dans la vue filtrée.
+     * @return La sévérité de la ligne.
+     */
+    public Severity getSeverityAt(int index) {
+        return severities[slot(index)];
+    }
+
+    // Getters
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return Le nombre de lignes conservées, filtrées ou non.
+     */
+    public int getTotalSize() {
+        return size;
+    }
+
+    /**
+     * Ligne en attente d'intégration.
+     */
+    private static final class Entry {
+        private final Severity severity;
+        private final String robotId;
+        private final String message;
+
+        private Entry(Severity severity, String robotId, String message) {
+            this.severity = severity;
+            this.robotId = robotId;
+            this.message = message;
+        }
+    }
+}
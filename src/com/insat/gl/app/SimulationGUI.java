@@ -1,35 +1,100 @@
 package com.insat.gl.app;
 
+import com.insat.gl.robot.ActeursRobots;
+import com.insat.gl.robot.EtatRobot;
+import com.insat.gl.robot.InstantaneFlotte;
+import com.insat.gl.robot.ObservateurRobot;
+import com.insat.gl.robot.Robot;
+import com.insat.gl.robot.RobotFleet;
 import com.insat.gl.robot.RobotLivraison;
+import com.insat.gl.robot.TacheRobot;
+import com.insat.gl.robot.TypeEvenement;
 import com.insat.gl.robot.exceptions.RobotException;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import javax.swing.*;
 
 /**
  * Interface graphique Swing pour la simulation de robots de livraison.
+ * Le thread Swing ne fait que lire les champs et construire les commandes : les actions des robots
+ * s'exécutent dans leurs boîtes aux lettres ({@link ActeursRobots}), les sauvegardes et l'historique
+ * sur le pool commun. Les résultats sont publiés dans le journal ({@link LogListModel}) et un indicateur de
+ * rafraîchissement, consommés une fois par image ({@value #REFRESH_PERIOD_MS} ms) : un seul lot ajouté
+ * au journal, une mise à jour des contrôles et un repaint des zones modifiées de la carte, quel que soit
+ * le nombre de commandes.
  */
 public class SimulationGUI extends JFrame {
-
-    private JTextArea logTextArea;
+    private static final int REFRESH_PERIOD_MS = 16;
+    private static final int LOG_CAPACITY = 10_000;
+
+    private final LogListModel logModel = new LogListModel(LOG_CAPACITY);
+    private JList<String> logList;
+    private JScrollPane logScrollPane;
+    private JTextField logRobotFilterField;
+    private JComboBox<LogListModel.Severity> logSeverityFilter;
     private JTextField robotIdField, posXField, posYField, destXField, destYField, colisField, destField, reseauField, rechargeField;
     private JButton createRobotButton, startRobotButton, stopRobotButton, chargeColisButton, lancerLivraisonButton, connecterButton, deconnecterButton, rechargerButton, afficherHistoriqueButton;
+    private JButton saveFleetButton, loadFleetButton;
+    private JFileChooser snapshotChooser;
     private JPanel controlPanel, robotPanel, mapPanel;
     private JComboBox<String> robotSelector;
     private JLabel carbonEmissionLabel;
 
-    private List<RobotLivraison> robots;
+    private RobotFleet flotte;
     private RobotLivraison selectedRobot;
     private SimulationMap simulationMap;
 
+    private final ActeursRobots acteurs = new ActeursRobots();
+    private final AtomicBoolean refreshRequested = new AtomicBoolean();
+    private final ObservateurRobot refreshOnChange = new ObservateurRobot() {
+        @Override
+        public void etatModifie(Robot robot) {
+            simulationMap.markDirty(robot.getX(), robot.getY());
+            requestRefresh();
+        }
+
+        @Override
+        public void positionModifiee(Robot robot, int ancienX, int ancienY) {
+            simulationMap.markDirty(ancienX, ancienY);
+            simulationMap.markDirty(robot.getX(), robot.getY());
+            requestRefresh();
+        }
+
+        @Override
+        public void evenementAjoute(Robot robot, TypeEvenement type) {
+            // L'énergie affichée baisse aussi sans changement d'état ni de position, par exemple à l'envoi de données
+            if (type == TypeEvenement.ENERGIE_CONSOMMEE) {
+                simulationMap.markDirty(robot.getX(), robot.getY());
+                requestRefresh();
+            }
+        }
+    };
+
     public SimulationGUI() {
         super("Simulation de Robots de Livraison");
-        robots = new ArrayList<>();
+        flotte = new RobotFleet();
         initComponents();
         setSize(1000, 700);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
+
+        Timer refreshTimer = new Timer(REFRESH_PERIOD_MS, e -> flushPendingUpdates());
+        refreshTimer.setCoalesce(true);
+        refreshTimer.start();
     }
 
     private void initComponents() {
@@ -41,18 +106,13 @@ public class SimulationGUI extends JFrame {
 
         JPanel centerPanel = new JPanel(new GridLayout(1, 2, 5, 5));
 
-        simulationMap = new SimulationMap(robots);
+        simulationMap = new SimulationMap(flotte);
         mapPanel = new JPanel(new BorderLayout());
         mapPanel.setBorder(BorderFactory.createTitledBorder("Carte de Simulation"));
         mapPanel.add(simulationMap, BorderLayout.CENTER);
         centerPanel.add(mapPanel);
 
-        logTextArea = new JTextArea();
-        logTextArea.setEditable(false);
-        logTextArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
-        JScrollPane logScrollPane = new JScrollPane(logTextArea);
-        logScrollPane.setBorder(BorderFactory.createTitledBorder("Logs et Historique"));
-        centerPanel.add(logScrollPane);
+        centerPanel.add(createLogPanel());
 
         add(centerPanel, BorderLayout.CENTER);
 
@@ -66,6 +126,54 @@ public class SimulationGUI extends JFrame {
         updateRobotControlsState();
     }
 
+    /**
+     * Journal affiché par une JList : seules les lignes visibles sont dessinées. La ligne prototype fixe
+     * la hauteur et la largeur des cellules, pour que la liste n'ait pas à mesurer toutes les lignes.
+     */
+    private JPanel createLogPanel() {
+        logList = new JList<>(logModel);
+        logList.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        logList.setPrototypeCellValue("X".repeat(160));
+        logList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                if (!isSelected) {
+                    LogListModel.Severity severity = logModel.getSeverityAt(index);
+                    setForeground(severity == LogListModel.Severity.ERROR ? Color.RED
+                            : severity == LogListModel.Severity.WARNING ? Color.ORANGE.darker() : list.getForeground());
+                }
+                return this;
+            }
+        });
+        logScrollPane = new JScrollPane(logList);
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.add(new JLabel("Robot:"));
+        logRobotFilterField = new JTextField(5);
+        logRobotFilterField.addActionListener(e -> applyLogFilter());
+        filterPanel.add(logRobotFilterField);
+        filterPanel.add(new JLabel("Sévérité min.:"));
+        logSeverityFilter = new JComboBox<>(LogListModel.Severity.values());
+        logSeverityFilter.addActionListener(e -> applyLogFilter());
+        filterPanel.add(logSeverityFilter);
+        JButton clearLogButton = new JButton("Effacer");
+        clearLogButton.addActionListener(e -> logModel.clear());
+        filterPanel.add(clearLogButton);
+
+        JPanel logPanel = new JPanel(new BorderLayout());
+        logPanel.setBorder(BorderFactory.createTitledBorder("Logs et Historique"));
+        logPanel.add(filterPanel, BorderLayout.NORTH);
+        logPanel.add(logScrollPane, BorderLayout.CENTER);
+        return logPanel;
+    }
+
+    private void applyLogFilter() {
+        String robotId = logRobotFilterField.getText().trim();
+        logModel.setFilter(robotId.isEmpty() ? null : robotId, (LogListModel.Severity) logSeverityFilter.getSelectedItem());
+        logList.ensureIndexIsVisible(logModel.getSize() - 1);
+    }
+
     private void createRobotInputs() {
         controlPanel.add(new JLabel("ID:"));
         robotIdField = new JTextField("R", 3);
@@ -81,6 +189,14 @@ public class SimulationGUI extends JFrame {
         createRobotButton.addActionListener(e -> createRobot());
         controlPanel.add(createRobotButton);
 
+        saveFleetButton = new JButton("Sauvegarder Flotte");
+        saveFleetButton.addActionListener(e -> saveFleet());
+        controlPanel.add(saveFleetButton);
+
+        loadFleetButton = new JButton("Charger Flotte");
+        loadFleetButton.addActionListener(e -> loadFleet());
+        controlPanel.add(loadFleetButton);
+
         controlPanel.add(new JSeparator(SwingConstants.VERTICAL));
 
         controlPanel.add(new JLabel("Sélectionner Robot:"));
@@ -158,9 +274,56 @@ public class SimulationGUI extends JFrame {
         robotPanel.add(line5);
     }
 
+    /**
+     * Ajoute une ligne d'information générale au journal.
+     */
     private void log(String message) {
-        logTextArea.append(message + "\n");
-        logTextArea.setCaretPosition(logTextArea.getDocument().getLength());
+        log(LogListModel.Severity.INFO, null, message);
+    }
+
+    /**
+     * Ajoute une ligne au journal. Utilisable depuis n'importe quel thread : la ligne est affichée
+     * au prochain rafraîchissement.
+     * @param robotId Le robot concerné, pour le filtre du journal, ou null.
+     */
+    private void log(LogListModel.Severity severity, String robotId, String message) {
+        logModel.append(severity, robotId, message);
+        requestRefresh();
+    }
+
+    /**
+     * Demande un rafraîchissement à la prochaine image. Appelée à chaque mouvement des robots observés :
+     * l'indicateur n'est écrit que s'il n'est pas déjà levé.
+     */
+    private void requestRefresh() {
+        if (!refreshRequested.get()) {
+            refreshRequested.set(true);
+        }
+    }
+
+    /**
+     * Appelée par le timer Swing : publie en une fois les lignes de journal et les changements d'état
+     * accumulés depuis l'image précédente.
+     */
+    private void flushPendingUpdates() {
+        if (!refreshRequested.getAndSet(false)) {
+            return;
+        }
+        JScrollBar scrollBar = logScrollPane.getVerticalScrollBar();
+        boolean followTail = scrollBar.getValue() + scrollBar.getVisibleAmount() >= scrollBar.getMaximum();
+        if (logModel.flush() > 0 && followTail) {
+            logList.ensureIndexIsVisible(logModel.getSize() - 1);
+        }
+        updateRobotControlsState();
+        simulationMap.repaintDirtyRegions();
+    }
+
+    private void showError(String message, String title) {
+        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, message, title, JOptionPane.ERROR_MESSAGE));
+    }
+
+    private static Throwable unwrap(Throwable erreur) {
+        return erreur instanceof CompletionException && erreur.getCause() != null ? erreur.getCause() : erreur;
     }
 
     private void createRobot() {
@@ -170,34 +333,98 @@ public class SimulationGUI extends JFrame {
                 JOptionPane.showMessageDialog(this, "L'ID du robot ne peut pas être vide.", "Erreur", JOptionPane.ERROR_MESSAGE);
                 return;
             }
-            for (RobotLivraison r : robots) {
-                if (r.getId().equals(id)) {
-                    JOptionPane.showMessageDialog(this, "L'ID du robot existe déjà.", "Erreur", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
+            if (flotte.contient(id)) {
+                JOptionPane.showMessageDialog(this, "L'ID du robot existe déjà.", "Erreur", JOptionPane.ERROR_MESSAGE);
+                return;
             }
 
             int x = Integer.parseInt(posXField.getText());
             int y = Integer.parseInt(posYField.getText());
 
             RobotLivraison newRobot = new RobotLivraison(id, x, y);
-            robots.add(newRobot);
-            log("Robot créé: " + newRobot);
-            updateRobotSelector();
+            if (!flotte.ajouter(newRobot)) {
+                JOptionPane.showMessageDialog(this, "L'ID du robot existe déjà.", "Erreur", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            newRobot.ajouterObservateur(refreshOnChange);
+            log(LogListModel.Severity.INFO, id, "Robot créé: " + newRobot);
+            robotSelector.addItem(id);
             robotSelector.setSelectedItem(id);
-            simulationMap.repaint();
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this, "Position X et Y doivent être des nombres entiers.", "Erreur de Format", JOptionPane.ERROR_MESSAGE);
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, "Erreur lors de la création du robot: " + ex.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
-            log("Erreur création: " + ex.getMessage());
+            log(LogListModel.Severity.ERROR, null, "Erreur création: " + ex.getMessage());
+        }
+    }
+
+    private JFileChooser getSnapshotChooser() {
+        if (snapshotChooser == null) {
+            snapshotChooser = new JFileChooser();
+            snapshotChooser.setDialogTitle("Instantané de flotte");
+        }
+        return snapshotChooser;
+    }
+
+    private void saveFleet() {
+        if (getSnapshotChooser().showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = snapshotChooser.getSelectedFile();
+        RobotFleet fleet = flotte;
+        CompletableFuture.runAsync(() -> {
+            try {
+                InstantaneFlotte.enregistrer(fleet.getRobots(), file.toPath());
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }).whenComplete((v, erreur) -> {
+            if (erreur == null) {
+                log("Flotte sauvegardée (" + fleet.taille() + " robots) dans " + file);
+            } else {
+                String message = unwrap(erreur).getMessage();
+                showError("Erreur lors de la sauvegarde: " + message, "Erreur");
+                log(LogListModel.Severity.ERROR, null, "Erreur sauvegarde: " + message);
+            }
+        });
+    }
+
+    private void loadFleet() {
+        if (getSnapshotChooser().showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
         }
+        File file = snapshotChooser.getSelectedFile();
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                RobotFleet restoredFleet = new RobotFleet();
+                InstantaneFlotte.ouvrir(file.toPath()).restaurer(restoredFleet);
+                for (RobotLivraison robot : restoredFleet.getRobots()) {
+                    robot.ajouterObservateur(refreshOnChange);
+                }
+                return restoredFleet;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }).whenComplete((restoredFleet, erreur) -> {
+            if (erreur == null) {
+                SwingUtilities.invokeLater(() -> {
+                    flotte = restoredFleet;
+                    simulationMap.setRobots(restoredFleet);
+                    updateRobotSelector();
+                    log("Flotte chargée (" + restoredFleet.taille() + " robots) depuis " + file);
+                });
+            } else {
+                String message = unwrap(erreur).getMessage();
+                showError("Erreur lors du chargement: " + message, "Erreur");
+                log(LogListModel.Severity.ERROR, null, "Erreur chargement: " + message);
+            }
+        });
     }
 
     private void updateRobotSelector() {
         String previouslySelected = (String) robotSelector.getSelectedItem();
         robotSelector.removeAllItems();
-        for (RobotLivraison robot : robots) {
+        for (RobotLivraison robot : flotte.getRobots()) {
             robotSelector.addItem(robot.getId());
         }
         if (previouslySelected != null) {
@@ -208,34 +435,24 @@ public class SimulationGUI extends JFrame {
 
     private void selectRobot() {
         String selectedId = (String) robotSelector.getSelectedItem();
-        selectedRobot = null;
-        if (selectedId != null) {
-            for (RobotLivraison robot : robots) {
-                if (robot.getId().equals(selectedId)) {
-                    selectedRobot = robot;
-                    break;
-                }
-            }
-        }
+        selectedRobot = selectedId != null ? flotte.get(selectedId) : null;
         updateRobotControlsState();
         simulationMap.setSelectedRobot(selectedRobot);
         simulationMap.repaint();
         if (selectedRobot != null) {
-            log("Robot sélectionné: " + selectedRobot.getId());
-            carbonEmissionLabel.setText(String.format("CO2 Émis: %.2fg", selectedRobot.getTotalCarbonEmitted()));
-        } else {
-            carbonEmissionLabel.setText("CO2 Émis: N/A");
+            log(LogListModel.Severity.INFO, selectedRobot.getId(), "Robot sélectionné: " + selectedRobot.getId());
         }
     }
 
     private void updateRobotControlsState() {
-        boolean robotIsSelected = (selectedRobot != null);
-        startRobotButton.setEnabled(robotIsSelected && !selectedRobot.isEnMarche());
-        stopRobotButton.setEnabled(robotIsSelected && selectedRobot.isEnMarche());
-        chargeColisButton.setEnabled(robotIsSelected && selectedRobot.isEnMarche() && !selectedRobot.isEnLivraison());
-        lancerLivraisonButton.setEnabled(robotIsSelected && selectedRobot.isEnMarche());
-        connecterButton.setEnabled(robotIsSelected && selectedRobot.isEnMarche() && !selectedRobot.isConnecte());
-        deconnecterButton.setEnabled(robotIsSelected && selectedRobot.isEnMarche() && selectedRobot.isConnecte());
+        EtatRobot etat = selectedRobot != null ? selectedRobot.instantane() : null;
+        boolean robotIsSelected = (etat != null);
+        startRobotButton.setEnabled(robotIsSelected && !etat.isEnMarche());
+        stopRobotButton.setEnabled(robotIsSelected && etat.isEnMarche());
+        chargeColisButton.setEnabled(robotIsSelected && etat.isEnMarche() && !etat.isEnLivraison());
+        lancerLivraisonButton.setEnabled(robotIsSelected && etat.isEnMarche());
+        connecterButton.setEnabled(robotIsSelected && etat.isEnMarche() && !etat.isConnecte());
+        deconnecterButton.setEnabled(robotIsSelected && etat.isEnMarche() && etat.isConnecte());
         rechargerButton.setEnabled(robotIsSelected);
         afficherHistoriqueButton.setEnabled(robotIsSelected);
 
@@ -247,64 +464,74 @@ public class SimulationGUI extends JFrame {
         rechargeField.setEnabled(robotIsSelected);
 
         if (robotIsSelected) {
-            carbonEmissionLabel.setText(String.format("CO2 Émis: %.2fg", selectedRobot.getTotalCarbonEmitted()));
+            carbonEmissionLabel.setText(String.format("CO2 Émis: %.2fg", etat.getTotalCarbonEmitted()));
         } else {
             carbonEmissionLabel.setText("CO2 Émis: N/A");
         }
     }
 
-    private void handleRobotAction(Runnable action) {
+    /**
+     * Construit la commande à partir des champs (sur le thread Swing) et la dépose dans la boîte
+     * aux lettres du robot sélectionné. Le résultat est publié par {@link #robotActionCompleted}.
+     * @param command Lit les champs et retourne la commande, ou null si la saisie a déjà été refusée.
+     */
+    private void handleRobotAction(Supplier<TacheRobot> command) {
         if (selectedRobot == null) {
             JOptionPane.showMessageDialog(this, "Aucun robot sélectionné.", "Erreur", JOptionPane.ERROR_MESSAGE);
             return;
         }
+        TacheRobot tache;
         try {
-            action.run();
-            log("Action réussie pour le robot " + selectedRobot.getId());
-            log(selectedRobot.toString());
-            updateRobotControlsState();
-            simulationMap.repaint();
+            tache = command.get();
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this, "Veuillez entrer des nombres valides pour les coordonnées ou la recharge.", "Erreur de Format", JOptionPane.ERROR_MESSAGE);
-            log("Erreur Format: " + ex.getMessage());
-        } catch (RuntimeException ex) {
-            if (ex.getCause() instanceof RobotException) {
-                RobotException robotEx = (RobotException) ex.getCause();
-                JOptionPane.showMessageDialog(this, "Erreur Robot: " + robotEx.getMessage(), "Erreur d'Action", JOptionPane.ERROR_MESSAGE);
-                log("Erreur Robot " + selectedRobot.getId() + ": " + robotEx.getMessage());
-            } else {
-                JOptionPane.showMessageDialog(this, "Erreur d'exécution: " + ex.getMessage(), "Erreur d'Exécution", JOptionPane.ERROR_MESSAGE);
-                log("Erreur Exécution: " + ex.getMessage());
-                ex.printStackTrace();
+            log(LogListModel.Severity.WARNING, selectedRobot.getId(), "Erreur Format: " + ex.getMessage());
+            return;
+        }
+        if (tache == null) {
+            return;
+        }
+        RobotLivraison robot = selectedRobot;
+        if (!acteurs.envoyer(robot, tache, (r, erreur) -> robotActionCompleted(robot, tache, erreur))) {
+            log(LogListModel.Severity.WARNING, robot.getId(), "Commande '" + tache + "' rejetée pour le robot " + robot.getId()
+                    + (acteurs.isFerme() ? " : exécution arrêtée." : " : trop de commandes en attente."));
+        }
+    }
+
+    /**
+     * Appelée par le thread qui a exécuté la commande.
+     */
+    private void robotActionCompleted(RobotLivraison robot, TacheRobot tache, Throwable erreur) {
+        if (erreur == null) {
+            log(LogListModel.Severity.INFO, robot.getId(), "Action réussie pour le robot " + robot.getId());
+            EtatRobot etat = robot.instantane();
+            log(LogListModel.Severity.INFO, robot.getId(), robot.toString());
+            if (tache.getType() == TacheRobot.Type.DEPLACER && etat.isEnLivraison()
+                    && etat.getX() == tache.getX() && etat.getY() == tache.getY()) {
+                log(LogListModel.Severity.INFO, robot.getId(), "Arrivé à destination. La livraison devrait être marquée comme terminée par le robot.");
             }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Erreur inattendue: " + ex.getMessage(), "Erreur Système", JOptionPane.ERROR_MESSAGE);
-            log("Erreur Système: " + ex.getMessage());
-            ex.printStackTrace();
+        } else if (erreur instanceof RejectedExecutionException) {
+            log(LogListModel.Severity.WARNING, robot.getId(), "Commande '" + tache + "' rejetée pour le robot " + robot.getId() + " : exécution arrêtée.");
+        } else if (erreur instanceof RobotException) {
+            showError("Erreur Robot: " + erreur.getMessage(), "Erreur d'Action");
+            log(LogListModel.Severity.ERROR, robot.getId(), "Erreur Robot " + robot.getId() + ": " + erreur.getMessage());
+        } else {
+            showError("Erreur d'exécution: " + erreur.getMessage(), "Erreur d'Exécution");
+            log(LogListModel.Severity.ERROR, robot.getId(), "Erreur Exécution: " + erreur.getMessage());
+            erreur.printStackTrace();
         }
-        updateRobotControlsState();
-        simulationMap.repaint();
     }
 
     private void startSelectedRobot() {
-        handleRobotAction(() -> {
-            try {
-                selectedRobot.demarrer();
-            } catch (RobotException e) {
-                throw new RuntimeException(e);
-            }
-        });
+        handleRobotAction(TacheRobot::demarrer);
     }
 
     private void stopSelectedRobot() {
-        handleRobotAction(() -> selectedRobot.arreter());
+        handleRobotAction(TacheRobot::arreter);
     }
 
     private void rechargeSelectedRobot() {
-        handleRobotAction(() -> {
-            int quantite = Integer.parseInt(rechargeField.getText());
-            selectedRobot.recharger(quantite);
-        });
+        handleRobotAction(() -> TacheRobot.recharger(Integer.parseInt(rechargeField.getText())));
     }
 
     private void chargeColisForSelectedRobot() {
@@ -313,13 +540,9 @@ public class SimulationGUI extends JFrame {
             String destination = destField.getText().trim();
             if (colis.isEmpty() || destination.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "Le nom du colis et la destination sont requis.", "Erreur", JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-            try {
-                selectedRobot.chargerColis(colis, destination);
-            } catch (RobotException e) {
-                throw new RuntimeException(e);
+                return null;
             }
+            return TacheRobot.charger(colis, destination);
         });
     }
 
@@ -327,15 +550,8 @@ public class SimulationGUI extends JFrame {
         handleRobotAction(() -> {
             int destX = Integer.parseInt(destXField.getText());
             int destY = Integer.parseInt(destYField.getText());
-            try {
-                log("Déplacement/Livraison vers (" + destX + "," + destY + ")");
-                selectedRobot.deplacer(destX, destY);
-                if (selectedRobot.isEnLivraison() && selectedRobot.getX() == destX && selectedRobot.getY() == destY) {
-                     log("Arrivé à destination. La livraison devrait être marquée comme terminée par le robot.");
-                }
-            } catch (RobotException e) {
-                throw new RuntimeException(e);
-            }
+            log(LogListModel.Severity.INFO, selectedRobot.getId(), "Déplacement/Livraison vers (" + destX + "," + destY + ")");
+            return TacheRobot.deplacer(destX, destY);
         });
     }
 
@@ -344,90 +560,439 @@ public class SimulationGUI extends JFrame {
             String reseau = reseauField.getText().trim();
             if (reseau.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "Le nom du réseau est requis.", "Erreur", JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-            try {
-                selectedRobot.connecter(reseau);
-            } catch (RobotException e) {
-                throw new RuntimeException(e);
+                return null;
             }
+            return TacheRobot.connecter(reseau);
         });
     }
 
     private void disconnectSelectedRobot() {
-        handleRobotAction(() -> selectedRobot.deconnecter());
+        handleRobotAction(TacheRobot::deconnecter);
     }
 
     private void showHistory() {
-        if (selectedRobot != null) {
-            log("\n--- Historique pour Robot " + selectedRobot.getId() + " ---");
-            log(selectedRobot.getHistorique());
-            log("--- Fin Historique ---\n");
-        } else {
+        if (selectedRobot == null) {
             JOptionPane.showMessageDialog(this, "Aucun robot sélectionné.", "Erreur", JOptionPane.ERROR_MESSAGE);
+            return;
         }
+        RobotLivraison robot = selectedRobot;
+        String id = robot.getId();
+        CompletableFuture.runAsync(() -> {
+            log(LogListModel.Severity.INFO, id, "--- Historique pour Robot " + id + " ---");
+            try {
+                robot.exporterHistorique(logModel.lineWriter(LogListModel.Severity.INFO, id));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            log(LogListModel.Severity.INFO, id, "--- Fin Historique ---");
+        });
     }
 
     /**
-     * Classe interne pour dessiner la carte de simulation.
+     * Carte de la simulation, avec zoom (molette, autour du curseur) et défilement (glisser) ;
+     * un double-clic rétablit la vue initiale. Un point du monde est affiché en
+     * (x - viewX) * zoom, (y - viewY) * zoom.
+     * <p>
+     * La grille est dessinée une fois dans une tuile en cache, simplement décalée lors d'un défilement.
+     * Seuls les robots de la zone à repeindre sont lus, via l'index spatial de la flotte, et les
+     * changements d'un robot ne repeignent que ses anciennes et nouvelles positions ({@link #markDirty}).
+     * En vue éloignée, ou lorsque la vue contient trop de robots, ils sont regroupés par cases de
+     * {@value #CLUSTER_PIXELS} pixels : une pastille par case, de la couleur majoritaire et d'autant
+     * plus grande que la case est peuplée.
      */
     class SimulationMap extends JPanel {
-        private List<RobotLivraison> robotsToDraw;
+        private static final int GRID_STEP = 20;
+        private static final int MIN_GRID_PIXELS = 8;
+        private static final double ZOOM_STEP = 1.25;
+        private static final double MIN_ZOOM = 0.01;
+        private static final double MAX_ZOOM = 20.0;
+        private static final double CLUSTER_ZOOM = 0.5;
+        private static final double LABEL_ZOOM = 1.0;
+        private static final int MAX_INDIVIDUAL_ROBOTS = 5_000;
+        private static final int MAX_LABELLED_ROBOTS = 500;
+        private static final int CLUSTER_PIXELS = 12;
+        private static final int LABEL_WIDTH = 60;
+        private static final int LABEL_HEIGHT = 14;
+        private static final int MAX_DIRTY_POINTS = 256;
+
+        private static final int STATE_ON = 0;
+        private static final int STATE_OFF = 1;
+        private static final int STATE_DELIVERING = 2;
+        private static final int STATE_COUNT = 3;
+        private final Color[] STATE_COLORS = {Color.GREEN, Color.GRAY, Color.ORANGE};
+
+        private RobotFleet robotsToDraw;
         private RobotLivraison selectedRobotToDraw;
         private final int PADDING = 20;
         private final int ROBOT_SIZE = 10;
 
-        public SimulationMap(List<RobotLivraison> robots) {
+        private double zoom = 1.0;
+        private double viewX = -PADDING;
+        private double viewY = -PADDING;
+
+        private BufferedImage gridTile;
+        private double gridTileStep;
+
+        private boolean clustered;
+        private boolean labelled = true;
+        private final List<RobotLivraison> visibleRobots = new ArrayList<>();
+        private final EtatRobot etat = new EtatRobot();
+        private int[] visibleX = new int[0];
+        private int[] visibleY = new int[0];
+        private byte[] visibleState = new byte[0];
+        private String[] visibleId = new String[0];
+        private int[] visibleEnergy = new int[0];
+        private int[] clusterCounts = new int[0];
+
+        private final Object dirtyLock = new Object();
+        private final int[] dirtyPoints = new int[2 * MAX_DIRTY_POINTS];
+        private int dirtyCount;
+        private boolean fullRepaintNeeded;
+
+        public SimulationMap(RobotFleet robots) {
             this.robotsToDraw = robots;
             setBackground(Color.WHITE);
+
+            MouseAdapter navigation = new MouseAdapter() {
+                private Point dragOrigin;
+
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    dragOrigin = e.getPoint();
+                }
+
+                @Override
+                public void mouseDragged(MouseEvent e) {
+                    if (dragOrigin != null) {
+                        panBy(e.getX() - dragOrigin.x, e.getY() - dragOrigin.y);
+                        dragOrigin = e.getPoint();
+                    }
+                }
+
+                @Override
+                public void mouseReleased(MouseEvent e) {
+                    dragOrigin = null;
+                }
+
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    if (e.getClickCount() == 2) {
+                        resetView();
+                    }
+                }
+
+                @Override
+                public void mouseWheelMoved(MouseWheelEvent e) {
+                    zoomAt(e.getX(), e.getY(), Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()));
+                }
+            };
+            addMouseListener(navigation);
+            addMouseMotionListener(navigation);
+            addMouseWheelListener(navigation);
+        }
+
+        public void setRobots(RobotFleet robots) {
+            this.robotsToDraw = robots;
         }
 
         public void setSelectedRobot(RobotLivraison robot) {
             this.selectedRobotToDraw = robot;
         }
 
+        /**
+         * Zoome d'un facteur donné en gardant fixe le point du monde situé sous (screenX, screenY).
+         */
+        public void zoomAt(int screenX, int screenY, double factor) {
+            double newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+            viewX += screenX / zoom - screenX / newZoom;
+            viewY += screenY / zoom - screenY / newZoom;
+            zoom = newZoom;
+            repaint();
+        }
+
+        public void panBy(int dx, int dy) {
+            viewX -= dx / zoom;
+            viewY -= dy / zoom;
+            repaint();
+        }
+
+        public void resetView() {
+            zoom = 1.0;
+            viewX = -PADDING;
+            viewY = -PADDING;
+            repaint();
+        }
+
+        /**
+         * Signale qu'un robot a été dessiné ou doit l'être au point du monde donné.
+         * Utilisable depuis n'importe quel thread ; les zones sont repeintes par {@link #repaintDirtyRegions()}.
+         * Au-delà de {@value #MAX_DIRTY_POINTS} points par image, toute la carte est repeinte.
+         */
+        public void markDirty(int worldX, int worldY) {
+            synchronized (dirtyLock) {
+                if (dirtyCount < MAX_DIRTY_POINTS) {
+                    dirtyPoints[2 * dirtyCount] = worldX;
+                    dirtyPoints[2 * dirtyCount + 1] = worldY;
+                    dirtyCount++;
+                } else {
+                    fullRepaintNeeded = true;
+                }
+            }
+        }
+
+        /**
+         * Repeint, sur le thread Swing, les zones signalées depuis l'image précédente : un robot avec ses
+         * étiquettes, arrondi aux cases de regroupement pour qu'une case soit toujours recalculée en entier.
+         * Chaque zone est peinte séparément, plutôt que via repaint() qui fusionnerait des zones
+         * éloignées en leur rectangle englobant.
+         */
+        public void repaintDirtyRegions() {
+            int[] points;
+            int count;
+            synchronized (dirtyLock) {
+                if (fullRepaintNeeded) {
+                    fullRepaintNeeded = false;
+                    dirtyCount = 0;
+                    repaint();
+                    return;
+                }
+                count = dirtyCount;
+                points = Arrays.copyOf(dirtyPoints, 2 * count);
+                dirtyCount = 0;
+            }
+            Rectangle visible = new Rectangle(0, 0, getWidth(), getHeight());
+            for (int n = 0; n < count; n++) {
+                int screenX = toScreenX(points[2 * n]);
+                int screenY = toScreenY(points[2 * n + 1]);
+                int x0 = Math.floorDiv(screenX - ROBOT_SIZE, CLUSTER_PIXELS) * CLUSTER_PIXELS;
+                int y0 = Math.floorDiv(screenY - LABEL_HEIGHT, CLUSTER_PIXELS) * CLUSTER_PIXELS;
+                int x1 = (Math.floorDiv(screenX + ROBOT_SIZE + LABEL_WIDTH, CLUSTER_PIXELS) + 1) * CLUSTER_PIXELS;
+                int y1 = (Math.floorDiv(screenY + ROBOT_SIZE + LABEL_HEIGHT, CLUSTER_PIXELS) + 1) * CLUSTER_PIXELS;
+                Rectangle region = new Rectangle(x0, y0, x1 - x0, y1 - y0).intersection(visible);
+                if (!region.isEmpty()) {
+                    paintImmediately(region);
+                }
+            }
+        }
+
+        private int toScreenX(double worldX) {
+            return (int) Math.floor((worldX - viewX) * zoom);
+        }
+
+        private int toScreenY(double worldY) {
+            return (int) Math.floor((worldY - viewY) * zoom);
+        }
+
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
             Graphics2D g2d = (Graphics2D) g;
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            Rectangle clip = g2d.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+
+            paintGrid(g2d);
+            if (robotsToDraw != null) {
+                paintRobots(g2d, clip);
+            }
+
+            int originX = toScreenX(0);
+            int originY = toScreenY(0);
+            if (clip.intersects(originX - 2, originY - LABEL_HEIGHT, LABEL_WIDTH, LABEL_HEIGHT + 2)) {
+                g2d.setColor(Color.RED);
+                g2d.fillOval(originX - 2, originY - 2, 4, 4);
+                g2d.drawString("(0,0)", originX + 5, originY - 5);
+            }
+        }
 
+        /**
+         * Dessine la grille à partir d'une tuile couvrant la vue plus un pas. La tuile n'est redessinée
+         * que si la taille de la carte ou l'écart des lignes change ; un défilement ne fait que la décaler.
+         */
+        private void paintGrid(Graphics2D g2d) {
+            double worldStep = GRID_STEP;
+            while (worldStep * zoom < MIN_GRID_PIXELS) {
+                worldStep *= 5;
+            }
+            double step = worldStep * zoom;
             int width = getWidth();
             int height = getHeight();
+            int margin = (int) Math.ceil(step) + 1;
+            if (gridTile == null || gridTileStep != step
+                    || gridTile.getWidth() != width + margin || gridTile.getHeight() != height + margin) {
+                gridTile = createGridTile(width + margin, height + margin, step);
+                gridTileStep = step;
+            }
+            double offsetX = (Math.ceil(viewX / worldStep) * worldStep - viewX) * zoom - step;
+            double offsetY = (Math.ceil(viewY / worldStep) * worldStep - viewY) * zoom - step;
+            g2d.drawImage(gridTile, (int) Math.round(offsetX), (int) Math.round(offsetY), null);
+        }
+
+        private BufferedImage createGridTile(int width, int height, double step) {
+            BufferedImage tile = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = tile.createGraphics();
+            try {
+                g.setColor(getBackground());
+                g.fillRect(0, 0, width, height);
+                g.setColor(Color.LIGHT_GRAY);
+                for (int i = 0; i * step < width; i++) {
+                    int x = (int) Math.round(i * step);
+                    g.drawLine(x, 0, x, height);
+                }
+                for (int i = 0; i * step < height; i++) {
+                    int y = (int) Math.round(i * step);
+                    g.drawLine(0, y, width, y);
+                }
+            } finally {
+                g.dispose();
+            }
+            return tile;
+        }
+
+        /**
+         * Dessine les robots de la zone à repeindre. Le choix entre regroupement, robots seuls et
+         * étiquettes n'est fait que lors d'un rafraîchissement complet, pour qu'une zone repeinte seule
+         * reste cohérente avec le reste de la carte.
+         */
+        private void paintRobots(Graphics2D g2d, Rectangle clip) {
+            int marginX = (int) Math.ceil((ROBOT_SIZE + LABEL_WIDTH) / zoom);
+            int marginY = (int) Math.ceil((ROBOT_SIZE + LABEL_HEIGHT) / zoom);
+            int xMin = (int) Math.floor(clip.x / zoom + viewX) - marginX;
+            int yMin = (int) Math.floor(clip.y / zoom + viewY) - marginY;
+            int xMax = (int) Math.ceil((clip.x + clip.width) / zoom + viewX) + marginX;
+            int yMax = (int) Math.ceil((clip.y + clip.height) / zoom + viewY) + marginY;
+
+            visibleRobots.clear();
+            robotsToDraw.getIndexSpatial().dansRectangle(xMin, yMin, xMax, yMax, visibleRobots);
+            int count = collectVisible(xMin, yMin, xMax, yMax);
+            visibleRobots.clear();
+
+            if (clip.x <= 0 && clip.y <= 0 && clip.x + clip.width >= getWidth() && clip.y + clip.height >= getHeight()) {
+                clustered = zoom < CLUSTER_ZOOM || count > MAX_INDIVIDUAL_ROBOTS;
+                labelled = !clustered && zoom >= LABEL_ZOOM && count <= MAX_LABELLED_ROBOTS;
+            }
+            if (clustered) {
+                paintClusters(g2d, clip, count);
+            } else {
+                paintIndividualRobots(g2d, count);
+            }
+
+            RobotLivraison selected = selectedRobotToDraw;
+            if (selected != null) {
+                selected.instantane(etat);
+                if (etat.getX() >= xMin && etat.getX() <= xMax && etat.getY() >= yMin && etat.getY() <= yMax) {
+                    g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                    paintRobot(g2d, Color.BLUE, toScreenX(etat.getX()), toScreenY(etat.getY()), etat.getId(), etat.getEnergie());
+                }
+            }
+        }
 
-            g2d.setColor(Color.LIGHT_GRAY);
-            for (int i = 0; i < width; i += 20) {
-                g2d.drawLine(i, 0, i, height);
+        /**
+         * Relève la position et l'état des robots trouvés par l'index qui sont bien dans le rectangle,
+         * hors robot sélectionné, dessiné à part.
+         * @return Le nombre de robots relevés.
+         */
+        private int collectVisible(int xMin, int yMin, int xMax, int yMax) {
+            int size = visibleRobots.size();
+            if (visibleX.length < size) {
+                int capacity = Math.max(size, visibleX.length * 2);
+                visibleX = new int[capacity];
+                visibleY = new int[capacity];
+                visibleState = new byte[capacity];
+                visibleId = new String[capacity];
+                visibleEnergy = new int[capacity];
             }
-            for (int i = 0; i < height; i += 20) {
-                g2d.drawLine(0, i, width, i);
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                RobotLivraison robot = visibleRobots.get(i);
+                if (robot == selectedRobotToDraw) {
+                    continue;
+                }
+                robot.instantane(etat);
+                int x = etat.getX();
+                int y = etat.getY();
+                if (x < xMin || x > xMax || y < yMin || y > yMax) {
+                    continue;
+                }
+                visibleX[count] = x;
+                visibleY[count] = y;
+                visibleState[count] = (byte) (etat.isEnLivraison() ? STATE_DELIVERING : etat.isEnMarche() ? STATE_ON : STATE_OFF);
+                visibleId[count] = etat.getId();
+                visibleEnergy[count] = etat.getEnergie();
+                count++;
             }
+            return count;
+        }
 
-            if (robotsToDraw != null) {
-                for (RobotLivraison robot : robotsToDraw) {
-                    int drawX = PADDING + robot.getX();
-                    int drawY = PADDING + robot.getY();
-
-                    if (robot == selectedRobotToDraw) {
-                        g2d.setColor(Color.BLUE);
-                    } else if (robot.isEnLivraison()) {
-                        g2d.setColor(Color.ORANGE);
-                    } else if (!robot.isEnMarche()) {
-                        g2d.setColor(Color.GRAY);
-                    } else {
-                        g2d.setColor(Color.GREEN);
-                    }
+        private void paintIndividualRobots(Graphics2D g2d, int count) {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                    labelled ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+            for (int i = 0; i < count; i++) {
+                paintRobot(g2d, STATE_COLORS[visibleState[i]], toScreenX(visibleX[i]), toScreenY(visibleY[i]),
+                        labelled ? visibleId[i] : null, visibleEnergy[i]);
+            }
+        }
+
+        /**
+         * Dessine un robot, avec son identifiant et son énergie si label n'est pas null.
+         */
+        private void paintRobot(Graphics2D g2d, Color color, int drawX, int drawY, String label, int energy) {
+            g2d.setColor(color);
+            g2d.fillOval(drawX - ROBOT_SIZE / 2, drawY - ROBOT_SIZE / 2, ROBOT_SIZE, ROBOT_SIZE);
+            if (label != null) {
+                g2d.setColor(Color.BLACK);
+                g2d.drawString(label, drawX + ROBOT_SIZE, drawY);
+                g2d.drawString(energy + "%", drawX + ROBOT_SIZE, drawY + 12);
+            }
+        }
+
+        /**
+         * Compte les robots par case de {@value #CLUSTER_PIXELS} pixels et par état, puis dessine une pastille
+         * par case occupée. Les cases sont alignées sur l'écran, pas sur la zone repeinte.
+         */
+        private void paintClusters(Graphics2D g2d, Rectangle clip, int count) {
+            int col0 = Math.floorDiv(clip.x, CLUSTER_PIXELS);
+            int row0 = Math.floorDiv(clip.y, CLUSTER_PIXELS);
+            int cols = Math.floorDiv(clip.x + clip.width - 1, CLUSTER_PIXELS) - col0 + 1;
+            int rows = Math.floorDiv(clip.y + clip.height - 1, CLUSTER_PIXELS) - row0 + 1;
+            int cells = cols * rows * STATE_COUNT;
+            if (clusterCounts.length < cells) {
+                clusterCounts = new int[cells];
+            } else {
+                Arrays.fill(clusterCounts, 0, cells, 0);
+            }
 
-                    g2d.fillOval(drawX - ROBOT_SIZE / 2, drawY - ROBOT_SIZE / 2, ROBOT_SIZE, ROBOT_SIZE);
-                    g2d.setColor(Color.BLACK);
-                    g2d.drawString(robot.getId(), drawX + ROBOT_SIZE, drawY);
-                    g2d.drawString(robot.getEnergie() + "%", drawX + ROBOT_SIZE, drawY + 12);
+            for (int i = 0; i < count; i++) {
+                int col = Math.floorDiv(toScreenX(visibleX[i]), CLUSTER_PIXELS) - col0;
+                int row = Math.floorDiv(toScreenY(visibleY[i]), CLUSTER_PIXELS) - row0;
+                if (col >= 0 && col < cols && row >= 0 && row < rows) {
+                    clusterCounts[(row * cols + col) * STATE_COUNT + visibleState[i]]++;
                 }
             }
 
-            g2d.setColor(Color.RED);
-            g2d.fillOval(PADDING - 2, PADDING - 2, 4, 4);
-            g2d.drawString("(0,0)", PADDING + 5, PADDING - 5);
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    int base = (row * cols + col) * STATE_COUNT;
+                    int total = 0;
+                    int majority = 0;
+                    for (int s = 0; s < STATE_COUNT; s++) {
+                        total += clusterCounts[base + s];
+                        if (clusterCounts[base + s] > clusterCounts[base + majority]) {
+                            majority = s;
+                        }
+                    }
+                    if (total == 0) {
+                        continue;
+                    }
+                    int size = Math.min(CLUSTER_PIXELS, 3 + (int) Math.sqrt(total));
+                    int centerX = (col0 + col) * CLUSTER_PIXELS + CLUSTER_PIXELS / 2;
+                    int centerY = (row0 + row) * CLUSTER_PIXELS + CLUSTER_PIXELS / 2;
+                    g2d.setColor(STATE_COLORS[majority]);
+                    g2d.fillOval(centerX - size / 2, centerY - size / 2, size, size);
+                }
+            }
         }
     }
 
@@ -0,0 +1,116 @@
+package com.insat.gl.reseau;
+
+import com.insat.gl.robot.exceptions.ReseauSatureException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Bus de messages local simulant les réseaux auxquels se connectent les robots.
+ * Chaque nom de réseau correspond à un {@link CanalMessages}, créé à la première utilisation
+ * avec la capacité et la politique de saturation par défaut, ou déclaré à l'avance par
+ * {@link #configurer(String, int, PolitiqueSaturation)}.
+ */
+public class BusMessages {
+    public static final int CAPACITE_PAR_DEFAUT = 1024;
+
+    private final ConcurrentHashMap<String, CanalMessages> canaux = new ConcurrentHashMap<>();
+    private final int capaciteParDefaut;
+    private final PolitiqueSaturation politiqueParDefaut;
+
+    /**
+     * Constructeur pour BusMessages avec des canaux de capacité par défaut qui rejettent en cas de saturation.
+     */
+    public BusMessages() {
+        this(CAPACITE_PAR_DEFAUT, PolitiqueSaturation.REJETER);
+    }
+
+    /**
+     * Constructeur pour BusMessages.
+     * @param capaciteParDefaut La capacité des canaux créés à la volée.
+     * @param politiqueParDefaut La politique de saturation des canaux créés à la volée.
+     */
+    public BusMessages(int capaciteParDefaut, PolitiqueSaturation politiqueParDefaut) {
+        this.capaciteParDefaut = capaciteParDefaut;
+        this.politiqueParDefaut = politiqueParDefaut;
+    }
+
+    /**
+     * Déclare un réseau avec une capacité et une politique propres.
+     * @param reseau Le nom du réseau.
+     * @param capacite La capacité de sa file.
+     * @param politique Son comportement en cas de saturation.
+     * @return Le canal créé.
+     * @throws IllegalStateException Si le réseau existe déjà.
+     */
+    public CanalMessages configurer(String reseau, int capacite, PolitiqueSaturation politique) {
+        return configurer(reseau, capacite, politique, CanalMessages.DELAI_BLOCAGE_PAR_DEFAUT_MILLIS);
+    }
+
+    /**
+     * Déclare un réseau avec une capacité, une politique et un délai de blocage propres.
+     * @param reseau Le nom du réseau.
+     * @param capacite La capacité de sa file.
+     * @param politique Son comportement en cas de saturation.
+     * @param delaiBlocageMillis L'attente maximale d'une place sous {@link PolitiqueSaturation#BLOQUER}.
+     * @return Le canal créé.
+     * @throws IllegalStateException Si le réseau existe déjà.
+     */
+    public CanalMessages configurer(String reseau, int capacite, PolitiqueSaturation politique, long delaiBlocageMillis) {
+        CanalMessages canal = new CanalMessages(reseau, capacite, politique, delaiBlocageMillis);
+        if (canaux.putIfAbsent(reseau, canal) != null) {
+            throw new IllegalStateException("Le réseau '" + reseau + "' existe déjà.");
+        }
+        return canal;
+    }
+
+    /**
+     * Retourne le canal d'un réseau, en le créant au besoin.
+     * @param reseau Le nom du réseau.
+     * @return Le canal du réseau.
+     */
+    public CanalMessages canal(String reseau) {
+        return canaux.computeIfAbsent(reseau, r -> new CanalMessages(r, capaciteParDefaut, politiqueParDefaut));
+    }
+
+    /**
+     * Publie un message sur un réseau.
+     * @param emetteur L'identifiant du robot émetteur.
+     * @param reseau Le nom du réseau.
+     * @param contenu Les données à transmettre.
+     * @return true si le message a été accepté, false s'il a été rejeté.
+     * @throws ReseauSatureException Si le réseau est saturé et le signale, ou si aucune place ne se libère dans le délai de blocage.
+     */
+    public boolean publier(String emetteur, String reseau, String contenu) throws ReseauSatureException {
+        return canal(reseau).publier(new Message(emetteur, reseau, contenu, System.nanoTime()));
+    }
+
+    public void abonner(String reseau, Consumer<Message> abonne) {
+        canal(reseau).abonner(abonne);
+    }
+
+    /**
+     * Distribue les messages en attente sur tous les réseaux.
+     * @param maxParReseau Le nombre maximal de messages distribués par réseau.
+     * @return Le nombre total de messages distribués.
+     */
+    public int distribuer(int maxParReseau) {
+        int total = 0;
+        for (CanalMessages canal : canaux.values()) {
+            total += canal.distribuer(maxParReseau);
+        }
+        return total;
+    }
+
+    /**
+     * @return Un instantané des métriques de chaque réseau.
+     */
+    public List<MetriquesCanal> getMetriques() {
+        List<MetriquesCanal> metriques = new ArrayList<>();
+        for (CanalMessages canal : canaux.values()) {
+            metriques.add(canal.getMetriques());
+        }
+        return metriques;
+    }
+}
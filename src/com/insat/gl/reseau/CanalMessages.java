@@ -0,0 +1,190 @@
+package com.insat.gl.reseau;
+
+import com.insat.gl.robot.exceptions.ReseauSatureException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Canal d'un réseau nommé : file bornée de messages ({@link FileMPSC}) alimentée par
+ * tous les robots connectés, et distribuée aux abonnés par un seul thread à la fois.
+ * Le canal tient ses métriques : messages publiés, rejetés, distribués et profondeur de file.
+ */
+public class CanalMessages {
+    public static final long DELAI_BLOCAGE_PAR_DEFAUT_MILLIS = 100;
+
+    private static final long ATTENTE_MAX_NANOS = 1_000_000L;
+    private static final long NANOS_PAR_MILLI = 1_000_000L;
+
+    private final String reseau;
+    private final FileMPSC<Message> file;
+    private final PolitiqueSaturation politique;
+    private final long delaiBlocageNanos;
+    private final List<Consumer<Message>> abonnes = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean distributionEnCours = new AtomicBoolean();
+    private final long creationNanos = System.nanoTime();
+
+    private final LongAdder publies = new LongAdder();
+    private final LongAdder rejetes = new LongAdder();
+    private final LongAdder attentes = new LongAdder();
+    private final LongAccumulator profondeurMax = new LongAccumulator(Math::max, 0);
+    private volatile long distribues;
+
+    /**
+     * Constructeur pour CanalMessages.
+     * @param reseau Le nom du réseau.
+     * @param capacite La capacité de la file (arrondie à une puissance de deux).
+     * @param politique Le comportement lorsque la file est pleine.
+     */
+    public CanalMessages(String reseau, int capacite, PolitiqueSaturation politique) {
+        this(reseau, capacite, politique, DELAI_BLOCAGE_PAR_DEFAUT_MILLIS);
+    }
+
+    /**
+     * Constructeur pour CanalMessages avec un délai de blocage propre.
+     * Les robots publient en tenant leur moniteur : le délai borne le temps pendant lequel un consommateur
+     * lent, ou un abonné qui attend lui-même le robot, peut le bloquer.
+     * @param reseau Le nom du réseau.
+     * @param capacite La capacité de la file (arrondie à une puissance de deux).
+     * @param politique Le comportement lorsque la file est pleine.
+     * @param delaiBlocageMillis L'attente maximale d'une place sous {@link PolitiqueSaturation#BLOQUER}.
+     */
+    public CanalMessages(String reseau, int capacite, PolitiqueSaturation politique, long delaiBlocageMillis) {
+        if (delaiBlocageMillis < 0) {
+            throw new IllegalArgumentException("Le délai de blocage doit être positif : " + delaiBlocageMillis);
+        }
+        this.reseau = reseau;
+        this.file = new FileMPSC<>(capacite);
+        this.politique = politique;
+        this.delaiBlocageNanos = delaiBlocageMillis * NANOS_PAR_MILLI;
+    }
+
+    /**
+     * Publie un message selon la politique de saturation du canal.
+     * @param message Le message à publier.
+     * @return true si le message a été placé dans la file, false s'il a été rejeté.
+     * @throws ReseauSatureException Si la file est pleine et que la politique est {@link PolitiqueSaturation#SIGNALER},
+     *                               ou qu'aucune place ne s'est libérée dans le délai de blocage sous {@link PolitiqueSaturation#BLOQUER}.
+     */
+    public boolean publier(Message message) throws ReseauSatureException {
+        if (!file.offrir(message)) {
+            switch (politique) {
+                case BLOQUER:
+                    if (!attendrePlace(message)) {
+                        rejetes.increment();
+                        return false;
+                    }
+                    break;
+                case SIGNALER:
+                    rejetes.increment();
+                    throw new ReseauSatureException("Réseau '" + reseau + "' saturé : " + file.getCapacite() + " messages en attente.");
+                default:
+                    rejetes.increment();
+                    return false;
+            }
+        }
+        publies.increment();
+        profondeurMax.accumulate(file.taille());
+        return true;
+    }
+
+    /**
+     * Attend qu'une place se libère, en cédant le processeur puis en dormant de plus en plus longtemps.
+     * @return false si le thread a été interrompu pendant l'attente.
+     * @throws ReseauSatureException Si aucune place ne s'est libérée dans le délai de blocage.
+     */
+    private boolean attendrePlace(Message message) throws ReseauSatureException {
+        attentes.increment();
+        long echeance = System.nanoTime() + delaiBlocageNanos;
+        long pause = 1_000L;
+        int essais = 0;
+        while (!file.offrir(message)) {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            if (System.nanoTime() - echeance >= 0) {
+                rejetes.increment();
+                throw new ReseauSatureException("Réseau '" + reseau + "' saturé : aucune place libérée en "
+                        + delaiBlocageNanos / NANOS_PAR_MILLI + " ms.");
+            }
+            if (++essais < 64) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(pause);
+                pause = Math.min(pause * 2, ATTENTE_MAX_NANOS);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Abonne un destinataire à tous les messages du canal.
+     * @param abonne Le destinataire, appelé par le thread qui distribue.
+     */
+    public void abonner(Consumer<Message> abonne) {
+        abonnes.add(abonne);
+    }
+
+    public void desabonner(Consumer<Message> abonne) {
+        abonnes.remove(abonne);
+    }
+
+    /**
+     * Distribue aux abonnés les messages en attente. Si un autre thread distribue déjà
+     * ce canal, la méthode rend la main immédiatement.
+     * @param max Le nombre maximal de messages distribués.
+     * @return Le nombre de messages distribués.
+     */
+    public int distribuer(int max) {
+        if (!distributionEnCours.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            int n = 0;
+            Message message;
+            while (n < max && (message = file.extraire()) != null) {
+                for (Consumer<Message> abonne : abonnes) {
+                    abonne.accept(message);
+                }
+                n++;
+            }
+            distribues += n;
+            return n;
+        } finally {
+            distributionEnCours.set(false);
+        }
+    }
+
+    /**
+     * @return Un instantané des métriques du canal.
+     */
+    public MetriquesCanal getMetriques() {
+        return new MetriquesCanal(reseau, publies.sum(), rejetes.sum(), attentes.sum(), distribues,
+                file.taille(), profondeurMax.get(), file.getCapacite(), System.nanoTime() - creationNanos);
+    }
+
+    // Getters
+    public String getReseau() {
+        return reseau;
+    }
+
+    public PolitiqueSaturation getPolitique() {
+        return politique;
+    }
+
+    public long getDelaiBlocageMillis() {
+        return delaiBlocageNanos / NANOS_PAR_MILLI;
+    }
+
+    public int getProfondeur() {
+        return file.taille();
+    }
+
+    public int getCapacite() {
+        return file.getCapacite();
+    }
+}
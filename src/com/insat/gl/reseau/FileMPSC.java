@@ -0,0 +1,91 @@
+package com.insat.gl.reseau;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * File bornée sans verrou, à producteurs multiples et consommateur unique.
+ * Chaque case porte un numéro de séquence (schéma de D. Vyukov) : un producteur réserve
+ * une position par compare-and-set sur la queue, écrit l'élément puis publie la séquence ;
+ * le consommateur ne lit une case que lorsque sa séquence indique qu'elle est remplie.
+ * @param <E> Le type des éléments.
+ */
+public class FileMPSC<E> {
+    private final int masque;
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong queue = new AtomicLong();
+    private volatile long tete;
+
+    /**
+     * Constructeur pour FileMPSC.
+     * @param capacite La capacité minimale ; arrondie à la puissance de deux supérieure, et au moins 2 :
+     *                 avec une seule case, la séquence d'une case pleine se confondrait avec celle d'une case libre.
+     */
+    public FileMPSC(int capacite) {
+        if (capacite <= 0 || capacite > (1 << 30)) {
+            throw new IllegalArgumentException("Capacité de file invalide : " + capacite);
+        }
+        int taille = capacite <= 2 ? 2 : Integer.highestOneBit(capacite - 1) << 1;
+        this.masque = taille - 1;
+        this.elements = new Object[taille];
+        this.sequences = new AtomicLongArray(taille);
+        for (int i = 0; i < taille; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Ajoute un élément sans attendre. Utilisable par plusieurs threads en même temps.
+     * @param element L'élément à ajouter.
+     * @return false si la file est pleine.
+     */
+    public boolean offrir(E element) {
+        long position = queue.get();
+        while (true) {
+            int index = (int) position & masque;
+            long ecart = sequences.get(index) - position;
+            if (ecart == 0) {
+                if (queue.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = queue.get();
+            } else if (ecart < 0) {
+                return false;
+            } else {
+                position = queue.get();
+            }
+        }
+    }
+
+    /**
+     * Retire l'élément le plus ancien. Un seul thread à la fois peut consommer.
+     * @return L'élément, ou null si la file est vide.
+     */
+    @SuppressWarnings("unchecked")
+    public E extraire() {
+        long position = tete;
+        int index = (int) position & masque;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = (E) elements[index];
+        elements[index] = null;
+        sequences.set(index, position + masque + 1);
+        tete = position + 1;
+        return element;
+    }
+
+    /**
+     * @return Le nombre approximatif d'éléments en attente.
+     */
+    public int taille() {
+        return (int) Math.max(0, Math.min(queue.get() - tete, masque + 1));
+    }
+
+    public int getCapacite() {
+        return masque + 1;
+    }
+}
@@ -0,0 +1,47 @@
+package com.insat.gl.reseau;
+
+/**
+ * Message publié sur un réseau du {@link BusMessages}.
+ */
+public final class Message {
+    private final String emetteur;
+    private final String reseau;
+    private final String contenu;
+    private final long horodatageNanos;
+
+    /**
+     * Constructeur pour Message.
+     * @param emetteur L'identifiant du robot émetteur.
+     * @param reseau Le nom du réseau.
+     * @param contenu Les données transmises.
+     * @param horodatageNanos L'instant de publication, selon {@link System#nanoTime()}.
+     */
+    public Message(String emetteur, String reseau, String contenu, long horodatageNanos) {
+        this.emetteur = emetteur;
+        this.reseau = reseau;
+        this.contenu = contenu;
+        this.horodatageNanos = horodatageNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + reseau + "] " + emetteur + " : " + contenu;
+    }
+
+    // Getters
+    public String getEmetteur() {
+        return emetteur;
+    }
+
+    public String getReseau() {
+        return reseau;
+    }
+
+    public String getContenu() {
+        return contenu;
+    }
+
+    public long getHorodatageNanos() {
+        return horodatageNanos;
+    }
+}
@@ -0,0 +1,96 @@
+package com.insat.gl.reseau;
+
+/**
+ * Instantané des métriques d'un {@link CanalMessages}.
+ */
+public class MetriquesCanal {
+    private static final double NANOS_PAR_SECONDE = 1_000_000_000.0;
+
+    private final String reseau;
+    private final long publies;
+    private final long rejetes;
+    private final long attentes;
+    private final long distribues;
+    private final int profondeur;
+    private final long profondeurMax;
+    private final int capacite;
+    private final long dureeNanos;
+
+    /**
+     * Constructeur pour MetriquesCanal.
+     * @param reseau Le nom du réseau.
+     * @param publies Le nombre de messages acceptés dans la file.
+     * @param rejetes Le nombre de messages rejetés faute de place.
+     * @param attentes Le nombre de publications qui ont dû attendre une place.
+     * @param distribues Le nombre de messages distribués aux abonnés.
+     * @param profondeur Le nombre de messages actuellement en file.
+     * @param profondeurMax La profondeur maximale observée.
+     * @param capacite La capacité de la file.
+     * @param dureeNanos Le temps écoulé depuis la création du canal.
+     */
+    public MetriquesCanal(String reseau, long publies, long rejetes, long attentes, long distribues,
+                          int profondeur, long profondeurMax, int capacite, long dureeNanos) {
+        this.reseau = reseau;
+        this.publies = publies;
+        this.rejetes = rejetes;
+        this.attentes = attentes;
+        this.distribues = distribues;
+        this.profondeur = profondeur;
+        this.profondeurMax = profondeurMax;
+        this.capacite = capacite;
+        this.dureeNanos = dureeNanos;
+    }
+
+    /**
+     * @return Le débit moyen de publication depuis la création du canal, en messages par seconde.
+     */
+    public double getDebitPublication() {
+        return dureeNanos == 0 ? 0.0 : publies * NANOS_PAR_SECONDE / dureeNanos;
+    }
+
+    /**
+     * @return Le débit moyen de distribution depuis la création du canal, en messages par seconde.
+     */
+    public double getDebitDistribution() {
+        return dureeNanos == 0 ? 0.0 : distribues * NANOS_PAR_SECONDE / dureeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Réseau %s [Publiés: %d, Rejetés: %d, Attentes: %d, Distribués: %d, File: %d/%d (max %d), Débit: %.0f msg/s]",
+                reseau, publies, rejetes, attentes, distribues, profondeur, capacite, profondeurMax, getDebitPublication());
+    }
+
+    // Getters
+    public String getReseau() {
+        return reseau;
+    }
+
+    public long getPublies() {
+        return publies;
+    }
+
+    public long getRejetes() {
+        return rejetes;
+    }
+
+    public long getAttentes() {
+        return attentes;
+    }
+
+    public long getDistribues() {
+        return distribues;
+    }
+
+    public int getProfondeur() {
+        return profondeur;
+    }
+
+    public long getProfondeurMax() {
+        return profondeurMax;
+    }
+
+    public int getCapacite() {
+        return capacite;
+    }
+}
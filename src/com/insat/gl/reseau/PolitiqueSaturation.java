@@ -0,0 +1,16 @@
+package com.insat.gl.reseau;
+
+/**
+ * Comportement d'un réseau lorsque sa file de messages est pleine.
+ */
+public enum PolitiqueSaturation {
+    /** Le message est abandonné et comptabilisé comme rejeté. */
+    REJETER,
+    /**
+     * L'émetteur attend qu'une place se libère, au plus le délai de blocage du canal ; passé ce délai,
+     * il reçoit une {@link com.insat.gl.robot.exceptions.ReseauSatureException}.
+     */
+    BLOQUER,
+    /** Le message est rejeté et l'émetteur reçoit une {@link com.insat.gl.robot.exceptions.ReseauSatureException}. */
+    SIGNALER
+}
@@ -0,0 +1,338 @@
+package com.insat.gl.robot;
+
+import com.insat.gl.reseau.FileMPSC;
+import com.insat.gl.robot.exceptions.RobotException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Exécute des robots de livraison comme des acteurs : chaque robot reçoit ses commandes ({@link TacheRobot})
+ * dans une boîte aux lettres bornée et les traite une à une, dans l'ordre de dépôt.
+ * Un robot n'a pas de thread propre : lorsque sa boîte reçoit une commande alors qu'elle est au repos,
+ * elle est confiée à un pool partagé qui la vide par lots de {@value #LOT_MAX} commandes au plus,
+ * puis la rend. Des milliers de robots avancent ainsi en parallèle sur quelques threads, et un robot
+ * inactif ne coûte que sa boîte.
+ * <p>
+ * Le dépôt ne prend aucun verrou : une réservation dans la {@link FileMPSC} du robot, puis, si la boîte
+ * était au repos, sa soumission au pool. Une commande déposée dans une boîte pleine est rejetée et comptée.
+ * Après {@link #fermer()}, ou si le pool refuse la boîte, les commandes sont rejetées de la même façon.
+ */
+public class ActeursRobots {
+    public static final int CAPACITE_PAR_DEFAUT = 256;
+    static final int LOT_MAX = 64;
+
+    private final int capacite;
+    private final Executor executor;
+    private final ForkJoinPool poolPropre;
+    private final ConcurrentHashMap<RobotLivraison, BoiteAuxLettres> boites = new ConcurrentHashMap<>();
+    private final long creationNanos = System.nanoTime();
+    private volatile boolean ferme;
+
+    private final LongAdder deposees = new LongAdder();
+    private final LongAdder rejetees = new LongAdder();
+    private final LongAdder traitees = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+    private final LongAccumulator profondeurMax = new LongAccumulator(Math::max, 0);
+    private final HistogrammeLatence latenceAttente = new HistogrammeLatence();
+    private final HistogrammeLatence latenceTraitement = new HistogrammeLatence();
+
+    /**
+     * Constructeur pour ActeursRobots, sur le pool commun, avec des boîtes de {@value #CAPACITE_PAR_DEFAUT} commandes.
+     */
+    public ActeursRobots() {
+        this(CAPACITE_PAR_DEFAUT, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructeur pour ActeursRobots avec un pool dédié, arrêté par {@link #fermer()}.
+     * @param capacite La capacité de la boîte de chaque robot (arrondie à une puissance de deux).
+     * @param parallelisme Le nombre de threads du pool.
+     */
+    public ActeursRobots(int capacite, int parallelisme) {
+        this.capacite = capacite;
+        this.poolPropre = new ForkJoinPool(parallelisme);
+        this.executor = poolPropre;
+    }
+
+    /**
+     * Constructeur pour ActeursRobots sur un executor fourni (non arrêté par {@link #fermer()}).
+     * @param capacite La capacité de la boîte de chaque robot (arrondie à une puissance de deux).
+     * @param executor L'executor qui vide les boîtes.
+     */
+    public ActeursRobots(int capacite, Executor executor) {
+        this.capacite = capacite;
+        this.executor = executor;
+        this.poolPropre = null;
+    }
+
+    /**
+     * Dépose une commande dans la boîte d'un robot.
+     * @param robot Le robot destinataire.
+     * @param tache La commande à exécuter.
+     * @return false si la boîte du robot est pleine : la commande est alors rejetée.
+     */
+    public boolean envoyer(RobotLivraison robot, TacheRobot tache) {
+        return envoyer(robot, tache, null);
+    }
+
+    /**
+     * Dépose une commande dans la boîte d'un robot et notifie le rappel une fois qu'elle est traitée.
+     * @param robot Le robot destinataire.
+     * @param tache La commande à exécuter.
+     * @param rappel Appelé par le thread du pool avec (robot, null) en cas de succès ou (null, erreur) en cas d'échec,
+     *               ou avec (null, {@link RejectedExecutionException}) si le pool refuse la boîte : la commande
+     *               est alors comptée comme rejetée. Jamais appelé si la boîte est pleine ou les acteurs fermés.
+     * @return false si la boîte du robot est pleine ou si les acteurs sont fermés : la commande est alors rejetée.
+     */
+    public boolean envoyer(RobotLivraison robot, TacheRobot tache, BiConsumer<RobotLivraison, Throwable> rappel) {
+        if (ferme) {
+            rejetees.increment();
+            return false;
+        }
+        BoiteAuxLettres boite = boite(robot);
+        if (!boite.file.offrir(new Lettre(tache, rappel, System.nanoTime()))) {
+            rejetees.increment();
+            return false;
+        }
+        deposees.increment();
+        profondeurMax.accumulate(boite.file.taille());
+        boite.planifier();
+        return true;
+    }
+
+    /**
+     * @param robot Le robot destinataire.
+     * @return false si la commande de démarrage est rejetée (boîte pleine).
+     */
+    public boolean demarrer(RobotLivraison robot) {
+        return envoyer(robot, TacheRobot.demarrer());
+    }
+
+    /**
+     * @param robot Le robot destinataire.
+     * @param colis Le nom ou la description du colis.
+     * @param destination La destination de livraison.
+     * @return false si la commande de chargement est rejetée (boîte pleine).
+     */
+    public boolean chargerColis(RobotLivraison robot, String colis, String destination) {
+        return envoyer(robot, TacheRobot.charger(colis, destination));
+    }
+
+    /**
+     * @param robot Le robot destinataire.
+     * @param x Nouvelle coordonnée x.
+     * @param y Nouvelle coordonnée y.
+     * @return false si la commande de déplacement est rejetée (boîte pleine).
+     */
+    public boolean deplacer(RobotLivraison robot, int x, int y) {
+        return envoyer(robot, TacheRobot.deplacer(x, y));
+    }
+
+    /**
+     * @param robot Le robot destinataire.
+     * @param quantite La quantité d'énergie à ajouter.
+     * @return false si la commande de recharge est rejetée (boîte pleine).
+     */
+    public boolean recharger(RobotLivraison robot, int quantite) {
+        return envoyer(robot, TacheRobot.recharger(quantite));
+    }
+
+    private BoiteAuxLettres boite(RobotLivraison robot) {
+        BoiteAuxLettres boite = boites.get(robot);
+        return boite != null ? boite : boites.computeIfAbsent(robot, BoiteAuxLettres::new);
+    }
+
+    /**
+     * Oublie la boîte d'un robot, par exemple retiré de la flotte. Les commandes déjà déposées sont encore traitées.
+     * @param robot Le robot concerné.
+     */
+    public void retirer(RobotLivraison robot) {
+        boites.remove(robot);
+    }
+
+    /**
+     * @param robot Le robot concerné.
+     * @return Le nombre approximatif de commandes en attente dans la boîte du robot.
+     */
+    public int getProfondeur(RobotLivraison robot) {
+        BoiteAuxLettres boite = boites.get(robot);
+        return boite == null ? 0 : boite.file.taille();
+    }
+
+    /**
+     * @return Le nombre approximatif de commandes en attente, tous robots confondus.
+     */
+    public long getProfondeurTotale() {
+        long total = 0;
+        for (BoiteAuxLettres boite : boites.values()) {
+            total += boite.file.taille();
+        }
+        return total;
+    }
+
+    /**
+     * @return Un instantané des métriques des acteurs.
+     */
+    public MetriquesActeurs getMetriques() {
+        return new MetriquesActeurs(boites.size(), deposees.sum(), rejetees.sum(), traitees.sum(), echecs.sum(),
+                getProfondeurTotale(), profondeurMax.get(), latenceAttente, latenceTraitement, System.nanoTime() - creationNanos);
+    }
+
+    /**
+     * Remet à zéro les compteurs et les histogrammes ; les boîtes et leur contenu sont conservés.
+     */
+    public void reinitialiserMetriques() {
+        deposees.reset();
+        rejetees.reset();
+        traitees.reset();
+        echecs.reset();
+        profondeurMax.reset();
+        latenceAttente.reinitialiser();
+        latenceTraitement.reinitialiser();
+    }
+
+    /**
+     * Refuse les commandes suivantes et arrête le pool dédié, s'il y en a un. Les lots en cours se terminent ;
+     * les commandes restées dans une boîte que le pool ne reprend plus sont rejetées.
+     */
+    public void fermer() {
+        ferme = true;
+        if (poolPropre != null) {
+            poolPropre.shutdown();
+        }
+    }
+
+    // Getters
+    public int getCapacite() {
+        return capacite;
+    }
+
+    public int getNombreActeurs() {
+        return boites.size();
+    }
+
+    public boolean isFerme() {
+        return ferme;
+    }
+
+    /**
+     * @return L'histogramme du temps passé par les commandes dans les boîtes avant leur traitement.
+     */
+    public HistogrammeLatence getLatenceAttente() {
+        return latenceAttente;
+    }
+
+    /**
+     * @return L'histogramme de la durée d'exécution des commandes.
+     */
+    public HistogrammeLatence getLatenceTraitement() {
+        return latenceTraitement;
+    }
+
+    /**
+     * Commande déposée, avec son instant de dépôt.
+     */
+    private static final class Lettre {
+        private final TacheRobot tache;
+        private final BiConsumer<RobotLivraison, Throwable> rappel;
+        private final long depotNanos;
+
+        private Lettre(TacheRobot tache, BiConsumer<RobotLivraison, Throwable> rappel, long depotNanos) {
+            this.tache = tache;
+            this.rappel = rappel;
+            this.depotNanos = depotNanos;
+        }
+    }
+
+    /**
+     * Boîte aux lettres d'un robot. Elle n'est vidée que par un thread à la fois :
+     * celui qui la fait passer du repos à l'état planifié la soumet au pool.
+     */
+    private final class BoiteAuxLettres implements Runnable {
+        private final RobotLivraison robot;
+        private final FileMPSC<Lettre> file;
+        private final AtomicBoolean planifiee = new AtomicBoolean();
+
+        private BoiteAuxLettres(RobotLivraison robot) {
+            this.robot = robot;
+            this.file = new FileMPSC<>(capacite);
+        }
+
+        /**
+         * Soumet la boîte au pool si elle est au repos. Si le pool la refuse, la boîte, dont ce thread
+         * est alors le seul consommateur, est vidée : ses commandes sont comptées comme rejetées.
+         */
+        private void planifier() {
+            if (!planifiee.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                rejeterTout(e);
+                planifiee.set(false);
+                if (file.taille() > 0) {
+                    planifier();
+                }
+            }
+        }
+
+        private void rejeterTout(RejectedExecutionException cause) {
+            Lettre lettre;
+            while ((lettre = file.extraire()) != null) {
+                deposees.decrement();
+                rejetees.increment();
+                if (lettre.rappel != null) {
+                    lettre.rappel.accept(null, cause);
+                }
+            }
+        }
+
+        /**
+         * Traite au plus un lot, puis rend la boîte. Une commande déposée pendant le lot, qui n'a pas pu
+         * replanifier la boîte, est vue par la vérification qui suit le retour au repos.
+         */
+        @Override
+        public void run() {
+            try {
+                Lettre lettre;
+                for (int n = 0; n < LOT_MAX && (lettre = file.extraire()) != null; n++) {
+                    traiter(lettre);
+                }
+            } finally {
+                planifiee.set(false);
+                if (file.taille() > 0) {
+                    planifier();
+                }
+            }
+        }
+
+        /**
+         * Exécute une commande sous le moniteur du robot, comme {@link ExecuteurTaches}.
+         */
+        private void traiter(Lettre lettre) {
+            long debut = System.nanoTime();
+            latenceAttente.enregistrer(debut - lettre.depotNanos);
+            Throwable erreur = null;
+            try {
+                synchronized (robot) {
+                    lettre.tache.executer(robot);
+                }
+            } catch (RobotException | RuntimeException e) {
+                erreur = e;
+                echecs.increment();
+            }
+            latenceTraitement.enregistrer(System.nanoTime() - debut);
+            traitees.increment();
+            if (lettre.rappel != null) {
+                lettre.rappel.accept(erreur == null ? robot : null, erreur);
+            }
+        }
+    }
+}
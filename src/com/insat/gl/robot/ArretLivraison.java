@@ -0,0 +1,59 @@
+package com.insat.gl.robot;
+
+/**
+ * Arrêt d'une tournée de livraison : un colis et les coordonnées où le livrer.
+ */
+public class ArretLivraison {
+    private final String colis;
+    private final String destination;
+    private final int x;
+    private final int y;
+
+    /**
+     * Constructeur pour ArretLivraison.
+     * @param colis Le nom ou la description du colis.
+     * @param destination Le nom de la destination.
+     * @param x Coordonnée x de livraison.
+     * @param y Coordonnée y de livraison.
+     */
+    public ArretLivraison(String colis, String destination, int x, int y) {
+        this.colis = colis;
+        this.destination = destination;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Calcule la distance euclidienne entre cet arrêt et un point.
+     * @param autreX Coordonnée x du point.
+     * @param autreY Coordonnée y du point.
+     * @return La distance en unités.
+     */
+    public double distanceVers(int autreX, int autreY) {
+        long dx = (long) autreX - x;
+        long dy = (long) autreY - y;
+        return Math.sqrt((double) (dx * dx + dy * dy));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Arrêt [Colis: '%s', Destination: %s (%d,%d)]", colis, destination, x, y);
+    }
+
+    // Getters
+    public String getColis() {
+        return colis;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+}
@@ -24,4 +24,23 @@ public interface Connectable {
      * @throws RobotException Si l'envoi échoue.
      */
     void envoyerDonnees(String donnees) throws RobotException;
+
+    /**
+     * Place des données dans le tampon d'envoi ; elles partent avec le lot suivant.
+     * Par défaut, les données sont envoyées immédiatement.
+     * @param donnees Les données à envoyer.
+     * @throws RobotException Si l'envoi du lot déclenché par ces données échoue.
+     */
+    default void envoyerDonneesDifferees(String donnees) throws RobotException {
+        envoyerDonnees(donnees);
+    }
+
+    /**
+     * Envoie immédiatement les données en attente dans le tampon, en un seul lot.
+     * @return Le nombre de messages envoyés.
+     * @throws RobotException Si l'envoi échoue.
+     */
+    default int viderTampon() throws RobotException {
+        return 0;
+    }
 }
@@ -0,0 +1,87 @@
+package com.insat.gl.robot;
+
+/**
+ * Image cohérente de l'état d'un robot à un instant donné, obtenue par {@link Robot#instantane()}.
+ * Tous les champs proviennent de la même version du robot : une position, une énergie et un colis
+ * lus ici ne peuvent mélanger l'avant et l'après d'une action effectuée par un autre thread.
+ * Les champs propres à {@link RobotConnecte} et {@link RobotLivraison} gardent leur valeur par défaut
+ * pour les autres robots.
+ */
+public class EtatRobot {
+    String id;
+    int x;
+    int y;
+    int energie;
+    int heuresUtilisation;
+    boolean enMarche;
+    double totalCarbonEmitted;
+    boolean connecte;
+    String reseauConnecte;
+    String colisActuel;
+    String destination;
+    boolean enLivraison;
+    int capacite;
+
+    @Override
+    public String toString() {
+        return String.format("EtatRobot [ID: %s, Position: (%d,%d), Énergie: %d%%, Heures: %d, En Marche: %b, Connecté: %s, Colis: %s]",
+                id, x, y, energie, heuresUtilisation, enMarche, connecte ? reseauConnecte : "Non", colisActuel != null ? colisActuel : "Aucun");
+    }
+
+    // Getters
+    public String getId() {
+        return id;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getEnergie() {
+        return energie;
+    }
+
+    public int getHeuresUtilisation() {
+        return heuresUtilisation;
+    }
+
+    public boolean isEnMarche() {
+        return enMarche;
+    }
+
+    public boolean isMaintenanceRequise() {
+        return heuresUtilisation > Robot.MAX_HEURES_AVANT_MAINTENANCE;
+    }
+
+    public double getTotalCarbonEmitted() {
+        return totalCarbonEmitted;
+    }
+
+    public boolean isConnecte() {
+        return connecte;
+    }
+
+    public String getReseauConnecte() {
+        return reseauConnecte;
+    }
+
+    public String getColisActuel() {
+        return colisActuel;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public boolean isEnLivraison() {
+        return enLivraison;
+    }
+
+    public int getCapacite() {
+        return capacite;
+    }
+}
@@ -0,0 +1,135 @@
+package com.insat.gl.robot;
+
+import com.insat.gl.robot.exceptions.RobotException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+
+/**
+ * Exécute des {@link TacheRobot} de manière asynchrone sur un {@link Executor}.
+ * Les tâches d'un même robot s'exécutent dans l'ordre de soumission, l'une après l'autre ;
+ * les tâches de robots différents s'exécutent en parallèle. Aucun thread n'attend
+ * d'entrée utilisateur : le résultat est rendu par un {@link CompletableFuture}.
+ */
+public class ExecuteurTaches {
+    private final Executor executor;
+    private final ForkJoinPool poolPropre;
+    private final ConcurrentHashMap<RobotLivraison, CompletableFuture<Void>> dernieres = new ConcurrentHashMap<>();
+
+    /**
+     * Constructeur pour ExecuteurTaches, utilisant le pool commun.
+     */
+    public ExecuteurTaches() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructeur pour ExecuteurTaches avec un pool dédié, arrêté par {@link #fermer()}.
+     * @param parallelisme Le nombre de threads du pool.
+     */
+    public ExecuteurTaches(int parallelisme) {
+        this.poolPropre = new ForkJoinPool(parallelisme);
+        this.executor = poolPropre;
+    }
+
+    /**
+     * Constructeur pour ExecuteurTaches sur un executor fourni (non arrêté par {@link #fermer()}).
+     * @param executor L'executor qui exécute les tâches.
+     */
+    public ExecuteurTaches(Executor executor) {
+        this.executor = executor;
+        this.poolPropre = null;
+    }
+
+    /**
+     * Soumet une tâche à un robot.
+     * @param robot Le robot qui doit réaliser la tâche.
+     * @param tache La tâche à réaliser.
+     * @return Un futur complété par le robot une fois la tâche réussie, ou en erreur si elle a échoué
+     *         ({@link RobotException}) ou si l'executor l'a refusée ({@link java.util.concurrent.RejectedExecutionException}).
+     */
+    public CompletableFuture<RobotLivraison> soumettre(RobotLivraison robot, TacheRobot tache) {
+        return enchainer(robot, tache::executer);
+    }
+
+    /**
+     * Soumet une tâche et notifie le rappel à la fin, avec le robot ou l'erreur rencontrée.
+     * @param robot Le robot qui doit réaliser la tâche.
+     * @param tache La tâche à réaliser.
+     * @param rappel Appelé avec (robot, null) en cas de succès ou (null, erreur) en cas d'échec.
+     */
+    public void soumettre(RobotLivraison robot, TacheRobot tache, BiConsumer<RobotLivraison, Throwable> rappel) {
+        soumettre(robot, tache).whenComplete((r, e) ->
+                rappel.accept(r, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
+    }
+
+    /**
+     * Fait exécuter au robot sa prochaine tâche planifiée (voir {@link RobotLivraison#effectuerTache()}).
+     * @param robot Le robot concerné.
+     * @return Un futur complété une fois la tâche traitée.
+     */
+    public CompletableFuture<RobotLivraison> effectuerTache(RobotLivraison robot) {
+        return enchainer(robot, RobotLivraison::effectuerTache);
+    }
+
+    /**
+     * @return Un futur complété lorsque toutes les tâches soumises jusqu'ici sont terminées.
+     */
+    public CompletableFuture<Void> toutesTerminees() {
+        return CompletableFuture.allOf(dernieres.values().toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Enchaîne une action après la dernière action soumise pour le même robot, qu'elle ait réussi ou non.
+     * L'action s'exécute sous le moniteur du robot, comme les mises à jour d'index de {@link RobotFleet}.
+     * Le futur rendu est toujours complété, y compris si l'executor refuse l'action ou si elle lève une {@link Error}.
+     */
+    private CompletableFuture<RobotLivraison> enchainer(RobotLivraison robot, Action action) {
+        CompletableFuture<RobotLivraison> resultat = new CompletableFuture<>();
+        CompletableFuture<Void> suite = dernieres.compute(robot, (r, precedente) -> {
+            CompletableFuture<Void> apres = precedente == null
+                    ? CompletableFuture.completedFuture(null)
+                    : precedente.handle((v, e) -> null);
+            return apres.thenRunAsync(() -> {
+                try {
+                    synchronized (robot) {
+                        action.executer(robot);
+                    }
+                    resultat.complete(robot);
+                } catch (RobotException | RuntimeException e) {
+                    resultat.completeExceptionally(e);
+                } catch (Error e) {
+                    resultat.completeExceptionally(e);
+                    throw e;
+                }
+            }, executor);
+        });
+        suite.whenComplete((v, e) -> {
+            dernieres.remove(robot, suite);
+            if (e != null) {
+                resultat.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        });
+        return resultat;
+    }
+
+    /**
+     * Arrête le pool dédié, s'il y en a un. Les tâches déjà soumises se terminent ; les suivantes échouent.
+     */
+    public void fermer() {
+        if (poolPropre != null) {
+            poolPropre.shutdown();
+        }
+    }
+
+    /**
+     * Action exécutée sur un robot, pouvant échouer.
+     */
+    @FunctionalInterface
+    private interface Action {
+        void executer(RobotLivraison robot) throws RobotException;
+    }
+}
@@ -0,0 +1,354 @@
+package com.insat.gl.robot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stockage d'une flotte de robots de livraison en tableaux parallèles (structure de tableaux).
+ * Chaque robot occupe un emplacement (slot) : sa position, son énergie, ses heures d'utilisation,
+ * ses émissions et ses indicateurs d'état sont rangés dans des tableaux primitifs indexés par slot.
+ * Les règles de déplacement et d'énergie de {@link RobotLivraison} s'appliquent directement sur
+ * ces tableaux, sans objet par robot ni historique. {@link RobotCompact} fournit une vue
+ * réutilisable exposant l'API habituelle d'un robot.
+ */
+public class FlotteCompacte {
+    static final byte EN_MARCHE = 1;
+    static final byte CONNECTE = 2;
+    static final byte EN_LIVRAISON = 4;
+
+    private static final int CAPACITE_INITIALE = 1024;
+
+    private int taille;
+    private String[] ids;
+    private int[] x;
+    private int[] y;
+    private int[] energie;
+    private int[] heuresUtilisation;
+    private double[] carboneEmis;
+    private byte[] etats;
+    private String[] colis;
+    private String[] destinations;
+    private String[] reseaux;
+    private final Map<String, Integer> slotsParId = new HashMap<>();
+
+    /**
+     * Constructeur pour une flotte compacte vide.
+     */
+    public FlotteCompacte() {
+        this(CAPACITE_INITIALE);
+    }
+
+    /**
+     * Constructeur pour FlotteCompacte.
+     * @param capacite Le nombre de robots prévu, pour éviter les réallocations.
+     */
+    public FlotteCompacte(int capacite) {
+        int c = Math.max(1, capacite);
+        ids = new String[c];
+        x = new int[c];
+        y = new int[c];
+        energie = new int[c];
+        heuresUtilisation = new int[c];
+        carboneEmis = new double[c];
+        etats = new byte[c];
+        colis = new String[c];
+        destinations = new String[c];
+        reseaux = new String[c];
+    }
+
+    /**
+     * Ajoute un robot à la flotte, avec l'état initial d'un {@link RobotLivraison} neuf.
+     * @param id L'identifiant unique du robot.
+     * @param x La position initiale en x.
+     * @param y La position initiale en y.
+     * @return Le slot attribué au robot.
+     * @throws IllegalArgumentException Si l'identifiant est déjà utilisé.
+     */
+    public int ajouter(String id, int x, int y) {
+        if (slotsParId.containsKey(id)) {
+            throw new IllegalArgumentException("L'ID du robot existe déjà : " + id);
+        }
+        if (taille == ids.length) {
+            agrandir(taille * 2);
+        }
+        int slot = taille++;
+        ids[slot] = id;
+        this.x[slot] = x;
+        this.y[slot] = y;
+        energie[slot] = 100;
+        slotsParId.put(id, slot);
+        return slot;
+    }
+
+    private void agrandir(int capacite) {
+        ids = Arrays.copyOf(ids, capacite);
+        x = Arrays.copyOf(x, capacite);
+        y = Arrays.copyOf(y, capacite);
+        energie = Arrays.copyOf(energie, capacite);
+        heuresUtilisation = Arrays.copyOf(heuresUtilisation, capacite);
+        carboneEmis = Arrays.copyOf(carboneEmis, capacite);
+        etats = Arrays.copyOf(etats, capacite);
+        colis = Arrays.copyOf(colis, capacite);
+        destinations = Arrays.copyOf(destinations, capacite);
+        reseaux = Arrays.copyOf(reseaux, capacite);
+    }
+
+    /**
+     * Recherche le slot d'un robot.
+     * @param id L'identifiant du robot.
+     * @return Le slot du robot, ou -1 s'il n'existe pas.
+     */
+    public int slot(String id) {
+        Integer slot = slotsParId.get(id);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * Crée une vue sur un robot de la flotte. La vue peut ensuite être repositionnée
+     * sur d'autres slots avec {@link RobotCompact#positionner(int)}.
+     * @param slot Le slot du robot.
+     * @return Une vue exposant l'API du robot.
+     */
+    public RobotCompact vue(int slot) {
+        verifierSlot(slot);
+        return new RobotCompact(this, slot);
+    }
+
+    void verifierSlot(int slot) {
+        if (slot < 0 || slot >= taille) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " hors de la flotte (taille " + taille + ").");
+        }
+    }
+
+    // Règles appliquées directement sur les tableaux
+
+    /**
+     * Allume le robot.
+     * @param slot Le slot du robot.
+     * @return {@link ResultatAction#ENERGIE_INSUFFISANTE} si l'énergie est sous le minimum de démarrage.
+     */
+    public ResultatAction demarrer(int slot) {
+        if ((etats[slot] & EN_MARCHE) != 0) {
+            return ResultatAction.SUCCES;
+        }
+        if (energie[slot] < Robot.MIN_ENERGIE_DEMARRAGE) {
+            return ResultatAction.ENERGIE_INSUFFISANTE;
+        }
+        etats[slot] |= EN_MARCHE;
+        return ResultatAction.SUCCES;
+    }
+
+    public void arreter(int slot) {
+        etats[slot] &= ~EN_MARCHE;
+    }
+
+    /**
+     * Réduit l'énergie du robot et comptabilise les émissions correspondantes.
+     * @param slot Le slot du robot.
+     * @param quantite La quantité d'énergie à consommer.
+     */
+    public void consommerEnergie(int slot, int quantite) {
+        if (quantite <= 0) {
+            return;
+        }
+        int consommee = Math.min(quantite, energie[slot]);
+        energie[slot] -= consommee;
+        carboneEmis[slot] += consommee * Robot.DEFAULT_CARBON_EMISSION_FACTOR;
+    }
+
+    public void recharger(int slot, int quantite) {
+        energie[slot] = Math.min(100, energie[slot] + quantite);
+    }
+
+    /**
+     * Recharge tous les robots dont l'énergie est sous un seuil.
+     * @param seuil Le seuil d'énergie déclenchant la recharge.
+     * @param quantite La quantité d'énergie ajoutée.
+     * @return Le nombre de robots rechargés.
+     */
+    public int rechargerSousSeuil(int seuil, int quantite) {
+        int recharges = 0;
+        for (int slot = 0; slot < taille; slot++) {
+            if (energie[slot] < seuil) {
+                energie[slot] = Math.min(100, energie[slot] + quantite);
+                recharges++;
+            }
+        }
+        return recharges;
+    }
+
+    /**
+     * Déplace le robot selon les règles de {@link RobotLivraison#deplacer(int, int)}.
+     * @param slot Le slot du robot.
+     * @param destX Coordonnée x de destination.
+     * @param destY Coordonnée y de destination.
+     * @return {@link ResultatAction#SUCCES} ou la raison du refus.
+     */
+    public ResultatAction deplacer(int slot, int destX, int destY) {
+        if ((etats[slot] & EN_MARCHE) == 0) {
+            return ResultatAction.NON_DEMARRE;
+        }
+        if (heuresUtilisation[slot] > Robot.MAX_HEURES_AVANT_MAINTENANCE) {
+            return ResultatAction.MAINTENANCE_REQUISE;
+        }
+        long dx = (long) destX - x[slot];
+        long dy = (long) destY - y[slot];
+        double distance = Math.sqrt((double) (dx * dx + dy * dy));
+        if (distance > RobotLivraison.MAX_DISTANCE_DEPLACEMENT) {
+            return ResultatAction.DISTANCE_TROP_GRANDE;
+        }
+        int energieRequise = RobotLivraison.energiePourDistance(distance);
+        if (energie[slot] < energieRequise) {
+            return ResultatAction.ENERGIE_INSUFFISANTE;
+        }
+        consommerEnergie(slot, energieRequise);
+        heuresUtilisation[slot] += (int) Math.ceil(distance / RobotLivraison.DISTANCE_PAR_HEURE);
+        x[slot] = destX;
+        y[slot] = destY;
+        return ResultatAction.SUCCES;
+    }
+
+    /**
+     * Charge un colis selon les règles de {@link RobotLivraison#chargerColis(String, String)}.
+     * @param slot Le slot du robot.
+     * @param colis Le nom ou la description du colis.
+     * @param destination La destination de livraison.
+     * @return {@link ResultatAction#SUCCES} ou la raison du refus.
+     */
+    public ResultatAction chargerColis(int slot, String colis, String destination) {
+        if ((etats[slot] & EN_MARCHE) == 0) {
+            return ResultatAction.NON_DEMARRE;
+        }
+        if ((etats[slot] & EN_LIVRAISON) != 0) {
+            return ResultatAction.DEJA_EN_LIVRAISON;
+        }
+        if (this.colis[slot] != null) {
+            return ResultatAction.DEJA_CHARGE;
+        }
+        if (heuresUtilisation[slot] > Robot.MAX_HEURES_AVANT_MAINTENANCE) {
+            return ResultatAction.MAINTENANCE_REQUISE;
+        }
+        if (energie[slot] < RobotLivraison.ENERGIE_CHARGEMENT) {
+            return ResultatAction.ENERGIE_INSUFFISANTE;
+        }
+        consommerEnergie(slot, RobotLivraison.ENERGIE_CHARGEMENT);
+        this.colis[slot] = colis;
+        destinations[slot] = destination;
+        etats[slot] |= EN_LIVRAISON;
+        return ResultatAction.SUCCES;
+    }
+
+    /**
+     * Livre le colis selon les règles de {@link RobotLivraison#faireLivraison(int, int)}.
+     * @param slot Le slot du robot.
+     * @param destX Coordonnée x de livraison.
+     * @param destY Coordonnée y de livraison.
+     * @return {@link ResultatAction#SUCCES} ou la raison du refus.
+     */
+    public ResultatAction faireLivraison(int slot, int destX, int destY) {
+        if ((etats[slot] & EN_MARCHE) == 0) {
+            return ResultatAction.NON_DEMARRE;
+        }
+        if ((etats[slot] & EN_LIVRAISON) == 0 || colis[slot] == null) {
+            return ResultatAction.PAS_DE_LIVRAISON;
+        }
+        ResultatAction deplacement = deplacer(slot, destX, destY);
+        if (!deplacement.estSucces()) {
+            return deplacement;
+        }
+        colis[slot] = null;
+        destinations[slot] = null;
+        etats[slot] &= ~EN_LIVRAISON;
+        if (energie[slot] >= RobotLivraison.ENERGIE_LIVRAISON) {
+            consommerEnergie(slot, RobotLivraison.ENERGIE_LIVRAISON);
+        }
+        return ResultatAction.SUCCES;
+    }
+
+    public ResultatAction connecter(int slot, String reseau) {
+        if ((etats[slot] & CONNECTE) != 0) {
+            return ResultatAction.DEJA_CONNECTE;
+        }
+        if (energie[slot] < RobotConnecte.ENERGIE_CONNEXION) {
+            return ResultatAction.ENERGIE_INSUFFISANTE;
+        }
+        consommerEnergie(slot, RobotConnecte.ENERGIE_CONNEXION);
+        etats[slot] |= CONNECTE;
+        reseaux[slot] = reseau;
+        return ResultatAction.SUCCES;
+    }
+
+    public void deconnecter(int slot) {
+        etats[slot] &= ~CONNECTE;
+        reseaux[slot] = null;
+    }
+
+    public ResultatAction envoyerDonnees(int slot) {
+        if ((etats[slot] & CONNECTE) == 0) {
+            return ResultatAction.NON_CONNECTE;
+        }
+        if (energie[slot] < RobotConnecte.ENERGIE_ENVOI_DONNEES) {
+            return ResultatAction.ENERGIE_INSUFFISANTE;
+        }
+        consommerEnergie(slot, RobotConnecte.ENERGIE_ENVOI_DONNEES);
+        return ResultatAction.SUCCES;
+    }
+
+    // Accès par slot
+    public int taille() {
+        return taille;
+    }
+
+    public String getId(int slot) {
+        return ids[slot];
+    }
+
+    public int getX(int slot) {
+        return x[slot];
+    }
+
+    public int getY(int slot) {
+        return y[slot];
+    }
+
+    public int getEnergie(int slot) {
+        return energie[slot];
+    }
+
+    public int getHeuresUtilisation(int slot) {
+        return heuresUtilisation[slot];
+    }
+
+    public double getTotalCarbonEmitted(int slot) {
+        return carboneEmis[slot];
+    }
+
+    public boolean isEnMarche(int slot) {
+        return (etats[slot] & EN_MARCHE) != 0;
+    }
+
+    public boolean isMaintenanceRequise(int slot) {
+        return heuresUtilisation[slot] > Robot.MAX_HEURES_AVANT_MAINTENANCE;
+    }
+
+    public boolean isConnecte(int slot) {
+        return (etats[slot] & CONNECTE) != 0;
+    }
+
+    public boolean isEnLivraison(int slot) {
+        return (etats[slot] & EN_LIVRAISON) != 0;
+    }
+
+    public String getColisActuel(int slot) {
+        return colis[slot];
+    }
+
+    public String getDestination(int slot) {
+        return destinations[slot];
+    }
+
+    public String getReseauConnecte(int slot) {
+        return reseaux[slot];
+    }
+}
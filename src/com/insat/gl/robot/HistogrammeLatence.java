@@ -0,0 +1,80 @@
+package com.insat.gl.robot;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de durées à classes logarithmiques (puissances de 2), sans verrou ni allocation à l'enregistrement.
+ * La classe {@code i} compte les durées de {@code 2^(i-1)} à {@code 2^i - 1} nanosecondes :
+ * les quantiles sont donc connus à un facteur 2 près, ce qui suffit pour repérer une régression.
+ */
+public class HistogrammeLatence {
+    private static final int NB_CLASSES = 64;
+
+    private final AtomicLongArray classes = new AtomicLongArray(NB_CLASSES);
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Enregistre une durée.
+     * @param dureeNanos La durée en nanosecondes.
+     */
+    public void enregistrer(long dureeNanos) {
+        long duree = Math.max(dureeNanos, 0);
+        classes.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(duree));
+        totalNanos.add(duree);
+        maxNanos.accumulate(duree);
+    }
+
+    /**
+     * Estime un quantile des durées enregistrées.
+     * @param q Le quantile recherché, entre 0 et 1 (0.99 pour le 99e centile).
+     * @return La borne supérieure de la classe contenant le quantile, en nanosecondes (0 si l'histogramme est vide).
+     */
+    public long quantileNanos(double q) {
+        long nombre = getNombre();
+        if (nombre == 0) {
+            return 0;
+        }
+        long rang = Math.max(1, (long) Math.ceil(q * nombre));
+        long cumul = 0;
+        for (int i = 0; i < NB_CLASSES; i++) {
+            cumul += classes.get(i);
+            if (cumul >= rang) {
+                long borne = i == NB_CLASSES - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+                return Math.min(borne, getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Remet l'histogramme à zéro. Les enregistrements concurrents peuvent être partiellement conservés.
+     */
+    public void reinitialiser() {
+        for (int i = 0; i < NB_CLASSES; i++) {
+            classes.set(i, 0);
+        }
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    // Getters
+    public long getNombre() {
+        long nombre = 0;
+        for (int i = 0; i < NB_CLASSES; i++) {
+            nombre += classes.get(i);
+        }
+        return nombre;
+    }
+
+    public double getMoyenneNanos() {
+        long nombre = getNombre();
+        return nombre == 0 ? 0.0 : (double) totalNanos.sum() / nombre;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+}
@@ -0,0 +1,31 @@
+package com.insat.gl.robot;
+
+/**
+ * Source de temps utilisée pour horodater les événements des robots.
+ * L'horloge par défaut suit le temps réel ({@link HorlogeSysteme}) ; une simulation peut lui substituer
+ * une {@link HorlogeVirtuelle} qu'elle fait avancer elle-même, plus vite que le temps réel.
+ */
+public interface Horloge {
+    /**
+     * Retourne l'instant courant.
+     * @return Le nombre de nanosecondes écoulées depuis l'époque Unix (1970-01-01T00:00Z).
+     */
+    long maintenantNanos();
+
+    /**
+     * Retourne l'instant courant en millisecondes.
+     * @return Le nombre de millisecondes écoulées depuis l'époque Unix.
+     */
+    default long maintenantMillis() {
+        return maintenantNanos() / 1_000_000L;
+    }
+
+    /**
+     * Retourne l'horloge système partagée, dont la granularité se règle avec la propriété système
+     * {@code robot.horloge.granulariteMillis} (0 par défaut : l'heure système est lue à chaque appel).
+     * @return L'horloge temps réel par défaut.
+     */
+    static Horloge systeme() {
+        return HorlogeSysteme.PAR_DEFAUT;
+    }
+}
@@ -0,0 +1,91 @@
+package com.insat.gl.robot;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Horloge temps réel, lue directement par défaut.
+ * Avec une granularité strictement positive, un thread démon relit l'heure système à chaque période et la
+ * publie dans un champ volatile : horodater un événement ne coûte alors qu'une lecture mémoire, et tous les
+ * événements d'une même période partagent le même horodatage. Ce thread ne démarre qu'à la première lecture
+ * et s'arrête avec {@link #arreter()} ; l'horloge lit ensuite l'heure système à chaque appel.
+ */
+public class HorlogeSysteme implements Horloge {
+    static final HorlogeSysteme PAR_DEFAUT = new HorlogeSysteme(Long.getLong("robot.horloge.granulariteMillis", 0));
+
+    private final long granulariteMillis;
+    private volatile long maintenantNanos;
+    private volatile boolean rafraichie;
+    private volatile boolean arretee;
+    private Thread rafraichisseur;
+
+    /**
+     * Constructeur pour HorlogeSysteme.
+     * @param granulariteMillis La période de rafraîchissement en millisecondes (0 pour une lecture à chaque appel).
+     */
+    public HorlogeSysteme(long granulariteMillis) {
+        if (granulariteMillis < 0) {
+            throw new IllegalArgumentException("Granularité d'horloge invalide : " + granulariteMillis);
+        }
+        this.granulariteMillis = granulariteMillis;
+    }
+
+    /**
+     * Démarre le thread de rafraîchissement, sauf s'il tourne déjà ou si l'horloge a été arrêtée.
+     */
+    private synchronized void demarrer() {
+        if (rafraichisseur != null || arretee) {
+            return;
+        }
+        maintenantNanos = lireSysteme();
+        rafraichisseur = new Thread(this::rafraichir, "horloge-systeme");
+        rafraichisseur.setDaemon(true);
+        rafraichisseur.start();
+        rafraichie = true;
+    }
+
+    /**
+     * Arrête le thread de rafraîchissement ; les lectures suivantes interrogent directement l'heure système.
+     * Sans effet si l'horloge est déjà arrêtée.
+     */
+    public synchronized void arreter() {
+        arretee = true;
+        rafraichie = false;
+        if (rafraichisseur != null) {
+            LockSupport.unpark(rafraichisseur);
+            rafraichisseur = null;
+        }
+    }
+
+    private void rafraichir() {
+        long periodeNanos = granulariteMillis * 1_000_000L;
+        while (!arretee) {
+            LockSupport.parkNanos(periodeNanos);
+            maintenantNanos = lireSysteme();
+        }
+    }
+
+    private static long lireSysteme() {
+        return System.currentTimeMillis() * 1_000_000L;
+    }
+
+    @Override
+    public long maintenantNanos() {
+        if (rafraichie) {
+            return maintenantNanos;
+        }
+        if (granulariteMillis == 0 || arretee) {
+            return lireSysteme();
+        }
+        demarrer();
+        return rafraichie ? maintenantNanos : lireSysteme();
+    }
+
+    // Getters
+    public long getGranulariteMillis() {
+        return granulariteMillis;
+    }
+
+    public boolean isArretee() {
+        return arretee;
+    }
+}
@@ -0,0 +1,61 @@
+package com.insat.gl.robot;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Horloge simulée : le temps n'avance que lorsque l'ordonnanceur de la simulation l'y invite.
+ * Tous les événements enregistrés entre deux avancées partagent le même horodatage, ce qui permet
+ * de simuler des jours d'exploitation en quelques secondes avec un historique cohérent.
+ */
+public class HorlogeVirtuelle implements Horloge {
+    private final AtomicLong maintenantNanos;
+
+    /**
+     * Constructeur pour HorlogeVirtuelle, démarrant à l'heure système courante.
+     */
+    public HorlogeVirtuelle() {
+        this(System.currentTimeMillis());
+    }
+
+    /**
+     * Constructeur pour HorlogeVirtuelle.
+     * @param origineMillis L'instant initial, en millisecondes depuis l'époque Unix.
+     */
+    public HorlogeVirtuelle(long origineMillis) {
+        this.maintenantNanos = new AtomicLong(origineMillis * 1_000_000L);
+    }
+
+    /**
+     * Fait avancer l'horloge.
+     * @param duree La durée écoulée.
+     * @param unite L'unité de la durée.
+     * @return Le nouvel instant, en nanosecondes depuis l'époque Unix.
+     */
+    public long avancer(long duree, TimeUnit unite) {
+        if (duree < 0) {
+            throw new IllegalArgumentException("Une horloge virtuelle ne recule pas : " + duree + " " + unite);
+        }
+        return maintenantNanos.addAndGet(unite.toNanos(duree));
+    }
+
+    /**
+     * Place l'horloge à un instant donné, qui ne peut précéder l'instant courant.
+     * @param instantMillis Le nouvel instant, en millisecondes depuis l'époque Unix.
+     */
+    public void regler(long instantMillis) {
+        long cible = instantMillis * 1_000_000L;
+        long actuel = maintenantNanos.get();
+        while (cible > actuel && !maintenantNanos.compareAndSet(actuel, cible)) {
+            actuel = maintenantNanos.get();
+        }
+        if (cible < actuel) {
+            throw new IllegalArgumentException("Une horloge virtuelle ne recule pas : " + instantMillis + " ms");
+        }
+    }
+
+    @Override
+    public long maintenantNanos() {
+        return maintenantNanos.get();
+    }
+}
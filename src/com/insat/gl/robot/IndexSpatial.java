@@ -0,0 +1,405 @@
+package com.insat.gl.robot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Index spatial des robots de livraison sur une grille uniforme.
+ * Chaque cellule carrée contient les robots dont la position y tombe ; un déplacement
+ * ne coûte qu'un changement de cellule. Les requêtes (k plus proches voisins, rayon)
+ * n'examinent que les cellules voisines du point recherché, en comparant des distances
+ * au carré entières.
+ * L'index est protégé par un verrou lecture/écriture : les requêtes peuvent s'exécuter
+ * en parallèle, les mises à jour sont exclusives.
+ */
+public class IndexSpatial {
+    private final int tailleCellule;
+    private final Map<Long, Cellule> cellules = new HashMap<>();
+    private final Map<RobotLivraison, Emplacement> emplacements = new HashMap<>();
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private int minCx = Integer.MAX_VALUE;
+    private int maxCx = Integer.MIN_VALUE;
+    private int minCy = Integer.MAX_VALUE;
+    private int maxCy = Integer.MIN_VALUE;
+
+    /**
+     * Constructeur pour IndexSpatial.
+     * @param tailleCellule La taille du côté d'une cellule, en unités de carte.
+     */
+    public IndexSpatial(int tailleCellule) {
+        if (tailleCellule <= 0) {
+            throw new IllegalArgumentException("La taille de cellule doit être strictement positive : " + tailleCellule);
+        }
+        this.tailleCellule = tailleCellule;
+    }
+
+    /**
+     * Ajoute un robot à l'index à sa position courante.
+     * @param robot Le robot à indexer.
+     */
+    public void ajouter(RobotLivraison robot) {
+        verrou.writeLock().lock();
+        try {
+            if (!emplacements.containsKey(robot)) {
+                placer(robot, cle(cellule(robot.getX()), cellule(robot.getY())));
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire un robot de l'index.
+     * @param robot Le robot à retirer.
+     */
+    public void retirer(RobotLivraison robot) {
+        verrou.writeLock().lock();
+        try {
+            Emplacement emplacement = emplacements.remove(robot);
+            if (emplacement != null) {
+                enleverDeCellule(emplacement);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Met à jour la cellule d'un robot d'après sa position courante.
+     * Ne fait rien si le robot est resté dans la même cellule.
+     * @param robot Le robot qui s'est déplacé.
+     */
+    public void mettreAJour(RobotLivraison robot) {
+        long nouvelleCle = cle(cellule(robot.getX()), cellule(robot.getY()));
+        verrou.writeLock().lock();
+        try {
+            Emplacement emplacement = emplacements.get(robot);
+            if (emplacement == null || emplacement.cle == nouvelleCle) {
+                return;
+            }
+            emplacements.remove(robot);
+            enleverDeCellule(emplacement);
+            placer(robot, nouvelleCle);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les k robots les plus proches d'un point satisfaisant un filtre.
+     * @param x Coordonnée x du point.
+     * @param y Coordonnée y du point.
+     * @param k Le nombre maximal de robots retournés.
+     * @param rayonMax La distance maximale de recherche.
+     * @param filtre Le critère que doivent satisfaire les robots retenus.
+     * @return Les robots trouvés, du plus proche au plus éloigné.
+     */
+    public List<RobotLivraison> plusProches(int x, int y, int k, int rayonMax, Predicate<? super RobotLivraison> filtre) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        long rayonMax2 = (long) rayonMax * rayonMax;
+        PriorityQueue<Candidat> meilleurs = new PriorityQueue<>(k + 1, Candidat.PLUS_ELOIGNE_D_ABORD);
+        verrou.readLock().lock();
+        try {
+            if (emplacements.isEmpty()) {
+                return new ArrayList<>();
+            }
+            int cx = cellule(x);
+            int cy = cellule(y);
+            int anneauMax = Math.max(Math.max(cx - minCx, maxCx - cx), Math.max(cy - minCy, maxCy - cy));
+            anneauMax = Math.min(anneauMax, rayonMax / tailleCellule + 1);
+            for (int anneau = 0; anneau <= anneauMax; anneau++) {
+                if (meilleurs.size() == k) {
+                    long distanceMinAnneau = (long) (anneau - 1) * tailleCellule;
+                    if (distanceMinAnneau > 0 && distanceMinAnneau * distanceMinAnneau > meilleurs.peek().distance2) {
+                        break;
+                    }
+                }
+                parcourirAnneau(cx, cy, anneau, x, y, k, rayonMax2, filtre, meilleurs);
+            }
+        } finally {
+            verrou.readLock().unlock();
+        }
+        Candidat[] tries = meilleurs.toArray(new Candidat[0]);
+        Arrays.sort(tries, Candidat.PLUS_ELOIGNE_D_ABORD.reversed());
+        List<RobotLivraison> resultat = new ArrayList<>(tries.length);
+        for (Candidat candidat : tries) {
+            resultat.add(candidat.robot);
+        }
+        return resultat;
+    }
+
+    /**
+     * Recherche les k robots les plus proches, démarrés, sans livraison en cours et capables
+     * d'atteindre le point en un déplacement (voir {@link RobotLivraison#peutAtteindre(int, int)}).
+     * @param x Coordonnée x du point.
+     * @param y Coordonnée y du point.
+     * @param k Le nombre maximal de robots retournés.
+     * @return Les robots disponibles, du plus proche au plus éloigné.
+     */
+    public List<RobotLivraison> plusProchesDisponibles(int x, int y, int k) {
+        return plusProches(x, y, k, RobotLivraison.MAX_DISTANCE_DEPLACEMENT,
+                robot -> !robot.isEnLivraison() && robot.peutAtteindre(x, y));
+    }
+
+    /**
+     * Recherche tous les robots situés à une distance au plus égale au rayon donné.
+     * @param x Coordonnée x du centre.
+     * @param y Coordonnée y du centre.
+     * @param rayon Le rayon de recherche.
+     * @param filtre Le critère que doivent satisfaire les robots retenus.
+     * @return Les robots trouvés, sans ordre particulier.
+     */
+    public List<RobotLivraison> dansRayon(int x, int y, int rayon, Predicate<? super RobotLivraison> filtre) {
+        List<RobotLivraison> resultat = new ArrayList<>();
+        long rayon2 = (long) rayon * rayon;
+        verrou.readLock().lock();
+        try {
+            int cxMin = Math.max(cellule(x - rayon), minCx);
+            int cxMax = Math.min(cellule(x + rayon), maxCx);
+            int cyMin = Math.max(cellule(y - rayon), minCy);
+            int cyMax = Math.min(cellule(y + rayon), maxCy);
+            for (int cx = cxMin; cx <= cxMax; cx++) {
+                for (int cy = cyMin; cy <= cyMax; cy++) {
+                    Cellule cellule = cellules.get(cle(cx, cy));
+                    if (cellule == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < cellule.taille; i++) {
+                        RobotLivraison robot = cellule.robots[i];
+                        if (distance2(robot, x, y) <= rayon2 && filtre.test(robot)) {
+                            resultat.add(robot);
+                        }
+                    }
+                }
+            }
+        } finally {
+            verrou.readLock().unlock();
+        }
+        return resultat;
+    }
+
+    /**
+     * Ajoute à une liste les robots des cellules qui recoupent un rectangle, par exemple la zone visible
+     * d'une carte. Les robots des cellules de bord peuvent être légèrement hors du rectangle : l'appelant
+     * filtre sur la position s'il le faut. La liste est fournie par l'appelant pour être réutilisée d'une
+     * requête à l'autre, et le verrou n'est tenu que le temps de la recopie.
+     * @param xMin Coordonnée x minimale.
+     * @param yMin Coordonnée y minimale.
+     * @param xMax Coordonnée x maximale.
+     * @param yMax Coordonnée y maximale.
+     * @param resultat La liste qui reçoit les robots.
+     * @return Le nombre de robots ajoutés.
+     */
+    public int dansRectangle(int xMin, int yMin, int xMax, int yMax, List<? super RobotLivraison> resultat) {
+        int avant = resultat.size();
+        verrou.readLock().lock();
+        try {
+            int cxMin = Math.max(cellule(xMin), minCx);
+            int cxMax = Math.min(cellule(xMax), maxCx);
+            int cyMin = Math.max(cellule(yMin), minCy);
+            int cyMax = Math.min(cellule(yMax), maxCy);
+            if (cxMin > cxMax || cyMin > cyMax) {
+                return 0;
+            }
+            if ((long) (cxMax - cxMin + 1) * (cyMax - cyMin + 1) > cellules.size()) {
+                // Rectangle plus grand que la partie occupée de la grille : parcourir les cellules existantes
+                for (Map.Entry<Long, Cellule> entree : cellules.entrySet()) {
+                    long cle = entree.getKey();
+                    int cx = celluleX(cle);
+                    int cy = celluleY(cle);
+                    if (cx >= cxMin && cx <= cxMax && cy >= cyMin && cy <= cyMax) {
+                        Cellule cellule = entree.getValue();
+                        resultat.addAll(Arrays.asList(cellule.robots).subList(0, cellule.taille));
+                    }
+                }
+            } else {
+                for (int cx = cxMin; cx <= cxMax; cx++) {
+                    for (int cy = cyMin; cy <= cyMax; cy++) {
+                        Cellule cellule = cellules.get(cle(cx, cy));
+                        if (cellule != null) {
+                            resultat.addAll(Arrays.asList(cellule.robots).subList(0, cellule.taille));
+                        }
+                    }
+                }
+            }
+        } finally {
+            verrou.readLock().unlock();
+        }
+        return resultat.size() - avant;
+    }
+
+    public int taille() {
+        verrou.readLock().lock();
+        try {
+            return emplacements.size();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    public int getTailleCellule() {
+        return tailleCellule;
+    }
+
+    private void parcourirAnneau(int cx, int cy, int anneau, int x, int y, int k, long rayonMax2,
+                                 Predicate<? super RobotLivraison> filtre, PriorityQueue<Candidat> meilleurs) {
+        for (int ix = cx - anneau; ix <= cx + anneau; ix++) {
+            boolean bord = ix == cx - anneau || ix == cx + anneau;
+            int pas = bord ? 1 : 2 * anneau;
+            for (int iy = cy - anneau; iy <= cy + anneau; iy += Math.max(pas, 1)) {
+                Cellule cellule = cellules.get(cle(ix, iy));
+                if (cellule == null) {
+                    continue;
+                }
+                for (int i = 0; i < cellule.taille; i++) {
+                    RobotLivraison robot = cellule.robots[i];
+                    long d2 = distance2(robot, x, y);
+                    if (d2 > rayonMax2) {
+                        continue;
+                    }
+                    if (meilleurs.size() == k && Candidat.comparer(d2, robot, meilleurs.peek()) >= 0) {
+                        continue;
+                    }
+                    if (!filtre.test(robot)) {
+                        continue;
+                    }
+                    meilleurs.add(new Candidat(robot, d2));
+                    if (meilleurs.size() > k) {
+                        meilleurs.poll();
+                    }
+                }
+            }
+        }
+    }
+
+    private void placer(RobotLivraison robot, long cle) {
+        Cellule cellule = cellules.computeIfAbsent(cle, c -> new Cellule());
+        Emplacement emplacement = new Emplacement(cle, cellule.taille);
+        cellule.ajouter(robot);
+        emplacements.put(robot, emplacement);
+
+        int cx = celluleX(cle);
+        int cy = celluleY(cle);
+        minCx = Math.min(minCx, cx);
+        maxCx = Math.max(maxCx, cx);
+        minCy = Math.min(minCy, cy);
+        maxCy = Math.max(maxCy, cy);
+    }
+
+    /**
+     * Retire le robot de sa cellule en déplaçant le dernier robot de la cellule à sa place.
+     */
+    private void enleverDeCellule(Emplacement emplacement) {
+        Cellule cellule = cellules.get(emplacement.cle);
+        RobotLivraison deplace = cellule.retirer(emplacement.index);
+        if (deplace != null) {
+            emplacements.get(deplace).index = emplacement.index;
+        }
+        if (cellule.taille == 0) {
+            cellules.remove(emplacement.cle);
+        }
+    }
+
+    private int cellule(int coordonnee) {
+        return Math.floorDiv(coordonnee, tailleCellule);
+    }
+
+    /**
+     * Code une cellule en clé de table. La moitié basse mélange cy avec un hachage de cx : sans cela,
+     * le hachage d'un {@link Long} (cx ^ cy) ne prend qu'une poignée de valeurs sur une grille compacte
+     * et les cellules s'entassent dans quelques compartiments de la table.
+     */
+    private static long cle(int cx, int cy) {
+        return ((long) cx << 32) | ((cy ^ melange(cx)) & 0xFFFFFFFFL);
+    }
+
+    private static int melange(int cx) {
+        return cx * 0x9E3779B1;
+    }
+
+    private static int celluleX(long cle) {
+        return (int) (cle >> 32);
+    }
+
+    private static int celluleY(long cle) {
+        return (int) cle ^ melange(celluleX(cle));
+    }
+
+    private static long distance2(RobotLivraison robot, int x, int y) {
+        long dx = (long) robot.getX() - x;
+        long dy = (long) robot.getY() - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Cellule de la grille : tableau compact des robots qu'elle contient.
+     */
+    private static class Cellule {
+        private RobotLivraison[] robots = new RobotLivraison[4];
+        private int taille;
+
+        void ajouter(RobotLivraison robot) {
+            if (taille == robots.length) {
+                robots = Arrays.copyOf(robots, taille * 2);
+            }
+            robots[taille++] = robot;
+        }
+
+        /**
+         * @return Le robot déplacé à l'index libéré, ou null si c'était le dernier.
+         */
+        RobotLivraison retirer(int index) {
+            taille--;
+            RobotLivraison dernier = robots[taille];
+            robots[taille] = null;
+            if (index == taille) {
+                return null;
+            }
+            robots[index] = dernier;
+            return dernier;
+        }
+    }
+
+    /**
+     * Position d'un robot dans l'index : clé de sa cellule et rang dans la cellule.
+     */
+    private static class Emplacement {
+        private final long cle;
+        private int index;
+
+        Emplacement(long cle, int index) {
+            this.cle = cle;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Robot candidat d'une recherche de plus proches voisins.
+     * À distance égale, l'identifiant départage pour un résultat déterministe.
+     */
+    private static class Candidat {
+        static final Comparator<Candidat> PLUS_ELOIGNE_D_ABORD = (a, b) -> -comparer(a.distance2, a.robot, b);
+
+        private final RobotLivraison robot;
+        private final long distance2;
+
+        Candidat(RobotLivraison robot, long distance2) {
+            this.robot = robot;
+            this.distance2 = distance2;
+        }
+
+        static int comparer(long distance2, RobotLivraison robot, Candidat autre) {
+            int c = Long.compare(distance2, autre.distance2);
+            return c != 0 ? c : robot.getId().compareTo(autre.robot.getId());
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package com.insat.gl.robot;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Instantané d'une flotte de robots de livraison dans un fichier projeté en mémoire.
+ * Le fichier contient un en-tête, un enregistrement de taille fixe par robot (position, énergie,
+ * heures, CO2, état, références vers le tas) puis un tas de chaînes (identifiants, colis,
+ * destinations, réseaux ; les destinations et réseaux répétés ne sont stockés qu'une fois) et de tournées.
+ * Les arrêts restants d'une tournée y suivent la disposition de {@link JournalActions} : leur nombre puis,
+ * pour chacun, sa position, son colis et sa destination (longueur -1 pour un texte absent).
+ * À l'ouverture, le fichier est seulement projeté : les champs se lisent directement dans la
+ * projection, et un {@link RobotLivraison} n'est reconstruit qu'au premier accès par {@link #robot(int)}.
+ * Les instantanés de la version 1, antérieurs à l'enregistrement des tournées, restent lisibles.
+ */
+public class InstantaneFlotte {
+    private static final int MARQUEUR = 0x52464C54;
+    private static final int VERSION = 2;
+    private static final int VERSION_SANS_TOURNEES = 1;
+    private static final int TAILLE_ENTETE = 24;
+    private static final int TAILLE_ENREGISTREMENT = 52;
+    private static final int TAILLE_ENREGISTREMENT_SANS_TOURNEES = 48;
+    private static final int TAILLE_MIN_ARRET = 16;
+    private static final int AUCUN_TEXTE = -1;
+
+    private static final int EN_MARCHE = 1;
+    private static final int EN_LIVRAISON = 2;
+
+    // Décalages des champs dans un enregistrement
+    private static final int X = 0;
+    private static final int Y = 4;
+    private static final int ENERGIE = 8;
+    private static final int HEURES = 12;
+    private static final int CARBONE = 16;
+    private static final int ETATS = 24;
+    private static final int CAPACITE = 28;
+    private static final int ID = 32;
+    private static final int COLIS = 36;
+    private static final int DESTINATION = 40;
+    private static final int RESEAU = 44;
+    private static final int ARRETS = 48;
+
+    private final ByteBuffer projection;
+    private final int taille;
+    private final int tailleEnregistrement;
+    private final int debutTas;
+    private final AtomicReferenceArray<RobotLivraison> robots;
+
+    private InstantaneFlotte(ByteBuffer projection, int taille, int tailleEnregistrement, int debutTas) {
+        this.projection = projection;
+        this.taille = taille;
+        this.tailleEnregistrement = tailleEnregistrement;
+        this.debutTas = debutTas;
+        this.robots = new AtomicReferenceArray<>(taille);
+    }
+
+    /**
+     * Enregistre l'état des robots dans un fichier, remplacé s'il existe.
+     * @param robots Les robots à enregistrer.
+     * @param fichier Le fichier de destination.
+     * @throws IOException Si l'écriture échoue ou si l'instantané dépasse 2 Go.
+     */
+    public static void enregistrer(Collection<? extends RobotLivraison> robots, Path fichier) throws IOException {
+        // Une image par robot : le dimensionnement et l'écriture voient le même état, même si les robots continuent d'agir.
+        // L'image et la tournée sont lues sous le moniteur du robot pour rester cohérentes entre elles
+        List<EtatRobot> tableau = new ArrayList<>(robots.size());
+        List<List<ArretLivraison>> tournees = new ArrayList<>(robots.size());
+        for (RobotLivraison robot : robots) {
+            synchronized (robot) {
+                tableau.add(robot.instantane());
+                tournees.add(robot.getArretsRestants());
+            }
+        }
+        int n = tableau.size();
+
+        Map<String, Integer> partages = new HashMap<>();
+        long tailleTas = 0;
+        for (int i = 0; i < n; i++) {
+            EtatRobot robot = tableau.get(i);
+            tailleTas += tailleTexte(robot.getId()) + tailleTexte(robot.getColisActuel());
+            tailleTas += taillePartagee(robot.getDestination(), partages) + taillePartagee(robot.getReseauConnecte(), partages);
+            tailleTas += tailleArrets(tournees.get(i));
+        }
+        long debutTas = TAILLE_ENTETE + (long) n * TAILLE_ENREGISTREMENT;
+        long tailleTotale = debutTas + tailleTas;
+        if (tailleTotale > Integer.MAX_VALUE) {
+            throw new IOException("Instantané trop volumineux : " + tailleTotale + " octets.");
+        }
+
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer tampon = canal.map(FileChannel.MapMode.READ_WRITE, 0, tailleTotale);
+            tampon.putInt(MARQUEUR).putInt(VERSION).putInt(n).putInt(0).putLong(debutTas);
+
+            partages.clear();
+            int curseurTas = (int) debutTas;
+            for (int i = 0; i < n; i++) {
+                EtatRobot robot = tableau.get(i);
+                int e = TAILLE_ENTETE + i * TAILLE_ENREGISTREMENT;
+                tampon.putInt(e + X, robot.getX());
+                tampon.putInt(e + Y, robot.getY());
+                tampon.putInt(e + ENERGIE, robot.getEnergie());
+                tampon.putInt(e + HEURES, robot.getHeuresUtilisation());
+                tampon.putDouble(e + CARBONE, robot.getTotalCarbonEmitted());
+                tampon.putInt(e + ETATS, (robot.isEnMarche() ? EN_MARCHE : 0) | (robot.isEnLivraison() ? EN_LIVRAISON : 0));
+                tampon.putInt(e + CAPACITE, robot.getCapacite());
+
+                tampon.putInt(e + ID, curseurTas);
+                curseurTas = ecrireTexte(tampon, curseurTas, robot.getId());
+                String colis = robot.getColisActuel();
+                tampon.putInt(e + COLIS, colis == null ? AUCUN_TEXTE : curseurTas);
+                curseurTas = ecrireTexte(tampon, curseurTas, colis);
+                curseurTas = ecrirePartage(tampon, e + DESTINATION, curseurTas, robot.getDestination(), partages);
+                curseurTas = ecrirePartage(tampon, e + RESEAU, curseurTas, robot.isConnecte() ? robot.getReseauConnecte() : null, partages);
+                List<ArretLivraison> arrets = tournees.get(i);
+                tampon.putInt(e + ARRETS, arrets.isEmpty() ? AUCUN_TEXTE : curseurTas);
+                curseurTas = ecrireArrets(tampon, curseurTas, arrets);
+            }
+            tampon.force();
+        }
+    }
+
+    /**
+     * Ouvre un instantané en projetant le fichier en mémoire, sans reconstruire de robot.
+     * @param fichier Le fichier à ouvrir.
+     * @return L'instantané.
+     * @throws IOException Si la lecture échoue ou si le fichier n'est pas un instantané valide.
+     */
+    public static InstantaneFlotte ouvrir(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long tailleFichier = canal.size();
+            if (tailleFichier < TAILLE_ENTETE || tailleFichier > Integer.MAX_VALUE) {
+                throw new StreamCorruptedException("Taille d'instantané invalide : " + tailleFichier + " octets.");
+            }
+            MappedByteBuffer projection = canal.map(FileChannel.MapMode.READ_ONLY, 0, tailleFichier);
+            int version = projection.getInt(4);
+            if (projection.getInt(0) != MARQUEUR || (version != VERSION && version != VERSION_SANS_TOURNEES)) {
+                throw new StreamCorruptedException("Le fichier " + fichier + " n'est pas un instantané de flotte.");
+            }
+            int tailleEnregistrement = version == VERSION ? TAILLE_ENREGISTREMENT : TAILLE_ENREGISTREMENT_SANS_TOURNEES;
+            int taille = projection.getInt(8);
+            long debutTas = projection.getLong(16);
+            if (taille < 0 || debutTas != TAILLE_ENTETE + (long) taille * tailleEnregistrement || debutTas > tailleFichier) {
+                throw new StreamCorruptedException("En-tête d'instantané incohérent dans " + fichier + ".");
+            }
+            return new InstantaneFlotte(projection, taille, tailleEnregistrement, (int) debutTas);
+        }
+    }
+
+    /**
+     * Retourne le robot d'index donné, reconstruit au premier accès puis conservé.
+     * Peut être appelée depuis plusieurs threads.
+     * @param i L'index du robot dans l'instantané.
+     * @return Le robot restauré.
+     */
+    public RobotLivraison robot(int i) {
+        RobotLivraison robot = robots.get(i);
+        if (robot == null) {
+            robot = reconstruire(i);
+            if (!robots.compareAndSet(i, null, robot)) {
+                robot = robots.get(i);
+            }
+        }
+        return robot;
+    }
+
+    /**
+     * Restaure tous les robots de l'instantané dans une flotte.
+     * @param flotte La flotte de destination.
+     * @return Le nombre de robots ajoutés (les identifiants déjà présents sont ignorés).
+     */
+    public int restaurer(RobotFleet flotte) {
+        int ajoutes = 0;
+        for (int i = 0; i < taille; i++) {
+            if (flotte.ajouter(robot(i))) {
+                ajoutes++;
+            }
+        }
+        return ajoutes;
+    }
+
+    private RobotLivraison reconstruire(int i) {
+        int e = enregistrement(i);
+        RobotLivraison robot = new RobotLivraison(lireTexte(projection.getInt(e + ID)),
+                projection.getInt(e + X), projection.getInt(e + Y));
+        int etats = projection.getInt(e + ETATS);
+        robot.restaurerEtat(projection.getInt(e + ENERGIE), projection.getInt(e + HEURES), projection.getDouble(e + CARBONE),
+                (etats & EN_MARCHE) != 0, lireTexte(projection.getInt(e + RESEAU)), lireTexte(projection.getInt(e + COLIS)),
+                lireTexte(projection.getInt(e + DESTINATION)), (etats & EN_LIVRAISON) != 0, projection.getInt(e + CAPACITE));
+        List<ArretLivraison> arrets = getArretsRestants(i);
+        if (!arrets.isEmpty()) {
+            robot.restaurerTournee(arrets);
+        }
+        return robot;
+    }
+
+    private int enregistrement(int i) {
+        if (i < 0 || i >= taille) {
+            throw new IndexOutOfBoundsException("Index " + i + " hors de l'instantané (taille " + taille + ").");
+        }
+        return TAILLE_ENTETE + i * tailleEnregistrement;
+    }
+
+    private List<ArretLivraison> lireArrets(int position) {
+        if (position == AUCUN_TEXTE) {
+            return Collections.emptyList();
+        }
+        if (position < debutTas || position > projection.limit() - 4) {
+            throw new IllegalStateException("Référence de tournée invalide dans l'instantané : " + position);
+        }
+        int nombre = projection.getInt(position);
+        int disponibles = projection.limit() - position - 4;
+        if (nombre < 0 || nombre > disponibles / TAILLE_MIN_ARRET) {
+            throw new IllegalStateException("Nombre d'arrêts invalide dans l'instantané : " + nombre + " à la position " + position + ".");
+        }
+        List<ArretLivraison> arrets = new ArrayList<>(nombre);
+        int curseur = position + 4;
+        for (int k = 0; k < nombre; k++) {
+            int x = projection.getInt(curseur);
+            int y = projection.getInt(curseur + 4);
+            curseur += 8;
+            String colis = lireTexteEnLigne(curseur);
+            curseur += tailleTexteEnLigne(colis);
+            String destination = lireTexteEnLigne(curseur);
+            curseur += tailleTexteEnLigne(destination);
+            arrets.add(new ArretLivraison(colis, destination, x, y));
+        }
+        return arrets;
+    }
+
+    /**
+     * Lit un texte écrit en place, dont la longueur -1 désigne un texte absent.
+     */
+    private String lireTexteEnLigne(int position) {
+        if (position > projection.limit() - 4) {
+            throw new IllegalStateException("Texte tronqué dans l'instantané à la position " + position + ".");
+        }
+        return projection.getInt(position) == AUCUN_TEXTE ? null : lireTexte(position);
+    }
+
+    private String lireTexte(int position) {
+        if (position == AUCUN_TEXTE) {
+            return null;
+        }
+        if (position < debutTas || position > projection.limit() - 4) {
+            throw new IllegalStateException("Référence de texte invalide dans l'instantané : " + position);
+        }
+        int longueur = projection.getInt(position);
+        int disponibles = projection.limit() - position - 4;
+        if (longueur < 0 || longueur > disponibles) {
+            throw new IllegalStateException("Longueur de texte invalide dans l'instantané : " + longueur
+                    + " octets à la position " + position + " (" + disponibles + " disponibles).");
+        }
+        byte[] octets = new byte[longueur];
+        projection.get(position + 4, octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+
+    private static long tailleTexte(String texte) {
+        return texte == null ? 0 : 4 + longueurUtf8(texte);
+    }
+
+    private static int tailleTexteEnLigne(String texte) {
+        return 4 + (texte == null ? 0 : longueurUtf8(texte));
+    }
+
+    private static long tailleArrets(List<ArretLivraison> arrets) {
+        if (arrets.isEmpty()) {
+            return 0;
+        }
+        long taille = 4;
+        for (ArretLivraison arret : arrets) {
+            taille += 8 + tailleTexteEnLigne(arret.getColis()) + tailleTexteEnLigne(arret.getDestination());
+        }
+        return taille;
+    }
+
+    private static long taillePartagee(String texte, Map<String, Integer> partages) {
+        if (texte == null || partages.putIfAbsent(texte, 0) != null) {
+            return 0;
+        }
+        return tailleTexte(texte);
+    }
+
+    private static int ecrireTexte(ByteBuffer tampon, int position, String texte) {
+        if (texte == null) {
+            return position;
+        }
+        byte[] octets = texte.getBytes(StandardCharsets.UTF_8);
+        tampon.putInt(position, octets.length);
+        tampon.put(position + 4, octets);
+        return position + 4 + octets.length;
+    }
+
+    private static int ecrireTexteEnLigne(ByteBuffer tampon, int position, String texte) {
+        if (texte == null) {
+            tampon.putInt(position, AUCUN_TEXTE);
+            return position + 4;
+        }
+        return ecrireTexte(tampon, position, texte);
+    }
+
+    private static int ecrireArrets(ByteBuffer tampon, int position, List<ArretLivraison> arrets) {
+        if (arrets.isEmpty()) {
+            return position;
+        }
+        tampon.putInt(position, arrets.size());
+        position += 4;
+        for (ArretLivraison arret : arrets) {
+            tampon.putInt(position, arret.getX());
+            tampon.putInt(position + 4, arret.getY());
+            position = ecrireTexteEnLigne(tampon, position + 8, arret.getColis());
+            position = ecrireTexteEnLigne(tampon, position, arret.getDestination());
+        }
+        return position;
+    }
+
+    /**
+     * Écrit la référence d'un texte partagé, en ne stockant le texte qu'à sa première occurrence.
+     */
+    private static int ecrirePartage(ByteBuffer tampon, int champ, int position, String texte, Map<String, Integer> partages) {
+        if (texte == null) {
+            tampon.putInt(champ, AUCUN_TEXTE);
+            return position;
+        }
+        Integer existant = partages.get(texte);
+        if (existant != null) {
+            tampon.putInt(champ, existant);
+            return position;
+        }
+        partages.put(texte, position);
+        tampon.putInt(champ, position);
+        return ecrireTexte(tampon, position, texte);
+    }
+
+    private static int longueurUtf8(String texte) {
+        int longueur = 0;
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            if (c < 0x80) {
+                longueur += 1;
+            } else if (c < 0x800) {
+                longueur += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < texte.length() && Character.isLowSurrogate(texte.charAt(i + 1))) {
+                longueur += 4;
+                i++;
+            } else {
+                longueur += 3;
+            }
+        }
+        return longueur;
+    }
+
+    public int taille() {
+        return taille;
+    }
+
+    // Accès direct aux champs enregistrés, sans reconstruire le robot
+    public String getId(int i) {
+        return lireTexte(projection.getInt(enregistrement(i) + ID));
+    }
+
+    public int getX(int i) {
+        return projection.getInt(enregistrement(i) + X);
+    }
+
+    public int getY(int i) {
+        return projection.getInt(enregistrement(i) + Y);
+    }
+
+    public int getEnergie(int i) {
+        return projection.getInt(enregistrement(i) + ENERGIE);
+    }
+
+    public int getHeuresUtilisation(int i) {
+        return projection.getInt(enregistrement(i) + HEURES);
+    }
+
+    public double getTotalCarbonEmitted(int i) {
+        return projection.getDouble(enregistrement(i) + CARBONE);
+    }
+
+    public boolean isEnMarche(int i) {
+        return (projection.getInt(enregistrement(i) + ETATS) & EN_MARCHE) != 0;
+    }
+
+    public boolean isEnLivraison(int i) {
+        return (projection.getInt(enregistrement(i) + ETATS) & EN_LIVRAISON) != 0;
+    }
+
+    /**
+     * @param i L'index du robot dans l'instantané.
+     * @return Les arrêts restants de sa tournée, le premier étant le colis en cours ; vide hors tournée
+     *         ou pour un instantané de la version 1.
+     */
+    public List<ArretLivraison> getArretsRestants(int i) {
+        int e = enregistrement(i);
+        return tailleEnregistrement == TAILLE_ENREGISTREMENT ? lireArrets(projection.getInt(e + ARRETS)) : Collections.emptyList();
+    }
+}
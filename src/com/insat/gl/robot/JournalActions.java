@@ -0,0 +1,565 @@
+package com.insat.gl.robot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Journal d'actions en ajout seul (write-ahead log) pour l'audit et la reprise après incident.
+ * Observateur des robots suivis, il enregistre après chaque action significative (démarrage,
+ * déplacement, chargement, livraison, recharge...) l'image complète de l'état du robot.
+ * Les enregistrements de tous les robots sont accumulés dans un tampon commun ; un thread
+ * d'écriture les écrit par lots dans des segments de taille bornée et les synchronise selon la
+ * {@link PolitiqueSynchronisation} : en mode groupé, un seul {@code force()} rend durable tout
+ * un lot d'actions concurrentes.
+ * Format d'un enregistrement : longueur (int), CRC32 de la charge (int), puis la charge
+ * (séquence, horodatage, type, position, énergie, heures, CO2, état, capacité, textes, puis le nombre
+ * d'arrêts restants de la tournée et, pour chacun, sa position, son colis et sa destination).
+ * {@link RejeuJournal} relit les segments pour reconstruire les robots.
+ * Le journal n'interrompt jamais l'action d'un robot : après une erreur d'écriture, ou une fois le journal
+ * fermé, les enregistrements des robots suivis sont perdus et comptés ({@link #getNombreEnregistrementsPerdus()}),
+ * et l'erreur est remontée par {@link #synchroniser()}, {@link #fermer()} et {@link #getErreur()}.
+ */
+public class JournalActions implements ObservateurRobot {
+    public static final long TAILLE_SEGMENT_PAR_DEFAUT = 64L * 1024 * 1024;
+    public static final long INTERVALLE_PERIODIQUE_MILLIS_PAR_DEFAUT = 100;
+
+    static final String PREFIXE_SEGMENT = "journal-";
+    static final String SUFFIXE_SEGMENT = ".wal";
+    static final int EN_MARCHE = 1;
+    static final int EN_LIVRAISON = 2;
+
+    private static final int TAILLE_TAMPON_INITIALE = 64 * 1024;
+    private static final Set<TypeEvenement> TYPES_JOURNALISES = EnumSet.of(
+            TypeEvenement.DEMARRAGE, TypeEvenement.ARRET, TypeEvenement.DEPLACEMENT, TypeEvenement.CHARGEMENT,
+            TypeEvenement.CHARGEMENT_TOURNEE, TypeEvenement.LIVRAISON_TERMINEE, TypeEvenement.LIVRAISON_TERMINEE_SANS_DECOMPTE,
+            TypeEvenement.RECHARGE, TypeEvenement.MAINTENANCE, TypeEvenement.CONNEXION, TypeEvenement.DECONNEXION,
+            TypeEvenement.RESTAURATION);
+
+    private final Path dossier;
+    private final PolitiqueSynchronisation politique;
+    private final long tailleSegment;
+    private final long intervallePeriodiqueNanos;
+
+    private final ReentrantLock verrou = new ReentrantLock();
+    private final Condition donneesDisponibles = verrou.newCondition();
+    private final Condition lotDurable = verrou.newCondition();
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer tamponCourant = ByteBuffer.allocate(TAILLE_TAMPON_INITIALE);
+    private ByteBuffer tamponLibre = ByteBuffer.allocate(TAILLE_TAMPON_INITIALE);
+    private long sequence;
+    private long sequenceSynchronisee;
+    private boolean synchronisationDemandee;
+    private boolean ferme;
+    private IOException erreur;
+    private final Thread ecrivain;
+    private final Set<Robot> suivis = ConcurrentHashMap.newKeySet();
+
+    // Segment courant, écrit par un seul thread à la fois : le thread d'écriture,
+    // ou le détenteur du verrou en mode synchrone
+    private FileChannel segment;
+    private int numeroSegment;
+    private long tailleSegmentCourant;
+    private volatile long dernierForceNanos = System.nanoTime();
+    private volatile boolean nonSynchronise;
+
+    private long nombreEnregistrements;
+    private long nombreEnregistrementsPerdus;
+    private volatile long nombreLots;
+    private volatile long nombreForce;
+    private volatile long octetsEcrits;
+
+    /**
+     * Constructeur pour JournalActions avec une synchronisation groupée et des segments de taille par défaut.
+     * @param dossier Le dossier des segments, créé au besoin.
+     * @throws IOException Si le premier segment ne peut être créé.
+     */
+    public JournalActions(Path dossier) throws IOException {
+        this(dossier, PolitiqueSynchronisation.GROUPEE, TAILLE_SEGMENT_PAR_DEFAUT, INTERVALLE_PERIODIQUE_MILLIS_PAR_DEFAUT);
+    }
+
+    /**
+     * Constructeur pour JournalActions. Les segments existants ne sont jamais modifiés :
+     * l'écriture reprend dans un nouveau segment.
+     * @param dossier Le dossier des segments, créé au besoin.
+     * @param politique La politique de synchronisation sur disque.
+     * @param tailleSegment La taille à partir de laquelle un nouveau segment est commencé.
+     * @param intervallePeriodiqueMillis Le délai maximal avant synchronisation en mode {@link PolitiqueSynchronisation#PERIODIQUE}.
+     * @throws IOException Si le premier segment ne peut être créé.
+     */
+    public JournalActions(Path dossier, PolitiqueSynchronisation politique, long tailleSegment, long intervallePeriodiqueMillis)
+            throws IOException {
+        if (tailleSegment <= 0 || intervallePeriodiqueMillis < 0) {
+            throw new IllegalArgumentException("Paramètres de journal invalides : segment " + tailleSegment + ", intervalle " + intervallePeriodiqueMillis);
+        }
+        this.dossier = dossier;
+        this.politique = politique;
+        this.tailleSegment = tailleSegment;
+        this.intervallePeriodiqueNanos = TimeUnit.MILLISECONDS.toNanos(intervallePeriodiqueMillis);
+        Files.createDirectories(dossier);
+        List<Path> existants = listerSegments(dossier);
+        this.numeroSegment = existants.isEmpty() ? 0 : numeroDe(existants.get(existants.size() - 1));
+        ouvrirSegmentSuivant();
+
+        if (politique == PolitiqueSynchronisation.SYNCHRONE) {
+            this.ecrivain = null;
+        } else {
+            this.ecrivain = new Thread(this::boucleEcriture, "journal-actions");
+            this.ecrivain.setDaemon(true);
+            this.ecrivain.start();
+        }
+    }
+
+    /**
+     * Suit un robot : ses actions significatives seront journalisées.
+     * @param robot Le robot à suivre.
+     */
+    public void suivre(Robot robot) {
+        if (suivis.add(robot)) {
+            robot.ajouterObservateur(this);
+        }
+    }
+
+    /**
+     * Cesse de suivre un robot.
+     * @param robot Le robot à ne plus suivre.
+     */
+    public void oublier(Robot robot) {
+        if (suivis.remove(robot)) {
+            robot.retirerObservateur(this);
+        }
+    }
+
+    @Override
+    public void etatModifie(Robot robot) {
+    }
+
+    /**
+     * Journalise l'état du robot après une action significative et, selon la politique,
+     * attend que l'enregistrement soit durable. Appelée depuis les mutateurs du robot, elle ne lève
+     * aucune exception : un enregistrement que le journal ne peut plus rendre durable est compté comme perdu.
+     * @param robot Le robot concerné.
+     * @param type Le type de l'événement.
+     */
+    @Override
+    public void evenementAjoute(Robot robot, TypeEvenement type) {
+        if (TYPES_JOURNALISES.contains(type) && robot instanceof RobotLivraison) {
+            journaliser((RobotLivraison) robot, type);
+        }
+    }
+
+    /**
+     * Ajoute l'image de l'état d'un robot au journal.
+     * @param robot Le robot dont l'état est journalisé.
+     * @param type L'action qui vient d'être réalisée.
+     * @throws UncheckedIOException Si le journal a rencontré une erreur d'écriture, ou est fermé.
+     */
+    public void enregistrer(RobotLivraison robot, TypeEvenement type) {
+        IOException echec = journaliser(robot, type);
+        if (echec != null) {
+            throw new UncheckedIOException("Échec de l'écriture du journal d'actions.", echec);
+        }
+    }
+
+    /**
+     * Ajoute l'image de l'état d'un robot au journal et, selon la politique, attend qu'elle soit durable.
+     * @return null si l'enregistrement a été accepté, sinon la cause de sa perte (erreur d'écriture ou journal fermé).
+     */
+    private IOException journaliser(RobotLivraison robot, TypeEvenement type) {
+        verrou.lock();
+        try {
+            IOException echec = erreur != null ? erreur : ferme ? new IOException("Le journal d'actions est fermé.") : null;
+            if (echec == null) {
+                echec = ajouter(robot, type);
+            }
+            if (echec != null) {
+                nombreEnregistrementsPerdus++;
+            }
+            return echec;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Encode l'enregistrement et l'écrit ou le confie au thread d'écriture. Appelée sous le verrou.
+     * @return null en cas de succès, sinon l'erreur d'écriture qui empêche de le rendre durable.
+     */
+    private IOException ajouter(RobotLivraison robot, TypeEvenement type) {
+        long numero = ++sequence;
+        encoder(numero, robot, type);
+        nombreEnregistrements++;
+        if (politique == PolitiqueSynchronisation.SYNCHRONE) {
+            try {
+                ecrireLot(tamponCourant, true);
+                sequenceSynchronisee = numero;
+            } catch (IOException e) {
+                erreur = e;
+                return e;
+            }
+            return null;
+        }
+        donneesDisponibles.signal();
+        if (politique == PolitiqueSynchronisation.GROUPEE) {
+            while (sequenceSynchronisee < numero && erreur == null) {
+                lotDurable.awaitUninterruptibly();
+            }
+            if (sequenceSynchronisee < numero) {
+                return erreur;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Écrit et synchronise tous les enregistrements en attente.
+     * @throws IOException Si l'écriture a échoué.
+     */
+    public void synchroniser() throws IOException {
+        verrou.lock();
+        try {
+            long cible = sequence;
+            if (ecrivain != null) {
+                synchronisationDemandee = true;
+                donneesDisponibles.signal();
+                while (sequenceSynchronisee < cible && erreur == null) {
+                    lotDurable.awaitUninterruptibly();
+                }
+            }
+            if (erreur != null) {
+                throw erreur;
+            }
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Cesse de suivre tous les robots, écrit les enregistrements en attente, synchronise le segment courant
+     * et arrête le thread d'écriture.
+     * @throws IOException Si l'écriture ou la fermeture échoue.
+     */
+    public void fermer() throws IOException {
+        for (Robot robot : suivis) {
+            oublier(robot);
+        }
+        verrou.lock();
+        try {
+            if (ferme) {
+                return;
+            }
+            ferme = true;
+            donneesDisponibles.signal();
+        } finally {
+            verrou.unlock();
+        }
+        if (ecrivain != null) {
+            try {
+                ecrivain.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        verrou.lock();
+        try {
+            if (segment != null) {
+                segment.force(true);
+                segment.close();
+                segment = null;
+            }
+            if (erreur != null) {
+                throw erreur;
+            }
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Boucle du thread d'écriture : échange les tampons, écrit le lot, synchronise selon la politique.
+     */
+    private void boucleEcriture() {
+        while (true) {
+            ByteBuffer lot;
+            long dernier;
+            boolean forcer;
+            verrou.lock();
+            try {
+                while (tamponCourant.position() == 0 && !ferme && !synchronisationDemandee && !synchronisationPeriodiqueEchue()) {
+                    if (politique == PolitiqueSynchronisation.PERIODIQUE && nonSynchronise) {
+                        long restant = intervallePeriodiqueNanos - (System.nanoTime() - dernierForceNanos);
+                        donneesDisponibles.awaitNanos(Math.max(restant, 1));
+                    } else {
+                        donneesDisponibles.await();
+                    }
+                }
+                if (tamponCourant.position() == 0 && ferme) {
+                    return;
+                }
+                forcer = politique == PolitiqueSynchronisation.GROUPEE || synchronisationDemandee || ferme;
+                synchronisationDemandee = false;
+                lot = tamponCourant;
+                tamponCourant = tamponLibre;
+                tamponLibre = null;
+                dernier = sequence;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                verrou.unlock();
+            }
+
+            IOException echec = null;
+            boolean synchronise = false;
+            try {
+                synchronise = ecrireLot(lot, forcer || synchronisationPeriodiqueEchue());
+            } catch (IOException e) {
+                echec = e;
+            }
+
+            verrou.lock();
+            try {
+                tamponLibre = lot;
+                if (echec != null) {
+                    erreur = echec;
+                } else if (synchronise) {
+                    sequenceSynchronisee = dernier;
+                }
+                lotDurable.signalAll();
+                if (echec != null) {
+                    return;
+                }
+            } finally {
+                verrou.unlock();
+            }
+        }
+    }
+
+    private boolean synchronisationPeriodiqueEchue() {
+        return politique == PolitiqueSynchronisation.PERIODIQUE && nonSynchronise
+                && System.nanoTime() - dernierForceNanos >= intervallePeriodiqueNanos;
+    }
+
+    /**
+     * Écrit un lot dans le segment courant, en commençant un nouveau segment si nécessaire,
+     * puis vide le tampon.
+     * @return true si tout ce qui a été écrit jusqu'ici est synchronisé sur disque.
+     */
+    private boolean ecrireLot(ByteBuffer lot, boolean forcer) throws IOException {
+        lot.flip();
+        int taille = lot.remaining();
+        if (taille > 0) {
+            if (tailleSegmentCourant > 0 && tailleSegmentCourant + taille > tailleSegment) {
+                segment.force(true);
+                nombreForce++;
+                segment.close();
+                ouvrirSegmentSuivant();
+            }
+            while (lot.hasRemaining()) {
+                segment.write(lot);
+            }
+            tailleSegmentCourant += taille;
+            octetsEcrits += taille;
+            nombreLots++;
+            nonSynchronise = true;
+        }
+        lot.clear();
+        if (forcer && nonSynchronise) {
+            segment.force(false);
+            nombreForce++;
+            nonSynchronise = false;
+            dernierForceNanos = System.nanoTime();
+        }
+        return !nonSynchronise;
+    }
+
+    private void ouvrirSegmentSuivant() throws IOException {
+        numeroSegment++;
+        Path chemin = dossier.resolve(String.format("%s%08d%s", PREFIXE_SEGMENT, numeroSegment, SUFFIXE_SEGMENT));
+        segment = FileChannel.open(chemin, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        tailleSegmentCourant = 0;
+    }
+
+    /**
+     * Encode l'image du robot à la fin du tampon courant. Appelée sous le verrou.
+     */
+    private void encoder(long numero, RobotLivraison robot, TypeEvenement type) {
+        byte[] id = octets(robot.getId());
+        byte[] colis = octets(robot.getColisActuel());
+        byte[] destination = octets(robot.getDestination());
+        byte[] reseau = octets(robot.isConnecte() ? robot.getReseauConnecte() : null);
+        List<ArretLivraison> arrets = robot.getArretsRestants();
+        byte[][] textesArrets = new byte[2 * arrets.size()][];
+        int charge = 8 + 8 + 4 + 4 + 4 + 4 + 4 + 8 + 4 + 4
+                + tailleTexte(id) + tailleTexte(colis) + tailleTexte(destination) + tailleTexte(reseau) + 4;
+        for (int i = 0; i < arrets.size(); i++) {
+            textesArrets[2 * i] = octets(arrets.get(i).getColis());
+            textesArrets[2 * i + 1] = octets(arrets.get(i).getDestination());
+            charge += 4 + 4 + tailleTexte(textesArrets[2 * i]) + tailleTexte(textesArrets[2 * i + 1]);
+        }
+        reserver(8 + charge);
+
+        ByteBuffer tampon = tamponCourant;
+        int debut = tampon.position();
+        tampon.putInt(charge);
+        tampon.putInt(0);
+        tampon.putLong(numero);
+        tampon.putLong(robot.getHorloge().maintenantMillis());
+        tampon.putInt(type.ordinal());
+        tampon.putInt(robot.getX());
+        tampon.putInt(robot.getY());
+        tampon.putInt(robot.getEnergie());
+        tampon.putInt(robot.getHeuresUtilisation());
+        tampon.putDouble(robot.getTotalCarbonEmitted());
+        tampon.putInt((robot.isEnMarche() ? EN_MARCHE : 0) | (robot.isEnLivraison() ? EN_LIVRAISON : 0));
+        tampon.putInt(robot.getCapacite());
+        ecrireTexte(tampon, id);
+        ecrireTexte(tampon, colis);
+        ecrireTexte(tampon, destination);
+        ecrireTexte(tampon, reseau);
+        tampon.putInt(arrets.size());
+        for (int i = 0; i < arrets.size(); i++) {
+            tampon.putInt(arrets.get(i).getX());
+            tampon.putInt(arrets.get(i).getY());
+            ecrireTexte(tampon, textesArrets[2 * i]);
+            ecrireTexte(tampon, textesArrets[2 * i + 1]);
+        }
+
+        crc.reset();
+        crc.update(tampon.array(), tampon.arrayOffset() + debut + 8, charge);
+        tampon.putInt(debut + 4, (int) crc.getValue());
+    }
+
+    private void reserver(int taille) {
+        if (tamponCourant.remaining() < taille) {
+            ByteBuffer agrandi = ByteBuffer.allocate(Math.max(tamponCourant.capacity() * 2, tamponCourant.position() + taille));
+            tamponCourant.flip();
+            agrandi.put(tamponCourant);
+            tamponCourant = agrandi;
+        }
+    }
+
+    private static byte[] octets(String texte) {
+        return texte == null ? null : texte.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int tailleTexte(byte[] texte) {
+        return 4 + (texte == null ? 0 : texte.length);
+    }
+
+    private static void ecrireTexte(ByteBuffer tampon, byte[] texte) {
+        if (texte == null) {
+            tampon.putInt(-1);
+        } else {
+            tampon.putInt(texte.length);
+            tampon.put(texte);
+        }
+    }
+
+    /**
+     * @return Les segments du dossier, dans l'ordre d'écriture.
+     */
+    static List<Path> listerSegments(Path dossier) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(dossier)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> flux = Files.newDirectoryStream(dossier, PREFIXE_SEGMENT + "*" + SUFFIXE_SEGMENT)) {
+            for (Path chemin : flux) {
+                segments.add(chemin);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static int numeroDe(Path segment) {
+        String nom = segment.getFileName().toString();
+        return Integer.parseInt(nom.substring(PREFIXE_SEGMENT.length(), nom.length() - SUFFIXE_SEGMENT.length()));
+    }
+
+    // Getters
+    public Path getDossier() {
+        return dossier;
+    }
+
+    public PolitiqueSynchronisation getPolitique() {
+        return politique;
+    }
+
+    public long getNombreEnregistrements() {
+        verrou.lock();
+        try {
+            return nombreEnregistrements;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * @return Le nombre d'enregistrements perdus après une erreur d'écriture ou la fermeture du journal.
+     */
+    public long getNombreEnregistrementsPerdus() {
+        verrou.lock();
+        try {
+            return nombreEnregistrementsPerdus;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * @return La première erreur d'écriture rencontrée, ou null ; le journal n'écrit plus rien après elle.
+     */
+    public IOException getErreur() {
+        verrou.lock();
+        try {
+            return erreur;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    public boolean isFerme() {
+        verrou.lock();
+        try {
+            return ferme;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * @return Le nombre de lots écrits ; rapporté au nombre d'enregistrements, il mesure le regroupement.
+     */
+    public long getNombreLots() {
+        return nombreLots;
+    }
+
+    /**
+     * @return Le nombre d'appels à {@code force()}.
+     */
+    public long getNombreForce() {
+        return nombreForce;
+    }
+
+    public long getOctetsEcrits() {
+        return octetsEcrits;
+    }
+}
@@ -0,0 +1,255 @@
+package com.insat.gl.robot;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Historique compact des actions d'un robot.
+ * Les événements sont stockés sous forme primitive (code, horodatage en nanosecondes
+ * depuis l'epoch, arguments entiers, réels et textuels) dans un tampon circulaire borné.
+ * Le formatage en texte n'a lieu qu'à la lecture ou à l'export.
+ * Les tableaux grandissent à la demande jusqu'à la capacité, pour qu'un robot peu actif
+ * ne réserve pas toute sa rétention dès sa création.
+ */
+public class JournalEvenements {
+    public static final int NB_ARGS_ENTIERS = 6;
+    public static final int NB_ARGS_REELS = 2;
+    public static final int NB_ARGS_TEXTE = 2;
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd MMMM yyyy HH:mm:ss");
+    private static final long NANOS_PAR_SECONDE = 1_000_000_000L;
+    private static final int TAILLE_INITIALE = 16;
+
+    private int capacite;
+    private int[] codes;
+    private long[] horodatages;
+    private int[] entiers;
+    private double[] reels;
+    private String[] textes;
+    private int debut;
+    private int taille;
+    private long total;
+
+    /**
+     * Constructeur pour JournalEvenements.
+     * @param capacite Le nombre maximal d'événements conservés (0 pour ne rien conserver).
+     */
+    public JournalEvenements(int capacite) {
+        if (capacite < 0) {
+            throw new IllegalArgumentException("La capacité de l'historique doit être positive : " + capacite);
+        }
+        allouer(capacite, Math.min(capacite, TAILLE_INITIALE));
+    }
+
+    private void allouer(int nouvelleCapacite, int longueur) {
+        this.capacite = nouvelleCapacite;
+        this.codes = new int[longueur];
+        this.horodatages = new long[longueur];
+        this.entiers = new int[longueur * NB_ARGS_ENTIERS];
+        this.reels = new double[longueur * NB_ARGS_REELS];
+        this.textes = new String[longueur * NB_ARGS_TEXTE];
+        this.debut = 0;
+        this.taille = 0;
+    }
+
+    /**
+     * Agrandit les tableaux tant que la capacité n'est pas atteinte.
+     * Le tampon n'a pas encore fait le tour à ce stade : les événements sont contigus à partir de 0.
+     */
+    private void agrandir() {
+        int longueur = Math.min(capacite, Math.max(TAILLE_INITIALE, codes.length * 2));
+        codes = Arrays.copyOf(codes, longueur);
+        horodatages = Arrays.copyOf(horodatages, longueur);
+        entiers = Arrays.copyOf(entiers, longueur * NB_ARGS_ENTIERS);
+        reels = Arrays.copyOf(reels, longueur * NB_ARGS_REELS);
+        textes = Arrays.copyOf(textes, longueur * NB_ARGS_TEXTE);
+    }
+
+    /**
+     * Enregistre un événement. Lorsque le tampon est plein, l'événement le plus ancien est écrasé.
+     * @param type Le type de l'événement.
+     * @param horodatageNanos L'horodatage en nanosecondes depuis l'epoch.
+     * @param i0 Premier argument entier.
+     * @param i1 Deuxième argument entier.
+     * @param i2 Troisième argument entier.
+     * @param i3 Quatrième argument entier.
+     * @param i4 Cinquième argument entier.
+     * @param i5 Sixième argument entier.
+     * @param d0 Premier argument réel.
+     * @param d1 Second argument réel.
+     * @param s0 Premier argument textuel.
+     * @param s1 Second argument textuel.
+     */
+    public void ajouter(TypeEvenement type, long horodatageNanos, int i0, int i1, int i2, int i3, int i4, int i5,
+                        double d0, double d1, String s0, String s1) {
+        total++;
+        if (capacite == 0) {
+            return;
+        }
+        int slot;
+        if (taille < capacite) {
+            if (taille == codes.length) {
+                agrandir();
+            }
+            slot = taille;
+            taille++;
+        } else {
+            slot = debut;
+            debut = (debut + 1) % capacite;
+        }
+        codes[slot] = type.ordinal();
+        horodatages[slot] = horodatageNanos;
+        int e = slot * NB_ARGS_ENTIERS;
+        entiers[e] = i0;
+        entiers[e + 1] = i1;
+        entiers[e + 2] = i2;
+        entiers[e + 3] = i3;
+        entiers[e + 4] = i4;
+        entiers[e + 5] = i5;
+        int r = slot * NB_ARGS_REELS;
+        reels[r] = d0;
+        reels[r + 1] = d1;
+        int t = slot * NB_ARGS_TEXTE;
+        textes[t] = s0;
+        textes[t + 1] = s1;
+    }
+
+    /**
+     * Modifie la rétention de l'historique en conservant les événements les plus récents.
+     * @param nouvelleCapacite Le nouveau nombre maximal d'événements conservés.
+     */
+    public void redimensionner(int nouvelleCapacite) {
+        if (nouvelleCapacite < 0) {
+            throw new IllegalArgumentException("La capacité de l'historique doit être positive : " + nouvelleCapacite);
+        }
+        int[] anciensCodes = codes;
+        long[] anciensHorodatages = horodatages;
+        int[] anciensEntiers = entiers;
+        double[] anciensReels = reels;
+        String[] anciensTextes = textes;
+        int ancienneCapacite = capacite;
+        int ancienDebut = debut;
+        int conserves = Math.min(taille, nouvelleCapacite);
+        int premier = taille - conserves;
+
+        allouer(nouvelleCapacite, Math.max(conserves, Math.min(nouvelleCapacite, TAILLE_INITIALE)));
+        for (int n = 0; n < conserves; n++) {
+            int source = (ancienDebut + premier + n) % ancienneCapacite;
+            codes[n] = anciensCodes[source];
+            horodatages[n] = anciensHorodatages[source];
+            System.arraycopy(anciensEntiers, source * NB_ARGS_ENTIERS, entiers, n * NB_ARGS_ENTIERS, NB_ARGS_ENTIERS);
+            System.arraycopy(anciensReels, source * NB_ARGS_REELS, reels, n * NB_ARGS_REELS, NB_ARGS_REELS);
+            System.arraycopy(anciensTextes, source * NB_ARGS_TEXTE, textes, n * NB_ARGS_TEXTE, NB_ARGS_TEXTE);
+        }
+        taille = conserves;
+    }
+
+    /**
+     * Copie le journal, pour le formater sans bloquer le robot qui continue d'y écrire.
+     * @return Un journal indépendant contenant les mêmes événements.
+     */
+    public JournalEvenements copier() {
+        JournalEvenements copie = new JournalEvenements(0);
+        copie.capacite = capacite;
+        copie.codes = codes.clone();
+        copie.horodatages = horodatages.clone();
+        copie.entiers = entiers.clone();
+        copie.reels = reels.clone();
+        copie.textes = textes.clone();
+        copie.debut = debut;
+        copie.taille = taille;
+        copie.total = total;
+        return copie;
+    }
+
+    /**
+     * Formate les événements conservés, du plus ancien au plus récent, une ligne par événement.
+     * @param out La destination du texte formaté.
+     * @throws IOException Si l'écriture dans la destination échoue.
+     */
+    public void exporter(Appendable out) throws IOException {
+        ZoneId zone = ZoneId.systemDefault();
+        long secondePrecedente = Long.MIN_VALUE;
+        String horodatageFormate = null;
+        Object[] arguments = new Object[NB_ARGS_ENTIERS + NB_ARGS_REELS + NB_ARGS_TEXTE];
+
+        for (int n = 0; n < taille; n++) {
+            int slot = (debut + n) % capacite;
+            long seconde = Math.floorDiv(horodatages[slot], NANOS_PAR_SECONDE);
+            if (seconde != secondePrecedente) {
+                horodatageFormate = LocalDateTime.ofInstant(Instant.ofEpochSecond(seconde), zone).format(DATE_FORMATTER);
+                secondePrecedente = seconde;
+            }
+            out.append(horodatageFormate).append(' ').append(formaterMessage(slot, arguments)).append('\n');
+        }
+    }
+
+    private String formaterMessage(int slot, Object[] arguments) {
+        TypeEvenement type = TypeEvenement.depuisCode(codes[slot]);
+        if (type == TypeEvenement.LIBRE) {
+            return textes[slot * NB_ARGS_TEXTE];
+        }
+        int a = 0;
+        for (int k = 0; k < NB_ARGS_ENTIERS; k++) {
+            arguments[a++] = entiers[slot * NB_ARGS_ENTIERS + k];
+        }
+        for (int k = 0; k < NB_ARGS_REELS; k++) {
+            arguments[a++] = reels[slot * NB_ARGS_REELS + k];
+        }
+        for (int k = 0; k < NB_ARGS_TEXTE; k++) {
+            arguments[a++] = textes[slot * NB_ARGS_TEXTE + k];
+        }
+        return String.format(type.getModele(), arguments);
+    }
+
+    /**
+     * Retourne le type de l'événement à la position donnée (0 = le plus ancien conservé).
+     * @param index La position de l'événement.
+     * @return Le type de l'événement.
+     */
+    public TypeEvenement getType(int index) {
+        return TypeEvenement.depuisCode(codes[slot(index)]);
+    }
+
+    /**
+     * Retourne l'horodatage, en nanosecondes depuis l'epoch, de l'événement à la position donnée.
+     * @param index La position de l'événement.
+     * @return L'horodatage de l'événement.
+     */
+    public long getHorodatage(int index) {
+        return horodatages[slot(index)];
+    }
+
+    private int slot(int index) {
+        if (index < 0 || index >= taille) {
+            throw new IndexOutOfBoundsException("Index " + index + " hors de l'historique (taille " + taille + ").");
+        }
+        return (debut + index) % capacite;
+    }
+
+    public int getCapacite() {
+        return capacite;
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+
+    /**
+     * @return Le nombre total d'événements enregistrés depuis la création, y compris ceux écrasés.
+     */
+    public long getNombreTotal() {
+        return total;
+    }
+
+    /**
+     * @return Le nombre d'événements écrasés faute de place.
+     */
+    public long getNombrePerdus() {
+        return total - taille;
+    }
+}
@@ -0,0 +1,118 @@
+package com.insat.gl.robot;
+
+/**
+ * Instantané des métriques d'un {@link ActeursRobots}.
+ */
+public class MetriquesActeurs {
+    private static final double NANOS_PAR_SECONDE = 1_000_000_000.0;
+    private static final double NANOS_PAR_MICRO = 1_000.0;
+
+    private final int acteurs;
+    private final long deposees;
+    private final long rejetees;
+    private final long traitees;
+    private final long echecs;
+    private final long profondeur;
+    private final long profondeurMax;
+    private final long attenteP50Nanos;
+    private final long attenteP99Nanos;
+    private final long traitementP50Nanos;
+    private final long traitementP99Nanos;
+    private final long traitementMaxNanos;
+    private final long dureeNanos;
+
+    /**
+     * Constructeur pour MetriquesActeurs.
+     * @param acteurs Le nombre de robots ayant une boîte aux lettres.
+     * @param deposees Le nombre de commandes acceptées dans les boîtes.
+     * @param rejetees Le nombre de commandes rejetées faute de place.
+     * @param traitees Le nombre de commandes exécutées, réussies ou non.
+     * @param echecs Le nombre de commandes dont l'exécution a échoué.
+     * @param profondeur Le nombre de commandes actuellement en attente, toutes boîtes confondues.
+     * @param profondeurMax La profondeur maximale observée dans une boîte.
+     * @param attente Les durées d'attente des commandes dans les boîtes.
+     * @param traitement Les durées d'exécution des commandes.
+     * @param dureeNanos Le temps écoulé depuis la création des acteurs.
+     */
+    public MetriquesActeurs(int acteurs, long deposees, long rejetees, long traitees, long echecs, long profondeur,
+                            long profondeurMax, HistogrammeLatence attente, HistogrammeLatence traitement, long dureeNanos) {
+        this.acteurs = acteurs;
+        this.deposees = deposees;
+        this.rejetees = rejetees;
+        this.traitees = traitees;
+        this.echecs = echecs;
+        this.profondeur = profondeur;
+        this.profondeurMax = profondeurMax;
+        this.attenteP50Nanos = attente.quantileNanos(0.50);
+        this.attenteP99Nanos = attente.quantileNanos(0.99);
+        this.traitementP50Nanos = traitement.quantileNanos(0.50);
+        this.traitementP99Nanos = traitement.quantileNanos(0.99);
+        this.traitementMaxNanos = traitement.getMaxNanos();
+        this.dureeNanos = dureeNanos;
+    }
+
+    /**
+     * @return Le débit moyen de traitement depuis la création des acteurs, en commandes par seconde.
+     */
+    public double getDebitTraitement() {
+        return dureeNanos == 0 ? 0.0 : traitees * NANOS_PAR_SECONDE / dureeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Acteurs %d [Déposées: %d, Rejetées: %d, Traitées: %d, Échecs: %d, En attente: %d (max %d par boîte), "
+                        + "Attente p50/p99: %.1f/%.1f µs, Traitement p50/p99/max: %.1f/%.1f/%.1f µs, Débit: %.0f cmd/s]",
+                acteurs, deposees, rejetees, traitees, echecs, profondeur, profondeurMax,
+                attenteP50Nanos / NANOS_PAR_MICRO, attenteP99Nanos / NANOS_PAR_MICRO, traitementP50Nanos / NANOS_PAR_MICRO,
+                traitementP99Nanos / NANOS_PAR_MICRO, traitementMaxNanos / NANOS_PAR_MICRO, getDebitTraitement());
+    }
+
+    // Getters
+    public int getActeurs() {
+        return acteurs;
+    }
+
+    public long getDeposees() {
+        return deposees;
+    }
+
+    public long getRejetees() {
+        return rejetees;
+    }
+
+    public long getTraitees() {
+        return traitees;
+    }
+
+    public long getEchecs() {
+        return echecs;
+    }
+
+    public long getProfondeur() {
+        return profondeur;
+    }
+
+    public long getProfondeurMax() {
+        return profondeurMax;
+    }
+
+    public long getAttenteP50Nanos() {
+        return attenteP50Nanos;
+    }
+
+    public long getAttenteP99Nanos() {
+        return attenteP99Nanos;
+    }
+
+    public long getTraitementP50Nanos() {
+        return traitementP50Nanos;
+    }
+
+    public long getTraitementP99Nanos() {
+        return traitementP99Nanos;
+    }
+
+    public long getTraitementMaxNanos() {
+        return traitementMaxNanos;
+    }
+}
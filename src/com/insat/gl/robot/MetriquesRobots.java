@@ -0,0 +1,287 @@
+package com.insat.gl.robot;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Métriques des opérations de robots : nombre de succès et d'échecs, échecs par cause,
+ * énergie consommée, CO2 émis et histogramme des durées, par {@link OperationRobot}.
+ * Activées par la propriété système {@code robot.metriques=true}, lue une fois au chargement :
+ * désactivées, les points de mesure se réduisent à un test d'une constante que le compilateur JIT élimine.
+ * Une fois activées, elles sont publiées en JMX sous {@value #NOM_JMX} et, si la propriété
+ * {@code robot.metriques.periodeDump} (en secondes) est positive, écrites périodiquement sur la sortie standard.
+ */
+public final class MetriquesRobots implements MetriquesRobotsMXBean {
+    public static final boolean ACTIVES = Boolean.getBoolean("robot.metriques");
+    public static final String NOM_JMX = "com.insat.gl:type=MetriquesRobots";
+
+    private static final OperationRobot[] OPERATIONS = OperationRobot.values();
+    private static final ResultatAction[] CAUSES = ResultatAction.values();
+    private static final double NANOS_PAR_MICRO = 1_000.0;
+    private static final MetriquesRobots INSTANCE = new MetriquesRobots();
+
+    private final LongAdder[] succes = compteurs(OPERATIONS.length);
+    private final LongAdder[] echecs = compteurs(OPERATIONS.length);
+    private final LongAdder[] energieParOperation = compteurs(OPERATIONS.length);
+    private final LongAdder[] echecsParCause = compteurs(CAUSES.length);
+    private final HistogrammeLatence[] latences = new HistogrammeLatence[OPERATIONS.length];
+    private final LongAdder energieConsommee = new LongAdder();
+    private final DoubleAdder carboneEmis = new DoubleAdder();
+    private ScheduledExecutorService dump;
+
+    static {
+        if (ACTIVES) {
+            try {
+                publierJmx();
+            } catch (JMException e) {
+                System.err.println("Métriques des robots non publiées en JMX : " + e.getMessage());
+            }
+            long periode = Long.getLong("robot.metriques.periodeDump", 0);
+            if (periode > 0) {
+                demarrerDumpPeriodique(periode, System.out);
+            }
+        }
+    }
+
+    private MetriquesRobots() {
+        for (int i = 0; i < latences.length; i++) {
+            latences[i] = new HistogrammeLatence();
+        }
+    }
+
+    private static LongAdder[] compteurs(int nombre) {
+        LongAdder[] compteurs = new LongAdder[nombre];
+        for (int i = 0; i < nombre; i++) {
+            compteurs[i] = new LongAdder();
+        }
+        return compteurs;
+    }
+
+    /**
+     * @return L'instance unique des métriques.
+     */
+    public static MetriquesRobots getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Enregistre l'issue d'une opération. À n'appeler que si {@link #ACTIVES} est vrai.
+     * @param operation L'opération mesurée.
+     * @param resultat Son issue.
+     * @param dureeNanos Sa durée en nanosecondes.
+     * @param energie L'énergie consommée par l'opération (ignorée si négative, pour une recharge).
+     */
+    static void enregistrer(OperationRobot operation, ResultatAction resultat, long dureeNanos, int energie) {
+        int i = operation.ordinal();
+        if (resultat == ResultatAction.SUCCES) {
+            INSTANCE.succes[i].increment();
+        } else {
+            INSTANCE.echecs[i].increment();
+            INSTANCE.echecsParCause[resultat.ordinal()].increment();
+        }
+        if (energie > 0) {
+            INSTANCE.energieParOperation[i].add(energie);
+        }
+        INSTANCE.latences[i].enregistrer(dureeNanos);
+    }
+
+    /**
+     * Enregistre une consommation d'énergie et le CO2 correspondant. À n'appeler que si {@link #ACTIVES} est vrai.
+     * @param energie L'énergie consommée.
+     * @param carbone Le CO2 émis, en grammes.
+     */
+    static void consommation(int energie, double carbone) {
+        INSTANCE.energieConsommee.add(energie);
+        INSTANCE.carboneEmis.add(carbone);
+    }
+
+    /**
+     * Enregistre le bean des métriques auprès du serveur JMX de la plateforme, s'il ne l'est pas déjà.
+     * @throws JMException Si l'enregistrement échoue.
+     */
+    public static synchronized void publierJmx() throws JMException {
+        MBeanServer serveur = ManagementFactory.getPlatformMBeanServer();
+        ObjectName nom = new ObjectName(NOM_JMX);
+        if (!serveur.isRegistered(nom)) {
+            serveur.registerMBean(INSTANCE, nom);
+        }
+    }
+
+    /**
+     * Écrit périodiquement le rapport des métriques, depuis un thread démon.
+     * Remplace un dump périodique déjà démarré.
+     * @param periodeSecondes La période en secondes.
+     * @param sortie La destination du rapport.
+     */
+    public static synchronized void demarrerDumpPeriodique(long periodeSecondes, PrintStream sortie) {
+        arreterDumpPeriodique();
+        INSTANCE.dump = Executors.newSingleThreadScheduledExecutor(tache -> {
+            Thread thread = new Thread(tache, "metriques-robots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        INSTANCE.dump.scheduleAtFixedRate(() -> sortie.println(INSTANCE.rapport()), periodeSecondes, periodeSecondes, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Arrête le dump périodique, s'il a été démarré.
+     */
+    public static synchronized void arreterDumpPeriodique() {
+        if (INSTANCE.dump != null) {
+            INSTANCE.dump.shutdownNow();
+            INSTANCE.dump = null;
+        }
+    }
+
+    /**
+     * @param operation Une opération.
+     * @return L'histogramme des durées de l'opération.
+     */
+    public HistogrammeLatence getLatence(OperationRobot operation) {
+        return latences[operation.ordinal()];
+    }
+
+    public long getSucces(OperationRobot operation) {
+        return succes[operation.ordinal()].sum();
+    }
+
+    public long getEchecs(OperationRobot operation) {
+        return echecs[operation.ordinal()].sum();
+    }
+
+    public long getEchecs(ResultatAction cause) {
+        return echecsParCause[cause.ordinal()].sum();
+    }
+
+    @Override
+    public String rapport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Métriques des robots [Énergie consommée: %d%%, CO2: %.2fg]%n", getEnergieConsommee(), getCarboneEmis()));
+        for (OperationRobot operation : OPERATIONS) {
+            int i = operation.ordinal();
+            HistogrammeLatence latence = latences[i];
+            if (latence.getNombre() == 0) {
+                continue;
+            }
+            sb.append(String.format("  %-18s succès: %d, échecs: %d, énergie: %d%%, latence moy/p50/p99/max: %.1f/%.1f/%.1f/%.1f µs%n",
+                    operation, succes[i].sum(), echecs[i].sum(), energieParOperation[i].sum(),
+                    latence.getMoyenneNanos() / NANOS_PAR_MICRO, latence.quantileNanos(0.5) / NANOS_PAR_MICRO,
+                    latence.quantileNanos(0.99) / NANOS_PAR_MICRO, latence.getMaxNanos() / NANOS_PAR_MICRO));
+        }
+        for (ResultatAction cause : CAUSES) {
+            long nombre = echecsParCause[cause.ordinal()].sum();
+            if (nombre > 0) {
+                sb.append(String.format("  Échecs %-20s %d%n", cause + " :", nombre));
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void reinitialiser() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            succes[i].reset();
+            echecs[i].reset();
+            energieParOperation[i].reset();
+            latences[i].reinitialiser();
+        }
+        for (LongAdder compteur : echecsParCause) {
+            compteur.reset();
+        }
+        energieConsommee.reset();
+        carboneEmis.reset();
+    }
+
+    private static Map<String, Long> parOperation(LongAdder[] compteurs) {
+        Map<String, Long> valeurs = new LinkedHashMap<>();
+        for (OperationRobot operation : OPERATIONS) {
+            valeurs.put(operation.name(), compteurs[operation.ordinal()].sum());
+        }
+        return valeurs;
+    }
+
+    private Map<String, Double> latencesMicros(ToDoubleFunction<HistogrammeLatence> mesure) {
+        Map<String, Double> valeurs = new LinkedHashMap<>();
+        for (OperationRobot operation : OPERATIONS) {
+            valeurs.put(operation.name(), mesure.applyAsDouble(latences[operation.ordinal()]) / NANOS_PAR_MICRO);
+        }
+        return valeurs;
+    }
+
+    private Map<String, Double> quantilesMicros(double q) {
+        return latencesMicros(latence -> latence.quantileNanos(q));
+    }
+
+    // Getters
+    @Override
+    public boolean isActives() {
+        return ACTIVES;
+    }
+
+    @Override
+    public long getEnergieConsommee() {
+        return energieConsommee.sum();
+    }
+
+    @Override
+    public double getCarboneEmis() {
+        return carboneEmis.sum();
+    }
+
+    @Override
+    public Map<String, Long> getSucces() {
+        return parOperation(succes);
+    }
+
+    @Override
+    public Map<String, Long> getEchecs() {
+        return parOperation(echecs);
+    }
+
+    @Override
+    public Map<String, Long> getEchecsParCause() {
+        Map<String, Long> valeurs = new LinkedHashMap<>();
+        for (ResultatAction cause : CAUSES) {
+            if (cause != ResultatAction.SUCCES) {
+                valeurs.put(cause.name(), echecsParCause[cause.ordinal()].sum());
+            }
+        }
+        return valeurs;
+    }
+
+    @Override
+    public Map<String, Long> getEnergieParOperation() {
+        return parOperation(energieParOperation);
+    }
+
+    @Override
+    public Map<String, Double> getLatenceMoyenneMicros() {
+        return latencesMicros(HistogrammeLatence::getMoyenneNanos);
+    }
+
+    @Override
+    public Map<String, Double> getLatenceP50Micros() {
+        return quantilesMicros(0.5);
+    }
+
+    @Override
+    public Map<String, Double> getLatenceP99Micros() {
+        return quantilesMicros(0.99);
+    }
+
+    @Override
+    public Map<String, Double> getLatenceMaxMicros() {
+        return latencesMicros(HistogrammeLatence::getMaxNanos);
+    }
+}
@@ -0,0 +1,41 @@
+package com.insat.gl.robot;
+
+import java.util.Map;
+
+/**
+ * Interface JMX des métriques d'opérations des robots (voir {@link MetriquesRobots}).
+ * Les tables sont indexées par nom d'opération ({@link OperationRobot}) ou de cause d'échec ({@link ResultatAction}).
+ */
+public interface MetriquesRobotsMXBean {
+    boolean isActives();
+
+    long getEnergieConsommee();
+
+    double getCarboneEmis();
+
+    Map<String, Long> getSucces();
+
+    Map<String, Long> getEchecs();
+
+    Map<String, Long> getEchecsParCause();
+
+    Map<String, Long> getEnergieParOperation();
+
+    Map<String, Double> getLatenceMoyenneMicros();
+
+    Map<String, Double> getLatenceP50Micros();
+
+    Map<String, Double> getLatenceP99Micros();
+
+    Map<String, Double> getLatenceMaxMicros();
+
+    /**
+     * @return Un résumé textuel de toutes les métriques.
+     */
+    String rapport();
+
+    /**
+     * Remet toutes les métriques à zéro.
+     */
+    void reinitialiser();
+}
@@ -0,0 +1,29 @@
+package com.insat.gl.robot;
+
+/**
+ * Interface permettant d'être notifié des changements d'état d'un robot.
+ */
+public interface ObservateurRobot {
+    /**
+     * Appelée après un changement d'état du robot (marche, connexion, livraison).
+     * @param robot Le robot dont l'état a changé.
+     */
+    void etatModifie(Robot robot);
+
+    /**
+     * Appelée après un changement de position du robot.
+     * @param robot Le robot qui s'est déplacé.
+     * @param ancienX L'ancienne coordonnée x.
+     * @param ancienY L'ancienne coordonnée y.
+     */
+    default void positionModifiee(Robot robot, int ancienX, int ancienY) {
+    }
+
+    /**
+     * Appelée après l'enregistrement d'un événement dans l'historique du robot.
+     * @param robot Le robot concerné.
+     * @param type Le type de l'événement.
+     */
+    default void evenementAjoute(Robot robot, TypeEvenement type) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.insat.gl.robot;
+
+/**
+ * Opérations de robot mesurées par {@link MetriquesRobots}.
+ */
+public enum OperationRobot {
+    DEMARRAGE,
+    DEPLACEMENT,
+    CHARGEMENT,
+    CHARGEMENT_TOURNEE,
+    LIVRAISON,
+    RECHARGE,
+    MAINTENANCE,
+    CONNEXION,
+    ENVOI,
+    ENVOI_LOT
+}
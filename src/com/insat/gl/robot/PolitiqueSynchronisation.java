@@ -0,0 +1,16 @@
+package com.insat.gl.robot;
+
+/**
+ * Politique de synchronisation sur disque ({@code force}) du {@link JournalActions}.
+ */
+public enum PolitiqueSynchronisation {
+    /** Les écritures sont laissées au système ; aucune synchronisation explicite. */
+    AUCUNE,
+    /** Synchronisation au plus tard après l'intervalle configuré ; l'action n'attend pas. */
+    PERIODIQUE,
+    /** Les enregistrements accumulés pendant une synchronisation sont écrits et synchronisés ensemble ;
+     *  chaque action attend que son enregistrement soit durable. */
+    GROUPEE,
+    /** Chaque enregistrement est écrit et synchronisé individuellement avant que l'action ne se termine. */
+    SYNCHRONE
+}
@@ -0,0 +1,212 @@
+package com.insat.gl.robot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Relecture d'un {@link JournalActions} après un arrêt, normal ou non.
+ * Les segments sont lus dans l'ordre ; pour chaque robot, seule la dernière image d'état est retenue.
+ * Un enregistrement incomplet ou dont le CRC ne correspond pas marque la fin du segment
+ * (écriture interrompue par l'incident) : la lecture continue au segment suivant.
+ */
+public class RejeuJournal {
+    private final Map<String, ImageRobot> images = new LinkedHashMap<>();
+    private long nombreEnregistrements;
+    private int nombreSegments;
+    private int segmentsTronques;
+    private long derniereSequence;
+
+    private RejeuJournal() {
+    }
+
+    /**
+     * Lit tous les segments d'un dossier de journal.
+     * @param dossier Le dossier du journal.
+     * @return Le résultat de la lecture.
+     * @throws IOException Si un segment ne peut être lu.
+     */
+    public static RejeuJournal lire(Path dossier) throws IOException {
+        RejeuJournal rejeu = new RejeuJournal();
+        for (Path segment : JournalActions.listerSegments(dossier)) {
+            rejeu.lireSegment(segment);
+        }
+        return rejeu;
+    }
+
+    private void lireSegment(Path chemin) throws IOException {
+        nombreSegments++;
+        try (FileChannel canal = FileChannel.open(chemin, StandardOpenOption.READ)) {
+            MappedByteBuffer tampon = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            CRC32 crc = new CRC32();
+            while (tampon.remaining() >= 8) {
+                int charge = tampon.getInt();
+                int attendu = tampon.getInt();
+                if (charge <= 0 || charge > tampon.remaining()) {
+                    segmentsTronques++;
+                    return;
+                }
+                ByteBuffer enregistrement = tampon.slice();
+                enregistrement.limit(charge);
+                crc.reset();
+                crc.update(enregistrement.duplicate());
+                if ((int) crc.getValue() != attendu) {
+                    segmentsTronques++;
+                    return;
+                }
+                lireEnregistrement(enregistrement);
+                tampon.position(tampon.position() + charge);
+            }
+            if (tampon.hasRemaining()) {
+                segmentsTronques++;
+            }
+        }
+    }
+
+    private void lireEnregistrement(ByteBuffer tampon) {
+        ImageRobot image = new ImageRobot();
+        derniereSequence = tampon.getLong();
+        image.horodatage = tampon.getLong();
+        image.type = TypeEvenement.depuisCode(tampon.getInt());
+        image.x = tampon.getInt();
+        image.y = tampon.getInt();
+        image.energie = tampon.getInt();
+        image.heures = tampon.getInt();
+        image.carbone = tampon.getDouble();
+        image.etats = tampon.getInt();
+        image.capacite = tampon.getInt();
+        image.id = lireTexte(tampon);
+        image.colis = lireTexte(tampon);
+        image.destination = lireTexte(tampon);
+        image.reseau = lireTexte(tampon);
+        // Les enregistrements antérieurs à la journalisation des tournées s'arrêtent au réseau
+        int nombreArrets = tampon.hasRemaining() ? tampon.getInt() : 0;
+        if (nombreArrets > 0) {
+            image.arrets = new ArrayList<>(nombreArrets);
+            for (int i = 0; i < nombreArrets; i++) {
+                int x = tampon.getInt();
+                int y = tampon.getInt();
+                String colis = lireTexte(tampon);
+                image.arrets.add(new ArretLivraison(colis, lireTexte(tampon), x, y));
+            }
+        }
+        images.remove(image.id);
+        images.put(image.id, image);
+        nombreEnregistrements++;
+    }
+
+    private static String lireTexte(ByteBuffer tampon) {
+        int longueur = tampon.getInt();
+        if (longueur < 0) {
+            return null;
+        }
+        byte[] octets = new byte[longueur];
+        tampon.get(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reconstruit chaque robot journalisé dans son dernier état connu.
+     * @return Les robots, dans l'ordre de leur dernière action.
+     */
+    public List<RobotLivraison> reconstruire() {
+        List<RobotLivraison> robots = new ArrayList<>(images.size());
+        for (ImageRobot image : images.values()) {
+            RobotLivraison robot = new RobotLivraison(image.id, image.x, image.y);
+            robot.restaurerEtat(image.energie, image.heures, image.carbone, (image.etats & JournalActions.EN_MARCHE) != 0,
+                    image.reseau, image.colis, image.destination, (image.etats & JournalActions.EN_LIVRAISON) != 0, image.capacite);
+            if (image.arrets != null) {
+                robot.restaurerTournee(image.arrets);
+            }
+            robots.add(robot);
+        }
+        return robots;
+    }
+
+    /**
+     * Reconstruit les robots journalisés et les ajoute à une flotte.
+     * @param flotte La flotte de destination.
+     * @return Le nombre de robots ajoutés (les identifiants déjà présents sont ignorés).
+     */
+    public int restaurer(RobotFleet flotte) {
+        int ajoutes = 0;
+        for (RobotLivraison robot : reconstruire()) {
+            if (flotte.ajouter(robot)) {
+                ajoutes++;
+            }
+        }
+        return ajoutes;
+    }
+
+    // Getters
+    public long getNombreEnregistrements() {
+        return nombreEnregistrements;
+    }
+
+    public int getNombreSegments() {
+        return nombreSegments;
+    }
+
+    /**
+     * @return Le nombre de segments dont la fin était incomplète ou corrompue.
+     */
+    public int getSegmentsTronques() {
+        return segmentsTronques;
+    }
+
+    public long getDerniereSequence() {
+        return derniereSequence;
+    }
+
+    public int getNombreRobots() {
+        return images.size();
+    }
+
+    /**
+     * Outil en ligne de commande : relit un dossier de journal et affiche l'état reconstruit des robots.
+     * @param args Le dossier du journal.
+     * @throws IOException Si la lecture échoue.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage : java com.insat.gl.robot.RejeuJournal <dossier du journal>");
+            System.exit(2);
+        }
+        RejeuJournal rejeu = lire(Paths.get(args[0]));
+        System.out.println(rejeu.getNombreEnregistrements() + " enregistrements lus dans " + rejeu.getNombreSegments()
+                + " segments (" + rejeu.getSegmentsTronques() + " tronqués), dernière séquence " + rejeu.getDerniereSequence() + ".");
+        for (RobotLivraison robot : rejeu.reconstruire()) {
+            System.out.println(robot);
+        }
+    }
+
+    /**
+     * Dernier état journalisé d'un robot.
+     */
+    private static class ImageRobot {
+        private String id;
+        private long horodatage;
+        private TypeEvenement type;
+        private int x;
+        private int y;
+        private int energie;
+        private int heures;
+        private double carbone;
+        private int etats;
+        private int capacite;
+        private String colis;
+        private String destination;
+        private String reseau;
+        private List<ArretLivraison> arrets;
+    }
+}
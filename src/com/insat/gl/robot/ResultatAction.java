@@ -0,0 +1,35 @@
+package com.insat.gl.robot;
+
+/**
+ * Issue d'une action de robot signalée sans exception.
+ * Les échecs attendus (batterie faible, distance trop grande, maintenance due...)
+ * sont des valeurs ordinaires : aucun objet n'est alloué pour les signaler.
+ */
+public enum ResultatAction {
+    SUCCES("Action effectuée."),
+    NON_DEMARRE("Le robot doit être démarré."),
+    MAINTENANCE_REQUISE("Maintenance requise."),
+    DISTANCE_TROP_GRANDE("Déplacement annulé : distance trop grande."),
+    ENERGIE_INSUFFISANTE("Énergie insuffisante."),
+    DEJA_EN_LIVRAISON("Impossible de charger : déjà en cours de livraison."),
+    DEJA_CHARGE("Impossible de charger : transporte déjà un colis."),
+    PAS_DE_LIVRAISON("Le robot n'est pas en cours de livraison ou n'a pas de colis."),
+    DEJA_CONNECTE("Déjà connecté à un réseau."),
+    NON_CONNECTE("Non connecté à un réseau."),
+    RESEAU_SATURE("Réseau saturé."),
+    ECHEC("Échec de l'opération.");
+
+    private final String message;
+
+    ResultatAction(String message) {
+        this.message = message;
+    }
+
+    public boolean estSucces() {
+        return this == SUCCES;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
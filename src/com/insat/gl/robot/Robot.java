@@ -3,13 +3,18 @@ package com.insat.gl.robot;
 import com.insat.gl.robot.exceptions.EnergieInsuffisanteException;
 import com.insat.gl.robot.exceptions.MaintenanceRequiseException;
 import com.insat.gl.robot.exceptions.RobotException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
 /**
  * Classe abstraite représentant un robot générique.
+ * <p>
+ * Les actions qui modifient un robot sont synchronisées sur son moniteur : elles s'exécutent l'une après
+ * l'autre pour un même robot, sans verrou global à la flotte. Les autres threads (télémétrie, affichage,
+ * dispatcheur) lisent un état cohérent par {@link #instantane()}, une lecture optimiste validée par un
+ * numéro de version, qui ne bloque pas le robot ; les getters individuels conviennent au thread qui pilote le robot.
  */
 public abstract class Robot {
     protected String id;
@@ -18,12 +23,27 @@ public abstract class Robot {
     protected int energie; // 0-100
     protected int heuresUtilisation;
     protected boolean enMarche;
-    protected List<String> historiqueActions;
+    protected JournalEvenements historiqueActions;
     protected double totalCarbonEmitted; 
-    private static final int MAX_HEURES_AVANT_MAINTENANCE = 100;
-    private static final int MIN_ENERGIE_DEMARRAGE = 10;
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd MMMM yyyy HH:mm:ss");
-    private static final double DEFAULT_CARBON_EMISSION_FACTOR = 0.5;
+    static final int MAX_HEURES_AVANT_MAINTENANCE = 100;
+    static final int MIN_ENERGIE_DEMARRAGE = 10;
+    private static final int CAPACITE_HISTORIQUE_PAR_DEFAUT = Integer.getInteger("robot.historique.capacite", 1000);
+    static final double DEFAULT_CARBON_EMISSION_FACTOR = 0.5;
+    private static final ObservateurRobot[] AUCUN_OBSERVATEUR = new ObservateurRobot[0];
+    private static final int ESSAIS_LECTURE_OPTIMISTE = 8;
+    private static final VarHandle VERSION;
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(Robot.class, "version", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile ObservateurRobot[] observateurs = AUCUN_OBSERVATEUR;
+    private Horloge horloge = Horloge.systeme();
+    private volatile long version; // impaire pendant une modification
 
     /**
      * Constructeur pour la classe Robot.
@@ -38,18 +58,222 @@ public abstract class Robot {
         this.energie = 100;
         this.heuresUtilisation = 0;
         this.enMarche = false;
-        this.historiqueActions = new ArrayList<>();
+        this.historiqueActions = new JournalEvenements(CAPACITE_HISTORIQUE_PAR_DEFAUT);
         this.totalCarbonEmitted = 0.0; 
-        ajouterHistorique("Robot créé");
+        ajouterEvenement(TypeEvenement.CREATION);
     }
 
     /**
-     * Enregistre une action dans l'historique avec la date et l'heure actuelles.
+     * Enregistre une action libre dans l'historique avec la date et l'heure actuelles.
      * @param action L'action effectuée par le robot.
      */
     protected void ajouterHistorique(String action) {
-        String timestamp = LocalDateTime.now().format(DATE_FORMATTER);
-        this.historiqueActions.add(timestamp + " " + action);
+        ajouterEvenement(TypeEvenement.LIBRE, 0, 0, 0, 0, 0, 0, 0.0, 0.0, action, null);
+    }
+
+    /**
+     * Enregistre un événement sans argument dans l'historique.
+     * @param type Le type de l'événement.
+     */
+    protected void ajouterEvenement(TypeEvenement type) {
+        ajouterEvenement(type, 0, 0, 0, 0, 0, 0, 0.0, 0.0, null, null);
+    }
+
+    /**
+     * Enregistre un événement à deux arguments entiers dans l'historique.
+     * @param type Le type de l'événement.
+     * @param i0 Premier argument entier.
+     * @param i1 Second argument entier.
+     */
+    protected void ajouterEvenement(TypeEvenement type, int i0, int i1) {
+        ajouterEvenement(type, i0, i1, 0, 0, 0, 0, 0.0, 0.0, null, null);
+    }
+
+    /**
+     * Enregistre un événement à arguments textuels dans l'historique.
+     * @param type Le type de l'événement.
+     * @param s0 Premier argument textuel.
+     * @param s1 Second argument textuel.
+     */
+    protected void ajouterEvenement(TypeEvenement type, String s0, String s1) {
+        ajouterEvenement(type, 0, 0, 0, 0, 0, 0, 0.0, 0.0, s0, s1);
+    }
+
+    /**
+     * Enregistre un événement dans l'historique avec l'horodatage courant de l'horloge du robot.
+     * Aucun texte n'est formaté ici : seuls le code et les arguments sont stockés.
+     * @param type Le type de l'événement.
+     * @param i0 Premier argument entier.
+     * @param i1 Deuxième argument entier.
+     * @param i2 Troisième argument entier.
+     * @param i3 Quatrième argument entier.
+     * @param i4 Cinquième argument entier.
+     * @param i5 Sixième argument entier.
+     * @param d0 Premier argument réel.
+     * @param d1 Second argument réel.
+     * @param s0 Premier argument textuel.
+     * @param s1 Second argument textuel.
+     */
+    protected void ajouterEvenement(TypeEvenement type, int i0, int i1, int i2, int i3, int i4, int i5,
+                                    double d0, double d1, String s0, String s1) {
+        this.historiqueActions.ajouter(type, horloge.maintenantNanos(), i0, i1, i2, i3, i4, i5, d0, d1, s0, s1);
+        for (ObservateurRobot observateur : this.observateurs) {
+            observateur.evenementAjoute(this, type);
+        }
+    }
+
+    /**
+     * Modifie le nombre maximal d'actions conservées dans l'historique.
+     * Les actions les plus récentes sont conservées.
+     * @param capacite La nouvelle capacité de l'historique.
+     */
+    public synchronized void setCapaciteHistorique(int capacite) {
+        this.historiqueActions.redimensionner(capacite);
+    }
+
+    /**
+     * Remplace la source de temps utilisée pour horodater les événements du robot,
+     * par exemple par l'{@link HorlogeVirtuelle} d'une simulation.
+     * @param horloge La nouvelle horloge.
+     */
+    public synchronized void setHorloge(Horloge horloge) {
+        if (horloge == null) {
+            throw new IllegalArgumentException("L'horloge d'un robot ne peut être nulle.");
+        }
+        this.horloge = horloge;
+    }
+
+    /**
+     * Abonne un observateur aux changements d'état du robot.
+     * @param observateur L'observateur à notifier.
+     */
+    public synchronized void ajouterObservateur(ObservateurRobot observateur) {
+        ObservateurRobot[] actuels = this.observateurs;
+        ObservateurRobot[] nouveaux = new ObservateurRobot[actuels.length + 1];
+        System.arraycopy(actuels, 0, nouveaux, 0, actuels.length);
+        nouveaux[actuels.length] = observateur;
+        this.observateurs = nouveaux;
+    }
+
+    /**
+     * Désabonne un observateur des changements d'état du robot.
+     * @param observateur L'observateur à retirer.
+     */
+    public synchronized void retirerObservateur(ObservateurRobot observateur) {
+        ObservateurRobot[] actuels = this.observateurs;
+        for (int i = 0; i < actuels.length; i++) {
+            if (actuels[i] == observateur) {
+                ObservateurRobot[] nouveaux = new ObservateurRobot[actuels.length - 1];
+                System.arraycopy(actuels, 0, nouveaux, 0, i);
+                System.arraycopy(actuels, i + 1, nouveaux, i, actuels.length - i - 1);
+                this.observateurs = nouveaux;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Notifie les observateurs d'un changement d'état du robot.
+     */
+    protected void notifierEtatModifie() {
+        for (ObservateurRobot observateur : this.observateurs) {
+            observateur.etatModifie(this);
+        }
+    }
+
+    /**
+     * Ouvre une section de modification des champs lus par {@link #instantane()}.
+     * L'appelant tient le moniteur du robot, seul écrivain possible : il suffit de rendre la version impaire,
+     * sans instruction atomique. La section ne contient que des affectations (ni historique, ni notification
+     * des observateurs) et ne s'imbrique pas.
+     */
+    protected final void debutModification() {
+        VERSION.setOpaque(this, version + 1);
+        VarHandle.storeStoreFence();
+    }
+
+    /**
+     * Ferme une section ouverte par {@link #debutModification()} : la version redevient paire.
+     */
+    protected final void finModification() {
+        VERSION.setRelease(this, version + 1);
+    }
+
+    /**
+     * Retourne une image cohérente de l'état du robot, lisible depuis n'importe quel thread.
+     * La lecture est optimiste : elle est recommencée si une modification l'a chevauchée et,
+     * après quelques échecs, faite sous le moniteur du robot.
+     * @return L'état du robot.
+     */
+    public EtatRobot instantane() {
+        return instantane(new EtatRobot());
+    }
+
+    /**
+     * Variante de {@link #instantane()} qui réutilise une image existante, pour parcourir
+     * une grande flotte sans allouer une image par robot.
+     * @param etat L'image à remplir.
+     * @return L'image remplie.
+     */
+    public EtatRobot instantane(EtatRobot etat) {
+        for (int essai = 0; essai < ESSAIS_LECTURE_OPTIMISTE; essai++) {
+            long avant = version;
+            if ((avant & 1) == 0) {
+                copierEtat(etat);
+                VarHandle.loadLoadFence();
+                if (version == avant) {
+                    return etat;
+                }
+            }
+            Thread.onSpinWait();
+        }
+        synchronized (this) {
+            copierEtat(etat);
+        }
+        return etat;
+    }
+
+    /**
+     * Recopie les champs du robot dans une image. Peut s'exécuter pendant une modification
+     * (lecture optimiste) : les redéfinitions se limitent à des lectures de champs.
+     * @param etat L'image à remplir.
+     */
+    void copierEtat(EtatRobot etat) {
+        etat.id = this.id;
+        etat.x = this.x;
+        etat.y = this.y;
+        etat.energie = this.energie;
+        etat.heuresUtilisation = this.heuresUtilisation;
+        etat.enMarche = this.enMarche;
+        etat.totalCarbonEmitted = this.totalCarbonEmitted;
+    }
+
+    /**
+     * Modifie la position du robot et notifie les observateurs.
+     * @param nouveauX La nouvelle coordonnée x.
+     * @param nouveauY La nouvelle coordonnée y.
+     */
+    protected void changerPosition(int nouveauX, int nouveauY) {
+        int ancienX = this.x;
+        int ancienY = this.y;
+        debutModification();
+        this.x = nouveauX;
+        this.y = nouveauY;
+        finModification();
+        if (ancienX != nouveauX || ancienY != nouveauY) {
+            for (ObservateurRobot observateur : this.observateurs) {
+                observateur.positionModifiee(this, ancienX, ancienY);
+            }
+        }
+    }
+
+    /**
+     * Indique si le robot dispose de l'énergie nécessaire à une action, sans lever d'exception.
+     * @param energieRequise L'énergie nécessaire pour l'action.
+     * @return true si l'énergie actuelle est suffisante.
+     */
+    public boolean energieSuffisante(int energieRequise) {
+        return this.energie >= energieRequise;
     }
 
     /**
@@ -58,7 +282,7 @@ public abstract class Robot {
      * @throws EnergieInsuffisanteException Si l'énergie est insuffisante.
      */
     protected void verifierEnergie(int energieRequise) throws EnergieInsuffisanteException {
-        if (this.energie < energieRequise) {
+        if (!energieSuffisante(energieRequise)) {
             throw new EnergieInsuffisanteException("Énergie insuffisante : " + this.energie + "% requis : " + energieRequise + "%");
         }
     }
@@ -68,26 +292,90 @@ public abstract class Robot {
      * @throws MaintenanceRequiseException Si la maintenance est requise.
      */
     protected void verifierMaintenance() throws MaintenanceRequiseException {
-        if (this.heuresUtilisation > MAX_HEURES_AVANT_MAINTENANCE) {
-            throw new MaintenanceRequiseException("Maintenance requise : " + this.heuresUtilisation + " heures d'utilisation.");
+        if (isMaintenanceRequise()) {
+            throw maintenanceRequise();
         }
     }
 
+    /**
+     * Construit l'exception signalant une maintenance due, pour les méthodes qui lèvent une exception.
+     * @return L'exception décrivant les heures d'utilisation du robot.
+     */
+    protected MaintenanceRequiseException maintenanceRequise() {
+        return new MaintenanceRequiseException("Maintenance requise : " + this.heuresUtilisation + " heures d'utilisation.");
+    }
+
+    /**
+     * Débute la mesure d'une opération (voir {@link MetriquesRobots}).
+     * @return L'instant de début en nanosecondes, ou 0 si les métriques sont désactivées.
+     */
+    protected static long debutMesure() {
+        return MetriquesRobots.ACTIVES ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Termine la mesure d'une opération débutée par {@link #debutMesure()}.
+     * @param operation L'opération mesurée.
+     * @param debut L'instant de début retourné par {@link #debutMesure()}.
+     * @param energieAvant L'énergie du robot au début de l'opération.
+     * @param resultat L'issue de l'opération.
+     * @return Le résultat, inchangé.
+     */
+    protected ResultatAction finMesure(OperationRobot operation, long debut, int energieAvant, ResultatAction resultat) {
+        if (MetriquesRobots.ACTIVES) {
+            MetriquesRobots.enregistrer(operation, resultat, System.nanoTime() - debut, energieAvant - this.energie);
+        }
+        return resultat;
+    }
+
+    /**
+     * Termine la mesure d'une opération qui échoue par une exception.
+     * @param operation L'opération mesurée.
+     * @param debut L'instant de début retourné par {@link #debutMesure()}.
+     * @param energieAvant L'énergie du robot au début de l'opération.
+     * @param cause La cause de l'échec.
+     * @param exception L'exception à lever.
+     * @return L'exception, inchangée.
+     */
+    protected <E extends RobotException> E echecMesure(OperationRobot operation, long debut, int energieAvant,
+                                                       ResultatAction cause, E exception) {
+        finMesure(operation, debut, energieAvant, cause);
+        return exception;
+    }
+
+    /**
+     * Allume le robot, sans lever d'exception en cas d'échec.
+     * @return {@link ResultatAction#SUCCES} si le robot est en marche, {@link ResultatAction#ENERGIE_INSUFFISANTE} sinon.
+     */
+    public synchronized ResultatAction tenterDemarrer() {
+        long debut = debutMesure();
+        int energieAvant = this.energie;
+        return finMesure(OperationRobot.DEMARRAGE, debut, energieAvant, allumer());
+    }
+
+    private ResultatAction allumer() {
+        if (this.enMarche) {
+            ajouterEvenement(TypeEvenement.DEMARRAGE_DEJA_EN_MARCHE);
+            return ResultatAction.SUCCES;
+        }
+        if (!energieSuffisante(MIN_ENERGIE_DEMARRAGE)) {
+            ajouterEvenement(TypeEvenement.DEMARRAGE_ECHEC_ENERGIE);
+            return ResultatAction.ENERGIE_INSUFFISANTE;
+        }
+        debutModification();
+        this.enMarche = true;
+        finModification();
+        ajouterEvenement(TypeEvenement.DEMARRAGE);
+        notifierEtatModifie();
+        return ResultatAction.SUCCES;
+    }
+
     /**
      * Allume le robot.
      * @throws RobotException Si le démarrage échoue (manque d'énergie).
      */
     public void demarrer() throws RobotException {
-        if (this.enMarche) {
-            ajouterHistorique("Tentative de démarrage alors qu'il est déjà en marche.");
-            return;
-        }
-        try {
-            verifierEnergie(MIN_ENERGIE_DEMARRAGE);
-            this.enMarche = true;
-            ajouterHistorique("Démarrage du robot.");
-        } catch (EnergieInsuffisanteException e) {
-            ajouterHistorique("Échec du démarrage - énergie insuffisante.");
+        if (tenterDemarrer() != ResultatAction.SUCCES) {
             throw new RobotException("Impossible de démarrer le robot : énergie insuffisante.");
         }
     }
@@ -95,13 +383,16 @@ public abstract class Robot {
     /**
      * Éteint le robot.
      */
-    public void arreter() {
+    public synchronized void arreter() {
         if (!this.enMarche) {
-            ajouterHistorique("Tentative d'arrêt alors qu'il est déjà éteint.");
+            ajouterEvenement(TypeEvenement.ARRET_DEJA_ETEINT);
             return;
         }
+        debutModification();
         this.enMarche = false;
-        ajouterHistorique("Arrêt du robot.");
+        finModification();
+        ajouterEvenement(TypeEvenement.ARRET);
+        notifierEtatModifie();
     }
 
     /**
@@ -113,12 +404,18 @@ public abstract class Robot {
             return;
         }
         int energieAvantConsommation = this.energie;
-        this.energie = Math.max(0, this.energie - quantite);
-        int energieEffectivementConsumee = energieAvantConsommation - this.energie;
+        int energieEffectivementConsumee = Math.min(quantite, energieAvantConsommation);
 
         if (energieEffectivementConsumee > 0) {
-            this.totalCarbonEmitted += energieEffectivementConsumee * DEFAULT_CARBON_EMISSION_FACTOR;
-            ajouterHistorique(String.format("Énergie consommée: %d. Impact CO2: %.2fg", energieEffectivementConsumee, energieEffectivementConsumee * DEFAULT_CARBON_EMISSION_FACTOR));
+            double impactCarbone = energieEffectivementConsumee * DEFAULT_CARBON_EMISSION_FACTOR;
+            debutModification();
+            this.energie = energieAvantConsommation - energieEffectivementConsumee;
+            this.totalCarbonEmitted += impactCarbone;
+            finModification();
+            if (MetriquesRobots.ACTIVES) {
+                MetriquesRobots.consommation(energieEffectivementConsumee, impactCarbone);
+            }
+            ajouterEvenement(TypeEvenement.ENERGIE_CONSOMMEE, energieEffectivementConsumee, 0, 0, 0, 0, 0, impactCarbone, 0.0, null, null);
         }
     }
 
@@ -126,9 +423,30 @@ public abstract class Robot {
      * Recharge la batterie du robot.
      * @param quantite La quantité d'énergie à recharger.
      */
-    public void recharger(int quantite) {
+    public synchronized void recharger(int quantite) {
+        long debut = debutMesure();
+        int energieAvant = this.energie;
+        debutModification();
         this.energie = Math.min(100, this.energie + quantite);
-        ajouterHistorique("Recharge de " + quantite + "%. Énergie actuelle : " + this.energie + "%");
+        finModification();
+        ajouterEvenement(TypeEvenement.RECHARGE, quantite, this.energie);
+        notifierEtatModifie();
+        finMesure(OperationRobot.RECHARGE, debut, energieAvant, ResultatAction.SUCCES);
+    }
+
+    /**
+     * Effectue la maintenance du robot : remet à zéro le compteur d'heures d'utilisation.
+     */
+    public synchronized void effectuerMaintenance() {
+        long debut = debutMesure();
+        int heuresAvant = this.heuresUtilisation;
+        debutModification();
+        this.heuresUtilisation = 0;
+        finModification();
+        // Après la remise à zéro : le journal d'actions enregistre l'état qui suit l'événement
+        ajouterEvenement(TypeEvenement.MAINTENANCE, heuresAvant, 0);
+        notifierEtatModifie();
+        finMesure(OperationRobot.MAINTENANCE, debut, this.energie, ResultatAction.SUCCES);
     }
 
     /**
@@ -151,20 +469,39 @@ public abstract class Robot {
      */
     public String getHistorique() {
         StringBuilder sb = new StringBuilder("Historique des actions pour le robot " + id + ":\n");
-        for (String action : historiqueActions) {
-            sb.append(action).append("\n");
+        try {
+            copierHistorique().exporter(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
         return sb.toString();
     }
 
+    /**
+     * Exporte l'historique des actions, une ligne par action, sans construire de chaîne intermédiaire.
+     * @param out La destination de l'export (fichier, flux, tampon...).
+     * @throws IOException Si l'écriture dans la destination échoue.
+     */
+    public void exporterHistorique(Appendable out) throws IOException {
+        copierHistorique().exporter(out);
+    }
+
+    /**
+     * Copie l'historique sous le moniteur du robot ; le formatage, plus coûteux, se fait ensuite sans le retenir.
+     */
+    private synchronized JournalEvenements copierHistorique() {
+        return historiqueActions.copier();
+    }
+
     /**
      * Retourne un résumé de l'état du robot.
      * @return Une chaîne de caractères décrivant le robot.
      */
     @Override
     public String toString() {
+        EtatRobot etat = instantane();
         return String.format("Robot [ID: %s, Position: (%d,%d), Énergie: %d%%, Heures: %d, En Marche: %b, CO2 émis: %.2fg]",
-                id, x, y, energie, heuresUtilisation, enMarche, totalCarbonEmitted);
+                etat.id, etat.x, etat.y, etat.energie, etat.heuresUtilisation, etat.enMarche, etat.totalCarbonEmitted);
     }
 
     // Getters
@@ -172,6 +509,10 @@ public abstract class Robot {
         return id;
     }
 
+    public Horloge getHorloge() {
+        return horloge;
+    }
+
     public int getX() {
         return x;
     }
@@ -192,7 +533,22 @@ public abstract class Robot {
         return enMarche;
     }
 
+    public boolean isMaintenanceRequise() {
+        return heuresUtilisation > MAX_HEURES_AVANT_MAINTENANCE;
+    }
+
+    /**
+     * @return Le nombre d'heures d'utilisation restant avant que la maintenance ne soit requise.
+     */
+    public int getHeuresAvantMaintenance() {
+        return MAX_HEURES_AVANT_MAINTENANCE - heuresUtilisation;
+    }
+
     public double getTotalCarbonEmitted() {
         return totalCarbonEmitted;
     }
+
+    public int getCapaciteHistorique() {
+        return historiqueActions.getCapacite();
+    }
 }
@@ -0,0 +1,142 @@
+package com.insat.gl.robot;
+
+import com.insat.gl.robot.exceptions.MaintenanceRequiseException;
+import com.insat.gl.robot.exceptions.RobotException;
+
+/**
+ * Vue poids plume sur un robot d'une {@link FlotteCompacte}.
+ * Expose les méthodes de {@link RobotLivraison} en lisant et modifiant directement les tableaux
+ * de la flotte ; une même vue peut être repositionnée sur n'importe quel slot pour parcourir
+ * la flotte sans allouer d'objet par robot. Aucun historique n'est conservé.
+ */
+public class RobotCompact {
+    private final FlotteCompacte flotte;
+    private int slot;
+
+    RobotCompact(FlotteCompacte flotte, int slot) {
+        this.flotte = flotte;
+        this.slot = slot;
+    }
+
+    /**
+     * Fait pointer la vue sur un autre robot de la flotte.
+     * @param slot Le slot du robot.
+     * @return Cette vue, pour chaîner les appels.
+     */
+    public RobotCompact positionner(int slot) {
+        flotte.verifierSlot(slot);
+        this.slot = slot;
+        return this;
+    }
+
+    private static void verifier(ResultatAction resultat) throws RobotException {
+        if (resultat == ResultatAction.MAINTENANCE_REQUISE) {
+            throw new MaintenanceRequiseException(resultat.getMessage());
+        }
+        if (!resultat.estSucces()) {
+            throw new RobotException(resultat.getMessage());
+        }
+    }
+
+    public void demarrer() throws RobotException {
+        verifier(flotte.demarrer(slot));
+    }
+
+    public void arreter() {
+        flotte.arreter(slot);
+    }
+
+    public void recharger(int quantite) {
+        flotte.recharger(slot, quantite);
+    }
+
+    public void deplacer(int destX, int destY) throws RobotException {
+        verifier(flotte.deplacer(slot, destX, destY));
+    }
+
+    public void chargerColis(String colis, String destination) throws RobotException {
+        verifier(flotte.chargerColis(slot, colis, destination));
+    }
+
+    public void faireLivraison(int destX, int destY) throws RobotException {
+        verifier(flotte.faireLivraison(slot, destX, destY));
+    }
+
+    public void connecter(String reseau) throws RobotException {
+        verifier(flotte.connecter(slot, reseau));
+    }
+
+    public void deconnecter() {
+        flotte.deconnecter(slot);
+    }
+
+    public void envoyerDonnees(String donnees) throws RobotException {
+        verifier(flotte.envoyerDonnees(slot));
+    }
+
+    /**
+     * Retourne un résumé de l'état du robot, au même format que {@link RobotLivraison#toString()}.
+     * @return Une chaîne de caractères décrivant le robot.
+     */
+    @Override
+    public String toString() {
+        String etatColis = isEnLivraison() ? String.format("Colis: '%s', Destination: %s, EnLivraison: %b", getColisActuel(),
+                getDestination() != null ? getDestination() : "N/A", true) : "Disponible";
+        String etatConnexion = isConnecte() ? "Oui, Réseau: " + getReseauConnecte() : "Non";
+        return String.format("RobotLivraison [ID: %s, Position: (%d,%d), Énergie: %d%%, Heures: %d, %s, Connecté: %s]",
+                getId(), getX(), getY(), getEnergie(), getHeuresUtilisation(), etatColis, etatConnexion);
+    }
+
+    // Getters
+    public int getSlot() {
+        return slot;
+    }
+
+    public String getId() {
+        return flotte.getId(slot);
+    }
+
+    public int getX() {
+        return flotte.getX(slot);
+    }
+
+    public int getY() {
+        return flotte.getY(slot);
+    }
+
+    public int getEnergie() {
+        return flotte.getEnergie(slot);
+    }
+
+    public int getHeuresUtilisation() {
+        return flotte.getHeuresUtilisation(slot);
+    }
+
+    public boolean isEnMarche() {
+        return flotte.isEnMarche(slot);
+    }
+
+    public double getTotalCarbonEmitted() {
+        return flotte.getTotalCarbonEmitted(slot);
+    }
+
+    public boolean isConnecte() {
+        return flotte.isConnecte(slot);
+    }
+
+    public String getReseauConnecte() {
+        return flotte.getReseauConnecte(slot);
+    }
+
+    public String getColisActuel() {
+        return flotte.getColisActuel(slot);
+    }
+
+    public String getDestination() {
+        return flotte.getDestination(slot);
+    }
+
+    public boolean isEnLivraison() {
+        return flotte.isEnLivraison(slot);
+    }
+}
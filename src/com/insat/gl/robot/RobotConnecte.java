@@ -1,7 +1,9 @@
 package com.insat.gl.robot;
 
-import com.insat.gl.robot.exceptions.EnergieInsuffisanteException;
+import com.insat.gl.reseau.BusMessages;
+import com.insat.gl.robot.exceptions.ReseauSatureException;
 import com.insat.gl.robot.exceptions.RobotException;
+import java.util.List;
 
 /**
  * Classe abstraite représentant un robot capable de se connecter à des réseaux.
@@ -10,9 +12,13 @@ import com.insat.gl.robot.exceptions.RobotException;
 public abstract class RobotConnecte extends Robot implements Connectable {
     protected boolean connecte;
     protected String reseauConnecte;
+    private int tailleLotEnvoi = TamponEnvoi.TAILLE_LOT_PAR_DEFAUT;
+    private long ageMaxEnvoiMillis = TamponEnvoi.AGE_MAX_MILLIS_PAR_DEFAUT;
+    private TamponEnvoi tamponEnvoi;
+    private BusMessages bus;
 
-    private static final int ENERGIE_CONNEXION = 5;
-    private static final int ENERGIE_ENVOI_DONNEES = 3;
+    static final int ENERGIE_CONNEXION = 5;
+    static final int ENERGIE_ENVOI_DONNEES = 3;
 
     /**
      * Constructeur pour RobotConnecte.
@@ -24,7 +30,7 @@ public abstract class RobotConnecte extends Robot implements Connectable {
         super(id, x, y);
         this.connecte = false;
         this.reseauConnecte = null;
-        ajouterHistorique("RobotConnecte initialisé.");
+        ajouterEvenement(TypeEvenement.INITIALISATION_CONNECTE);
     }
 
     /**
@@ -33,57 +39,225 @@ public abstract class RobotConnecte extends Robot implements Connectable {
      * @throws RobotException Si la connexion échoue (énergie insuffisante ou déjà connecté).
      */
     @Override
-    public void connecter(String reseau) throws RobotException {
+    public synchronized void connecter(String reseau) throws RobotException {
+        long debut = debutMesure();
+        int energieAvant = this.energie;
         if (this.connecte) {
-            ajouterHistorique("Tentative de connexion au réseau '" + reseau + "' alors qu'il est déjà connecté à '" + this.reseauConnecte + "'.");
-            throw new RobotException("Déjà connecté au réseau : " + this.reseauConnecte);
+            ajouterEvenement(TypeEvenement.CONNEXION_DEJA_CONNECTE, reseau, this.reseauConnecte);
+            throw echecMesure(OperationRobot.CONNEXION, debut, energieAvant, ResultatAction.DEJA_CONNECTE,
+                    new RobotException("Déjà connecté au réseau : " + this.reseauConnecte));
         }
-        try {
-            verifierEnergie(ENERGIE_CONNEXION);
-            consommerEnergie(ENERGIE_CONNEXION);
-            this.connecte = true;
-            this.reseauConnecte = reseau;
-            ajouterHistorique("Connecté au réseau : " + reseau + ". Énergie restante: " + this.energie + "%");
-        } catch (EnergieInsuffisanteException e) {
-            ajouterHistorique("Échec de la connexion au réseau '" + reseau + "' - énergie insuffisante.");
-            throw new RobotException("Impossible de se connecter au réseau : énergie insuffisante.");
+        if (!energieSuffisante(ENERGIE_CONNEXION)) {
+            ajouterEvenement(TypeEvenement.CONNEXION_ECHEC_ENERGIE, reseau, null);
+            throw echecMesure(OperationRobot.CONNEXION, debut, energieAvant, ResultatAction.ENERGIE_INSUFFISANTE,
+                    new RobotException("Impossible de se connecter au réseau : énergie insuffisante."));
         }
+        consommerEnergie(ENERGIE_CONNEXION);
+        debutModification();
+        this.connecte = true;
+        this.reseauConnecte = reseau;
+        finModification();
+        ajouterEvenement(TypeEvenement.CONNEXION, this.energie, 0, 0, 0, 0, 0, 0.0, 0.0, reseau, null);
+        notifierEtatModifie();
+        finMesure(OperationRobot.CONNEXION, debut, energieAvant, ResultatAction.SUCCES);
     }
 
     /**
      * Déconnecte le robot du réseau actuel.
      */
     @Override
-    public void deconnecter() {
+    public synchronized void deconnecter() {
         if (!this.connecte) {
-            ajouterHistorique("Tentative de déconnexion alors qu'il n'est pas connecté.");
+            ajouterEvenement(TypeEvenement.DECONNEXION_NON_CONNECTE);
             return;
         }
         String ancienReseau = this.reseauConnecte;
+        debutModification();
         this.connecte = false;
         this.reseauConnecte = null;
-        ajouterHistorique("Déconnecté du réseau : " + ancienReseau);
+        finModification();
+        ajouterEvenement(TypeEvenement.DECONNEXION, ancienReseau, null);
+        notifierEtatModifie();
     }
 
     /**
      * Envoie des données via le réseau connecté.
      * @param donnees Les données à envoyer.
-     * @throws RobotException Si l'envoi échoue (non connecté ou énergie insuffisante).
+     * @throws RobotException Si l'envoi échoue (non connecté, énergie insuffisante ou réseau saturé).
+     */
+    @Override
+    public synchronized void envoyerDonnees(String donnees) throws RobotException {
+        long debut = debutMesure();
+        int energieAvant = this.energie;
+        if (!this.connecte) {
+            ajouterEvenement(TypeEvenement.ENVOI_ECHEC_NON_CONNECTE);
+            throw echecMesure(OperationRobot.ENVOI, debut, energieAvant, ResultatAction.NON_CONNECTE,
+                    new RobotException("Impossible d'envoyer des données : non connecté à un réseau."));
+        }
+        if (!energieSuffisante(ENERGIE_ENVOI_DONNEES)) {
+            ajouterEvenement(TypeEvenement.ENVOI_ECHEC_ENERGIE, donnees, null);
+            throw echecMesure(OperationRobot.ENVOI, debut, energieAvant, ResultatAction.ENERGIE_INSUFFISANTE,
+                    new RobotException("Impossible d'envoyer des données : énergie insuffisante."));
+        }
+        if (this.bus != null) {
+            boolean accepte;
+            try {
+                accepte = this.bus.publier(this.id, this.reseauConnecte, donnees);
+            } catch (ReseauSatureException e) {
+                ajouterEvenement(TypeEvenement.ENVOI_ECHEC_SATURE, donnees, this.reseauConnecte);
+                throw echecMesure(OperationRobot.ENVOI, debut, energieAvant, ResultatAction.RESEAU_SATURE, e);
+            }
+            if (!accepte) {
+                ajouterEvenement(TypeEvenement.ENVOI_ECHEC_SATURE, donnees, this.reseauConnecte);
+                throw echecMesure(OperationRobot.ENVOI, debut, energieAvant, ResultatAction.RESEAU_SATURE,
+                        new ReseauSatureException("Réseau '" + this.reseauConnecte + "' saturé : message rejeté."));
+            }
+        }
+        consommerEnergie(ENERGIE_ENVOI_DONNEES);
+        ajouterEvenement(TypeEvenement.ENVOI, this.energie, 0, 0, 0, 0, 0, 0.0, 0.0, donnees, this.reseauConnecte);
+        finMesure(OperationRobot.ENVOI, debut, energieAvant, ResultatAction.SUCCES);
+    }
+
+    /**
+     * Place des données dans le tampon d'envoi. Le lot part dès que le tampon est plein
+     * ou que son plus ancien message a dépassé l'âge maximal ; l'énergie d'envoi
+     * n'est alors consommée qu'une fois pour tout le lot.
+     * @param donnees Les données à envoyer.
+     * @throws RobotException Si le robot n'est pas connecté, ou si le lot déclenché ne peut être envoyé.
      */
     @Override
-    public void envoyerDonnees(String donnees) throws RobotException {
+    public synchronized void envoyerDonneesDifferees(String donnees) throws RobotException {
         if (!this.connecte) {
-            ajouterHistorique("Échec de l'envoi de données - non connecté.");
+            ajouterEvenement(TypeEvenement.ENVOI_ECHEC_NON_CONNECTE);
             throw new RobotException("Impossible d'envoyer des données : non connecté à un réseau.");
         }
+        if (this.tamponEnvoi == null) {
+            this.tamponEnvoi = new TamponEnvoi(tailleLotEnvoi, ageMaxEnvoiMillis);
+        }
+        long maintenant = System.nanoTime();
+        this.tamponEnvoi.ajouter(donnees, maintenant);
+        if (this.tamponEnvoi.doitEtreVide(maintenant)) {
+            viderTampon();
+        }
+    }
+
+    /**
+     * Envoie le contenu du tampon en un seul lot, pour un coût de {@link #ENERGIE_ENVOI_DONNEES}.
+     * Les messages ne sont retirés du tampon qu'une fois acceptés par le réseau : en cas d'échec,
+     * ceux qui n'ont pas été envoyés y restent, et l'énergie n'est consommée que si au moins un message est parti.
+     * @return Le nombre de messages envoyés.
+     * @throws RobotException Si le robot n'est pas connecté ou manque d'énergie.
+     * @throws ReseauSatureException Si le réseau refuse une partie du lot.
+     */
+    @Override
+    public synchronized int viderTampon() throws RobotException {
+        if (this.tamponEnvoi == null || this.tamponEnvoi.estVide()) {
+            return 0;
+        }
+        long debut = debutMesure();
+        int energieAvant = this.energie;
+        if (!this.connecte) {
+            ajouterEvenement(TypeEvenement.ENVOI_ECHEC_NON_CONNECTE);
+            throw echecMesure(OperationRobot.ENVOI_LOT, debut, energieAvant, ResultatAction.NON_CONNECTE,
+                    new RobotException("Impossible d'envoyer des données : non connecté à un réseau."));
+        }
+        int taille = this.tamponEnvoi.getTaille();
+        if (!energieSuffisante(ENERGIE_ENVOI_DONNEES)) {
+            ajouterEvenement(TypeEvenement.ENVOI_LOT_ECHEC_ENERGIE, taille, 0);
+            throw echecMesure(OperationRobot.ENVOI_LOT, debut, energieAvant, ResultatAction.ENERGIE_INSUFFISANTE,
+                    new RobotException("Impossible d'envoyer le lot de " + taille + " messages : énergie insuffisante."));
+        }
+        long maintenant = System.nanoTime();
+        double attenteMillis = this.tamponEnvoi.getAgeNanos(maintenant) / 1_000_000.0;
+        int envoyes;
         try {
-            verifierEnergie(ENERGIE_ENVOI_DONNEES);
+            envoyes = transmettre(this.tamponEnvoi.consulter());
+        } catch (RobotException e) {
+            throw echecMesure(OperationRobot.ENVOI_LOT, debut, energieAvant, ResultatAction.ECHEC, e);
+        }
+        if (envoyes > 0) {
+            this.tamponEnvoi.retirer(envoyes, maintenant);
             consommerEnergie(ENERGIE_ENVOI_DONNEES);
-            ajouterHistorique("Envoi de données ('" + donnees + "') via le réseau '" + this.reseauConnecte + "'. Énergie restante: " + this.energie + "%");
-        } catch (EnergieInsuffisanteException e) {
-            ajouterHistorique("Échec de l'envoi de données ('" + donnees + "') - énergie insuffisante.");
-            throw new RobotException("Impossible d'envoyer des données : énergie insuffisante.");
+            ajouterEvenement(TypeEvenement.ENVOI_LOT, envoyes, this.energie, 0, 0, 0, 0, attenteMillis, 0.0, null, this.reseauConnecte);
+        }
+        if (envoyes < taille) {
+            ajouterEvenement(TypeEvenement.ENVOI_LOT_ECHEC_SATURE, taille - envoyes, taille, 0, 0, 0, 0, 0.0, 0.0, null, this.reseauConnecte);
+            throw echecMesure(OperationRobot.ENVOI_LOT, debut, energieAvant, ResultatAction.RESEAU_SATURE,
+                    new ReseauSatureException("Réseau '" + this.reseauConnecte + "' saturé : " + (taille - envoyes)
+                            + " messages du lot sur " + taille + " restent dans le tampon."));
         }
+        finMesure(OperationRobot.ENVOI_LOT, debut, energieAvant, ResultatAction.SUCCES);
+        return taille;
+    }
+
+    /**
+     * Envoie le tampon si son plus ancien message a dépassé l'âge maximal.
+     * À appeler périodiquement quand le robot n'émet plus, pour borner la latence.
+     * @return Le nombre de messages envoyés.
+     * @throws RobotException Si l'envoi échoue.
+     */
+    public synchronized int viderTamponSiExpire() throws RobotException {
+        if (this.tamponEnvoi == null || !this.tamponEnvoi.doitEtreVide(System.nanoTime())) {
+            return 0;
+        }
+        return viderTampon();
+    }
+
+    /**
+     * Transmet un lot de messages sur le réseau : publication sur le bus s'il y en a un
+     * (voir {@link #setBus(BusMessages)}). La transmission s'arrête au premier message refusé
+     * par le réseau saturé. Les sous-classes reliées à un autre transport redéfinissent cette méthode.
+     * @param lot Les messages du lot, du plus ancien au plus récent.
+     * @return Le nombre de messages acceptés, depuis le début du lot.
+     * @throws RobotException Si la transmission échoue sans qu'aucun message n'ait été accepté.
+     */
+    protected int transmettre(List<String> lot) throws RobotException {
+        if (this.bus == null) {
+            return lot.size();
+        }
+        int acceptes = 0;
+        try {
+            for (String donnees : lot) {
+                if (!this.bus.publier(this.id, this.reseauConnecte, donnees)) {
+                    break;
+                }
+                acceptes++;
+            }
+        } catch (ReseauSatureException e) {
+            // Politique SIGNALER, ou délai de blocage dépassé : même traitement qu'un refus, le reste du lot attend dans le tampon
+        }
+        return acceptes;
+    }
+
+    /**
+     * Relie le robot à un bus de messages : les données envoyées sont publiées
+     * sur le canal du réseau connecté.
+     * @param bus Le bus, ou null pour ne plus rien publier.
+     */
+    public synchronized void setBus(BusMessages bus) {
+        this.bus = bus;
+    }
+
+    /**
+     * Configure le regroupement des envois. Les messages en attente sont d'abord envoyés
+     * et les statistiques repartent de zéro.
+     * @param tailleLot Le nombre de messages qui déclenche l'envoi d'un lot.
+     * @param ageMaxMillis L'âge maximal, en millisecondes, d'un message en attente.
+     * @throws RobotException Si des messages en attente ne peuvent être envoyés avant le changement.
+     */
+    public synchronized void setTamponEnvoi(int tailleLot, long ageMaxMillis) throws RobotException {
+        TamponEnvoi nouveau = new TamponEnvoi(tailleLot, ageMaxMillis);
+        viderTampon();
+        this.tailleLotEnvoi = tailleLot;
+        this.ageMaxEnvoiMillis = ageMaxMillis;
+        this.tamponEnvoi = nouveau;
+    }
+
+    @Override
+    void copierEtat(EtatRobot etat) {
+        super.copierEtat(etat);
+        etat.connecte = this.connecte;
+        etat.reseauConnecte = this.reseauConnecte;
     }
 
     /**
@@ -104,4 +278,15 @@ public abstract class RobotConnecte extends Robot implements Connectable {
     public String getReseauConnecte() {
         return reseauConnecte;
     }
+
+    /**
+     * @return Le tampon d'envoi et ses statistiques, ou null si aucun envoi différé n'a eu lieu.
+     */
+    public TamponEnvoi getTamponEnvoi() {
+        return tamponEnvoi;
+    }
+
+    public BusMessages getBus() {
+        return bus;
+    }
 }
@@ -0,0 +1,200 @@
+package com.insat.gl.robot;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registre d'une flotte de robots de livraison, utilisable depuis plusieurs threads.
+ * La recherche par identifiant se fait en temps constant, et des index secondaires
+ * maintiennent les robots en marche, en livraison, connectés et disponibles
+ * (en marche et sans livraison en cours). Les index sont tenus à jour à partir
+ * des notifications de changement d'état émises par les robots.
+ * Un {@link IndexSpatial} suit également la position de chaque robot pour les
+ * recherches de proximité.
+ * Pendant l'avancement parallèle d'une simulation, l'indexation peut être différée :
+ * les robots modifiés sont alors seulement marqués, puis réindexés en une fois par
+ * {@link #appliquerIndexationDifferee()}.
+ */
+public class RobotFleet implements ObservateurRobot {
+    private static final int TAILLE_CELLULE_INDEX = 32;
+
+    private final ConcurrentHashMap<String, RobotLivraison> robots = new ConcurrentHashMap<>();
+    private final Set<RobotLivraison> enMarche = ConcurrentHashMap.newKeySet();
+    private final Set<RobotLivraison> enLivraison = ConcurrentHashMap.newKeySet();
+    private final Set<RobotLivraison> connectes = ConcurrentHashMap.newKeySet();
+    private final Set<RobotLivraison> disponibles = ConcurrentHashMap.newKeySet();
+    private final IndexSpatial indexSpatial = new IndexSpatial(TAILLE_CELLULE_INDEX);
+    private final Set<RobotLivraison> modifiesDifferes = ConcurrentHashMap.newKeySet();
+    private volatile boolean indexationDifferee;
+    private final AtomicLong versionComposition = new AtomicLong();
+
+    /**
+     * Ajoute un robot à la flotte.
+     * @param robot Le robot à enregistrer.
+     * @return false si un robot portant le même identifiant est déjà enregistré.
+     */
+    public boolean ajouter(RobotLivraison robot) {
+        if (robots.putIfAbsent(robot.getId(), robot) != null) {
+            return false;
+        }
+        robot.ajouterObservateur(this);
+        indexSpatial.ajouter(robot);
+        indexer(robot);
+        versionComposition.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Retire un robot de la flotte.
+     * @param id L'identifiant du robot à retirer.
+     * @return Le robot retiré, ou null s'il n'était pas enregistré.
+     */
+    public RobotLivraison retirer(String id) {
+        RobotLivraison robot = robots.remove(id);
+        if (robot != null) {
+            robot.retirerObservateur(this);
+            indexSpatial.retirer(robot);
+            synchronized (robot) {
+                enMarche.remove(robot);
+                enLivraison.remove(robot);
+                connectes.remove(robot);
+                disponibles.remove(robot);
+            }
+            versionComposition.incrementAndGet();
+        }
+        return robot;
+    }
+
+    /**
+     * Recherche un robot par son identifiant.
+     * @param id L'identifiant recherché.
+     * @return Le robot, ou null s'il n'est pas enregistré.
+     */
+    public RobotLivraison get(String id) {
+        return robots.get(id);
+    }
+
+    public boolean contient(String id) {
+        return robots.containsKey(id);
+    }
+
+    public int taille() {
+        return robots.size();
+    }
+
+    /**
+     * @return Un compteur incrémenté à chaque ajout ou retrait de robot : deux lectures égales encadrent
+     *         une flotte de même composition, même si un retrait et un ajout ont laissé sa taille inchangée.
+     */
+    public long getVersionComposition() {
+        return versionComposition.get();
+    }
+
+    /**
+     * Met à jour les index secondaires lorsqu'un robot de la flotte change d'état.
+     * @param robot Le robot dont l'état a changé.
+     */
+    @Override
+    public void etatModifie(Robot robot) {
+        if (robot instanceof RobotLivraison) {
+            if (indexationDifferee) {
+                modifiesDifferes.add((RobotLivraison) robot);
+            } else {
+                indexer((RobotLivraison) robot);
+            }
+        }
+    }
+
+    /**
+     * Déplace le robot dans l'index spatial lorsqu'il change de position.
+     * @param robot Le robot qui s'est déplacé.
+     * @param ancienX L'ancienne coordonnée x.
+     * @param ancienY L'ancienne coordonnée y.
+     */
+    @Override
+    public void positionModifiee(Robot robot, int ancienX, int ancienY) {
+        if (robot instanceof RobotLivraison) {
+            if (indexationDifferee) {
+                modifiesDifferes.add((RobotLivraison) robot);
+            } else {
+                indexSpatial.mettreAJour((RobotLivraison) robot);
+            }
+        }
+    }
+
+    /**
+     * Diffère la mise à jour des index : les robots modifiés sont seulement marqués.
+     * Évite la contention sur les index quand de nombreux robots changent d'état en parallèle.
+     */
+    public void differerIndexation() {
+        indexationDifferee = true;
+    }
+
+    /**
+     * Rétablit l'indexation immédiate et réindexe les robots modifiés entre-temps.
+     */
+    public void appliquerIndexationDifferee() {
+        indexationDifferee = false;
+        Iterator<RobotLivraison> it = modifiesDifferes.iterator();
+        while (it.hasNext()) {
+            RobotLivraison robot = it.next();
+            it.remove();
+            indexer(robot);
+            indexSpatial.mettreAJour(robot);
+        }
+    }
+
+    /**
+     * Place le robot dans les index correspondant à son état courant.
+     * Synchronisé sur le robot pour que deux mises à jour concurrentes ne s'entrelacent pas,
+     * et ignoré si le robot a été retiré entre-temps.
+     */
+    private void indexer(RobotLivraison robot) {
+        synchronized (robot) {
+            if (robots.get(robot.getId()) != robot) {
+                return;
+            }
+            basculer(enMarche, robot, robot.isEnMarche());
+            basculer(enLivraison, robot, robot.isEnLivraison());
+            basculer(connectes, robot, robot.isConnecte());
+            basculer(disponibles, robot, robot.isEnMarche() && !robot.isEnLivraison());
+        }
+    }
+
+    private static void basculer(Set<RobotLivraison> index, RobotLivraison robot, boolean present) {
+        if (present) {
+            index.add(robot);
+        } else {
+            index.remove(robot);
+        }
+    }
+
+    // Vues en lecture seule, reflétant l'état courant de la flotte
+    public Collection<RobotLivraison> getRobots() {
+        return Collections.unmodifiableCollection(robots.values());
+    }
+
+    public Set<RobotLivraison> getRobotsEnMarche() {
+        return Collections.unmodifiableSet(enMarche);
+    }
+
+    public Set<RobotLivraison> getRobotsEnLivraison() {
+        return Collections.unmodifiableSet(enLivraison);
+    }
+
+    public Set<RobotLivraison> getRobotsConnectes() {
+        return Collections.unmodifiableSet(connectes);
+    }
+
+    public Set<RobotLivraison> getRobotsDisponibles() {
+        return Collections.unmodifiableSet(disponibles);
+    }
+
+    public IndexSpatial getIndexSpatial() {
+        return indexSpatial;
+    }
+}
@@ -1,25 +1,33 @@
 package com.insat.gl.robot;
 
-import com.insat.gl.robot.exceptions.EnergieInsuffisanteException;
 import com.insat.gl.robot.exceptions.RobotException;
-import java.util.Scanner;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Classe représentant un robot spécialisé dans la livraison de colis.
  * Hérite de RobotConnecte.
+ * Un robot peut transporter jusqu'à {@link #getCapacite()} colis chargés en une tournée :
+ * le colis actuel est alors le prochain arrêt, et chaque livraison passe à l'arrêt suivant.
  */
 public class RobotLivraison extends RobotConnecte {
 
     private String colisActuel;
     private String destination;
     private boolean enLivraison;
+    private int capacite;
+    private ArrayDeque<ArretLivraison> tournee;
+    private final ConcurrentLinkedQueue<TacheRobot> tachesPlanifiees = new ConcurrentLinkedQueue<>();
 
     public static final int ENERGIE_LIVRAISON = 15;
     public static final int ENERGIE_CHARGEMENT = 5;
 
-    private static final double ENERGIE_PAR_UNITE_DISTANCE = 0.3;
-    private static final int DISTANCE_PAR_HEURE = 10;
-    private static final int MAX_DISTANCE_DEPLACEMENT = 100;
+    public static final double ENERGIE_PAR_UNITE_DISTANCE = 0.3;
+    public static final int DISTANCE_PAR_HEURE = 10;
+    public static final int MAX_DISTANCE_DEPLACEMENT = 100;
 
     /**
      * Constructeur pour RobotLivraison.
@@ -32,177 +40,428 @@ public class RobotLivraison extends RobotConnecte {
         this.colisActuel = null;
         this.destination = null;
         this.enLivraison = false;
-        ajouterHistorique("RobotLivraison initialisé.");
+        this.capacite = 1;
+        ajouterEvenement(TypeEvenement.INITIALISATION_LIVRAISON);
     }
 
     /**
-     * Exécute une tâche en fonction de l'état du robot (en livraison, en attente).
-     * Cette implémentation utilise la console pour l'interaction, ce qui n'est pas idéal
-     * pour une GUI, mais suit la description initiale.
-     * @throws RobotException Si le robot n'est pas démarré ou si une autre erreur survient.
+     * Exécute la prochaine tâche planifiée (voir {@link #planifierTache(TacheRobot)}).
+     * Sans tâche planifiée, un robot en tournée livre son prochain arrêt ; sinon le robot
+     * se met en attente. La méthode ne bloque jamais : les tâches sont fournies à l'avance
+     * par l'appelant plutôt que saisies à la console.
+     * @throws RobotException Si le robot n'est pas démarré ou si la tâche échoue.
      */
     @Override
-    public void effectuerTache() throws RobotException {
+    public synchronized void effectuerTache() throws RobotException {
         if (!this.enMarche) {
             throw new RobotException("Le robot doit être démarré pour effectuer une tâche.");
         }
 
         verifierMaintenance();
 
-        if (this.enLivraison) {
+        TacheRobot tache = tachesPlanifiees.poll();
+        if (tache != null) {
+            tache.executer(this);
+        } else if (this.enLivraison) {
             if (this.destination == null) {
-                ajouterHistorique("Erreur: En livraison mais pas de destination définie.");
+                ajouterEvenement(TypeEvenement.LIVRAISON_SANS_DESTINATION);
                 throw new RobotException("En livraison mais aucune destination n'est définie.");
             }
-            Scanner scanner = new Scanner(System.in);
-            System.out.println("Robot " + id + " est en cours de livraison vers " + destination);
-            System.out.print("Confirmez la coordonnée x de la destination (" + this.destination + ") : ");
-            int destX = scanner.nextInt();
-            System.out.print("Confirmez la coordonnée y de la destination (" + this.destination + ") : ");
-            int destY = scanner.nextInt();
-
-            try {
-                faireLivraison(destX, destY);
-            } catch (RobotException e) {
-                throw e;
+            ArretLivraison arret = getProchainArret();
+            if (arret == null) {
+                ajouterEvenement(TypeEvenement.EN_ATTENTE);
+                return;
             }
+            faireLivraison(arret.getX(), arret.getY());
         } else {
-            Scanner scanner = new Scanner(System.in);
-            System.out.print("Le robot " + id + " est disponible. Charger un nouveau colis ? (oui/non) : ");
-            String reponse = scanner.nextLine().trim().toLowerCase();
-
-            if ("oui".equals(reponse)) {
-                System.out.print("Entrez le nom/description du colis : ");
-                String nomColis = scanner.nextLine();
-                System.out.print("Entrez la destination : ");
-                String dest = scanner.nextLine();
-                try {
-                    chargerColis(nomColis, dest);
-                    System.out.println("Colis chargé. Prêt pour la livraison vers " + destination);
-                } catch (RobotException e) {
-                    ajouterHistorique("Échec du chargement du colis : " + e.getMessage());
-                    System.err.println("Erreur lors du chargement : " + e.getMessage());
-                }
-            } else {
-                ajouterHistorique("En attente de colis.");
-                System.out.println("Robot " + id + " en attente.");
-            }
+            ajouterEvenement(TypeEvenement.EN_ATTENTE);
         }
     }
 
     /**
-     * Effectue la livraison d'un colis aux coordonnées spécifiées.
+     * Ajoute une tâche à la file du robot ; elle sera exécutée par un prochain appel à {@link #effectuerTache()}.
+     * Peut être appelée depuis n'importe quel thread.
+     * @param tache La tâche à planifier.
+     */
+    public void planifierTache(TacheRobot tache) {
+        tachesPlanifiees.add(tache);
+    }
+
+    public int getNombreTachesPlanifiees() {
+        return tachesPlanifiees.size();
+    }
+
+    /**
+     * Effectue la livraison d'un colis aux coordonnées spécifiées, sans lever d'exception en cas d'échec.
      * @param destX Coordonnée x de la destination finale.
      * @param destY Coordonnée y de la destination finale.
-     * @throws RobotException Si la livraison échoue (déplacement, énergie, etc.).
+     * @return {@link ResultatAction#SUCCES}, ou la raison pour laquelle le robot n'a pas pu livrer.
      */
-    public void faireLivraison(int destX, int destY) throws RobotException {
+    public synchronized ResultatAction tenterFaireLivraison(int destX, int destY) {
+        long debut = debutMesure();
+        int energieAvant = this.energie;
+        return finMesure(OperationRobot.LIVRAISON, debut, energieAvant, livrer(destX, destY));
+    }
+
+    private ResultatAction livrer(int destX, int destY) {
         if (!this.enMarche) {
-            throw new RobotException("Le robot doit être démarré pour effectuer une livraison.");
+            return ResultatAction.NON_DEMARRE;
         }
         if (!this.enLivraison || this.colisActuel == null) {
-            throw new RobotException("Le robot n'est pas en cours de livraison ou n'a pas de colis.");
+            return ResultatAction.PAS_DE_LIVRAISON;
         }
 
-        ajouterHistorique("Début de la tentative de livraison du colis '" + this.colisActuel + "' à (" + destX + "," + destY + ").");
+        ajouterEvenement(TypeEvenement.LIVRAISON_DEBUT, destX, destY, 0, 0, 0, 0, 0.0, 0.0, this.colisActuel, null);
 
-        try {
-            deplacer(destX, destY);
+        ResultatAction deplacement = tenterDeplacer(destX, destY);
+        if (deplacement != ResultatAction.SUCCES) {
+            ajouterEvenement(TypeEvenement.LIVRAISON_ECHEC, destX, destY, 0, 0, 0, 0, 0.0, 0.0, this.colisActuel, deplacement.getMessage());
+            return deplacement;
+        }
 
-            String colisLivre = this.colisActuel;
-            String destinationAtteinte = this.destination;
+        String colisLivre = this.colisActuel;
+        String destinationAtteinte = this.destination;
 
+        ArretLivraison suivant = passerArretSuivant();
+        debutModification();
+        if (suivant != null) {
+            this.colisActuel = suivant.getColis();
+            this.destination = suivant.getDestination();
+        } else {
             this.colisActuel = null;
             this.enLivraison = false;
             this.destination = null;
+        }
+        finModification();
+        if (suivant == null) {
+            notifierEtatModifie();
+        }
 
-            try {
-                verifierEnergie(ENERGIE_LIVRAISON);
-                consommerEnergie(ENERGIE_LIVRAISON);
-                ajouterHistorique(String.format("Livraison du colis '%s' terminée à (%d,%d) pour la destination '%s'. Énergie finale consommée: %d%%. Restant: %d%%",
-                        colisLivre, this.x, this.y, destinationAtteinte, ENERGIE_LIVRAISON, this.energie));
-            } catch (EnergieInsuffisanteException e) {
-                ajouterHistorique(String.format("Livraison du colis '%s' terminée à (%d,%d) pour '%s'. AVERTISSEMENT: Énergie insuffisante pour décompte final (%d%% requis).",
-                        colisLivre, this.x, this.y, destinationAtteinte, ENERGIE_LIVRAISON));
-            }
+        if (energieSuffisante(ENERGIE_LIVRAISON)) {
+            consommerEnergie(ENERGIE_LIVRAISON);
+            ajouterEvenement(TypeEvenement.LIVRAISON_TERMINEE, this.x, this.y, ENERGIE_LIVRAISON, this.energie, 0, 0, 0.0, 0.0,
+                    colisLivre, destinationAtteinte);
+        } else {
+            ajouterEvenement(TypeEvenement.LIVRAISON_TERMINEE_SANS_DECOMPTE, this.x, this.y, ENERGIE_LIVRAISON, 0, 0, 0, 0.0, 0.0,
+                    colisLivre, destinationAtteinte);
+        }
+        return ResultatAction.SUCCES;
+    }
 
-        } catch (RobotException e) {
-            ajouterHistorique("Échec de la livraison du colis '" + this.colisActuel + "' vers (" + destX + "," + destY + ") : " + e.getMessage());
-            throw e;
+    /**
+     * Effectue la livraison d'un colis aux coordonnées spécifiées.
+     * @param destX Coordonnée x de la destination finale.
+     * @param destY Coordonnée y de la destination finale.
+     * @throws RobotException Si la livraison échoue (déplacement, énergie, etc.).
+     */
+    public void faireLivraison(int destX, int destY) throws RobotException {
+        ResultatAction resultat = tenterFaireLivraison(destX, destY);
+        switch (resultat) {
+            case SUCCES:
+                return;
+            case NON_DEMARRE:
+                throw new RobotException("Le robot doit être démarré pour effectuer une livraison.");
+            case PAS_DE_LIVRAISON:
+                throw new RobotException("Le robot n'est pas en cours de livraison ou n'a pas de colis.");
+            default:
+                throw echecDeplacement(resultat, destX, destY);
         }
     }
 
     /**
-     * Déplace le robot vers les coordonnées spécifiées.
-     * @param destX Coordonnée x de destination.
-     * @param destY Coordonnée y de destination.
-     * @throws RobotException Si le déplacement est impossible (énergie, maintenance, distance > 100).
+     * Retire l'arrêt qui vient d'être livré de la tournée.
+     * @return L'arrêt suivant, ou null si la tournée est terminée (ou s'il n'y en avait pas).
      */
-    @Override
-    public void deplacer(int destX, int destY) throws RobotException {
+    private ArretLivraison passerArretSuivant() {
+        if (this.tournee == null || this.tournee.isEmpty()) {
+            return null;
+        }
+        this.tournee.poll();
+        return this.tournee.peek();
+    }
+
+    /**
+     * Charge plusieurs colis en une fois et ordonne les arrêts pour réduire la distance parcourue
+     * (voir {@link SequenceurTournee}). L'énergie de chargement n'est consommée qu'une fois pour la tournée.
+     * @param arrets Les arrêts à desservir, au plus {@link #getCapacite()}.
+     * @throws RobotException Si le robot n'est pas disponible, si la capacité est dépassée, si un trajet
+     *                        dépasse la distance maximale d'un déplacement ou si l'énergie est insuffisante.
+     */
+    public synchronized void chargerTournee(List<ArretLivraison> arrets) throws RobotException {
+        long debut = debutMesure();
+        int energieAvant = this.energie;
         if (!this.enMarche) {
-            throw new RobotException("Le robot doit être démarré pour se déplacer.");
+            throw echecMesure(OperationRobot.CHARGEMENT_TOURNEE, debut, energieAvant, ResultatAction.NON_DEMARRE,
+                    new RobotException("Le robot doit être démarré pour charger une tournée."));
+        }
+        if (this.enLivraison || this.colisActuel != null) {
+            throw echecMesure(OperationRobot.CHARGEMENT_TOURNEE, debut, energieAvant, ResultatAction.DEJA_EN_LIVRAISON,
+                    new RobotException("Impossible de charger : déjà en cours de livraison."));
+        }
+        if (arrets.isEmpty() || arrets.size() > this.capacite) {
+            throw echecMesure(OperationRobot.CHARGEMENT_TOURNEE, debut, energieAvant, ResultatAction.ECHEC,
+                    new RobotException("Impossible de charger " + arrets.size() + " colis : capacité de " + this.capacite + "."));
+        }
+        if (isMaintenanceRequise()) {
+            throw echecMesure(OperationRobot.CHARGEMENT_TOURNEE, debut, energieAvant, ResultatAction.MAINTENANCE_REQUISE,
+                    maintenanceRequise());
         }
 
-        verifierMaintenance();
+        List<ArretLivraison> ordre = SequenceurTournee.optimiser(this.x, this.y, arrets);
+        if (!SequenceurTournee.respecteLimiteDeplacement(this.x, this.y, ordre)) {
+            throw echecMesure(OperationRobot.CHARGEMENT_TOURNEE, debut, energieAvant, ResultatAction.DISTANCE_TROP_GRANDE,
+                    new RobotException("Tournée impossible : un trajet dépasse " + MAX_DISTANCE_DEPLACEMENT + " unités."));
+        }
+        int energieTournee = SequenceurTournee.energieRequise(this.x, this.y, ordre);
+        if (!energieSuffisante(ENERGIE_CHARGEMENT + energieTournee)) {
+            ajouterEvenement(TypeEvenement.CHARGEMENT_ECHEC_ENERGIE, ordre.get(0).getColis(), null);
+            throw echecMesure(OperationRobot.CHARGEMENT_TOURNEE, debut, energieAvant, ResultatAction.ENERGIE_INSUFFISANTE,
+                    new RobotException("Impossible de charger la tournée : énergie insuffisante. Requis: "
+                            + (ENERGIE_CHARGEMENT + energieTournee) + "%, Actuelle: " + this.energie + "%"));
+        }
 
-        double distance = Math.sqrt(Math.pow(destX - this.x, 2) + Math.pow(destY - this.y, 2));
+        consommerEnergie(ENERGIE_CHARGEMENT);
+        this.tournee = new ArrayDeque<>(ordre);
+        ArretLivraison premier = this.tournee.peek();
+        debutModification();
+        this.colisActuel = premier.getColis();
+        this.destination = premier.getDestination();
+        this.enLivraison = true;
+        finModification();
+        ajouterEvenement(TypeEvenement.CHARGEMENT_TOURNEE, ordre.size(), energieTournee, this.energie, 0, 0, 0,
+                SequenceurTournee.distanceTotale(this.x, this.y, ordre), 0.0, premier.getColis(), null);
+        notifierEtatModifie();
+        finMesure(OperationRobot.CHARGEMENT_TOURNEE, debut, energieAvant, ResultatAction.SUCCES);
+    }
 
-        if (distance > MAX_DISTANCE_DEPLACEMENT) {
-            throw new RobotException("Déplacement annulé : distance trop grande (" + String.format("%.2f", distance) + " unités, max: " + MAX_DISTANCE_DEPLACEMENT + ").");
-        }
+    /**
+     * Déplace le robot vers les coordonnées spécifiées, sans lever d'exception en cas d'échec.
+     * Un refus ne modifie pas le robot et n'alloue aucun objet.
+     * @param destX Coordonnée x de destination.
+     * @param destY Coordonnée y de destination.
+     * @return {@link ResultatAction#SUCCES}, ou la raison du refus (voir {@link #evaluerDeplacement(int, int)}).
+     */
+    public synchronized ResultatAction tenterDeplacer(int destX, int destY) {
+        long debut = debutMesure();
+        int energieAvant = this.energie;
+        return finMesure(OperationRobot.DEPLACEMENT, debut, energieAvant, rouler(destX, destY));
+    }
 
-        int energieRequise = (int) Math.ceil(distance * ENERGIE_PAR_UNITE_DISTANCE);
-        try {
-            verifierEnergie(energieRequise);
-        } catch (EnergieInsuffisanteException e) {
-            ajouterHistorique("Échec du déplacement vers (" + destX + "," + destY + ") - énergie insuffisante.");
-            throw new RobotException("Déplacement impossible vers (" + destX + "," + destY + ") : énergie insuffisante. Requis: " + energieRequise + "%, Actuelle: " + this.energie + "%");
+    private ResultatAction rouler(int destX, int destY) {
+        ResultatAction resultat = evaluerDeplacement(destX, destY);
+        if (resultat != ResultatAction.SUCCES) {
+            if (resultat == ResultatAction.ENERGIE_INSUFFISANTE) {
+                ajouterEvenement(TypeEvenement.DEPLACEMENT_ECHEC_ENERGIE, destX, destY);
+            }
+            return resultat;
         }
 
+        double distance = distanceVers(destX, destY);
+        int energieRequise = energiePourDistance(distance);
         int heuresAjoutees = (int) Math.ceil(distance / DISTANCE_PAR_HEURE);
 
         consommerEnergie(energieRequise);
+        debutModification();
         this.heuresUtilisation += heuresAjoutees;
+        finModification();
         int oldX = this.x;
         int oldY = this.y;
-        this.x = destX;
-        this.y = destY;
+        changerPosition(destX, destY);
 
-        ajouterHistorique(String.format("Déplacement de (%d,%d) à (%d,%d). Distance: %.2f. Énergie consommée: %d%%. Heures ajoutées: %d.",
-                oldX, oldY, this.x, this.y, distance, energieRequise, heuresAjoutees));
+        ajouterEvenement(TypeEvenement.DEPLACEMENT, oldX, oldY, this.x, this.y, energieRequise, heuresAjoutees, distance, 0.0, null, null);
+        return ResultatAction.SUCCES;
     }
 
     /**
-     * Charge un colis sur le robot pour une destination donnée.
+     * Déplace le robot vers les coordonnées spécifiées.
+     * @param destX Coordonnée x de destination.
+     * @param destY Coordonnée y de destination.
+     * @throws RobotException Si le déplacement est impossible (énergie, maintenance, distance > 100).
+     */
+    @Override
+    public void deplacer(int destX, int destY) throws RobotException {
+        ResultatAction resultat = tenterDeplacer(destX, destY);
+        if (resultat != ResultatAction.SUCCES) {
+            throw echecDeplacement(resultat, destX, destY);
+        }
+    }
+
+    /**
+     * Construit l'exception détaillée d'un déplacement refusé. Le robot n'ayant pas changé,
+     * la distance et l'énergie requise sont recalculées ici plutôt que sur le chemin courant.
+     */
+    private RobotException echecDeplacement(ResultatAction resultat, int destX, int destY) {
+        double distance = distanceVers(destX, destY);
+        switch (resultat) {
+            case NON_DEMARRE:
+                return new RobotException("Le robot doit être démarré pour se déplacer.");
+            case MAINTENANCE_REQUISE:
+                return maintenanceRequise();
+            case DISTANCE_TROP_GRANDE:
+                return new RobotException("Déplacement annulé : distance trop grande (" + String.format("%.2f", distance) + " unités, max: " + MAX_DISTANCE_DEPLACEMENT + ").");
+            default:
+                return new RobotException("Déplacement impossible vers (" + destX + "," + destY + ") : énergie insuffisante. Requis: " + energiePourDistance(distance) + "%, Actuelle: " + this.energie + "%");
+        }
+    }
+
+    /**
+     * Calcule la distance euclidienne entre le robot et un point.
+     * @param destX Coordonnée x du point.
+     * @param destY Coordonnée y du point.
+     * @return La distance en unités.
+     */
+    public double distanceVers(int destX, int destY) {
+        long dx = (long) destX - this.x;
+        long dy = (long) destY - this.y;
+        return Math.sqrt((double) (dx * dx + dy * dy));
+    }
+
+    /**
+     * Calcule l'énergie consommée par un déplacement d'une distance donnée.
+     * @param distance La distance à parcourir.
+     * @return L'énergie requise, en pourcentage.
+     */
+    public static int energiePourDistance(double distance) {
+        return (int) Math.ceil(distance * ENERGIE_PAR_UNITE_DISTANCE);
+    }
+
+    /**
+     * Évalue un déplacement sans l'effectuer, selon les mêmes règles que {@link #deplacer(int, int)} :
+     * robot démarré, pas de maintenance due, distance au plus {@value #MAX_DISTANCE_DEPLACEMENT} unités
+     * et énergie suffisante.
+     * @param destX Coordonnée x de destination.
+     * @param destY Coordonnée y de destination.
+     * @return {@link ResultatAction#SUCCES} si le déplacement serait accepté, la raison du refus sinon.
+     */
+    public ResultatAction evaluerDeplacement(int destX, int destY) {
+        if (!this.enMarche) {
+            return ResultatAction.NON_DEMARRE;
+        }
+        if (isMaintenanceRequise()) {
+            return ResultatAction.MAINTENANCE_REQUISE;
+        }
+        double distance = distanceVers(destX, destY);
+        if (distance > MAX_DISTANCE_DEPLACEMENT) {
+            return ResultatAction.DISTANCE_TROP_GRANDE;
+        }
+        if (!energieSuffisante(energiePourDistance(distance))) {
+            return ResultatAction.ENERGIE_INSUFFISANTE;
+        }
+        return ResultatAction.SUCCES;
+    }
+
+    /**
+     * Indique si le robot peut rejoindre le point donné en un seul déplacement
+     * (voir {@link #evaluerDeplacement(int, int)}).
+     * @param destX Coordonnée x de destination.
+     * @param destY Coordonnée y de destination.
+     * @return true si le déplacement serait accepté.
+     */
+    public boolean peutAtteindre(int destX, int destY) {
+        return evaluerDeplacement(destX, destY) == ResultatAction.SUCCES;
+    }
+
+    /**
+     * Charge un colis sur le robot pour une destination donnée, sans lever d'exception en cas d'échec.
      * @param colis Le nom ou la description du colis.
      * @param destination La destination de livraison.
-     * @throws RobotException Si le robot est déjà en livraison, transporte déjà un colis, ou manque d'énergie.
+     * @return {@link ResultatAction#SUCCES}, ou la raison du refus.
      */
-    public void chargerColis(String colis, String destination) throws RobotException {
+    public synchronized ResultatAction tenterChargerColis(String colis, String destination) {
+        long debut = debutMesure();
+        int energieAvant = this.energie;
+        return finMesure(OperationRobot.CHARGEMENT, debut, energieAvant, charger(colis, destination));
+    }
+
+    private ResultatAction charger(String colis, String destination) {
         if (!this.enMarche) {
-            throw new RobotException("Le robot doit être démarré pour charger un colis.");
+            return ResultatAction.NON_DEMARRE;
         }
         if (this.enLivraison) {
-            throw new RobotException("Impossible de charger : déjà en cours de livraison.");
+            return ResultatAction.DEJA_EN_LIVRAISON;
         }
         if (this.colisActuel != null) {
-            throw new RobotException("Impossible de charger : transporte déjà le colis '" + this.colisActuel + "'.");
+            return ResultatAction.DEJA_CHARGE;
         }
-
-        verifierMaintenance();
-        try {
-            verifierEnergie(ENERGIE_CHARGEMENT);
-        } catch (EnergieInsuffisanteException e) {
-            ajouterHistorique("Échec du chargement du colis '" + colis + "' - énergie insuffisante.");
-            throw new RobotException("Impossible de charger le colis : énergie insuffisante.");
+        if (isMaintenanceRequise()) {
+            return ResultatAction.MAINTENANCE_REQUISE;
+        }
+        if (!energieSuffisante(ENERGIE_CHARGEMENT)) {
+            ajouterEvenement(TypeEvenement.CHARGEMENT_ECHEC_ENERGIE, colis, null);
+            return ResultatAction.ENERGIE_INSUFFISANTE;
         }
 
         consommerEnergie(ENERGIE_CHARGEMENT);
+        debutModification();
         this.colisActuel = colis;
         this.destination = destination;
         this.enLivraison = true;
-        ajouterHistorique("Chargement du colis '" + colis + "' pour destination : " + destination + ". Énergie restante: " + this.energie + "%");
+        finModification();
+        ajouterEvenement(TypeEvenement.CHARGEMENT, this.energie, 0, 0, 0, 0, 0, 0.0, 0.0, colis, destination);
+        notifierEtatModifie();
+        return ResultatAction.SUCCES;
+    }
+
+    /**
+     * Charge un colis sur le robot pour une destination donnée.
+     * @param colis Le nom ou la description du colis.
+     * @param destination La destination de livraison.
+     * @throws RobotException Si le robot est déjà en livraison, transporte déjà un colis, ou manque d'énergie.
+     */
+    public void chargerColis(String colis, String destination) throws RobotException {
+        switch (tenterChargerColis(colis, destination)) {
+            case SUCCES:
+                return;
+            case NON_DEMARRE:
+                throw new RobotException("Le robot doit être démarré pour charger un colis.");
+            case DEJA_EN_LIVRAISON:
+                throw new RobotException("Impossible de charger : déjà en cours de livraison.");
+            case DEJA_CHARGE:
+                throw new RobotException("Impossible de charger : transporte déjà le colis '" + this.colisActuel + "'.");
+            case MAINTENANCE_REQUISE:
+                throw maintenanceRequise();
+            default:
+                throw new RobotException("Impossible de charger le colis : énergie insuffisante.");
+        }
+    }
+
+    /**
+     * Replace le robot dans un état enregistré par {@link InstantaneFlotte}, sans rejouer les actions
+     * ni consommer d'énergie. Destiné à un robot qui vient d'être construit.
+     */
+    synchronized void restaurerEtat(int energie, int heuresUtilisation, double carboneEmis, boolean enMarche,
+                       String reseau, String colis, String destination, boolean enLivraison, int capacite) {
+        debutModification();
+        this.energie = energie;
+        this.heuresUtilisation = heuresUtilisation;
+        this.totalCarbonEmitted = carboneEmis;
+        this.enMarche = enMarche;
+        this.connecte = reseau != null;
+        this.reseauConnecte = reseau;
+        this.colisActuel = colis;
+        this.destination = destination;
+        this.enLivraison = enLivraison;
+        this.capacite = capacite;
+        finModification();
+        ajouterEvenement(TypeEvenement.RESTAURATION, energie, heuresUtilisation);
+        notifierEtatModifie();
+    }
+
+    /**
+     * Replace les arrêts restants d'une tournée enregistrée, le premier étant le colis en cours.
+     * Comme {@link #restaurerEtat}, destiné à un robot qui vient d'être construit.
+     */
+    synchronized void restaurerTournee(List<ArretLivraison> arrets) {
+        this.tournee = new ArrayDeque<>(arrets);
+    }
+
+    @Override
+    void copierEtat(EtatRobot etat) {
+        super.copierEtat(etat);
+        etat.colisActuel = this.colisActuel;
+        etat.destination = this.destination;
+        etat.enLivraison = this.enLivraison;
+        etat.capacite = this.capacite;
     }
 
     /**
@@ -211,11 +470,12 @@ public class RobotLivraison extends RobotConnecte {
      */
     @Override
     public String toString() {
-        String etatColis = enLivraison ? String.format("Colis: '%s', Destination: %s, EnLivraison: %b", colisActuel, destination != null ? destination : "N/A", enLivraison) : "Disponible";
-        String etatConnexion = connecte ? "Oui, Réseau: " + reseauConnecte : "Non";
+        EtatRobot etat = instantane();
+        String etatColis = etat.enLivraison ? String.format("Colis: '%s', Destination: %s, EnLivraison: %b", etat.colisActuel, etat.destination != null ? etat.destination : "N/A", etat.enLivraison) : "Disponible";
+        String etatConnexion = etat.connecte ? "Oui, Réseau: " + etat.reseauConnecte : "Non";
 
         return String.format("RobotLivraison [ID: %s, Position: (%d,%d), Énergie: %d%%, Heures: %d, %s, Connecté: %s]",
-                id, x, y, energie, heuresUtilisation, etatColis, etatConnexion);
+                etat.id, etat.x, etat.y, etat.energie, etat.heuresUtilisation, etatColis, etatConnexion);
     }
 
     // Getters spécifiques
@@ -230,4 +490,35 @@ public class RobotLivraison extends RobotConnecte {
     public boolean isEnLivraison() {
         return enLivraison;
     }
+
+    public int getCapacite() {
+        return capacite;
+    }
+
+    /**
+     * Définit le nombre maximal de colis chargés en une tournée.
+     * @param capacite La capacité de transport (au moins 1).
+     */
+    public synchronized void setCapacite(int capacite) {
+        if (capacite < 1) {
+            throw new IllegalArgumentException("La capacité doit être au moins 1 : " + capacite);
+        }
+        debutModification();
+        this.capacite = capacite;
+        finModification();
+    }
+
+    /**
+     * @return Le prochain arrêt de la tournée en cours, ou null hors tournée.
+     */
+    public ArretLivraison getProchainArret() {
+        return tournee != null ? tournee.peek() : null;
+    }
+
+    /**
+     * @return Les arrêts restant à desservir, dans l'ordre de passage.
+     */
+    public synchronized List<ArretLivraison> getArretsRestants() {
+        return tournee != null ? Collections.unmodifiableList(new ArrayList<>(tournee)) : Collections.emptyList();
+    }
 }
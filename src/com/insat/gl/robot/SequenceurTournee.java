@@ -0,0 +1,163 @@
+package com.insat.gl.robot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ordonne les arrêts d'une tournée pour réduire la distance totale parcourue.
+ * Une première tournée est construite par plus proche voisin, en privilégiant les arrêts
+ * atteignables en un déplacement ({@link RobotLivraison#MAX_DISTANCE_DEPLACEMENT}), puis
+ * améliorée par 2-opt. Un échange 2-opt n'est retenu que s'il raccourcit la tournée sans
+ * augmenter le nombre de trajets dépassant la limite d'un déplacement.
+ * La tournée est ouverte : elle part de la position du robot et s'arrête au dernier arrêt.
+ */
+public final class SequenceurTournee {
+    private static final int MAX_PASSES_2OPT = 50;
+    private static final double EPSILON = 1e-9;
+
+    private SequenceurTournee() {
+    }
+
+    /**
+     * Calcule un ordre de passage des arrêts à partir d'une position de départ.
+     * @param departX Coordonnée x de départ.
+     * @param departY Coordonnée y de départ.
+     * @param arrets Les arrêts à ordonner.
+     * @return Une nouvelle liste contenant les arrêts dans l'ordre de passage.
+     */
+    public static List<ArretLivraison> optimiser(int departX, int departY, List<ArretLivraison> arrets) {
+        List<ArretLivraison> tournee = plusProcheVoisin(departX, departY, arrets);
+        ameliorer2Opt(departX, departY, tournee);
+        return tournee;
+    }
+
+    private static List<ArretLivraison> plusProcheVoisin(int departX, int departY, List<ArretLivraison> arrets) {
+        List<ArretLivraison> restants = new ArrayList<>(arrets);
+        List<ArretLivraison> tournee = new ArrayList<>(arrets.size());
+        int x = departX;
+        int y = departY;
+        while (!restants.isEmpty()) {
+            int meilleur = -1;
+            double meilleureDistance = Double.POSITIVE_INFINITY;
+            boolean meilleurAtteignable = false;
+            for (int i = 0; i < restants.size(); i++) {
+                double distance = restants.get(i).distanceVers(x, y);
+                boolean atteignable = distance <= RobotLivraison.MAX_DISTANCE_DEPLACEMENT;
+                if ((atteignable && !meilleurAtteignable)
+                        || (atteignable == meilleurAtteignable && distance < meilleureDistance)) {
+                    meilleur = i;
+                    meilleureDistance = distance;
+                    meilleurAtteignable = atteignable;
+                }
+            }
+            ArretLivraison suivant = restants.remove(meilleur);
+            tournee.add(suivant);
+            x = suivant.getX();
+            y = suivant.getY();
+        }
+        return tournee;
+    }
+
+    /**
+     * Inverse des segments de la tournée tant que cela la raccourcit.
+     * Inverser le segment [i, j] ne change que les trajets (i-1 → i) et (j → j+1).
+     */
+    private static void ameliorer2Opt(int departX, int departY, List<ArretLivraison> tournee) {
+        int n = tournee.size();
+        boolean ameliore = true;
+        for (int passe = 0; passe < MAX_PASSES_2OPT && ameliore; passe++) {
+            ameliore = false;
+            for (int i = 0; i < n - 1; i++) {
+                int precX = i == 0 ? departX : tournee.get(i - 1).getX();
+                int precY = i == 0 ? departY : tournee.get(i - 1).getY();
+                for (int j = i + 1; j < n; j++) {
+                    ArretLivraison debut = tournee.get(i);
+                    ArretLivraison fin = tournee.get(j);
+                    ArretLivraison suivant = j + 1 < n ? tournee.get(j + 1) : null;
+
+                    double ancienEntree = debut.distanceVers(precX, precY);
+                    double nouvelleEntree = fin.distanceVers(precX, precY);
+                    double ancienneSortie = suivant != null ? fin.distanceVers(suivant.getX(), suivant.getY()) : 0.0;
+                    double nouvelleSortie = suivant != null ? debut.distanceVers(suivant.getX(), suivant.getY()) : 0.0;
+
+                    double gain = ancienEntree + ancienneSortie - nouvelleEntree - nouvelleSortie;
+                    if (gain > EPSILON && depassements(nouvelleEntree, nouvelleSortie) <= depassements(ancienEntree, ancienneSortie)) {
+                        Collections.reverse(tournee.subList(i, j + 1));
+                        ameliore = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int depassements(double trajet1, double trajet2) {
+        int n = 0;
+        if (trajet1 > RobotLivraison.MAX_DISTANCE_DEPLACEMENT) {
+            n++;
+        }
+        if (trajet2 > RobotLivraison.MAX_DISTANCE_DEPLACEMENT) {
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Calcule la distance totale d'une tournée.
+     * @param departX Coordonnée x de départ.
+     * @param departY Coordonnée y de départ.
+     * @param tournee Les arrêts dans l'ordre de passage.
+     * @return La somme des distances entre arrêts successifs.
+     */
+    public static double distanceTotale(int departX, int departY, List<ArretLivraison> tournee) {
+        double total = 0.0;
+        int x = departX;
+        int y = departY;
+        for (ArretLivraison arret : tournee) {
+            total += arret.distanceVers(x, y);
+            x = arret.getX();
+            y = arret.getY();
+        }
+        return total;
+    }
+
+    /**
+     * Calcule l'énergie nécessaire pour effectuer une tournée : chaque trajet au tarif
+     * de {@link RobotLivraison#energiePourDistance(double)}, plus {@link RobotLivraison#ENERGIE_LIVRAISON} par arrêt.
+     * @param departX Coordonnée x de départ.
+     * @param departY Coordonnée y de départ.
+     * @param tournee Les arrêts dans l'ordre de passage.
+     * @return L'énergie requise, en pourcentage.
+     */
+    public static int energieRequise(int departX, int departY, List<ArretLivraison> tournee) {
+        int total = 0;
+        int x = departX;
+        int y = departY;
+        for (ArretLivraison arret : tournee) {
+            total += RobotLivraison.energiePourDistance(arret.distanceVers(x, y)) + RobotLivraison.ENERGIE_LIVRAISON;
+            x = arret.getX();
+            y = arret.getY();
+        }
+        return total;
+    }
+
+    /**
+     * Indique si chaque trajet de la tournée peut se faire en un seul déplacement.
+     * @param departX Coordonnée x de départ.
+     * @param departY Coordonnée y de départ.
+     * @param tournee Les arrêts dans l'ordre de passage.
+     * @return true si aucun trajet ne dépasse {@link RobotLivraison#MAX_DISTANCE_DEPLACEMENT}.
+     */
+    public static boolean respecteLimiteDeplacement(int departX, int departY, List<ArretLivraison> tournee) {
+        int x = departX;
+        int y = departY;
+        for (ArretLivraison arret : tournee) {
+            if (arret.distanceVers(x, y) > RobotLivraison.MAX_DISTANCE_DEPLACEMENT) {
+                return false;
+            }
+            x = arret.getX();
+            y = arret.getY();
+        }
+        return true;
+    }
+}
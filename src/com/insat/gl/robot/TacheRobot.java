@@ -0,0 +1,199 @@
+package com.insat.gl.robot;
+
+import com.insat.gl.robot.exceptions.RobotException;
+
+/**
+ * Tâche typée confiée à un robot de livraison : chargement, livraison, déplacement, recharge,
+ * démarrage, arrêt, connexion ou déconnexion.
+ * Une tâche porte tous ses paramètres, ce qui permet de l'exécuter plus tard et sur un autre thread
+ * (voir {@link ExecuteurTaches}) sans interaction avec l'utilisateur.
+ */
+public final class TacheRobot {
+
+    /**
+     * Nature de la tâche.
+     */
+    public enum Type {
+        CHARGER,
+        LIVRER,
+        DEPLACER,
+        RECHARGER,
+        DEMARRER,
+        ARRETER,
+        CONNECTER,
+        DECONNECTER
+    }
+
+    private final Type type;
+    private final String colis;
+    private final String destination;
+    private final int x;
+    private final int y;
+    private final int quantite;
+    private final String reseau;
+
+    private TacheRobot(Type type, String colis, String destination, int x, int y, int quantite) {
+        this(type, colis, destination, x, y, quantite, null);
+    }
+
+    private TacheRobot(Type type, String colis, String destination, int x, int y, int quantite, String reseau) {
+        this.type = type;
+        this.colis = colis;
+        this.destination = destination;
+        this.x = x;
+        this.y = y;
+        this.quantite = quantite;
+        this.reseau = reseau;
+    }
+
+    /**
+     * @param colis Le nom ou la description du colis.
+     * @param destination La destination de livraison.
+     * @return Une tâche de chargement de colis.
+     */
+    public static TacheRobot charger(String colis, String destination) {
+        return new TacheRobot(Type.CHARGER, colis, destination, 0, 0, 0);
+    }
+
+    /**
+     * @param x Coordonnée x de la destination.
+     * @param y Coordonnée y de la destination.
+     * @return Une tâche de livraison du colis chargé.
+     */
+    public static TacheRobot livrer(int x, int y) {
+        return new TacheRobot(Type.LIVRER, null, null, x, y, 0);
+    }
+
+    /**
+     * @param x Nouvelle coordonnée x.
+     * @param y Nouvelle coordonnée y.
+     * @return Une tâche de déplacement.
+     */
+    public static TacheRobot deplacer(int x, int y) {
+        return new TacheRobot(Type.DEPLACER, null, null, x, y, 0);
+    }
+
+    /**
+     * @param quantite La quantité d'énergie à ajouter.
+     * @return Une tâche de recharge.
+     */
+    public static TacheRobot recharger(int quantite) {
+        return new TacheRobot(Type.RECHARGER, null, null, 0, 0, quantite);
+    }
+
+    /**
+     * @return Une tâche de démarrage du robot.
+     */
+    public static TacheRobot demarrer() {
+        return new TacheRobot(Type.DEMARRER, null, null, 0, 0, 0);
+    }
+
+    /**
+     * @return Une tâche d'arrêt du robot.
+     */
+    public static TacheRobot arreter() {
+        return new TacheRobot(Type.ARRETER, null, null, 0, 0, 0);
+    }
+
+    /**
+     * @param reseau Le nom du réseau auquel se connecter.
+     * @return Une tâche de connexion.
+     */
+    public static TacheRobot connecter(String reseau) {
+        return new TacheRobot(Type.CONNECTER, null, null, 0, 0, 0, reseau);
+    }
+
+    /**
+     * @return Une tâche de déconnexion du réseau actuel.
+     */
+    public static TacheRobot deconnecter() {
+        return new TacheRobot(Type.DECONNECTER, null, null, 0, 0, 0);
+    }
+
+    /**
+     * Exécute la tâche sur le robot donné.
+     * @param robot Le robot qui réalise la tâche.
+     * @throws RobotException Si l'action échoue.
+     */
+    public void executer(RobotLivraison robot) throws RobotException {
+        switch (type) {
+            case CHARGER:
+                robot.chargerColis(colis, destination);
+                break;
+            case LIVRER:
+                robot.faireLivraison(x, y);
+                break;
+            case DEPLACER:
+                robot.deplacer(x, y);
+                break;
+            case RECHARGER:
+                robot.recharger(quantite);
+                break;
+            case DEMARRER:
+                robot.demarrer();
+                break;
+            case ARRETER:
+                robot.arreter();
+                break;
+            case CONNECTER:
+                robot.connecter(reseau);
+                break;
+            case DECONNECTER:
+                robot.deconnecter();
+                break;
+            default:
+                throw new IllegalStateException("Type de tâche inconnu : " + type);
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case CHARGER:
+                return "Charger '" + colis + "' pour " + destination;
+            case LIVRER:
+                return "Livrer à (" + x + "," + y + ")";
+            case DEPLACER:
+                return "Déplacer vers (" + x + "," + y + ")";
+            case DEMARRER:
+                return "Démarrer";
+            case ARRETER:
+                return "Arrêter";
+            case CONNECTER:
+                return "Connecter au réseau " + reseau;
+            case DECONNECTER:
+                return "Déconnecter";
+            default:
+                return "Recharger de " + quantite + "%";
+        }
+    }
+
+    // Getters
+    public Type getType() {
+        return type;
+    }
+
+    public String getColis() {
+        return colis;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getQuantite() {
+        return quantite;
+    }
+
+    public String getReseau() {
+        return reseau;
+    }
+}
@@ -0,0 +1,150 @@
+package com.insat.gl.robot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tampon des messages sortants d'un robot connecté.
+ * Les messages sont regroupés en lots, envoyés lorsque le tampon est plein, lorsque le plus ancien
+ * message a dépassé l'âge maximal, ou à la demande. Le tampon tient aussi les statistiques des lots
+ * envoyés (taille et latence), pour arbitrer entre latence, énergie et débit de messages.
+ */
+public class TamponEnvoi {
+    public static final int TAILLE_LOT_PAR_DEFAUT = 32;
+    public static final long AGE_MAX_MILLIS_PAR_DEFAUT = 1000;
+
+    private static final long NANOS_PAR_MILLI = 1_000_000L;
+
+    private final int tailleLot;
+    private final long ageMaxNanos;
+    private List<String> messages = new ArrayList<>();
+    private long horodatagePremier;
+
+    private long nombreLots;
+    private long nombreMessagesEnvoyes;
+    private int tailleLotMax;
+    private long latenceTotaleNanos;
+    private long latenceMaxNanos;
+
+    /**
+     * Constructeur pour TamponEnvoi.
+     * @param tailleLot Le nombre de messages qui déclenche l'envoi d'un lot.
+     * @param ageMaxMillis L'âge maximal, en millisecondes, du plus ancien message avant envoi.
+     */
+    public TamponEnvoi(int tailleLot, long ageMaxMillis) {
+        if (tailleLot <= 0 || ageMaxMillis < 0) {
+            throw new IllegalArgumentException("Paramètres de tampon invalides : lot " + tailleLot + ", âge " + ageMaxMillis + " ms");
+        }
+        this.tailleLot = tailleLot;
+        this.ageMaxNanos = ageMaxMillis * NANOS_PAR_MILLI;
+    }
+
+    /**
+     * Ajoute un message au tampon.
+     * @param message Le message à envoyer.
+     * @param maintenantNanos L'instant courant, selon {@link System#nanoTime()}.
+     */
+    public void ajouter(String message, long maintenantNanos) {
+        if (messages.isEmpty()) {
+            horodatagePremier = maintenantNanos;
+        }
+        messages.add(message);
+    }
+
+    /**
+     * @param maintenantNanos L'instant courant, selon {@link System#nanoTime()}.
+     * @return true si le tampon est plein ou si son plus ancien message a dépassé l'âge maximal.
+     */
+    public boolean doitEtreVide(long maintenantNanos) {
+        return messages.size() >= tailleLot
+                || (!messages.isEmpty() && maintenantNanos - horodatagePremier >= ageMaxNanos);
+    }
+
+    /**
+     * @return Les messages en attente, du plus ancien au plus récent, sans les retirer du tampon.
+     */
+    public List<String> consulter() {
+        return Collections.unmodifiableList(messages);
+    }
+
+    /**
+     * Retire les premiers messages du tampon, une fois acceptés par le réseau, et les comptabilise comme un lot.
+     * Les messages restants gardent l'horodatage du plus ancien message retiré : ils partiront au plus tard
+     * au prochain contrôle d'âge.
+     * @param nombre Le nombre de messages envoyés.
+     * @param maintenantNanos L'instant courant, selon {@link System#nanoTime()}.
+     */
+    public void retirer(int nombre, long maintenantNanos) {
+        if (nombre <= 0) {
+            return;
+        }
+        long latence = maintenantNanos - horodatagePremier;
+        if (nombre >= messages.size()) {
+            nombre = messages.size();
+            messages = new ArrayList<>();
+        } else {
+            messages.subList(0, nombre).clear();
+        }
+        nombreLots++;
+        nombreMessagesEnvoyes += nombre;
+        tailleLotMax = Math.max(tailleLotMax, nombre);
+        latenceTotaleNanos += latence;
+        latenceMaxNanos = Math.max(latenceMaxNanos, latence);
+    }
+
+    /**
+     * @param maintenantNanos L'instant courant, selon {@link System#nanoTime()}.
+     * @return L'âge du plus ancien message en attente, en nanosecondes (0 si le tampon est vide).
+     */
+    public long getAgeNanos(long maintenantNanos) {
+        return messages.isEmpty() ? 0 : maintenantNanos - horodatagePremier;
+    }
+
+    public boolean estVide() {
+        return messages.isEmpty();
+    }
+
+    // Getters
+    public int getTaille() {
+        return messages.size();
+    }
+
+    public int getTailleLot() {
+        return tailleLot;
+    }
+
+    public long getAgeMaxMillis() {
+        return ageMaxNanos / NANOS_PAR_MILLI;
+    }
+
+    public long getNombreLots() {
+        return nombreLots;
+    }
+
+    public long getNombreMessagesEnvoyes() {
+        return nombreMessagesEnvoyes;
+    }
+
+    public int getTailleLotMax() {
+        return tailleLotMax;
+    }
+
+    public double getTailleLotMoyenne() {
+        return nombreLots == 0 ? 0.0 : (double) nombreMessagesEnvoyes / nombreLots;
+    }
+
+    /**
+     * @return La latence moyenne d'un lot (attente de son plus ancien message), en millisecondes.
+     */
+    public double getLatenceMoyenneMillis() {
+        return nombreLots == 0 ? 0.0 : (double) latenceTotaleNanos / nombreLots / NANOS_PAR_MILLI;
+    }
+
+    /**
+     * @return La latence maximale observée d'un lot, en millisecondes.
+     */
+    public double getLatenceMaxMillis() {
+        return (double) latenceMaxNanos / NANOS_PAR_MILLI;
+    }
+}
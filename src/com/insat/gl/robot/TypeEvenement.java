@@ -0,0 +1,80 @@
+package com.insat.gl.robot;
+
+/**
+ * Types d'événements enregistrés dans l'historique compact d'un robot.
+ * Chaque type porte le modèle de message utilisé lors du formatage différé.
+ * Les arguments sont référencés par position : %1$ à %6$ pour les entiers,
+ * %7$ et %8$ pour les réels, %9$ et %10$ pour les textes.
+ */
+public enum TypeEvenement {
+    LIBRE("%9$s"),
+
+    // Robot
+    CREATION("Robot créé"),
+    DEMARRAGE_DEJA_EN_MARCHE("Tentative de démarrage alors qu'il est déjà en marche."),
+    DEMARRAGE("Démarrage du robot."),
+    DEMARRAGE_ECHEC_ENERGIE("Échec du démarrage - énergie insuffisante."),
+    ARRET_DEJA_ETEINT("Tentative d'arrêt alors qu'il est déjà éteint."),
+    ARRET("Arrêt du robot."),
+    ENERGIE_CONSOMMEE("Énergie consommée: %1$d. Impact CO2: %7$.2fg"),
+    RECHARGE("Recharge de %1$d%%. Énergie actuelle : %2$d%%"),
+
+    // RobotConnecte
+    INITIALISATION_CONNECTE("RobotConnecte initialisé."),
+    CONNEXION_DEJA_CONNECTE("Tentative de connexion au réseau '%9$s' alors qu'il est déjà connecté à '%10$s'."),
+    CONNEXION("Connecté au réseau : %9$s. Énergie restante: %1$d%%"),
+    CONNEXION_ECHEC_ENERGIE("Échec de la connexion au réseau '%9$s' - énergie insuffisante."),
+    DECONNEXION_NON_CONNECTE("Tentative de déconnexion alors qu'il n'est pas connecté."),
+    DECONNEXION("Déconnecté du réseau : %9$s"),
+    ENVOI_ECHEC_NON_CONNECTE("Échec de l'envoi de données - non connecté."),
+    ENVOI("Envoi de données ('%9$s') via le réseau '%10$s'. Énergie restante: %1$d%%"),
+    ENVOI_ECHEC_ENERGIE("Échec de l'envoi de données ('%9$s') - énergie insuffisante."),
+
+    // RobotLivraison
+    INITIALISATION_LIVRAISON("RobotLivraison initialisé."),
+    LIVRAISON_SANS_DESTINATION("Erreur: En livraison mais pas de destination définie."),
+    CHARGEMENT_ECHEC("Échec du chargement du colis : %9$s"),
+    EN_ATTENTE("En attente de colis."),
+    LIVRAISON_DEBUT("Début de la tentative de livraison du colis '%9$s' à (%1$d,%2$d)."),
+    LIVRAISON_TERMINEE("Livraison du colis '%9$s' terminée à (%1$d,%2$d) pour la destination '%10$s'. Énergie finale consommée: %3$d%%. Restant: %4$d%%"),
+    LIVRAISON_TERMINEE_SANS_DECOMPTE("Livraison du colis '%9$s' terminée à (%1$d,%2$d) pour '%10$s'. AVERTISSEMENT: Énergie insuffisante pour décompte final (%3$d%% requis)."),
+    LIVRAISON_ECHEC("Échec de la livraison du colis '%9$s' vers (%1$d,%2$d) : %10$s"),
+    DEPLACEMENT_ECHEC_ENERGIE("Échec du déplacement vers (%1$d,%2$d) - énergie insuffisante."),
+    DEPLACEMENT("Déplacement de (%1$d,%2$d) à (%3$d,%4$d). Distance: %7$.2f. Énergie consommée: %5$d%%. Heures ajoutées: %6$d."),
+    CHARGEMENT_ECHEC_ENERGIE("Échec du chargement du colis '%9$s' - énergie insuffisante."),
+    CHARGEMENT("Chargement du colis '%9$s' pour destination : %10$s. Énergie restante: %1$d%%"),
+
+    // Ajouts ultérieurs : toujours en fin de liste pour conserver les codes existants
+    MAINTENANCE("Maintenance effectuée après %1$d heures d'utilisation."),
+    CHARGEMENT_TOURNEE("Chargement d'une tournée de %1$d colis (%7$.2f unités, énergie prévue: %2$d%%). Premier arrêt : %9$s. Énergie restante: %3$d%%"),
+    ENVOI_LOT("Envoi d'un lot de %1$d messages via le réseau '%10$s' (attente %7$.1f ms). Énergie restante: %2$d%%"),
+    ENVOI_LOT_ECHEC_ENERGIE("Échec de l'envoi d'un lot de %1$d messages - énergie insuffisante."),
+    RESTAURATION("État restauré depuis un instantané : énergie %1$d%%, %2$d heures d'utilisation."),
+    ENVOI_ECHEC_SATURE("Échec de l'envoi de données ('%9$s') - réseau '%10$s' saturé."),
+    ENVOI_LOT_ECHEC_SATURE("Réseau '%10$s' saturé : %1$d messages du lot sur %2$d restent dans le tampon.");
+
+    private static final TypeEvenement[] VALEURS = values();
+
+    private final String modele;
+
+    TypeEvenement(String modele) {
+        this.modele = modele;
+    }
+
+    /**
+     * Retourne le modèle de message (syntaxe {@link java.util.Formatter}) de l'événement.
+     * @return Le modèle de message.
+     */
+    public String getModele() {
+        return modele;
+    }
+
+    /**
+     * Retrouve un type d'événement à partir de son code numérique.
+     * @param code Le code (ordinal) de l'événement.
+     * @return Le type d'événement correspondant.
+     */
+    public static TypeEvenement depuisCode(int code) {
+        return VALEURS[code];
+    }
+}
@@ -0,0 +1,14 @@
+package com.insat.gl.robot.exceptions;
+
+/**
+ * Exception levée lorsqu'un réseau saturé refuse un message.
+ */
+public class ReseauSatureException extends RobotException {
+    /**
+     * Constructeur pour ReseauSatureException.
+     * @param message Le message indiquant le réseau saturé.
+     */
+    public ReseauSatureException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,129 @@
+package com.insat.gl.robot.navigation;
+
+import java.util.BitSet;
+
+/**
+ * Grille d'occupation d'un dépôt : la carte est découpée en cellules carrées,
+ * libres ou occupées par un obstacle. Chaque modification incrémente un numéro de version,
+ * ce qui permet aux planificateurs d'invalider les chemins calculés sur une carte périmée.
+ */
+public class GrilleOccupation {
+    private final int largeur;
+    private final int hauteur;
+    private final int tailleCellule;
+    private final BitSet obstacles;
+    private volatile long version;
+
+    /**
+     * Constructeur pour GrilleOccupation.
+     * @param largeur Le nombre de cellules en x.
+     * @param hauteur Le nombre de cellules en y.
+     * @param tailleCellule La taille du côté d'une cellule, en unités de carte.
+     */
+    public GrilleOccupation(int largeur, int hauteur, int tailleCellule) {
+        if (largeur <= 0 || hauteur <= 0 || tailleCellule <= 0) {
+            throw new IllegalArgumentException("Dimensions de grille invalides : " + largeur + "x" + hauteur + ", cellule " + tailleCellule);
+        }
+        this.largeur = largeur;
+        this.hauteur = hauteur;
+        this.tailleCellule = tailleCellule;
+        this.obstacles = new BitSet(largeur * hauteur);
+    }
+
+    /**
+     * Marque ou libère une cellule.
+     * @param cx Colonne de la cellule.
+     * @param cy Ligne de la cellule.
+     * @param occupee true pour y placer un obstacle.
+     */
+    public synchronized void setObstacle(int cx, int cy, boolean occupee) {
+        if (!contient(cx, cy)) {
+            throw new IndexOutOfBoundsException("Cellule (" + cx + "," + cy + ") hors de la grille.");
+        }
+        obstacles.set(index(cx, cy), occupee);
+        version++;
+    }
+
+    /**
+     * Place un obstacle sur toutes les cellules touchées par un rectangle en coordonnées de carte.
+     * La partie du rectangle hors de la grille est ignorée ; un rectangle entièrement hors de la grille
+     * ne change rien, pas même la version.
+     * @param x0 Coordonnée x du premier coin.
+     * @param y0 Coordonnée y du premier coin.
+     * @param x1 Coordonnée x du coin opposé.
+     * @param y1 Coordonnée y du coin opposé.
+     */
+    public synchronized void ajouterObstacle(int x0, int y0, int x1, int y1) {
+        int cxMin = Math.max(0, cellule(Math.min(x0, x1)));
+        int cxMax = Math.min(largeur - 1, cellule(Math.max(x0, x1)));
+        int cyMin = Math.max(0, cellule(Math.min(y0, y1)));
+        int cyMax = Math.min(hauteur - 1, cellule(Math.max(y0, y1)));
+        if (cxMin > cxMax || cyMin > cyMax) {
+            return;
+        }
+        for (int cy = cyMin; cy <= cyMax; cy++) {
+            obstacles.set(index(cxMin, cy), index(cxMax, cy) + 1);
+        }
+        version++;
+    }
+
+    /**
+     * Libère toutes les cellules.
+     */
+    public synchronized void vider() {
+        obstacles.clear();
+        version++;
+    }
+
+    public synchronized boolean estLibre(int cx, int cy) {
+        return contient(cx, cy) && !obstacles.get(index(cx, cy));
+    }
+
+    public boolean contient(int cx, int cy) {
+        return cx >= 0 && cy >= 0 && cx < largeur && cy < hauteur;
+    }
+
+    /**
+     * @param coordonnee Une coordonnée de carte.
+     * @return L'indice de la cellule contenant cette coordonnée.
+     */
+    public int cellule(int coordonnee) {
+        return Math.floorDiv(coordonnee, tailleCellule);
+    }
+
+    /**
+     * @param c L'indice d'une cellule.
+     * @return La coordonnée de carte du centre de cette cellule.
+     */
+    public int centre(int c) {
+        return c * tailleCellule + tailleCellule / 2;
+    }
+
+    int index(int cx, int cy) {
+        return cy * largeur + cx;
+    }
+
+    /**
+     * Copie l'état des obstacles, pour une recherche de chemin sans verrou.
+     */
+    synchronized BitSet copierObstacles() {
+        return (BitSet) obstacles.clone();
+    }
+
+    // Getters
+    public int getLargeur() {
+        return largeur;
+    }
+
+    public int getHauteur() {
+        return hauteur;
+    }
+
+    public int getTailleCellule() {
+        return tailleCellule;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,364 @@
+package com.insat.gl.robot.navigation;
+
+import com.insat.gl.robot.RobotLivraison;
+import com.insat.gl.robot.exceptions.EnergieInsuffisanteException;
+import com.insat.gl.robot.exceptions.RobotException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Planificateur de trajets sur une {@link GrilleOccupation}.
+ * Le chemin est recherché par A* entre les cellules de départ et d'arrivée (8 voisins,
+ * sans couper les coins d'obstacles), puis lissé en lignes droites dégagées et découpé
+ * en étapes d'au plus {@link RobotLivraison#MAX_DISTANCE_DEPLACEMENT} unités.
+ * Les chemins de cellules calculés sont conservés dans un cache LRU borné, indexé par
+ * les cellules de départ et d'arrivée, et vidé dès que la grille est modifiée.
+ */
+public class PlanificateurChemin {
+    public static final int CAPACITE_CACHE_PAR_DEFAUT = 1024;
+
+    private static final double DIAGONALE = Math.sqrt(2.0);
+    private static final double ECHELLE_PRIORITE = 1024.0;
+    private static final int[] VOISINS_DX = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] VOISINS_DY = {0, 0, 1, -1, 1, -1, 1, -1};
+    private static final int[] AUCUN_CHEMIN = new int[0];
+
+    private final GrilleOccupation grille;
+    private final Map<Long, int[]> cache;
+    private final ThreadLocal<EspaceRecherche> espaces;
+    private BitSet obstacles;
+    private long version;
+    private long succesCache;
+    private long echecsCache;
+
+    /**
+     * Constructeur pour PlanificateurChemin avec un cache de taille par défaut.
+     * @param grille La grille d'occupation sur laquelle planifier.
+     */
+    public PlanificateurChemin(GrilleOccupation grille) {
+        this(grille, CAPACITE_CACHE_PAR_DEFAUT);
+    }
+
+    /**
+     * Constructeur pour PlanificateurChemin.
+     * @param grille La grille d'occupation sur laquelle planifier.
+     * @param capaciteCache Le nombre maximal de chemins conservés en cache.
+     */
+    public PlanificateurChemin(GrilleOccupation grille, int capaciteCache) {
+        if (capaciteCache < 0) {
+            throw new IllegalArgumentException("La capacité du cache doit être positive : " + capaciteCache);
+        }
+        this.grille = grille;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+                return size() > capaciteCache;
+            }
+        };
+        int nbCellules = grille.getLargeur() * grille.getHauteur();
+        this.espaces = ThreadLocal.withInitial(() -> new EspaceRecherche(nbCellules));
+        this.obstacles = grille.copierObstacles();
+        this.version = grille.getVersion();
+    }
+
+    /**
+     * Planifie un trajet entre deux points de la carte.
+     * @param departX Coordonnée x de départ.
+     * @param departY Coordonnée y de départ.
+     * @param arriveeX Coordonnée x d'arrivée.
+     * @param arriveeY Coordonnée y d'arrivée.
+     * @return Le trajet découpé en étapes, ou null si aucun chemin libre ne relie les deux points.
+     */
+    public Trajet planifier(int departX, int departY, int arriveeX, int arriveeY) {
+        int dcx = grille.cellule(departX);
+        int dcy = grille.cellule(departY);
+        int acx = grille.cellule(arriveeX);
+        int acy = grille.cellule(arriveeY);
+        if (!grille.contient(dcx, dcy) || !grille.contient(acx, acy)) {
+            return null;
+        }
+        int depart = grille.index(dcx, dcy);
+        int arrivee = grille.index(acx, acy);
+        long cle = ((long) depart << 32) | arrivee;
+
+        int[] cellules;
+        BitSet instantane;
+        long versionRecherche;
+        synchronized (this) {
+            synchroniserVersion();
+            cellules = cache.get(cle);
+            instantane = obstacles;
+            versionRecherche = version;
+            if (cellules != null) {
+                succesCache++;
+            } else {
+                echecsCache++;
+            }
+        }
+        if (cellules == null) {
+            cellules = rechercher(instantane, depart, arrivee);
+            synchronized (this) {
+                if (version == versionRecherche) {
+                    cache.put(cle, cellules);
+                }
+            }
+        }
+        if (cellules == AUCUN_CHEMIN) {
+            return null;
+        }
+        return lisser(instantane, cellules, departX, departY, arriveeX, arriveeY);
+    }
+
+    /**
+     * Conduit un robot jusqu'à un point en suivant le trajet planifié, étape par étape.
+     * L'énergie nécessaire à l'ensemble du trajet est vérifiée avant le départ, pour ne pas
+     * immobiliser le robot en chemin ; chaque étape est ensuite contrôlée par
+     * {@link RobotLivraison#deplacer(int, int)}.
+     * @param robot Le robot à déplacer.
+     * @param x Coordonnée x d'arrivée.
+     * @param y Coordonnée y d'arrivée.
+     * @return Le trajet effectué.
+     * @throws RobotException Si aucun chemin n'existe, si l'énergie est insuffisante ou si une étape échoue.
+     */
+    public Trajet deplacer(RobotLivraison robot, int x, int y) throws RobotException {
+        Trajet trajet = planifier(robot.getX(), robot.getY(), x, y);
+        if (trajet == null) {
+            throw new RobotException("Aucun chemin libre de (" + robot.getX() + "," + robot.getY() + ") vers (" + x + "," + y + ").");
+        }
+        if (robot.getEnergie() < trajet.getEnergieTotale()) {
+            throw new EnergieInsuffisanteException("Énergie insuffisante pour le trajet vers (" + x + "," + y + ") : "
+                    + robot.getEnergie() + "% requis : " + trajet.getEnergieTotale() + "%");
+        }
+        for (int i = 0; i < trajet.getNombreEtapes(); i++) {
+            robot.deplacer(trajet.getEtapeX(i), trajet.getEtapeY(i));
+        }
+        return trajet;
+    }
+
+    /**
+     * Vide le cache de chemins.
+     */
+    public synchronized void viderCache() {
+        cache.clear();
+    }
+
+    /**
+     * Reprend un instantané des obstacles et vide le cache si la grille a changé.
+     */
+    private void synchroniserVersion() {
+        long courante = grille.getVersion();
+        if (courante != version) {
+            cache.clear();
+            obstacles = grille.copierObstacles();
+            version = courante;
+        }
+    }
+
+    /**
+     * Recherche A* des cellules reliant le départ à l'arrivée.
+     * @return Les indices de cellules du départ à l'arrivée inclus, ou {@link #AUCUN_CHEMIN}.
+     */
+    private int[] rechercher(BitSet obstacles, int depart, int arrivee) {
+        if (obstacles.get(depart) || obstacles.get(arrivee)) {
+            return AUCUN_CHEMIN;
+        }
+        if (depart == arrivee) {
+            return new int[] {depart};
+        }
+        int largeur = grille.getLargeur();
+        int acx = arrivee % largeur;
+        int acy = arrivee / largeur;
+        EspaceRecherche espace = espaces.get();
+        int generation = espace.nouvelleGeneration();
+        PriorityQueue<Long> ouverts = new PriorityQueue<>();
+
+        espace.ouvrir(depart, generation, 0.0, -1);
+        ouverts.add(priorite(heuristique(depart % largeur, depart / largeur, acx, acy), depart));
+        while (!ouverts.isEmpty()) {
+            int courant = (int) (long) ouverts.poll();
+            if (espace.fermes[courant] == generation) {
+                continue;
+            }
+            if (courant == arrivee) {
+                return reconstruire(espace, arrivee);
+            }
+            espace.fermes[courant] = generation;
+            int cx = courant % largeur;
+            int cy = courant / largeur;
+            for (int v = 0; v < VOISINS_DX.length; v++) {
+                int nx = cx + VOISINS_DX[v];
+                int ny = cy + VOISINS_DY[v];
+                if (!grille.contient(nx, ny)) {
+                    continue;
+                }
+                int voisin = ny * largeur + nx;
+                if (obstacles.get(voisin) || espace.fermes[voisin] == generation) {
+                    continue;
+                }
+                boolean diagonal = v >= 4;
+                if (diagonal && (obstacles.get(cy * largeur + nx) || obstacles.get(ny * largeur + cx))) {
+                    continue;
+                }
+                double g = espace.g[courant] + (diagonal ? DIAGONALE : 1.0);
+                if (espace.vus[voisin] != generation || g < espace.g[voisin]) {
+                    espace.ouvrir(voisin, generation, g, courant);
+                    ouverts.add(priorite(g + heuristique(nx, ny, acx, acy), voisin));
+                }
+            }
+        }
+        return AUCUN_CHEMIN;
+    }
+
+    private static int[] reconstruire(EspaceRecherche espace, int arrivee) {
+        int longueur = 0;
+        for (int c = arrivee; c != -1; c = espace.parents[c]) {
+            longueur++;
+        }
+        int[] chemin = new int[longueur];
+        for (int c = arrivee, i = longueur - 1; c != -1; c = espace.parents[c], i--) {
+            chemin[i] = c;
+        }
+        return chemin;
+    }
+
+    /**
+     * Distance octile, admissible pour un déplacement à 8 voisins.
+     */
+    private static double heuristique(int cx, int cy, int acx, int acy) {
+        int dx = Math.abs(cx - acx);
+        int dy = Math.abs(cy - acy);
+        return Math.max(dx, dy) + (DIAGONALE - 1.0) * Math.min(dx, dy);
+    }
+
+    private static long priorite(double f, int cellule) {
+        return ((long) (f * ECHELLE_PRIORITE) << 32) | cellule;
+    }
+
+    /**
+     * Transforme un chemin de cellules en étapes : depuis chaque étape, on vise le point
+     * du chemin le plus lointain qui soit en vue directe et à portée d'un déplacement.
+     */
+    private Trajet lisser(BitSet obstacles, int[] cellules, int departX, int departY, int arriveeX, int arriveeY) {
+        int largeur = grille.getLargeur();
+        int n = Math.max(cellules.length, 2);
+        int[] px = new int[n];
+        int[] py = new int[n];
+        for (int i = 1; i < n - 1; i++) {
+            px[i] = grille.centre(cellules[i] % largeur);
+            py[i] = grille.centre(cellules[i] / largeur);
+        }
+        px[0] = departX;
+        py[0] = departY;
+        px[n - 1] = arriveeX;
+        py[n - 1] = arriveeY;
+
+        int[] etapesX = new int[n];
+        int[] etapesY = new int[n];
+        int nbEtapes = 0;
+        int i = 0;
+        while (i < n - 1) {
+            int suivant = i + 1;
+            for (int j = n - 1; j > i + 1; j--) {
+                if (distance(px[i], py[i], px[j], py[j]) <= RobotLivraison.MAX_DISTANCE_DEPLACEMENT
+                        && enVue(obstacles, px[i], py[i], px[j], py[j])) {
+                    suivant = j;
+                    break;
+                }
+            }
+            int morceaux = (int) Math.ceil(distance(px[i], py[i], px[suivant], py[suivant]) / RobotLivraison.MAX_DISTANCE_DEPLACEMENT);
+            if (nbEtapes + morceaux > etapesX.length) {
+                etapesX = Arrays.copyOf(etapesX, etapesX.length * 2 + morceaux);
+                etapesY = Arrays.copyOf(etapesY, etapesY.length * 2 + morceaux);
+            }
+            for (int m = 1; m < morceaux; m++) {
+                etapesX[nbEtapes] = px[i] + (int) ((long) (px[suivant] - px[i]) * m / morceaux);
+                etapesY[nbEtapes] = py[i] + (int) ((long) (py[suivant] - py[i]) * m / morceaux);
+                nbEtapes++;
+            }
+            etapesX[nbEtapes] = px[suivant];
+            etapesY[nbEtapes] = py[suivant];
+            nbEtapes++;
+            i = suivant;
+        }
+        return new Trajet(departX, departY, Arrays.copyOf(etapesX, nbEtapes), Arrays.copyOf(etapesY, nbEtapes));
+    }
+
+    /**
+     * Vérifie qu'un segment ne traverse aucune cellule occupée, en l'échantillonnant
+     * au quart de cellule.
+     */
+    private boolean enVue(BitSet obstacles, int x0, int y0, int x1, int y1) {
+        double distance = distance(x0, y0, x1, y1);
+        int pas = Math.max(1, (int) Math.ceil(distance * 4 / grille.getTailleCellule()));
+        for (int s = 0; s <= pas; s++) {
+            int x = (int) Math.floor(x0 + (double) (x1 - x0) * s / pas);
+            int y = (int) Math.floor(y0 + (double) (y1 - y0) * s / pas);
+            int cx = grille.cellule(x);
+            int cy = grille.cellule(y);
+            if (!grille.contient(cx, cy) || obstacles.get(grille.index(cx, cy))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double distance(int x0, int y0, int x1, int y1) {
+        long dx = (long) x1 - x0;
+        long dy = (long) y1 - y0;
+        return Math.sqrt((double) (dx * dx + dy * dy));
+    }
+
+    // Getters
+    public GrilleOccupation getGrille() {
+        return grille;
+    }
+
+    public synchronized int getTailleCache() {
+        return cache.size();
+    }
+
+    public synchronized long getSuccesCache() {
+        return succesCache;
+    }
+
+    public synchronized long getEchecsCache() {
+        return echecsCache;
+    }
+
+    /**
+     * Tableaux de travail d'A*, réutilisés d'une recherche à l'autre par chaque thread.
+     * Un numéro de génération évite de les réinitialiser entre deux recherches.
+     */
+    private static class EspaceRecherche {
+        private final double[] g;
+        private final int[] parents;
+        private final int[] vus;
+        private final int[] fermes;
+        private int generation;
+
+        EspaceRecherche(int nbCellules) {
+            this.g = new double[nbCellules];
+            this.parents = new int[nbCellules];
+            this.vus = new int[nbCellules];
+            this.fermes = new int[nbCellules];
+        }
+
+        int nouvelleGeneration() {
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(vus, 0);
+                Arrays.fill(fermes, 0);
+                generation = 1;
+            }
+            return generation;
+        }
+
+        void ouvrir(int cellule, int generation, double cout, int parent) {
+            vus[cellule] = generation;
+            g[cellule] = cout;
+            parents[cellule] = parent;
+        }
+    }
+}
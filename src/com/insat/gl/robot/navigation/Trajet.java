@@ -0,0 +1,86 @@
+package com.insat.gl.robot.navigation;
+
+import com.insat.gl.robot.RobotLivraison;
+
+/**
+ * Trajet découpé en étapes, chacune réalisable par un seul appel à
+ * {@link RobotLivraison#deplacer(int, int)} (au plus {@link RobotLivraison#MAX_DISTANCE_DEPLACEMENT} unités).
+ */
+public class Trajet {
+    private final int[] etapesX;
+    private final int[] etapesY;
+    private final double[] distances;
+    private final int[] energies;
+    private final double distanceTotale;
+    private final int energieTotale;
+
+    /**
+     * Constructeur pour Trajet.
+     * @param departX Coordonnée x de départ.
+     * @param departY Coordonnée y de départ.
+     * @param etapesX Coordonnées x des étapes successives, la dernière étant l'arrivée.
+     * @param etapesY Coordonnées y des étapes successives, la dernière étant l'arrivée.
+     */
+    public Trajet(int departX, int departY, int[] etapesX, int[] etapesY) {
+        this.etapesX = etapesX;
+        this.etapesY = etapesY;
+        this.distances = new double[etapesX.length];
+        this.energies = new int[etapesX.length];
+        double total = 0.0;
+        int energie = 0;
+        int x = departX;
+        int y = departY;
+        for (int i = 0; i < etapesX.length; i++) {
+            long dx = (long) etapesX[i] - x;
+            long dy = (long) etapesY[i] - y;
+            distances[i] = Math.sqrt((double) (dx * dx + dy * dy));
+            energies[i] = RobotLivraison.energiePourDistance(distances[i]);
+            total += distances[i];
+            energie += energies[i];
+            x = etapesX[i];
+            y = etapesY[i];
+        }
+        this.distanceTotale = total;
+        this.energieTotale = energie;
+    }
+
+    public int getNombreEtapes() {
+        return etapesX.length;
+    }
+
+    public int getEtapeX(int i) {
+        return etapesX[i];
+    }
+
+    public int getEtapeY(int i) {
+        return etapesY[i];
+    }
+
+    public double getDistanceEtape(int i) {
+        return distances[i];
+    }
+
+    public int getEnergieEtape(int i) {
+        return energies[i];
+    }
+
+    public double getDistanceTotale() {
+        return distanceTotale;
+    }
+
+    public int getEnergieTotale() {
+        return energieTotale;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Trajet [");
+        for (int i = 0; i < etapesX.length; i++) {
+            if (i > 0) {
+                sb.append(" -> ");
+            }
+            sb.append('(').append(etapesX[i]).append(',').append(etapesY[i]).append(')');
+        }
+        return sb.append(String.format(", Distance: %.2f, Énergie: %d%%]", distanceTotale, energieTotale)).toString();
+    }
+}
@@ -0,0 +1,42 @@
+package com.insat.gl.simulation;
+
+import com.insat.gl.robot.RobotLivraison;
+
+/**
+ * Association d'un ordre de livraison au robot qui l'a chargé, avec le coût retenu.
+ */
+public class Affectation {
+    private final OrdreLivraison ordre;
+    private final RobotLivraison robot;
+    private final double cout;
+
+    /**
+     * Constructeur pour Affectation.
+     * @param ordre L'ordre affecté.
+     * @param robot Le robot qui a chargé le colis.
+     * @param cout Le coût estimé de la livraison pour ce robot.
+     */
+    public Affectation(OrdreLivraison ordre, RobotLivraison robot, double cout) {
+        this.ordre = ordre;
+        this.robot = robot;
+        this.cout = cout;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Affectation [Colis: '%s' -> Robot: %s, Coût: %.2f]", ordre.getColis(), robot.getId(), cout);
+    }
+
+    // Getters
+    public OrdreLivraison getOrdre() {
+        return ordre;
+    }
+
+    public RobotLivraison getRobot() {
+        return robot;
+    }
+
+    public double getCout() {
+        return cout;
+    }
+}
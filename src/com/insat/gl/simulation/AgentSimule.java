@@ -0,0 +1,27 @@
+package com.insat.gl.simulation;
+
+import com.insat.gl.robot.RobotLivraison;
+
+/**
+ * État de simulation associé à un robot : phase courante, ordre en cours
+ * et nombre de ticks restant pour une immobilisation (recharge, maintenance).
+ */
+class AgentSimule {
+    enum Phase { LIBRE, EN_ROUTE, RECHARGE, MAINTENANCE }
+
+    final RobotLivraison robot;
+    Phase phase = Phase.LIBRE;
+    Phase phaseApresImmobilisation = Phase.LIBRE;
+    OrdreLivraison ordre;
+    int ticksRestants;
+
+    AgentSimule(RobotLivraison robot) {
+        this.robot = robot;
+    }
+
+    void immobiliser(Phase immobilisation, int duree) {
+        this.phaseApresImmobilisation = this.phase;
+        this.phase = immobilisation;
+        this.ticksRestants = duree;
+    }
+}
@@ -0,0 +1,20 @@
+package com.insat.gl.simulation;
+
+/**
+ * Compteurs accumulés pendant l'avancement des robots au cours d'un tick.
+ */
+class CompteursTick {
+    long livraisons;
+    long echecs;
+    long recharges;
+    long maintenances;
+    long libres;
+
+    void fusionner(CompteursTick autres) {
+        this.livraisons += autres.livraisons;
+        this.echecs += autres.echecs;
+        this.recharges += autres.recharges;
+        this.maintenances += autres.maintenances;
+        this.libres += autres.libres;
+    }
+}
@@ -0,0 +1,362 @@
+package com.insat.gl.simulation;
+
+import com.insat.gl.robot.IndexSpatial;
+import com.insat.gl.robot.ResultatAction;
+import com.insat.gl.robot.RobotFleet;
+import com.insat.gl.robot.RobotLivraison;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Répartit une file d'ordres de livraison sur les robots disponibles d'une flotte, par lots.
+ * Pour chaque ordre d'un lot, les robots candidats sont les plus proches de la destination
+ * (recherche dans l'{@link IndexSpatial} de la flotte). Le coût d'une affectation combine la distance,
+ * le budget d'énergie du trajet ({@code ENERGIE_CHARGEMENT} + trajet + {@code ENERGIE_LIVRAISON})
+ * rapporté à l'énergie restante, et les heures du trajet rapportées à la marge avant maintenance.
+ * Comme {@link MoteurSimulation} recharge et entretient les robots en route, seule la première étape
+ * du trajet ({@value RobotLivraison#DISTANCE_PAR_HEURE} unités) doit être couverte : un robot qui n'a pas
+ * l'énergie du chargement, de cette étape et de la livraison ({@link #ENERGIE_MINIMALE}), ou qui doit
+ * être entretenu avant la première heure de trajet, est exclu. Les autres sont pénalisés d'autant plus
+ * que le trajet complet entame leur énergie et leur marge de maintenance.
+ * Deux modes sont proposés : glouton (les paires les moins chères d'abord) et optimal
+ * (méthode hongroise sur l'ensemble des candidats du lot). Les affectations retenues
+ * sont appliquées avec {@link RobotLivraison#chargerColis(String, String)}.
+ */
+public class DispatcheurColis {
+    public enum Mode { GLOUTON, OPTIMAL }
+
+    /**
+     * L'énergie en dessous de laquelle aucun ordre ne peut être confié à un robot, quelle que soit sa destination.
+     */
+    public static final int ENERGIE_MINIMALE = RobotLivraison.ENERGIE_CHARGEMENT
+            + RobotLivraison.energiePourDistance(RobotLivraison.DISTANCE_PAR_HEURE) + RobotLivraison.ENERGIE_LIVRAISON;
+
+    private static final double COUT_INTERDIT = 1e12;
+
+    private final RobotFleet flotte;
+    private final ArrayDeque<OrdreLivraison> file = new ArrayDeque<>();
+    private Mode mode = Mode.GLOUTON;
+    private int tailleLot = 256;
+    private int candidatsParOrdre = 8;
+    private int rayonRecherche = Integer.MAX_VALUE;
+    private double poidsEnergie = 10.0;
+    private double poidsMaintenance = 10.0;
+    private Predicate<? super RobotLivraison> filtre = robot -> true;
+
+    /**
+     * Constructeur pour DispatcheurColis.
+     * @param flotte La flotte dont les robots disponibles reçoivent les ordres.
+     */
+    public DispatcheurColis(RobotFleet flotte) {
+        this.flotte = flotte;
+    }
+
+    /**
+     * Ajoute un ordre en fin de file.
+     * @param ordre L'ordre à affecter.
+     */
+    public void soumettre(OrdreLivraison ordre) {
+        file.add(ordre);
+    }
+
+    /**
+     * Ajoute des ordres en fin de file, dans l'ordre de la collection.
+     * @param ordres Les ordres à affecter.
+     */
+    public void soumettre(Collection<OrdreLivraison> ordres) {
+        file.addAll(ordres);
+    }
+
+    /**
+     * Calcule le coût de la livraison d'un ordre par un robot.
+     * @param robot Le robot candidat.
+     * @param ordre L'ordre à livrer.
+     * @return Le coût de l'affectation, ou {@link Double#POSITIVE_INFINITY} si le robot n'a pas l'énergie
+     *         ou la marge de maintenance nécessaires à la première étape du trajet.
+     */
+    public double cout(RobotLivraison robot, OrdreLivraison ordre) {
+        double distance = robot.distanceVers(ordre.getDestX(), ordre.getDestY());
+        double premiereEtape = Math.min(distance, RobotLivraison.DISTANCE_PAR_HEURE);
+        int budgetPremiereEtape = RobotLivraison.ENERGIE_CHARGEMENT + RobotLivraison.energiePourDistance(premiereEtape)
+                + RobotLivraison.ENERGIE_LIVRAISON;
+        int heuresPremiereEtape = distance > 0 ? 1 : 0;
+        if (robot.getEnergie() < budgetPremiereEtape || robot.getHeuresAvantMaintenance() < heuresPremiereEtape) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int budgetEnergie = RobotLivraison.ENERGIE_CHARGEMENT + RobotLivraison.energiePourDistance(distance)
+                + RobotLivraison.ENERGIE_LIVRAISON;
+        int energieRestante = Math.max(robot.getEnergie() - budgetEnergie, 0);
+        int heures = (int) Math.ceil(distance / RobotLivraison.DISTANCE_PAR_HEURE);
+        int margeMaintenance = Math.max(robot.getHeuresAvantMaintenance() - heures, 0);
+        return distance
+                + poidsEnergie * budgetEnergie / (energieRestante + 1.0)
+                + poidsMaintenance * heures / (margeMaintenance + 1.0);
+    }
+
+    /**
+     * Traite la file par lots jusqu'à ce qu'elle soit vide ou qu'un lot entier ne trouve aucun robot.
+     * Les ordres non affectés restent en tête de file, dans leur ordre d'arrivée.
+     * @return Les affectations effectuées.
+     */
+    public List<Affectation> dispatcher() {
+        List<Affectation> affectations = new ArrayList<>();
+        List<OrdreLivraison> nonAffectes = new ArrayList<>();
+        Set<RobotLivraison> pris = new HashSet<>();
+
+        while (!file.isEmpty() && !flotte.getRobotsDisponibles().isEmpty()) {
+            List<OrdreLivraison> lot = new ArrayList<>(Math.min(tailleLot, file.size()));
+            while (lot.size() < tailleLot && !file.isEmpty()) {
+                lot.add(file.poll());
+            }
+            int avant = affectations.size();
+            affecterLot(lot, pris, affectations, nonAffectes);
+            if (affectations.size() == avant) {
+                break;
+            }
+        }
+        for (int i = nonAffectes.size() - 1; i >= 0; i--) {
+            file.addFirst(nonAffectes.get(i));
+        }
+        return affectations;
+    }
+
+    private void affecterLot(List<OrdreLivraison> lot, Set<RobotLivraison> pris,
+                             List<Affectation> affectations, List<OrdreLivraison> nonAffectes) {
+        IndexSpatial index = flotte.getIndexSpatial();
+        List<List<RobotLivraison>> candidats = new ArrayList<>(lot.size());
+        for (OrdreLivraison ordre : lot) {
+            candidats.add(index.plusProches(ordre.getDestX(), ordre.getDestY(), candidatsParOrdre, rayonRecherche,
+                    robot -> !pris.contains(robot) && estDisponible(robot) && cout(robot, ordre) < Double.POSITIVE_INFINITY));
+        }
+
+        RobotLivraison[] choix = mode == Mode.OPTIMAL ? choisirOptimal(lot, candidats) : choisirGlouton(lot, candidats);
+
+        for (int i = 0; i < lot.size(); i++) {
+            OrdreLivraison ordre = lot.get(i);
+            RobotLivraison robot = choix[i];
+            if (robot == null) {
+                nonAffectes.add(ordre);
+                continue;
+            }
+            double cout = cout(robot, ordre);
+            if (robot.tenterChargerColis(ordre.getColis(), ordre.getDestination()) == ResultatAction.SUCCES) {
+                pris.add(robot);
+                affectations.add(new Affectation(ordre, robot, cout));
+            } else {
+                nonAffectes.add(ordre);
+            }
+        }
+    }
+
+    private boolean estDisponible(RobotLivraison robot) {
+        return robot.isEnMarche() && !robot.isEnLivraison() && !robot.isMaintenanceRequise()
+                && robot.getEnergie() >= RobotLivraison.ENERGIE_CHARGEMENT && filtre.test(robot);
+    }
+
+    /**
+     * Retient les paires (ordre, robot) par coût croissant, chaque ordre et chaque robot au plus une fois.
+     */
+    private RobotLivraison[] choisirGlouton(List<OrdreLivraison> lot, List<List<RobotLivraison>> candidats) {
+        List<Paire> paires = new ArrayList<>();
+        for (int i = 0; i < lot.size(); i++) {
+            for (RobotLivraison robot : candidats.get(i)) {
+                paires.add(new Paire(i, robot, cout(robot, lot.get(i))));
+            }
+        }
+        paires.sort(Comparator.comparingDouble((Paire p) -> p.cout)
+                .thenComparingInt(p -> p.ordre)
+                .thenComparing(p -> p.robot.getId()));
+
+        RobotLivraison[] choix = new RobotLivraison[lot.size()];
+        Set<RobotLivraison> utilises = new HashSet<>();
+        for (Paire paire : paires) {
+            if (choix[paire.ordre] == null && utilises.add(paire.robot)) {
+                choix[paire.ordre] = paire.robot;
+            }
+        }
+        return choix;
+    }
+
+    /**
+     * Minimise le coût total du lot sur l'ensemble des robots candidats (méthode hongroise).
+     */
+    private RobotLivraison[] choisirOptimal(List<OrdreLivraison> lot, List<List<RobotLivraison>> candidats) {
+        Set<RobotLivraison> union = new LinkedHashSet<>();
+        for (List<RobotLivraison> liste : candidats) {
+            union.addAll(liste);
+        }
+        RobotLivraison[] robots = union.toArray(new RobotLivraison[0]);
+        Arrays.sort(robots, Comparator.comparing(RobotLivraison::getId));
+        Map<RobotLivraison, Integer> colonnes = new HashMap<>();
+        for (int j = 0; j < robots.length; j++) {
+            colonnes.put(robots[j], j);
+        }
+
+        int n = lot.size();
+        int m = robots.length;
+        RobotLivraison[] choix = new RobotLivraison[n];
+        if (m == 0) {
+            return choix;
+        }
+        double[][] couts = new double[n][m];
+        for (double[] ligne : couts) {
+            Arrays.fill(ligne, COUT_INTERDIT);
+        }
+        for (int i = 0; i < n; i++) {
+            for (RobotLivraison robot : candidats.get(i)) {
+                couts[i][colonnes.get(robot)] = cout(robot, lot.get(i));
+            }
+        }
+
+        if (n <= m) {
+            int[] colonneParLigne = hongrois(couts, n, m);
+            for (int i = 0; i < n; i++) {
+                int j = colonneParLigne[i];
+                if (j >= 0 && couts[i][j] < COUT_INTERDIT) {
+                    choix[i] = robots[j];
+                }
+            }
+        } else {
+            double[][] transposee = new double[m][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < m; j++) {
+                    transposee[j][i] = couts[i][j];
+                }
+            }
+            int[] ordreParRobot = hongrois(transposee, m, n);
+            for (int j = 0; j < m; j++) {
+                int i = ordreParRobot[j];
+                if (i >= 0 && couts[i][j] < COUT_INTERDIT) {
+                    choix[i] = robots[j];
+                }
+            }
+        }
+        return choix;
+    }
+
+    /**
+     * Affectation de coût minimal pour une matrice n x m avec n &lt;= m, en O(n² m).
+     * @return Pour chaque ligne, l'indice de la colonne affectée.
+     */
+    private static int[] hongrois(double[][] a, int n, int m) {
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];
+        int[] chemin = new int[m + 1];
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            double[] minv = new double[m + 1];
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            boolean[] utilise = new boolean[m + 1];
+            do {
+                utilise[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (!utilise[j]) {
+                        double cur = a[i0 - 1][j - 1] - u[i0] - v[j];
+                        if (cur < minv[j]) {
+                            minv[j] = cur;
+                            chemin[j] = j0;
+                        }
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (utilise[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            do {
+                int j1 = chemin[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+        int[] resultat = new int[n];
+        Arrays.fill(resultat, -1);
+        for (int j = 1; j <= m; j++) {
+            if (p[j] != 0) {
+                resultat[p[j] - 1] = j - 1;
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Paire candidate (ordre du lot, robot) et son coût.
+     */
+    private static class Paire {
+        private final int ordre;
+        private final RobotLivraison robot;
+        private final double cout;
+
+        Paire(int ordre, RobotLivraison robot, double cout) {
+            this.ordre = ordre;
+            this.robot = robot;
+            this.cout = cout;
+        }
+    }
+
+    // Configuration
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public void setTailleLot(int tailleLot) {
+        this.tailleLot = Math.max(1, tailleLot);
+    }
+
+    public void setCandidatsParOrdre(int candidatsParOrdre) {
+        this.candidatsParOrdre = Math.max(1, candidatsParOrdre);
+    }
+
+    public void setRayonRecherche(int rayonRecherche) {
+        this.rayonRecherche = rayonRecherche;
+    }
+
+    public void setPoidsEnergie(double poidsEnergie) {
+        this.poidsEnergie = poidsEnergie;
+    }
+
+    public void setPoidsMaintenance(double poidsMaintenance) {
+        this.poidsMaintenance = poidsMaintenance;
+    }
+
+    /**
+     * Restreint les robots éligibles, en plus des conditions de disponibilité habituelles.
+     * @param filtre Le critère supplémentaire d'éligibilité.
+     */
+    public void setFiltre(Predicate<? super RobotLivraison> filtre) {
+        this.filtre = filtre;
+    }
+
+    // Getters
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getNombreEnAttente() {
+        return file.size();
+    }
+}
@@ -0,0 +1,192 @@
+package com.insat.gl.simulation;
+
+import com.insat.gl.robot.RobotFleet;
+import com.insat.gl.robot.RobotLivraison;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Générateur de charge synthétique : une flotte de robots et un flux d'ordres de livraison
+ * sur une carte rectangulaire, entièrement déterminés par une graine.
+ * Les destinations suivent une {@link Distribution} ; les émissions suivent un processus de Poisson
+ * de taux {@link #setTauxArrivee(double)} ordres par tick. Deux générateurs de même graine et de même
+ * configuration produisent exactement les mêmes robots et les mêmes ordres, ce qui rend les tests
+ * de capacité comparables d'une version à l'autre.
+ */
+public class GenerateurCharge {
+    /**
+     * Répartition spatiale des destinations.
+     * UNIFORME : sur toute la carte. POINT_CHAUD : une part {@link #setPartPointChaud(double)} des ordres
+     * autour du centre de la carte, le reste uniforme. DEPOTS : autour de dépôts tirés au hasard,
+     * où les robots sont également positionnés.
+     */
+    public enum Distribution { UNIFORME, POINT_CHAUD, DEPOTS }
+
+    private final long graine;
+    private int largeur = 1000;
+    private int hauteur = 1000;
+    private Distribution distribution = Distribution.UNIFORME;
+    private double tauxArrivee = 100.0;
+    private int nombreDepots = 8;
+    private double partPointChaud = 0.8;
+    private double etalement = 0.05;
+
+    /**
+     * Constructeur pour GenerateurCharge.
+     * @param graine La graine des tirages aléatoires.
+     */
+    public GenerateurCharge(long graine) {
+        this.graine = graine;
+    }
+
+    /**
+     * Crée une flotte de robots démarrés. Avec la distribution {@link Distribution#DEPOTS},
+     * les robots sont répartis à tour de rôle sur les dépôts ; sinon uniformément sur la carte.
+     * @param nombre Le nombre de robots.
+     * @return La flotte générée.
+     */
+    public RobotFleet genererFlotte(int nombre) {
+        Random aleatoire = new Random(graine);
+        int[][] depots = depots();
+        RobotFleet flotte = new RobotFleet();
+        for (int i = 0; i < nombre; i++) {
+            int x;
+            int y;
+            if (distribution == Distribution.DEPOTS) {
+                int[] depot = depots[i % depots.length];
+                x = autour(aleatoire, depot[0], largeur, etalement / 4);
+                y = autour(aleatoire, depot[1], hauteur, etalement / 4);
+            } else {
+                x = aleatoire.nextInt(largeur);
+                y = aleatoire.nextInt(hauteur);
+            }
+            RobotLivraison robot = new RobotLivraison(String.format("R%06d", i), x, y);
+            robot.tenterDemarrer();
+            flotte.ajouter(robot);
+        }
+        return flotte;
+    }
+
+    /**
+     * Crée un flux d'ordres de livraison, triés par tick d'émission.
+     * @param nombre Le nombre d'ordres.
+     * @return Les ordres générés.
+     */
+    public List<OrdreLivraison> genererOrdres(int nombre) {
+        // Graine distincte de celle de la flotte : changer le nombre de robots ne modifie pas les ordres
+        Random aleatoire = new Random(graine ^ 0x5DEECE66DL);
+        int[][] depots = depots();
+        List<OrdreLivraison> ordres = new ArrayList<>(nombre);
+        double instant = 0.0;
+        for (int i = 0; i < nombre; i++) {
+            instant += -Math.log(1.0 - aleatoire.nextDouble()) / tauxArrivee;
+            int x;
+            int y;
+            String destination;
+            if (distribution == Distribution.DEPOTS) {
+                int d = aleatoire.nextInt(depots.length);
+                x = autour(aleatoire, depots[d][0], largeur, etalement);
+                y = autour(aleatoire, depots[d][1], hauteur, etalement);
+                destination = "Dépôt " + d;
+            } else if (distribution == Distribution.POINT_CHAUD && aleatoire.nextDouble() < partPointChaud) {
+                x = autour(aleatoire, largeur / 2, largeur, etalement);
+                y = autour(aleatoire, hauteur / 2, hauteur, etalement);
+                destination = "Centre";
+            } else {
+                x = aleatoire.nextInt(largeur);
+                y = aleatoire.nextInt(hauteur);
+                destination = "Zone " + (x * 4 / largeur) + "-" + (y * 4 / hauteur);
+            }
+            ordres.add(new OrdreLivraison("C" + i, destination, x, y, (long) instant));
+        }
+        return ordres;
+    }
+
+    /**
+     * Tire les positions des dépôts, identiques pour la flotte et pour les ordres.
+     */
+    private int[][] depots() {
+        Random aleatoire = new Random(graine * 31 + 7);
+        int[][] depots = new int[Math.max(1, nombreDepots)][];
+        for (int d = 0; d < depots.length; d++) {
+            depots[d] = new int[] {aleatoire.nextInt(largeur), aleatoire.nextInt(hauteur)};
+        }
+        return depots;
+    }
+
+    /**
+     * Tire une coordonnée selon une loi normale centrée sur {@code centre}, d'écart-type
+     * {@code etalement * etendue}, ramenée dans la carte.
+     */
+    private static int autour(Random aleatoire, int centre, int etendue, double etalement) {
+        int valeur = (int) Math.round(centre + aleatoire.nextGaussian() * etalement * etendue);
+        return Math.max(0, Math.min(etendue - 1, valeur));
+    }
+
+    // Configuration
+    /**
+     * Définit les dimensions de la carte.
+     * @param largeur La largeur, en unités.
+     * @param hauteur La hauteur, en unités.
+     */
+    public void setDimensions(int largeur, int hauteur) {
+        if (largeur < 1 || hauteur < 1) {
+            throw new IllegalArgumentException("Dimensions de carte invalides : " + largeur + "x" + hauteur);
+        }
+        this.largeur = largeur;
+        this.hauteur = hauteur;
+    }
+
+    public void setDistribution(Distribution distribution) {
+        this.distribution = distribution;
+    }
+
+    /**
+     * Définit le taux moyen d'arrivée des ordres.
+     * @param tauxArrivee Le nombre moyen d'ordres émis par tick (strictement positif).
+     */
+    public void setTauxArrivee(double tauxArrivee) {
+        if (!(tauxArrivee > 0)) {
+            throw new IllegalArgumentException("Le taux d'arrivée doit être strictement positif : " + tauxArrivee);
+        }
+        this.tauxArrivee = tauxArrivee;
+    }
+
+    public void setNombreDepots(int nombreDepots) {
+        this.nombreDepots = nombreDepots;
+    }
+
+    public void setPartPointChaud(double partPointChaud) {
+        this.partPointChaud = partPointChaud;
+    }
+
+    /**
+     * Définit la dispersion autour d'un point chaud ou d'un dépôt.
+     * @param etalement L'écart-type, en fraction de la dimension de la carte.
+     */
+    public void setEtalement(double etalement) {
+        this.etalement = etalement;
+    }
+
+    // Getters
+    public long getGraine() {
+        return graine;
+    }
+
+    public Distribution getDistribution() {
+        return distribution;
+    }
+
+    public double getTauxArrivee() {
+        return tauxArrivee;
+    }
+
+    public int getLargeur() {
+        return largeur;
+    }
+
+    public int getHauteur() {
+        return hauteur;
+    }
+}
@@ -0,0 +1,482 @@
+package com.insat.gl.simulation;
+
+import com.insat.gl.robot.HorlogeVirtuelle;
+import com.insat.gl.robot.ResultatAction;
+import com.insat.gl.robot.RobotFleet;
+import com.insat.gl.robot.RobotLivraison;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moteur de simulation sans interface graphique, à pas de temps fixe.
+ * Un tick représente une heure simulée : un robot en route parcourt au plus
+ * {@link RobotLivraison#DISTANCE_PAR_HEURE} unités par tick, via {@code deplacer}.
+ * À chaque tick, les ordres émis sont chargés ({@code chargerColis}) sur les robots libres par un
+ * {@link DispatcheurColis}, ou sur le robot imposé par l'ordre, puis chaque robot avance d'un pas, livre ({@code faireLivraison}) à l'arrivée,
+ * ou reste immobilisé pour recharge ou maintenance.
+ * Aucune attente réelle n'a lieu : la simulation avance aussi vite que le calcul le permet.
+ * Les robots simulés sont horodatés par une {@link HorlogeVirtuelle} avancée d'une heure à chaque tick,
+ * de sorte que leur historique reflète le temps simulé et non le temps de calcul.
+ * Avec un parallélisme supérieur à 1, les robots sont répartis en partitions avancées sur un
+ * {@link ForkJoinPool} ; les index de la flotte et les compteurs sont fusionnés en fin de tick.
+ * L'affectation des ordres restant séquentielle et chaque robot n'agissant que sur son propre état,
+ * le résultat est identique à celui de l'avancement séquentiel.
+ */
+public class MoteurSimulation {
+    private static final int PARTITIONS_PAR_THREAD = 4;
+    private static final Comparator<OrdreLivraison> PAR_TICK_EMISSION = Comparator.comparingLong(OrdreLivraison::getTickEmission);
+
+    private final RobotFleet flotte;
+    private final List<AgentSimule> agents = new ArrayList<>();
+    private final Map<RobotLivraison, AgentSimule> agentsParRobot = new HashMap<>();
+    private final PriorityQueue<OrdreLivraison> ordresPlanifies = new PriorityQueue<>(PAR_TICK_EMISSION);
+    private final ArrayDeque<OrdreLivraison> ordresEnAttente = new ArrayDeque<>();
+    private final DispatcheurColis dispatcheur;
+    private final HorlogeVirtuelle horloge;
+
+    private int seuilRecharge = 20;
+    private int dureeRecharge = 2;
+    private int dureeMaintenance = 8;
+    private int parallelisme = 1;
+    private ForkJoinPool pool;
+
+    private long tick;
+    private long versionFlotte = -1;
+    private long agentsLibres;
+    private long ordresAffectes;
+    private long ordresAbandonnes;
+    private final CompteursTick totaux = new CompteursTick();
+
+    /**
+     * Constructeur pour MoteurSimulation, dont le temps simulé part de l'heure système courante.
+     * @param flotte La flotte de robots à simuler.
+     */
+    public MoteurSimulation(RobotFleet flotte) {
+        this(flotte, new HorlogeVirtuelle());
+    }
+
+    /**
+     * Constructeur pour MoteurSimulation.
+     * @param flotte La flotte de robots à simuler.
+     * @param horloge L'horloge virtuelle donnée aux robots simulés, avancée d'une heure par tick.
+     */
+    public MoteurSimulation(RobotFleet flotte, HorlogeVirtuelle horloge) {
+        this.flotte = flotte;
+        this.horloge = horloge;
+        this.dispatcheur = new DispatcheurColis(flotte);
+        this.dispatcheur.setFiltre(robot -> {
+            AgentSimule agent = agentsParRobot.get(robot);
+            return agent != null && agent.phase == AgentSimule.Phase.LIBRE;
+        });
+    }
+
+    /**
+     * Prend en compte les robots ajoutés à la flotte depuis le dernier appel, leur donne l'horloge virtuelle et les démarre,
+     * et oublie ceux qui en ont été retirés, en abandonnant les ordres qui leur étaient imposés.
+     * Appelée automatiquement lorsque la composition de la flotte change.
+     */
+    public void initialiser() {
+        versionFlotte = flotte.getVersionComposition();
+        ordresEnAttente.removeIf(ordre -> {
+            boolean orphelin = !flotte.contient(ordre.getRobotId());
+            if (orphelin) {
+                abandonner();
+            }
+            return orphelin;
+        });
+        agents.removeIf(agent -> {
+            boolean retire = flotte.get(agent.robot.getId()) != agent.robot;
+            if (retire) {
+                agentsParRobot.remove(agent.robot);
+            }
+            return retire;
+        });
+        for (RobotLivraison robot : flotte.getRobots()) {
+            if (agentsParRobot.containsKey(robot)) {
+                continue;
+            }
+            AgentSimule agent = new AgentSimule(robot);
+            agents.add(agent);
+            agentsParRobot.put(robot, agent);
+            robot.setHorloge(horloge);
+            agentsLibres++;
+            if (robot.tenterDemarrer() != ResultatAction.SUCCES) {
+                agent.immobiliser(AgentSimule.Phase.RECHARGE, dureeRecharge);
+                agentsLibres--;
+            }
+        }
+        agents.sort(Comparator.comparing(agent -> agent.robot.getId()));
+    }
+
+    /**
+     * Planifie un ordre de livraison.
+     * @param ordre L'ordre à émettre à son tick d'émission.
+     */
+    public void planifier(OrdreLivraison ordre) {
+        ordresPlanifies.add(ordre);
+    }
+
+    /**
+     * Planifie un ensemble d'ordres de livraison.
+     * @param ordres Les ordres à émettre.
+     */
+    public void planifier(Collection<OrdreLivraison> ordres) {
+        ordresPlanifies.addAll(ordres);
+    }
+
+    /**
+     * Exécute un nombre donné de ticks.
+     * @param nbTicks Le nombre de ticks à simuler.
+     * @return Le rapport cumulé depuis le début de la simulation pour ces ticks.
+     */
+    public RapportSimulation executer(long nbTicks) {
+        long debut = System.nanoTime();
+        long ticksDebut = tick;
+        long livraisonsDebut = totaux.livraisons;
+        long affectesDebut = ordresAffectes;
+        long echecsDebut = totaux.echecs;
+        long rechargesDebut = totaux.recharges;
+        long maintenancesDebut = totaux.maintenances;
+        for (long i = 0; i < nbTicks; i++) {
+            avancer();
+        }
+        return new RapportSimulation(tick - ticksDebut, totaux.livraisons - livraisonsDebut, ordresAffectes - affectesDebut,
+                getNombreOrdresEnAttente(), totaux.echecs - echecsDebut, totaux.recharges - rechargesDebut,
+                totaux.maintenances - maintenancesDebut, System.nanoTime() - debut);
+    }
+
+    /**
+     * Exécute des ticks jusqu'à ce que tous les ordres planifiés soient livrés, ou jusqu'à la limite donnée.
+     * @param maxTicks Le nombre maximal de ticks à simuler.
+     * @return Le rapport de l'exécution.
+     */
+    public RapportSimulation executerJusquaEpuisement(long maxTicks) {
+        long debut = System.nanoTime();
+        long ticksDebut = tick;
+        long livraisonsDebut = totaux.livraisons;
+        long affectesDebut = ordresAffectes;
+        long echecsDebut = totaux.echecs;
+        long rechargesDebut = totaux.recharges;
+        long maintenancesDebut = totaux.maintenances;
+        while (tick - ticksDebut < maxTicks && !estTermine()) {
+            avancer();
+        }
+        return new RapportSimulation(tick - ticksDebut, totaux.livraisons - livraisonsDebut, ordresAffectes - affectesDebut,
+                getNombreOrdresEnAttente(), totaux.echecs - echecsDebut, totaux.recharges - rechargesDebut,
+                totaux.maintenances - maintenancesDebut, System.nanoTime() - debut);
+    }
+
+    /**
+     * Avance la simulation d'un tick.
+     */
+    public void avancer() {
+        if (versionFlotte != flotte.getVersionComposition()) {
+            initialiser();
+        }
+        emettreOrdres();
+        affecterOrdres();
+        CompteursTick compteurs = new CompteursTick();
+        if (pool != null && agents.size() > parallelisme) {
+            avancerEnParallele(compteurs);
+        } else {
+            for (AgentSimule agent : agents) {
+                avancerAgent(agent, compteurs);
+            }
+        }
+        totaux.fusionner(compteurs);
+        agentsLibres = compteurs.libres;
+        tick++;
+        horloge.avancer(1, TimeUnit.HOURS);
+    }
+
+    /**
+     * Avance les robots par partitions contiguës sur le pool, avec indexation différée de la flotte.
+     */
+    private void avancerEnParallele(CompteursTick compteurs) {
+        int nbAgents = agents.size();
+        int nbPartitions = Math.min(nbAgents, parallelisme * PARTITIONS_PAR_THREAD);
+        List<Callable<CompteursTick>> partitions = new ArrayList<>(nbPartitions);
+        for (int p = 0; p < nbPartitions; p++) {
+            int debut = (int) ((long) p * nbAgents / nbPartitions);
+            int fin = (int) ((long) (p + 1) * nbAgents / nbPartitions);
+            partitions.add(() -> {
+                CompteursTick compteursPartition = new CompteursTick();
+                for (int i = debut; i < fin; i++) {
+                    avancerAgent(agents.get(i), compteursPartition);
+                }
+                return compteursPartition;
+            });
+        }
+        flotte.differerIndexation();
+        try {
+            for (Future<CompteursTick> resultat : pool.invokeAll(partitions)) {
+                compteurs.fusionner(resultat.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Avancement parallèle interrompu.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Échec de l'avancement d'une partition de robots.", e.getCause());
+        } finally {
+            flotte.appliquerIndexationDifferee();
+        }
+    }
+
+    /**
+     * Libère les threads de calcul utilisés par l'avancement parallèle.
+     */
+    public void fermer() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        parallelisme = 1;
+    }
+
+    /**
+     * @return true si aucun ordre n'est planifié, en attente ou en cours de livraison.
+     */
+    public boolean estTermine() {
+        if (!ordresPlanifies.isEmpty() || getNombreOrdresEnAttente() > 0) {
+            return false;
+        }
+        for (AgentSimule agent : agents) {
+            if (agent.ordre != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void emettreOrdres() {
+        while (!ordresPlanifies.isEmpty() && ordresPlanifies.peek().getTickEmission() <= tick) {
+            OrdreLivraison ordre = ordresPlanifies.poll();
+            if (ordre.getRobotId() != null) {
+                if (flotte.contient(ordre.getRobotId())) {
+                    ordresEnAttente.add(ordre);
+                } else {
+                    abandonner();
+                }
+            } else {
+                dispatcheur.soumettre(ordre);
+            }
+        }
+    }
+
+    /**
+     * Un ordre imposé à un robot absent de la flotte ne serait jamais livré : il est abandonné et compté comme un échec.
+     */
+    private void abandonner() {
+        ordresAbandonnes++;
+        totaux.echecs++;
+    }
+
+    /**
+     * Charge les ordres imposés à un robot dès que celui-ci est libre, puis confie
+     * les autres ordres au dispatcheur, qui les répartit par lots sur les robots libres.
+     */
+    private void affecterOrdres() {
+        Iterator<OrdreLivraison> it = ordresEnAttente.iterator();
+        while (it.hasNext() && agentsLibres > 0) {
+            OrdreLivraison ordre = it.next();
+            RobotLivraison robot = flotte.get(ordre.getRobotId());
+            AgentSimule agent = robot != null ? agentsParRobot.get(robot) : null;
+            if (agent == null || !peutCharger(agent)) {
+                continue;
+            }
+            if (robot.tenterChargerColis(ordre.getColis(), ordre.getDestination()) == ResultatAction.SUCCES) {
+                demarrerLivraison(agent, ordre);
+                it.remove();
+            } else {
+                totaux.echecs++;
+            }
+        }
+        if (agentsLibres > 0 && dispatcheur.getNombreEnAttente() > 0) {
+            for (Affectation affectation : dispatcheur.dispatcher()) {
+                demarrerLivraison(agentsParRobot.get(affectation.getRobot()), affectation.getOrdre());
+            }
+        }
+    }
+
+    private void demarrerLivraison(AgentSimule agent, OrdreLivraison ordre) {
+        agent.ordre = ordre;
+        agent.phase = AgentSimule.Phase.EN_ROUTE;
+        agentsLibres--;
+        ordresAffectes++;
+    }
+
+    private static boolean peutCharger(AgentSimule agent) {
+        RobotLivraison robot = agent.robot;
+        return agent.phase == AgentSimule.Phase.LIBRE && robot.isEnMarche() && !robot.isEnLivraison()
+                && !robot.isMaintenanceRequise() && robot.getEnergie() >= RobotLivraison.ENERGIE_CHARGEMENT;
+    }
+
+    /**
+     * Fait avancer un robot d'un tick. Ne modifie que l'état du robot et de son agent,
+     * les effets globaux étant comptabilisés dans les compteurs fournis.
+     */
+    void avancerAgent(AgentSimule agent, CompteursTick compteurs) {
+        RobotLivraison robot = agent.robot;
+        switch (agent.phase) {
+            case RECHARGE:
+                if (--agent.ticksRestants <= 0) {
+                    robot.recharger(100 - robot.getEnergie());
+                    compteurs.recharges++;
+                    reprendre(agent, compteurs);
+                }
+                break;
+            case MAINTENANCE:
+                if (--agent.ticksRestants <= 0) {
+                    robot.effectuerMaintenance();
+                    compteurs.maintenances++;
+                    reprendre(agent, compteurs);
+                }
+                break;
+            case EN_ROUTE:
+                avancerVersDestination(agent, compteurs);
+                break;
+            case LIBRE:
+            default:
+                if (robot.isMaintenanceRequise()) {
+                    agent.immobiliser(AgentSimule.Phase.MAINTENANCE, dureeMaintenance);
+                } else if (robot.getEnergie() < Math.max(seuilRecharge, DispatcheurColis.ENERGIE_MINIMALE)) {
+                    // Un robot libre trop faible pour tout ordre ne serait jamais affecté : il part en recharge
+                    agent.immobiliser(AgentSimule.Phase.RECHARGE, dureeRecharge);
+                } else {
+                    compteurs.libres++;
+                }
+                break;
+        }
+    }
+
+    private void reprendre(AgentSimule agent, CompteursTick compteurs) {
+        RobotLivraison robot = agent.robot;
+        agent.phase = agent.phaseApresImmobilisation;
+        if (!robot.isEnMarche()) {
+            if (robot.tenterDemarrer() != ResultatAction.SUCCES) {
+                compteurs.echecs++;
+                agent.immobiliser(AgentSimule.Phase.RECHARGE, dureeRecharge);
+                return;
+            }
+        }
+        if (agent.phase == AgentSimule.Phase.LIBRE) {
+            compteurs.libres++;
+        }
+    }
+
+    private void avancerVersDestination(AgentSimule agent, CompteursTick compteurs) {
+        RobotLivraison robot = agent.robot;
+        OrdreLivraison ordre = agent.ordre;
+        int destX = ordre.getDestX();
+        int destY = ordre.getDestY();
+
+        // Un robot qui doit être entretenu ne peut ni se déplacer ni livrer, même arrivé à destination
+        if (robot.isMaintenanceRequise()) {
+            agent.immobiliser(AgentSimule.Phase.MAINTENANCE, dureeMaintenance);
+            return;
+        }
+
+        if (robot.getX() == destX && robot.getY() == destY) {
+            if (robot.tenterFaireLivraison(destX, destY) == ResultatAction.SUCCES) {
+                compteurs.livraisons++;
+                agent.ordre = null;
+                agent.phase = AgentSimule.Phase.LIBRE;
+            } else {
+                compteurs.echecs++;
+            }
+            return;
+        }
+
+        double distance = robot.distanceVers(destX, destY);
+        int pasX = destX;
+        int pasY = destY;
+        if (distance > RobotLivraison.DISTANCE_PAR_HEURE) {
+            double ratio = RobotLivraison.DISTANCE_PAR_HEURE / distance;
+            pasX = robot.getX() + (int) ((destX - robot.getX()) * ratio);
+            pasY = robot.getY() + (int) ((destY - robot.getY()) * ratio);
+        }
+        int energieRequise = RobotLivraison.energiePourDistance(robot.distanceVers(pasX, pasY));
+        if (robot.getEnergie() < energieRequise + RobotLivraison.ENERGIE_LIVRAISON) {
+            agent.immobiliser(AgentSimule.Phase.RECHARGE, dureeRecharge);
+            return;
+        }
+        if (robot.tenterDeplacer(pasX, pasY) != ResultatAction.SUCCES) {
+            compteurs.echecs++;
+        }
+    }
+
+    // Configuration
+    /**
+     * Définit le nombre de threads utilisés pour avancer les robots (1 pour un avancement séquentiel).
+     * @param parallelisme Le nombre de threads de calcul.
+     */
+    public void setParallelisme(int parallelisme) {
+        if (parallelisme < 1) {
+            throw new IllegalArgumentException("Le parallélisme doit être au moins 1 : " + parallelisme);
+        }
+        fermer();
+        this.parallelisme = parallelisme;
+        if (parallelisme > 1) {
+            this.pool = new ForkJoinPool(parallelisme);
+        }
+    }
+
+    public void setSeuilRecharge(int seuilRecharge) {
+        this.seuilRecharge = seuilRecharge;
+    }
+
+    public void setDureeRecharge(int dureeRecharge) {
+        this.dureeRecharge = dureeRecharge;
+    }
+
+    public void setDureeMaintenance(int dureeMaintenance) {
+        this.dureeMaintenance = dureeMaintenance;
+    }
+
+    // Getters
+    public long getTick() {
+        return tick;
+    }
+
+    public RobotFleet getFlotte() {
+        return flotte;
+    }
+
+    public HorlogeVirtuelle getHorloge() {
+        return horloge;
+    }
+
+    public int getNombreOrdresEnAttente() {
+        return ordresEnAttente.size() + dispatcheur.getNombreEnAttente();
+    }
+
+    /**
+     * @return Le dispatcheur utilisé pour les ordres sans robot imposé, pour en régler le mode et les poids.
+     */
+    public DispatcheurColis getDispatcheur() {
+        return dispatcheur;
+    }
+
+    public long getLivraisonsTotales() {
+        return totaux.livraisons;
+    }
+
+    /**
+     * @return Le nombre d'ordres abandonnés parce que leur robot imposé n'est pas dans la flotte.
+     */
+    public long getOrdresAbandonnes() {
+        return ordresAbandonnes;
+    }
+}
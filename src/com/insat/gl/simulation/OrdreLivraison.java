@@ -0,0 +1,75 @@
+package com.insat.gl.simulation;
+
+/**
+ * Ordre de livraison scripté : un colis à livrer à des coordonnées données,
+ * émis à un tick de simulation, éventuellement destiné à un robot précis.
+ */
+public class OrdreLivraison {
+    private final String colis;
+    private final String destination;
+    private final int destX;
+    private final int destY;
+    private final long tickEmission;
+    private final String robotId;
+
+    /**
+     * Constructeur pour un ordre attribué au robot disponible le plus proche.
+     * @param colis Le nom ou la description du colis.
+     * @param destination Le nom de la destination.
+     * @param destX Coordonnée x de livraison.
+     * @param destY Coordonnée y de livraison.
+     * @param tickEmission Le tick à partir duquel l'ordre peut être traité.
+     */
+    public OrdreLivraison(String colis, String destination, int destX, int destY, long tickEmission) {
+        this(colis, destination, destX, destY, tickEmission, null);
+    }
+
+    /**
+     * Constructeur pour OrdreLivraison.
+     * @param colis Le nom ou la description du colis.
+     * @param destination Le nom de la destination.
+     * @param destX Coordonnée x de livraison.
+     * @param destY Coordonnée y de livraison.
+     * @param tickEmission Le tick à partir duquel l'ordre peut être traité.
+     * @param robotId L'identifiant du robot imposé, ou null pour le plus proche disponible.
+     */
+    public OrdreLivraison(String colis, String destination, int destX, int destY, long tickEmission, String robotId) {
+        this.colis = colis;
+        this.destination = destination;
+        this.destX = destX;
+        this.destY = destY;
+        this.tickEmission = tickEmission;
+        this.robotId = robotId;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OrdreLivraison [Colis: '%s', Destination: %s (%d,%d), Tick: %d%s]",
+                colis, destination, destX, destY, tickEmission, robotId != null ? ", Robot: " + robotId : "");
+    }
+
+    // Getters
+    public String getColis() {
+        return colis;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public int getDestX() {
+        return destX;
+    }
+
+    public int getDestY() {
+        return destY;
+    }
+
+    public long getTickEmission() {
+        return tickEmission;
+    }
+
+    public String getRobotId() {
+        return robotId;
+    }
+}
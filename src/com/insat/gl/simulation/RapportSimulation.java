@@ -0,0 +1,103 @@
+package com.insat.gl.simulation;
+
+/**
+ * Résultat d'une exécution du moteur de simulation.
+ */
+public class RapportSimulation {
+    private static final double SECONDES_PAR_TICK = 3600.0;
+
+    private final long ticks;
+    private final long livraisons;
+    private final long ordresAffectes;
+    private final long ordresEnAttente;
+    private final long echecs;
+    private final long recharges;
+    private final long maintenances;
+    private final long dureeReelleNanos;
+
+    /**
+     * Constructeur pour RapportSimulation.
+     * @param ticks Le nombre de ticks simulés (un tick correspond à une heure simulée).
+     * @param livraisons Le nombre de livraisons terminées.
+     * @param ordresAffectes Le nombre d'ordres chargés sur un robot.
+     * @param ordresEnAttente Le nombre d'ordres émis restant sans robot en fin d'exécution.
+     * @param echecs Le nombre d'actions refusées par les robots.
+     * @param recharges Le nombre de recharges effectuées.
+     * @param maintenances Le nombre de maintenances effectuées.
+     * @param dureeReelleNanos La durée réelle de l'exécution, en nanosecondes.
+     */
+    public RapportSimulation(long ticks, long livraisons, long ordresAffectes, long ordresEnAttente, long echecs,
+                             long recharges, long maintenances, long dureeReelleNanos) {
+        this.ticks = ticks;
+        this.livraisons = livraisons;
+        this.ordresAffectes = ordresAffectes;
+        this.ordresEnAttente = ordresEnAttente;
+        this.echecs = echecs;
+        this.recharges = recharges;
+        this.maintenances = maintenances;
+        this.dureeReelleNanos = dureeReelleNanos;
+    }
+
+    /**
+     * @return Le nombre de livraisons par heure simulée.
+     */
+    public double getLivraisonsParHeureSimulee() {
+        return ticks == 0 ? 0.0 : (double) livraisons / ticks;
+    }
+
+    /**
+     * @return Le nombre de livraisons simulées par seconde de temps réel.
+     */
+    public double getLivraisonsParSecondeReelle() {
+        return dureeReelleNanos == 0 ? 0.0 : livraisons / (dureeReelleNanos / 1e9);
+    }
+
+    /**
+     * @return Le rapport entre le temps simulé et le temps réel écoulé.
+     */
+    public double getFacteurAcceleration() {
+        return dureeReelleNanos == 0 ? 0.0 : ticks * SECONDES_PAR_TICK / (dureeReelleNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RapportSimulation [Ticks: %d, Livraisons: %d, Ordres affectés: %d, En attente: %d, Échecs: %d, "
+                        + "Recharges: %d, Maintenances: %d, Durée réelle: %.3fs, Livraisons/h simulée: %.2f, "
+                        + "Livraisons/s réelle: %.0f, Accélération: x%.0f]",
+                ticks, livraisons, ordresAffectes, ordresEnAttente, echecs, recharges, maintenances,
+                dureeReelleNanos / 1e9, getLivraisonsParHeureSimulee(), getLivraisonsParSecondeReelle(), getFacteurAcceleration());
+    }
+
+    // Getters
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getLivraisons() {
+        return livraisons;
+    }
+
+    public long getOrdresAffectes() {
+        return ordresAffectes;
+    }
+
+    public long getOrdresEnAttente() {
+        return ordresEnAttente;
+    }
+
+    public long getEchecs() {
+        return echecs;
+    }
+
+    public long getRecharges() {
+        return recharges;
+    }
+
+    public long getMaintenances() {
+        return maintenances;
+    }
+
+    public long getDureeReelleNanos() {
+        return dureeReelleNanos;
+    }
+}
@@ -0,0 +1,130 @@
+package com.insat.gl.simulation;
+
+import com.insat.gl.robot.HistogrammeLatence;
+import com.insat.gl.robot.MetriquesRobots;
+import com.insat.gl.robot.OperationRobot;
+import com.insat.gl.robot.RobotFleet;
+import com.insat.gl.robot.RobotLivraison;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test de charge de bout en bout : génère une flotte et un flux d'ordres avec {@link GenerateurCharge},
+ * les fait traiter par le {@link MoteurSimulation} (donc par l'API des robots) et rapporte le débit de livraisons,
+ * les latences p50/p99 des opérations et des ticks, la mémoire utilisée et le CO2 total émis.
+ * Les arguments sont de la forme {@code cle=valeur} :
+ * {@code robots}, {@code ordres}, {@code distribution} (UNIFORME, POINT_CHAUD, DEPOTS), {@code taux} (ordres par tick),
+ * {@code graine}, {@code largeur}, {@code hauteur}, {@code depots}, {@code ticksMax} et {@code parallelisme}.
+ * <pre>java -cp bin com.insat.gl.simulation.TestCharge robots=5000 ordres=100000 distribution=DEPOTS graine=42</pre>
+ */
+public final class TestCharge {
+    private static final double NANOS_PAR_MICRO = 1_000.0;
+    private static final double OCTETS_PAR_MIO = 1024.0 * 1024.0;
+    private static final OperationRobot[] OPERATIONS_RAPPORTEES = {
+            OperationRobot.CHARGEMENT, OperationRobot.DEPLACEMENT, OperationRobot.LIVRAISON, OperationRobot.RECHARGE};
+
+    private TestCharge() {
+    }
+
+    public static void main(String[] args) {
+        // Les latences des opérations viennent de MetriquesRobots, dont l'activation est lue au chargement de la classe :
+        // la propriété doit être posée avant toute utilisation d'un robot
+        if (System.getProperty("robot.metriques") == null) {
+            System.setProperty("robot.metriques", "true");
+        }
+        Map<String, String> parametres = lireParametres(args);
+        int nombreRobots = Integer.parseInt(parametres.getOrDefault("robots", "1000"));
+        int nombreOrdres = Integer.parseInt(parametres.getOrDefault("ordres", "20000"));
+        long ticksMax = Long.parseLong(parametres.getOrDefault("ticksMax", "100000"));
+        int parallelisme = Integer.parseInt(parametres.getOrDefault("parallelisme", "1"));
+
+        GenerateurCharge generateur = new GenerateurCharge(Long.parseLong(parametres.getOrDefault("graine", "42")));
+        generateur.setDimensions(Integer.parseInt(parametres.getOrDefault("largeur", "1000")),
+                Integer.parseInt(parametres.getOrDefault("hauteur", "1000")));
+        generateur.setDistribution(GenerateurCharge.Distribution.valueOf(parametres.getOrDefault("distribution", "UNIFORME")));
+        generateur.setTauxArrivee(Double.parseDouble(parametres.getOrDefault("taux", "100")));
+        generateur.setNombreDepots(Integer.parseInt(parametres.getOrDefault("depots", "8")));
+
+        RobotFleet flotte = generateur.genererFlotte(nombreRobots);
+        List<OrdreLivraison> ordres = generateur.genererOrdres(nombreOrdres);
+        MoteurSimulation moteur = new MoteurSimulation(flotte);
+        moteur.setParallelisme(parallelisme);
+        moteur.planifier(ordres);
+        moteur.initialiser();
+
+        MetriquesRobots metriques = MetriquesRobots.getInstance();
+        metriques.reinitialiser();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+        HistogrammeLatence latenceTicks = new HistogrammeLatence();
+
+        long debut = System.nanoTime();
+        while (moteur.getTick() < ticksMax && !moteur.estTermine()) {
+            long debutTick = System.nanoTime();
+            moteur.avancer();
+            latenceTicks.enregistrer(System.nanoTime() - debutTick);
+        }
+        long duree = System.nanoTime() - debut;
+        moteur.fermer();
+
+        double carbone = 0.0;
+        for (RobotLivraison robot : flotte.getRobots()) {
+            carbone += robot.getTotalCarbonEmitted();
+        }
+        long livraisons = moteur.getLivraisonsTotales();
+
+        System.out.printf("Test de charge [Graine: %d, Distribution: %s, Robots: %d, Ordres: %d, Taux: %.1f/tick, Parallélisme: %d]%n",
+                generateur.getGraine(), generateur.getDistribution(), nombreRobots, nombreOrdres, generateur.getTauxArrivee(), parallelisme);
+        System.out.printf("  Ticks simulés: %d, Livraisons: %d, En attente: %d, Durée réelle: %.3fs%n",
+                moteur.getTick(), livraisons, moteur.getNombreOrdresEnAttente(), duree / 1e9);
+        System.out.printf("  Débit: %.0f livraisons/s réelle, %.2f livraisons/h simulée%n",
+                livraisons / (duree / 1e9), moteur.getTick() == 0 ? 0.0 : (double) livraisons / moteur.getTick());
+        afficherLatence("tick", latenceTicks);
+        if (MetriquesRobots.ACTIVES) {
+            for (OperationRobot operation : OPERATIONS_RAPPORTEES) {
+                afficherLatence(operation.name().toLowerCase(), metriques.getLatence(operation));
+            }
+        } else {
+            System.out.println("  Latences des opérations non mesurées : robot.metriques=false.");
+        }
+        System.out.printf("  Tas: %.1f Mio utilisés, pic %.1f Mio%n",
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / OCTETS_PAR_MIO, picTas() / OCTETS_PAR_MIO);
+        System.out.printf("  CO2 total émis: %.2fg%n", carbone);
+    }
+
+    private static void afficherLatence(String nom, HistogrammeLatence latence) {
+        System.out.printf("  Latence %-12s n=%d, p50 %.1f µs, p99 %.1f µs, max %.1f µs%n", nom, latence.getNombre(),
+                latence.quantileNanos(0.5) / NANOS_PAR_MICRO, latence.quantileNanos(0.99) / NANOS_PAR_MICRO,
+                latence.getMaxNanos() / NANOS_PAR_MICRO);
+    }
+
+    /**
+     * Somme des pics d'occupation des zones du tas depuis le début de la mesure.
+     */
+    private static long picTas() {
+        long pic = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pic += pool.getPeakUsage().getUsed();
+            }
+        }
+        return pic;
+    }
+
+    private static Map<String, String> lireParametres(String[] args) {
+        Map<String, String> parametres = new HashMap<>();
+        for (String arg : args) {
+            int egal = arg.indexOf('=');
+            if (egal <= 0) {
+                throw new IllegalArgumentException("Argument attendu sous la forme cle=valeur : " + arg);
+            }
+            parametres.put(arg.substring(0, egal), arg.substring(egal + 1));
+        }
+        return parametres;
+    }
+}
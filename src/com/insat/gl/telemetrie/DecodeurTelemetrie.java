@@ -0,0 +1,92 @@
+package com.insat.gl.telemetrie;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.function.Consumer;
+
+/**
+ * Décode un flux de télémétrie écrit par {@link EncodeurTelemetrie}.
+ * Le flux est lu dans un tampon direct réutilisé, et chaque robot est présenté au consommateur
+ * dans la même instance de {@link TrameTelemetrie} : la lecture d'une flotte entière n'alloue
+ * rien par robot. Le consommateur ne doit donc pas conserver la trame reçue.
+ * Une instance n'est pas thread-safe.
+ */
+public class DecodeurTelemetrie {
+    public static final int TAILLE_TAMPON_PAR_DEFAUT = 64 * 1024;
+
+    private final ByteBuffer tampon;
+    private final TrameTelemetrie trame = new TrameTelemetrie();
+
+    /**
+     * Constructeur pour DecodeurTelemetrie avec un tampon de taille par défaut.
+     */
+    public DecodeurTelemetrie() {
+        this(TAILLE_TAMPON_PAR_DEFAUT);
+    }
+
+    /**
+     * Constructeur pour DecodeurTelemetrie.
+     * @param tailleTampon La taille du tampon de lecture, au moins celle d'un en-tête ou d'une trame.
+     */
+    public DecodeurTelemetrie(int tailleTampon) {
+        if (tailleTampon < Math.max(TrameTelemetrie.TAILLE, TrameTelemetrie.TAILLE_ENTETE)) {
+            throw new IllegalArgumentException("Tampon de lecture trop petit : " + tailleTampon);
+        }
+        this.tampon = ByteBuffer.allocateDirect(tailleTampon);
+    }
+
+    /**
+     * Lit le canal jusqu'à sa fin et présente chaque trame au consommateur.
+     * Le canal doit être en mode bloquant.
+     * @param canal Le canal source.
+     * @param consommateur Appelé pour chaque robot, avec la trame réutilisée.
+     * @return Le nombre de trames lues.
+     * @throws IOException Si la lecture échoue ou si le flux est invalide ou tronqué.
+     */
+    public long lire(ReadableByteChannel canal, Consumer<? super TrameTelemetrie> consommateur) throws IOException {
+        tampon.clear();
+        long total = 0;
+        int restantsLot = 0;
+        long horodatageLot = 0;
+        while (true) {
+            int lus = canal.read(tampon);
+            tampon.flip();
+            while (true) {
+                if (restantsLot == 0) {
+                    if (tampon.remaining() < TrameTelemetrie.TAILLE_ENTETE) {
+                        break;
+                    }
+                    int marqueur = tampon.getInt();
+                    short version = tampon.getShort();
+                    if (marqueur != TrameTelemetrie.MARQUEUR || version != TrameTelemetrie.VERSION) {
+                        throw new StreamCorruptedException("En-tête de télémétrie invalide (marqueur " + Integer.toHexString(marqueur) + ", version " + version + ").");
+                    }
+                    tampon.getShort();
+                    restantsLot = tampon.getInt();
+                    if (restantsLot < 0) {
+                        throw new StreamCorruptedException("Nombre de trames de lot invalide : " + restantsLot + " après " + total + " trames.");
+                    }
+                    horodatageLot = tampon.getLong();
+                } else {
+                    if (tampon.remaining() < TrameTelemetrie.TAILLE) {
+                        break;
+                    }
+                    trame.lire(tampon, horodatageLot);
+                    consommateur.accept(trame);
+                    restantsLot--;
+                    total++;
+                }
+            }
+            tampon.compact();
+            if (lus < 0) {
+                if (tampon.position() > 0 || restantsLot > 0) {
+                    throw new EOFException("Flux de télémétrie tronqué après " + total + " trames.");
+                }
+                return total;
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.insat.gl.telemetrie;
+
+import com.insat.gl.robot.EtatRobot;
+import com.insat.gl.robot.FlotteCompacte;
+import com.insat.gl.robot.RobotLivraison;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+
+/**
+ * Encode l'état d'une flotte en trames de télémétrie ({@link TrameTelemetrie}) et les écrit
+ * sur un canal NIO ({@code SocketChannel}, {@code FileChannel}...) par écritures groupées :
+ * l'en-tête du lot et les tampons de trames partent en un seul appel à
+ * {@link GatheringByteChannel#write(ByteBuffer[])}.
+ * Les tampons sont directs et réutilisés d'un envoi à l'autre ; une instance n'est pas thread-safe.
+ */
+public class EncodeurTelemetrie {
+    public static final int TRAMES_PAR_TAMPON_PAR_DEFAUT = 1024;
+    public static final int NOMBRE_TAMPONS_PAR_DEFAUT = 8;
+
+    private final ByteBuffer[] tampons;
+    private int courant;
+    private int tramesLot;
+    private GatheringByteChannel canal;
+    private long octetsEcrits;
+
+    /**
+     * Constructeur pour EncodeurTelemetrie avec des tampons de taille par défaut.
+     */
+    public EncodeurTelemetrie() {
+        this(TRAMES_PAR_TAMPON_PAR_DEFAUT, NOMBRE_TAMPONS_PAR_DEFAUT);
+    }
+
+    /**
+     * Constructeur pour EncodeurTelemetrie.
+     * @param tramesParTampon Le nombre de trames par tampon direct.
+     * @param nombreTampons Le nombre de tampons de trames écrits ensemble ; un lot compte au plus
+     *                      {@code tramesParTampon * nombreTampons} trames.
+     */
+    public EncodeurTelemetrie(int tramesParTampon, int nombreTampons) {
+        if (tramesParTampon <= 0 || nombreTampons <= 0) {
+            throw new IllegalArgumentException("Tampons de télémétrie invalides : " + nombreTampons + " x " + tramesParTampon);
+        }
+        this.tampons = new ByteBuffer[nombreTampons + 1];
+        this.tampons[0] = ByteBuffer.allocateDirect(TrameTelemetrie.TAILLE_ENTETE);
+        for (int i = 1; i < tampons.length; i++) {
+            tampons[i] = ByteBuffer.allocateDirect(tramesParTampon * TrameTelemetrie.TAILLE);
+        }
+    }
+
+    /**
+     * Écrit l'état de chaque robot sur le canal.
+     * @param robots Les robots à encoder.
+     * @param canal Le canal de destination.
+     * @return Le nombre de trames écrites.
+     * @throws IOException Si l'écriture échoue.
+     */
+    public long ecrire(Iterable<? extends RobotLivraison> robots, GatheringByteChannel canal) throws IOException {
+        commencer(canal);
+        long total = 0;
+        EtatRobot etat = new EtatRobot();
+        for (RobotLivraison robot : robots) {
+            robot.instantane(etat);
+            ByteBuffer tampon = tamponLibre();
+            TrameTelemetrie.ecrire(tampon, etat.getId(), etat.getX(), etat.getY(), etat.getEnergie(),
+                    indicateurs(etat.isEnMarche(), etat.isConnecte(), etat.isEnLivraison(), etat.isMaintenanceRequise()),
+                    etat.getHeuresUtilisation(), etat.getTotalCarbonEmitted());
+            tramesLot++;
+            total++;
+        }
+        envoyerLot();
+        return total;
+    }
+
+    /**
+     * Écrit l'état de tous les robots d'une flotte compacte sur le canal.
+     * @param flotte La flotte à encoder.
+     * @param canal Le canal de destination.
+     * @return Le nombre de trames écrites.
+     * @throws IOException Si l'écriture échoue.
+     */
+    public long ecrire(FlotteCompacte flotte, GatheringByteChannel canal) throws IOException {
+        commencer(canal);
+        int taille = flotte.taille();
+        for (int slot = 0; slot < taille; slot++) {
+            ByteBuffer tampon = tamponLibre();
+            TrameTelemetrie.ecrire(tampon, flotte.getId(slot), flotte.getX(slot), flotte.getY(slot), flotte.getEnergie(slot),
+                    indicateurs(flotte.isEnMarche(slot), flotte.isConnecte(slot), flotte.isEnLivraison(slot), flotte.isMaintenanceRequise(slot)),
+                    flotte.getHeuresUtilisation(slot), flotte.getTotalCarbonEmitted(slot));
+            tramesLot++;
+        }
+        envoyerLot();
+        return taille;
+    }
+
+    private void commencer(GatheringByteChannel canal) {
+        this.canal = canal;
+        this.courant = 1;
+        this.tramesLot = 0;
+        for (int i = 1; i < tampons.length; i++) {
+            tampons[i].clear();
+        }
+    }
+
+    /**
+     * @return Un tampon pouvant recevoir une trame, après envoi du lot si tous sont pleins.
+     */
+    private ByteBuffer tamponLibre() throws IOException {
+        if (tampons[courant].remaining() < TrameTelemetrie.TAILLE) {
+            if (courant == tampons.length - 1) {
+                envoyerLot();
+            } else {
+                courant++;
+            }
+        }
+        return tampons[courant];
+    }
+
+    private void envoyerLot() throws IOException {
+        if (tramesLot == 0) {
+            return;
+        }
+        ByteBuffer entete = tampons[0];
+        entete.clear();
+        entete.putInt(TrameTelemetrie.MARQUEUR);
+        entete.putShort(TrameTelemetrie.VERSION);
+        entete.putShort((short) 0);
+        entete.putInt(tramesLot);
+        entete.putLong(System.currentTimeMillis());
+        entete.flip();
+        for (int i = 1; i <= courant; i++) {
+            tampons[i].flip();
+        }
+        long restant = (long) TrameTelemetrie.TAILLE_ENTETE + (long) tramesLot * TrameTelemetrie.TAILLE;
+        while (restant > 0) {
+            restant -= canal.write(tampons, 0, courant + 1);
+        }
+        octetsEcrits += (long) TrameTelemetrie.TAILLE_ENTETE + (long) tramesLot * TrameTelemetrie.TAILLE;
+        for (int i = 1; i <= courant; i++) {
+            tampons[i].clear();
+        }
+        courant = 1;
+        tramesLot = 0;
+    }
+
+    private static int indicateurs(boolean enMarche, boolean connecte, boolean enLivraison, boolean maintenance) {
+        return (enMarche ? TrameTelemetrie.EN_MARCHE : 0)
+                | (connecte ? TrameTelemetrie.CONNECTE : 0)
+                | (enLivraison ? TrameTelemetrie.EN_LIVRAISON : 0)
+                | (maintenance ? TrameTelemetrie.MAINTENANCE_REQUISE : 0);
+    }
+
+    /**
+     * @return Le nombre total d'octets écrits par cet encodeur.
+     */
+    public long getOctetsEcrits() {
+        return octetsEcrits;
+    }
+}
@@ -0,0 +1,177 @@
+package com.insat.gl.telemetrie;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Trame binaire de télémétrie d'un robot, de taille fixe ({@link #TAILLE} octets, ordre big-endian) :
+ * <pre>
+ *  0  identifiant  24 octets, UTF-8 complété par des zéros
+ * 24  x            int
+ * 28  y            int
+ * 32  énergie      short
+ * 34  indicateurs  short ({@link #EN_MARCHE}, {@link #CONNECTE}, {@link #EN_LIVRAISON}, {@link #MAINTENANCE_REQUISE})
+ * 36  heures       int
+ * 40  CO2 émis     double (grammes)
+ * </pre>
+ * Les trames sont précédées, par lot, d'un en-tête de {@link #TAILLE_ENTETE} octets : marqueur,
+ * version, nombre de trames du lot et horodatage (millisecondes depuis l'epoch).
+ * Une instance est mutable : le décodeur la réutilise pour chaque robot lu.
+ */
+public class TrameTelemetrie {
+    public static final int TAILLE_ID = 24;
+    public static final int TAILLE = 48;
+    public static final int TAILLE_ENTETE = 20;
+    public static final int MARQUEUR = 0x524F4254;
+    public static final short VERSION = 1;
+
+    public static final int EN_MARCHE = 1;
+    public static final int CONNECTE = 2;
+    public static final int EN_LIVRAISON = 4;
+    public static final int MAINTENANCE_REQUISE = 8;
+
+    private final byte[] id = new byte[TAILLE_ID];
+    private int longueurId;
+    private int x;
+    private int y;
+    private int energie;
+    private int indicateurs;
+    private int heuresUtilisation;
+    private double carboneEmis;
+    private long horodatageLot;
+
+    /**
+     * Écrit une trame à la position courante du tampon, sans allocation pour un identifiant ASCII.
+     * @throws IllegalArgumentException Si l'identifiant dépasse {@link #TAILLE_ID} octets.
+     */
+    static void ecrire(ByteBuffer tampon, String id, int x, int y, int energie, int indicateurs,
+                       int heures, double carbone) {
+        int debut = tampon.position();
+        if (!ecrireIdAscii(tampon, id)) {
+            tampon.position(debut);
+            byte[] octets = id.getBytes(StandardCharsets.UTF_8);
+            if (octets.length > TAILLE_ID) {
+                throw new IllegalArgumentException("Identifiant trop long pour la télémétrie (" + octets.length + " octets, max " + TAILLE_ID + ") : " + id);
+            }
+            tampon.put(octets);
+        }
+        while (tampon.position() < debut + TAILLE_ID) {
+            tampon.put((byte) 0);
+        }
+        tampon.putInt(x);
+        tampon.putInt(y);
+        tampon.putShort((short) energie);
+        tampon.putShort((short) indicateurs);
+        tampon.putInt(heures);
+        tampon.putDouble(carbone);
+    }
+
+    private static boolean ecrireIdAscii(ByteBuffer tampon, String id) {
+        int longueur = id.length();
+        if (longueur > TAILLE_ID) {
+            return false;
+        }
+        for (int i = 0; i < longueur; i++) {
+            char c = id.charAt(i);
+            if (c >= 0x80) {
+                return false;
+            }
+            tampon.put((byte) c);
+        }
+        return true;
+    }
+
+    /**
+     * Lit une trame à la position courante du tampon dans cette instance.
+     */
+    void lire(ByteBuffer tampon, long horodatageLot) {
+        tampon.get(id);
+        longueurId = TAILLE_ID;
+        while (longueurId > 0 && id[longueurId - 1] == 0) {
+            longueurId--;
+        }
+        x = tampon.getInt();
+        y = tampon.getInt();
+        energie = tampon.getShort();
+        indicateurs = tampon.getShort();
+        heuresUtilisation = tampon.getInt();
+        carboneEmis = tampon.getDouble();
+        this.horodatageLot = horodatageLot;
+    }
+
+    /**
+     * Décode l'identifiant. Alloue une chaîne : pour comparer sans allocation, préférer {@link #idEgal(String)}.
+     * @return L'identifiant du robot.
+     */
+    public String getId() {
+        return new String(id, 0, longueurId, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compare l'identifiant de la trame à un identifiant ASCII, sans allocation.
+     * @param autre L'identifiant à comparer.
+     * @return true si les identifiants sont égaux.
+     */
+    public boolean idEgal(String autre) {
+        if (autre.length() != longueurId) {
+            return autre.equals(getId());
+        }
+        for (int i = 0; i < longueurId; i++) {
+            if (autre.charAt(i) != id[i]) {
+                return autre.equals(getId());
+            }
+        }
+        return true;
+    }
+
+    public boolean isEnMarche() {
+        return (indicateurs & EN_MARCHE) != 0;
+    }
+
+    public boolean isConnecte() {
+        return (indicateurs & CONNECTE) != 0;
+    }
+
+    public boolean isEnLivraison() {
+        return (indicateurs & EN_LIVRAISON) != 0;
+    }
+
+    public boolean isMaintenanceRequise() {
+        return (indicateurs & MAINTENANCE_REQUISE) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Trame [ID: %s, Position: (%d,%d), Énergie: %d%%, Heures: %d, Indicateurs: %d, CO2: %.2fg]",
+                getId(), x, y, energie, heuresUtilisation, indicateurs, carboneEmis);
+    }
+
+    // Getters
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getEnergie() {
+        return energie;
+    }
+
+    public int getIndicateurs() {
+        return indicateurs;
+    }
+
+    public int getHeuresUtilisation() {
+        return heuresUtilisation;
+    }
+
+    public double getCarboneEmis() {
+        return carboneEmis;
+    }
+
+    public long getHorodatageLot() {
+        return horodatageLot;
+    }
+}
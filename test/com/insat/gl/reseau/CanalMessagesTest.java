@@ -0,0 +1,115 @@
+package com.insat.gl.reseau;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.insat.gl.robot.exceptions.ReseauSatureException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class CanalMessagesTest {
+
+    @Test
+    void rejeterAbandonneLeMessageEnTrop() throws ReseauSatureException {
+        CanalMessages canal = new CanalMessages("wifi", 2, PolitiqueSaturation.REJETER);
+
+        assertTrue(canal.publier(message("m1")));
+        assertTrue(canal.publier(message("m2")));
+        assertFalse(canal.publier(message("m3")));
+
+        MetriquesCanal metriques = canal.getMetriques();
+        assertEquals(2, metriques.getPublies());
+        assertEquals(1, metriques.getRejetes());
+        assertEquals(2, canal.getProfondeur());
+    }
+
+    @Test
+    void signalerLeveUneException() throws ReseauSatureException {
+        CanalMessages canal = new CanalMessages("wifi", 2, PolitiqueSaturation.SIGNALER);
+        canal.publier(message("m1"));
+        canal.publier(message("m2"));
+
+        assertThrows(ReseauSatureException.class, () -> canal.publier(message("m3")));
+        assertEquals(1, canal.getMetriques().getRejetes());
+    }
+
+    @Test
+    void bloquerAttendQuUnePlaceSeLibere() throws Exception {
+        CanalMessages canal = new CanalMessages("wifi", 2, PolitiqueSaturation.BLOQUER, 5_000);
+        List<String> recus = new ArrayList<>();
+        canal.abonner(m -> recus.add(m.getContenu()));
+        canal.publier(message("m1"));
+        canal.publier(message("m2"));
+
+        CompletableFuture<Boolean> publication = CompletableFuture.supplyAsync(() -> {
+            try {
+                return canal.publier(message("m3"));
+            } catch (ReseauSatureException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long echeance = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (canal.getMetriques().getAttentes() == 0 && System.nanoTime() < echeance) {
+            Thread.yield();
+        }
+        assertEquals(1, canal.getMetriques().getAttentes());
+        assertEquals(1, canal.distribuer(1));
+
+        assertTrue(publication.get(5, TimeUnit.SECONDS));
+        assertEquals(2, canal.distribuer(10));
+        assertEquals(List.of("m1", "m2", "m3"), recus);
+        assertEquals(0, canal.getMetriques().getRejetes());
+    }
+
+    @Test
+    void bloquerAbandonneApresLeDelai() throws ReseauSatureException {
+        CanalMessages canal = new CanalMessages("wifi", 2, PolitiqueSaturation.BLOQUER, 20);
+        canal.publier(message("m1"));
+        canal.publier(message("m2"));
+
+        long debut = System.nanoTime();
+        assertThrows(ReseauSatureException.class, () -> canal.publier(message("m3")));
+
+        assertTrue(System.nanoTime() - debut >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(1, canal.getMetriques().getRejetes());
+        assertEquals(1, canal.getMetriques().getAttentes());
+    }
+
+    @Test
+    void fileConserveLOrdreEtArrondiLaCapacite() {
+        FileMPSC<Integer> file = new FileMPSC<>(3);
+        assertEquals(4, file.getCapacite());
+        for (int tour = 0; tour < 3; tour++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(file.offrir(i));
+            }
+            assertFalse(file.offrir(99));
+            for (int i = 0; i < 4; i++) {
+                assertEquals(i, file.extraire());
+            }
+            assertEquals(null, file.extraire());
+        }
+    }
+
+    @Test
+    void fileDUneCaseNEcrasePasSonElement() {
+        FileMPSC<String> file = new FileMPSC<>(1);
+        assertEquals(2, file.getCapacite());
+        assertTrue(file.offrir("a"));
+        assertTrue(file.offrir("b"));
+        assertFalse(file.offrir("c"));
+
+        assertEquals("a", file.extraire());
+        assertEquals("b", file.extraire());
+        assertEquals(null, file.extraire());
+    }
+
+    private static Message message(String contenu) {
+        return new Message("R1", "wifi", contenu, System.nanoTime());
+    }
+}
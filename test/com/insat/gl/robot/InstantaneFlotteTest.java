@@ -0,0 +1,95 @@
+package com.insat.gl.robot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.insat.gl.robot.exceptions.RobotException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InstantaneFlotteTest {
+
+    @TempDir
+    Path dossier;
+
+    @Test
+    void allerRetourConserveEtatEtTournee() throws IOException, RobotException {
+        RobotLivraison enTournee = new RobotLivraison("R1", 0, 0);
+        enTournee.demarrer();
+        enTournee.setCapacite(3);
+        enTournee.chargerTournee(List.of(
+                new ArretLivraison("C1", "Zone A", 10, 0),
+                new ArretLivraison("C2", null, 20, 0),
+                new ArretLivraison("C3", "Zone A", 30, 0)));
+        RobotLivraison auRepos = new RobotLivraison("R2", 5, 7);
+        Path fichier = dossier.resolve("flotte.bin");
+
+        InstantaneFlotte.enregistrer(List.of(enTournee, auRepos), fichier);
+        InstantaneFlotte instantane = InstantaneFlotte.ouvrir(fichier);
+
+        assertEquals(2, instantane.taille());
+        assertEquals("R2", instantane.getId(1));
+        assertEquals(5, instantane.getX(1));
+        assertEquals(7, instantane.getY(1));
+        assertTrue(instantane.getArretsRestants(1).isEmpty());
+
+        RobotLivraison restaure = instantane.robot(0);
+        assertEquals(enTournee.getEnergie(), restaure.getEnergie());
+        assertEquals(enTournee.getColisActuel(), restaure.getColisActuel());
+        assertTrue(restaure.isEnMarche());
+        assertTrue(restaure.isEnLivraison());
+        List<ArretLivraison> arrets = restaure.getArretsRestants();
+        assertEquals(3, arrets.size());
+        for (int i = 0; i < arrets.size(); i++) {
+            ArretLivraison attendu = enTournee.getArretsRestants().get(i);
+            assertEquals(attendu.getColis(), arrets.get(i).getColis());
+            assertEquals(attendu.getDestination(), arrets.get(i).getDestination());
+            assertEquals(attendu.getX(), arrets.get(i).getX());
+            assertEquals(attendu.getY(), arrets.get(i).getY());
+        }
+        assertNull(arrets.get(1).getDestination());
+        assertFalse(instantane.robot(1).isEnLivraison());
+    }
+
+    @Test
+    void restaurerIgnoreLesIdentifiantsDejaPresents() throws IOException {
+        Path fichier = dossier.resolve("flotte.bin");
+        InstantaneFlotte.enregistrer(List.of(new RobotLivraison("R1", 0, 0), new RobotLivraison("R2", 1, 1)), fichier);
+        RobotFleet flotte = new RobotFleet();
+        flotte.ajouter(new RobotLivraison("R1", 9, 9));
+
+        assertEquals(1, InstantaneFlotte.ouvrir(fichier).restaurer(flotte));
+        assertEquals(9, flotte.get("R1").getX());
+        assertEquals(1, flotte.get("R2").getX());
+    }
+
+    @Test
+    void fichierEtrangerEstRefuse() throws IOException {
+        Path fichier = dossier.resolve("autre.bin");
+        Files.write(fichier, new byte[64]);
+
+        assertThrows(StreamCorruptedException.class, () -> InstantaneFlotte.ouvrir(fichier));
+    }
+
+    @Test
+    void longueurDeTexteCorrompueEstSignalee() throws IOException {
+        Path fichier = dossier.resolve("flotte.bin");
+        InstantaneFlotte.enregistrer(List.of(new RobotLivraison("R1", 0, 0)), fichier);
+        byte[] octets = Files.readAllBytes(fichier);
+        ByteBuffer tampon = ByteBuffer.wrap(octets);
+        tampon.putInt((int) tampon.getLong(16), -5);
+        Files.write(fichier, octets);
+
+        InstantaneFlotte instantane = InstantaneFlotte.ouvrir(fichier);
+        assertThrows(IllegalStateException.class, () -> instantane.getId(0));
+    }
+}
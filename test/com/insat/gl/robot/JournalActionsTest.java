@@ -0,0 +1,217 @@
+package com.insat.gl.robot;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.insat.gl.robot.exceptions.RobotException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class JournalActionsTest {
+
+    @TempDir
+    Path dossier;
+
+    @ParameterizedTest
+    @EnumSource(PolitiqueSynchronisation.class)
+    void rejeuReconstruitLeDernierEtat(PolitiqueSynchronisation politique) throws IOException, RobotException {
+        JournalActions journal = new JournalActions(dossier, politique, JournalActions.TAILLE_SEGMENT_PAR_DEFAUT, 10);
+        RobotLivraison robot = new RobotLivraison("R1", 0, 0);
+        journal.suivre(robot);
+        robot.demarrer();
+        robot.deplacer(30, 40);
+        robot.recharger(50);
+        journal.fermer();
+
+        RejeuJournal rejeu = RejeuJournal.lire(dossier);
+
+        assertEquals(3, rejeu.getNombreEnregistrements());
+        assertEquals(0, rejeu.getSegmentsTronques());
+        RobotLivraison restaure = seulRobot(rejeu);
+        assertEquals("R1", restaure.getId());
+        assertEquals(30, restaure.getX());
+        assertEquals(40, restaure.getY());
+        assertEquals(robot.getEnergie(), restaure.getEnergie());
+        assertEquals(robot.getHeuresUtilisation(), restaure.getHeuresUtilisation());
+        assertTrue(restaure.isEnMarche());
+    }
+
+    @Test
+    void rejeuRestaureLesArretsRestants() throws IOException, RobotException {
+        JournalActions journal = new JournalActions(dossier);
+        RobotLivraison robot = new RobotLivraison("R1", 0, 0);
+        robot.setCapacite(3);
+        journal.suivre(robot);
+        robot.demarrer();
+        robot.chargerTournee(List.of(
+                new ArretLivraison("C1", "Zone A", 10, 0),
+                new ArretLivraison("C2", null, 20, 0),
+                new ArretLivraison("C3", "Zone C", 30, 0)));
+        robot.deplacer(10, 0);
+        robot.faireLivraison(10, 0);
+        journal.fermer();
+
+        RobotLivraison restaure = seulRobot(RejeuJournal.lire(dossier));
+
+        List<ArretLivraison> attendus = robot.getArretsRestants();
+        List<ArretLivraison> arrets = restaure.getArretsRestants();
+        assertEquals(2, arrets.size());
+        for (int i = 0; i < arrets.size(); i++) {
+            assertEquals(attendus.get(i).getColis(), arrets.get(i).getColis());
+            assertEquals(attendus.get(i).getDestination(), arrets.get(i).getDestination());
+            assertEquals(attendus.get(i).getX(), arrets.get(i).getX());
+        }
+        assertEquals(robot.getColisActuel(), restaure.getColisActuel());
+        assertTrue(restaure.isEnLivraison());
+    }
+
+    @Test
+    void segmentsSontRenouvelesEtRelusDansLOrdre() throws IOException, RobotException {
+        JournalActions journal = new JournalActions(dossier, PolitiqueSynchronisation.SYNCHRONE, 256, 0);
+        RobotLivraison robot = new RobotLivraison("R1", 0, 0);
+        journal.suivre(robot);
+        robot.demarrer();
+        for (int i = 1; i <= 10; i++) {
+            robot.deplacer(i, 0);
+        }
+        journal.fermer();
+        // Un nouveau journal sur le même dossier reprend dans un nouveau segment
+        JournalActions reprise = new JournalActions(dossier, PolitiqueSynchronisation.SYNCHRONE, 256, 0);
+        reprise.suivre(robot);
+        robot.deplacer(20, 0);
+        reprise.fermer();
+
+        RejeuJournal rejeu = RejeuJournal.lire(dossier);
+
+        assertTrue(rejeu.getNombreSegments() > 2, "Segments : " + rejeu.getNombreSegments());
+        assertEquals(12, rejeu.getNombreEnregistrements());
+        assertEquals(20, seulRobot(rejeu).getX());
+    }
+
+    @Test
+    void finDeSegmentIncompleteEstIgnoree() throws IOException, RobotException {
+        ecrireDeuxDeplacements();
+        Path segment = JournalActions.listerSegments(dossier).get(0);
+        ByteBuffer debutEnregistrement = ByteBuffer.allocate(12).putInt(100).putInt(0).putInt(42);
+        Files.write(segment, debutEnregistrement.array(), StandardOpenOption.APPEND);
+
+        RejeuJournal rejeu = RejeuJournal.lire(dossier);
+
+        assertEquals(3, rejeu.getNombreEnregistrements());
+        assertEquals(1, rejeu.getSegmentsTronques());
+        assertEquals(20, seulRobot(rejeu).getX());
+    }
+
+    @Test
+    void enregistrementAuCrcInvalideTermineLeSegment() throws IOException, RobotException {
+        ecrireDeuxDeplacements();
+        Path segment = JournalActions.listerSegments(dossier).get(0);
+        byte[] octets = Files.readAllBytes(segment);
+        octets[octets.length - 1] ^= 0x5A;
+        Files.write(segment, octets);
+
+        RejeuJournal rejeu = RejeuJournal.lire(dossier);
+
+        assertEquals(2, rejeu.getNombreEnregistrements());
+        assertEquals(1, rejeu.getSegmentsTronques());
+        assertEquals(10, seulRobot(rejeu).getX());
+    }
+
+    @Test
+    void enregistrementSansTourneeResteLisible() throws IOException {
+        Files.write(dossier.resolve("journal-00000001.wal"), ancienEnregistrement(7, "R1", 12, 34, 80, "C9", "Zone Z"));
+
+        RejeuJournal rejeu = RejeuJournal.lire(dossier);
+
+        assertEquals(1, rejeu.getNombreEnregistrements());
+        assertEquals(0, rejeu.getSegmentsTronques());
+        assertEquals(7, rejeu.getDerniereSequence());
+        RobotLivraison restaure = seulRobot(rejeu);
+        assertEquals(12, restaure.getX());
+        assertEquals(34, restaure.getY());
+        assertEquals(80, restaure.getEnergie());
+        assertEquals("C9", restaure.getColisActuel());
+        assertTrue(restaure.getArretsRestants().isEmpty());
+    }
+
+    @Test
+    void journalFermeNInterromptPasLesRobots() throws IOException, RobotException {
+        JournalActions journal = new JournalActions(dossier);
+        RobotLivraison robot = new RobotLivraison("R1", 0, 0);
+        journal.suivre(robot);
+        robot.demarrer();
+        journal.fermer();
+
+        assertDoesNotThrow(() -> robot.deplacer(10, 0));
+        journal.evenementAjoute(robot, TypeEvenement.DEPLACEMENT);
+
+        assertTrue(journal.isFerme());
+        assertNull(journal.getErreur());
+        assertEquals(1, journal.getNombreEnregistrementsPerdus());
+        assertThrows(UncheckedIOException.class, () -> journal.enregistrer(robot, TypeEvenement.DEPLACEMENT));
+        assertEquals(1, RejeuJournal.lire(dossier).getNombreEnregistrements());
+    }
+
+    private void ecrireDeuxDeplacements() throws IOException, RobotException {
+        JournalActions journal = new JournalActions(dossier, PolitiqueSynchronisation.SYNCHRONE, JournalActions.TAILLE_SEGMENT_PAR_DEFAUT, 0);
+        RobotLivraison robot = new RobotLivraison("R1", 0, 0);
+        journal.suivre(robot);
+        robot.demarrer();
+        robot.deplacer(10, 0);
+        robot.deplacer(20, 0);
+        journal.fermer();
+    }
+
+    private static RobotLivraison seulRobot(RejeuJournal rejeu) {
+        List<RobotLivraison> robots = rejeu.reconstruire();
+        assertEquals(1, robots.size());
+        assertFalse(robots.get(0).getId().isEmpty());
+        return robots.get(0);
+    }
+
+    /**
+     * Enregistrement au format antérieur à la journalisation des tournées : la charge s'arrête au réseau.
+     */
+    private static byte[] ancienEnregistrement(long sequence, String id, int x, int y, int energie, String colis, String destination) {
+        ByteBuffer charge = ByteBuffer.allocate(256);
+        charge.putLong(sequence);
+        charge.putLong(0L);
+        charge.putInt(TypeEvenement.CHARGEMENT.ordinal());
+        charge.putInt(x);
+        charge.putInt(y);
+        charge.putInt(energie);
+        charge.putInt(3);
+        charge.putDouble(1.5);
+        charge.putInt(JournalActions.EN_MARCHE | JournalActions.EN_LIVRAISON);
+        charge.putInt(1);
+        for (String texte : new String[] {id, colis, destination, null}) {
+            if (texte == null) {
+                charge.putInt(-1);
+            } else {
+                byte[] octets = texte.getBytes(StandardCharsets.UTF_8);
+                charge.putInt(octets.length).put(octets);
+            }
+        }
+        charge.flip();
+        CRC32 crc = new CRC32();
+        crc.update(charge.duplicate());
+        ByteBuffer enregistrement = ByteBuffer.allocate(8 + charge.remaining());
+        enregistrement.putInt(charge.remaining()).putInt((int) crc.getValue()).put(charge);
+        return enregistrement.array();
+    }
+}
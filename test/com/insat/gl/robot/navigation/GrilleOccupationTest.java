@@ -0,0 +1,42 @@
+package com.insat.gl.robot.navigation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class GrilleOccupationTest {
+
+    @Test
+    void obstacleHorsDeLaGrilleEstIgnore() {
+        GrilleOccupation grille = new GrilleOccupation(10, 10, 5);
+        long version = grille.getVersion();
+
+        grille.ajouterObstacle(-40, 0, -10, 20);
+        grille.ajouterObstacle(60, 0, 90, 20);
+        grille.ajouterObstacle(0, -40, 20, -10);
+        grille.ajouterObstacle(0, 60, 20, 90);
+
+        assertEquals(version, grille.getVersion());
+        for (int cx = 0; cx < 10; cx++) {
+            for (int cy = 0; cy < 10; cy++) {
+                assertTrue(grille.estLibre(cx, cy));
+            }
+        }
+    }
+
+    @Test
+    void obstacleAChevalEstTronqueAuBord() {
+        GrilleOccupation grille = new GrilleOccupation(10, 10, 5);
+        long version = grille.getVersion();
+
+        grille.ajouterObstacle(-20, 0, 7, 4);
+
+        assertEquals(version + 1, grille.getVersion());
+        assertFalse(grille.estLibre(0, 0));
+        assertFalse(grille.estLibre(1, 0));
+        assertTrue(grille.estLibre(2, 0));
+        assertTrue(grille.estLibre(0, 1));
+    }
+}
@@ -0,0 +1,52 @@
+package com.insat.gl.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.insat.gl.robot.RobotFleet;
+import com.insat.gl.robot.RobotLivraison;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class MoteurSimulationTest {
+
+    @ParameterizedTest
+    @EnumSource(GenerateurCharge.Distribution.class)
+    void chargeGenereeEstEntierementLivree(GenerateurCharge.Distribution distribution) {
+        GenerateurCharge generateur = new GenerateurCharge(42);
+        generateur.setDimensions(1000, 1000);
+        generateur.setDistribution(distribution);
+        generateur.setTauxArrivee(100);
+        RobotFleet flotte = generateur.genererFlotte(200);
+        MoteurSimulation moteur = new MoteurSimulation(flotte);
+        moteur.planifier(generateur.genererOrdres(2000));
+
+        RapportSimulation rapport = moteur.executerJusquaEpuisement(10_000);
+
+        assertTrue(moteur.estTermine(), "Simulation inachevée après " + moteur.getTick() + " ticks.");
+        assertEquals(2000, moteur.getLivraisonsTotales());
+        assertTrue(rapport.getTicks() < 10_000);
+    }
+
+    @Test
+    void ordreImposeAUnRobotAbsentEstAbandonne() {
+        RobotFleet flotte = new RobotFleet();
+        flotte.ajouter(new RobotLivraison("R1", 0, 0));
+        flotte.ajouter(new RobotLivraison("R2", 50, 50));
+        MoteurSimulation moteur = new MoteurSimulation(flotte);
+        moteur.planifier(new OrdreLivraison("C1", "Zone A", 20, 0, 0, "INCONNU"));
+        moteur.planifier(new OrdreLivraison("C2", "Zone B", 30, 0, 0, "R1"));
+        moteur.planifier(new OrdreLivraison("C3", "Zone B", 40, 0, 0, "R1"));
+        moteur.planifier(new OrdreLivraison("C4", "Zone C", 60, 60, 5, "R2"));
+
+        moteur.avancer();
+        assertEquals(1, moteur.getNombreOrdresEnAttente());
+        flotte.retirer("R1");
+        moteur.executerJusquaEpuisement(1_000);
+
+        assertTrue(moteur.estTermine());
+        assertEquals(1, moteur.getLivraisonsTotales());
+        assertEquals(2, moteur.getOrdresAbandonnes());
+    }
+}
@@ -0,0 +1,114 @@
+package com.insat.gl.telemetrie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.insat.gl.robot.RobotLivraison;
+import com.insat.gl.robot.exceptions.RobotException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TelemetrieTest {
+
+    @TempDir
+    Path dossier;
+
+    @Test
+    void allerRetourSurPlusieursLotsEtLecturesPartielles() throws IOException, RobotException {
+        List<RobotLivraison> robots = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            RobotLivraison robot = new RobotLivraison(i == 7 ? "Robot-é" : "R" + i, i, 2 * i);
+            if (i % 3 == 0) {
+                robot.demarrer();
+                robot.deplacer(i + 5, 2 * i);
+            }
+            robots.add(robot);
+        }
+        byte[] flux = encoder(robots, new EncodeurTelemetrie(4, 3));
+
+        List<String> lus = new ArrayList<>();
+        long trames = new DecodeurTelemetrie(TrameTelemetrie.TAILLE).lire(parMorceaux(flux, 7), trame -> {
+            RobotLivraison attendu = robots.get(lus.size());
+            assertTrue(trame.idEgal(attendu.getId()));
+            assertEquals(attendu.getX(), trame.getX());
+            assertEquals(attendu.getY(), trame.getY());
+            assertEquals(attendu.getEnergie(), trame.getEnergie());
+            assertEquals(attendu.getHeuresUtilisation(), trame.getHeuresUtilisation());
+            assertEquals(attendu.getTotalCarbonEmitted(), trame.getCarboneEmis());
+            assertEquals(attendu.isEnMarche(), trame.isEnMarche());
+            assertEquals(attendu.isEnLivraison(), trame.isEnLivraison());
+            lus.add(trame.getId());
+        });
+
+        assertEquals(50, trames);
+        assertEquals("Robot-é", lus.get(7));
+    }
+
+    @Test
+    void identifiantTropLongEstRefuse() {
+        RobotLivraison robot = new RobotLivraison("R".repeat(TrameTelemetrie.TAILLE_ID + 1), 0, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> encoder(List.of(robot), new EncodeurTelemetrie()));
+    }
+
+    @Test
+    void fluxTronqueEstSignale() throws IOException {
+        byte[] flux = encoder(List.of(new RobotLivraison("R1", 0, 0), new RobotLivraison("R2", 1, 1)), new EncodeurTelemetrie());
+        byte[] tronque = Arrays.copyOf(flux, flux.length - 5);
+
+        assertThrows(EOFException.class,
+                () -> new DecodeurTelemetrie().lire(Channels.newChannel(new ByteArrayInputStream(tronque)), trame -> { }));
+    }
+
+    @Test
+    void nombreDeTramesNegatifEstSignale() {
+        ByteBuffer entete = ByteBuffer.allocate(TrameTelemetrie.TAILLE_ENTETE);
+        entete.putInt(TrameTelemetrie.MARQUEUR).putShort(TrameTelemetrie.VERSION).putShort((short) 0).putInt(-3).putLong(0L);
+
+        assertThrows(StreamCorruptedException.class,
+                () -> new DecodeurTelemetrie().lire(Channels.newChannel(new ByteArrayInputStream(entete.array())), trame -> { }));
+    }
+
+    private byte[] encoder(List<RobotLivraison> robots, EncodeurTelemetrie encodeur) throws IOException {
+        Path fichier = dossier.resolve("telemetrie.bin");
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            assertEquals(robots.size(), encodeur.ecrire(robots, canal));
+        }
+        ByteArrayOutputStream contenu = new ByteArrayOutputStream();
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            canal.transferTo(0, canal.size(), Channels.newChannel(contenu));
+        }
+        assertEquals(encodeur.getOctetsEcrits(), contenu.size());
+        return contenu.toByteArray();
+    }
+
+    /**
+     * Canal qui ne rend jamais plus de {@code morceau} octets par lecture.
+     */
+    private static ReadableByteChannel parMorceaux(byte[] flux, int morceau) {
+        InputStream source = new ByteArrayInputStream(flux) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, morceau));
+            }
+        };
+        return Channels.newChannel(source);
+    }
+}